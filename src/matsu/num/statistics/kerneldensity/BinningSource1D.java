@@ -0,0 +1,176 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+/**
+ * ビニングの対象となる, (重み付きの場合を含む) 1次元ソースを表す.
+ * 
+ * <p>
+ * 重みを持たない場合, 各点の重みは1である. <br>
+ * 配列はコピーされずに保持されるため, 生成後に書き換えてはならない.
+ * </p>
+ * 
+ * <p>
+ * 値は, 配列 ({@link #values}) の代わりに
+ * バッファを連結した値の列 ({@link #chunks}) で保持される場合がある
+ * (重みを持たない場合に限る). <br>
+ * この場合, 値の個数は {@code int} の範囲を超えてもよい. <br>
+ * いずれの場合も, {@link #readValues(long, int, double[])} により値を配列に読み込むことができる.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class BinningSource1D {
+
+    /**
+     * 値. <br>
+     * 空でなく, NaN を含まない. <br>
+     * 値をバッファで保持する場合は null.
+     */
+    final double[] values;
+
+    /**
+     * 値を保持するバッファの列 (読み取り専用). <br>
+     * 空でなく, NaN を含まない. <br>
+     * 値を配列で保持する場合は null.
+     */
+    final ChunkedDoubles chunks;
+
+    /**
+     * 値の個数. <br>
+     * 値を配列で保持する場合は, 配列の長さに一致する.
+     */
+    final long size;
+
+    /**
+     * 重み. <br>
+     * 重みを持たない場合は null.
+     * それ以外の場合は, {@link #values} と同じ長さで, 0以上の有限値である.
+     */
+    final double[] weights;
+
+    /**
+     * 重みの総和. <br>
+     * 重みを持たない場合は, 値の個数に一致する.
+     */
+    final double totalWeight;
+
+    /**
+     * 値が昇順に並べられているかどうか.
+     */
+    final boolean sorted;
+
+    private BinningSource1D(double[] values, double[] weights, double totalWeight, boolean sorted) {
+        super();
+        this.values = values;
+        this.chunks = null;
+        this.size = values.length;
+        this.weights = weights;
+        this.totalWeight = totalWeight;
+        this.sorted = sorted;
+    }
+
+    /**
+     * 重みを持たないソースを返す.
+     * 
+     * @param values 値
+     * @param sorted 値が昇順かどうか
+     * @return ソース
+     */
+    static BinningSource1D of(double[] values, boolean sorted) {
+        assert values.length > 0;
+        assert !sorted || DoubleValueUtil.isSorted(values);
+        return new BinningSource1D(values, null, values.length, sorted);
+    }
+
+    /**
+     * 重み付きのソースを返す.
+     * 
+     * @param values 値
+     * @param weights 重み, 値と同じ長さで0以上の有限値, 総和は正の有限値
+     * @param sorted 値が昇順かどうか
+     * @return ソース
+     */
+    static BinningSource1D of(double[] values, double[] weights, boolean sorted) {
+        assert values.length > 0 && values.length == weights.length;
+        assert !sorted || DoubleValueUtil.isSorted(values);
+
+        double totalWeight = 0d;
+        for (double w : weights) {
+            totalWeight += w;
+        }
+        assert totalWeight > 0d && Double.isFinite(totalWeight);
+        return new BinningSource1D(values, weights, totalWeight, sorted);
+    }
+
+    private BinningSource1D(ChunkedDoubles chunks, boolean sorted) {
+        super();
+        this.values = null;
+        this.chunks = chunks;
+        this.size = chunks.size;
+        this.weights = null;
+        this.totalWeight = size;
+        this.sorted = sorted;
+    }
+
+    /**
+     * バッファの列で値を保持する, 重みを持たないソースを返す.
+     * 
+     * <p>
+     * バッファはコピーされずに保持されるため, 生成後に書き換えてはならない. <br>
+     * このソースへの読み込みは絶対位置で行うため, 複数のスレッドから同時に読み込んでよい.
+     * </p>
+     * 
+     * @param chunks 値, 空でなく NaN を含まない
+     * @param sorted 値が昇順かどうか
+     * @return ソース
+     */
+    static BinningSource1D of(ChunkedDoubles chunks, boolean sorted) {
+        assert chunks.size > 0;
+        return new BinningSource1D(chunks, sorted);
+    }
+
+    /**
+     * 昇順のソースのうち, 値が key 以上である最小の位置を返す. <br>
+     * 存在しない場合は値の個数を返す.
+     * 
+     * @param key 値
+     * @return key 以上である最小の位置
+     */
+    long lowerBound(double key) {
+        assert sorted;
+        return values != null
+                ? DoubleValueUtil.lowerBound(values, key)
+                : chunks.lowerBound(key);
+    }
+
+    /**
+     * [from, from + length) の値を, dst の先頭から読み込む.
+     * 
+     * @param from 開始位置
+     * @param length 個数
+     * @param dst 読み込み先
+     */
+    void readValues(long from, int length, double[] dst) {
+        if (values != null) {
+            System.arraycopy(values, (int) from, dst, 0, length);
+        } else {
+            chunks.read(from, length, dst, 0);
+        }
+    }
+
+    /**
+     * i 番目の点の重みを返す.
+     */
+    double weightAt(int i) {
+        return weights == null ? 1d : weights[i];
+    }
+}
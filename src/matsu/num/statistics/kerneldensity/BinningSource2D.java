@@ -0,0 +1,223 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Arrays;
+
+/**
+ * ビニングの対象となる, (重み付きの場合を含む) 2次元ソースを表す.
+ * 
+ * <p>
+ * 重みを持たない場合, 各点の重みは1である. <br>
+ * 配列はコピーされずに保持されるため, 生成後に書き換えてはならない.
+ * </p>
+ * 
+ * <p>
+ * 点の座標は, {@link Kde2DSourceDto} ({@link #points}) の代わりに
+ * バッファを連結した値の列 ({@link ChunkedDoubles}) で保持される場合がある
+ * (重みを持たない場合に限る). <br>
+ * 値の列は, (x, y) を交互に並べた1個の列か, x, y の列ごとの2個の列である
+ * (x について昇順に並べられるのは, 列ごとの場合に限る). <br>
+ * この場合, 点の個数は {@code int} の範囲を超えてもよい. <br>
+ * いずれの場合も, {@link #readPoints(long, int, double[], double[])} により座標を配列に読み込むことができる.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class BinningSource2D {
+
+    /**
+     * 点の座標. <br>
+     * NaN を含まない. <br>
+     * 座標をバッファで保持する場合は null.
+     */
+    final Kde2DSourceDto points;
+
+    /**
+     * 座標を保持する値の列 (読み取り専用). <br>
+     * (x, y) を交互に並べた列の場合は {@code chunksX == chunksY} である. <br>
+     * 座標を {@link #points} で保持する場合は null.
+     */
+    private final ChunkedDoubles chunksX, chunksY;
+
+    /**
+     * 点の個数.
+     */
+    final long size;
+
+    /**
+     * 重み. <br>
+     * 重みを持たない場合は null.
+     * それ以外の場合は, 長さは点の個数に一致し, 0以上の有限値である.
+     */
+    final double[] weights;
+
+    /**
+     * 重みの総和. <br>
+     * 重みを持たない場合は, 点の個数に一致する.
+     */
+    final double totalWeight;
+
+    /**
+     * 点が x について昇順に並べられているかどうか.
+     */
+    final boolean sortedByX;
+
+    private BinningSource2D(Kde2DSourceDto points, double[] weights, double totalWeight, boolean sortedByX) {
+        super();
+        this.points = points;
+        this.chunksX = null;
+        this.chunksY = null;
+        this.size = points.size;
+        this.weights = weights;
+        this.totalWeight = totalWeight;
+        this.sortedByX = sortedByX;
+    }
+
+    /**
+     * 重みを持たないソースを返す.
+     * 
+     * @param points 点
+     * @param sortedByX 点が x について昇順かどうか
+     * @return ソース
+     */
+    static BinningSource2D of(Kde2DSourceDto points, boolean sortedByX) {
+        assert !sortedByX || DoubleValueUtil.isSorted(Arrays.copyOf(points.x, points.size));
+        return new BinningSource2D(points, null, points.size, sortedByX);
+    }
+
+    /**
+     * 重み付きのソースを返す.
+     * 
+     * @param points 点
+     * @param weights 重み, 長さは点の個数に一致し0以上の有限値, 総和は正の有限値
+     * @param sortedByX 点が x について昇順かどうか
+     * @return ソース
+     */
+    static BinningSource2D of(Kde2DSourceDto points, double[] weights, boolean sortedByX) {
+        assert points.size == weights.length;
+        assert !sortedByX || DoubleValueUtil.isSorted(Arrays.copyOf(points.x, points.size));
+
+        double totalWeight = 0d;
+        for (double w : weights) {
+            totalWeight += w;
+        }
+        assert totalWeight > 0d && Double.isFinite(totalWeight);
+        return new BinningSource2D(points, weights, totalWeight, sortedByX);
+    }
+
+    private BinningSource2D(ChunkedDoubles chunksX, ChunkedDoubles chunksY, long size, boolean sortedByX) {
+        super();
+        this.points = null;
+        this.chunksX = chunksX;
+        this.chunksY = chunksY;
+        this.size = size;
+        this.weights = null;
+        this.totalWeight = size;
+        this.sortedByX = sortedByX;
+    }
+
+    /**
+     * (x, y) を交互に並べた値の列で座標を保持する, 重みを持たないソースを返す.
+     * 
+     * <p>
+     * バッファはコピーされずに保持されるため, 生成後に書き換えてはならない. <br>
+     * このソースへの読み込みは絶対位置で行うため, 複数のスレッドから同時に読み込んでよい.
+     * </p>
+     * 
+     * @param interleaved 座標, 長さは正の偶数で NaN を含まない
+     * @return ソース
+     */
+    static BinningSource2D of(ChunkedDoubles interleaved) {
+        assert interleaved.size > 0 && interleaved.size % 2 == 0;
+        return new BinningSource2D(interleaved, interleaved, interleaved.size / 2, false);
+    }
+
+    /**
+     * x, y の列ごとの値の列で座標を保持する, 重みを持たないソースを返す.
+     * 
+     * <p>
+     * バッファはコピーされずに保持されるため, 生成後に書き換えてはならない. <br>
+     * このソースへの読み込みは絶対位置で行うため, 複数のスレッドから同時に読み込んでよい.
+     * </p>
+     * 
+     * @param x x 座標, 空でなく NaN を含まない
+     * @param y y 座標, x と同じ長さで NaN を含まない
+     * @param sortedByX 点が x について昇順かどうか
+     * @return ソース
+     */
+    static BinningSource2D of(ChunkedDoubles x, ChunkedDoubles y, boolean sortedByX) {
+        assert x.size > 0 && x.size == y.size && x != y;
+        return new BinningSource2D(x, y, x.size, sortedByX);
+    }
+
+    /**
+     * x について昇順のソースのうち, x が key 以上である最小の位置を返す. <br>
+     * 存在しない場合は点の個数を返す.
+     * 
+     * @param key 値
+     * @return x が key 以上である最小の位置
+     */
+    long lowerBoundX(double key) {
+        assert sortedByX;
+        if (chunksX != null) {
+            return chunksX.lowerBound(key);
+        }
+        int low = 0;
+        int high = points.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (points.x[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * [from, from + length) の点の座標を, xs, ys の先頭から読み込む.
+     * 
+     * @param from 開始位置
+     * @param length 個数
+     * @param xs x 座標の読み込み先
+     * @param ys y 座標の読み込み先
+     */
+    void readPoints(long from, int length, double[] xs, double[] ys) {
+        if (points != null) {
+            System.arraycopy(points.x, (int) from, xs, 0, length);
+            System.arraycopy(points.y, (int) from, ys, 0, length);
+            return;
+        }
+        if (chunksX != chunksY) {
+            chunksX.read(from, length, xs, 0);
+            chunksY.read(from, length, ys, 0);
+            return;
+        }
+
+        // 交互に並んだ座標をまとめて読み込み, 振り分ける
+        double[] interleaved = DoubleArrayWorkspace.borrow(2 * length);
+        chunksX.read(2 * from, 2 * length, interleaved, 0);
+        for (int i = 0; i < length; i++) {
+            xs[i] = interleaved[2 * i];
+            ys[i] = interleaved[2 * i + 1];
+        }
+        DoubleArrayWorkspace.release(interleaved);
+    }
+
+    /**
+     * i 番目の点の重みを返す.
+     */
+    double weightAt(int i) {
+        return weights == null ? 1d : weights[i];
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+/**
+ * 等幅ヒストグラムによる1次元ソースを表す.
+ * 
+ * <p>
+ * ビンの内部では, 度数が一様に分布しているとみなす. <br>
+ * ビニングの際は, ビンを空間分解能程度の幅の小区間に等分し,
+ * 度数を等分した重みを小区間の中心に置いた重み付きソースとして扱う
+ * ({@link #subdivide(double)}). <br>
+ * 線形ビニングは重みの総和を保存するため, この再配分も度数の総和を保存する.
+ * </p>
+ * 
+ * <p>
+ * 標準偏差は, ビンの中心に度数を置いた重み付き標準偏差に,
+ * Sheppard の補正 (分散から <i>h</i><sup>2</sup>/12 を引く, <i>h</i> はビンの幅) を施したものとする.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class BucketedSource1D {
+
+    /**
+     * ビンを等分する個数の最大値.
+     */
+    static final int MAX_SUBDIVISION = 16;
+
+    private final double start;
+    private final double width;
+    private final double[] counts;
+
+    /**
+     * 度数の総和.
+     */
+    final double totalCount;
+
+    /**
+     * 度数が正のビンの, 最小の開始位置と最大の終了位置.
+     */
+    final SupportWindow support;
+
+    /**
+     * 与えたヒストグラムから構築する. <br>
+     * ヒストグラムは, {@link KernelDensity1D.Factory#validateSource(Kde1DHistogramDto)}
+     * の条件を満たしていなければならない. <br>
+     * 度数の配列はコピーされずに保持される.
+     * 
+     * @param histogram ヒストグラム
+     */
+    BucketedSource1D(Kde1DHistogramDto histogram) {
+        super();
+        this.start = histogram.start;
+        this.width = histogram.width;
+        this.counts = histogram.counts;
+
+        double total = 0d;
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0d) {
+                total += counts[i];
+                first = first < 0 ? i : first;
+                last = i;
+            }
+        }
+        assert total > 0d;
+        this.totalCount = total;
+        this.support = new SupportWindow(new double[] { edge(first), edge(last + 1) });
+    }
+
+    /**
+     * i 番目のビンの開始位置 (i = 個数の場合は終端) を返す.
+     */
+    private double edge(int i) {
+        return start + i * width;
+    }
+
+    /**
+     * Sheppard の補正を施した, 標準偏差を返す.
+     * 
+     * @return 標準偏差
+     */
+    double std() {
+        double[] centers = new double[counts.length];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = start + (i + 0.5d) * width;
+        }
+        return sheppardCorrected(MomentAccumulator.of(centers, counts).std(), width);
+    }
+
+    /**
+     * このソースのヒストグラムを, 度数をコピーして返す.
+     * 
+     * @return ヒストグラム
+     */
+    Kde1DHistogramDto toDto() {
+        Kde1DHistogramDto out = new Kde1DHistogramDto(start, width, counts.length);
+        System.arraycopy(counts, 0, out.counts, 0, counts.length);
+        return out;
+    }
+
+    /**
+     * 空間分解能に応じてビンを等分し, 小区間の中心に度数を等分した重みを置いたソースを返す.
+     * 
+     * <p>
+     * 等分の個数は, 小区間の幅が空間分解能以下になる最小の個数
+     * (ただし, {@link #MAX_SUBDIVISION} 以下) である. <br>
+     * 度数が0のビンは含まない.
+     * </p>
+     * 
+     * @param resolution 空間分解能
+     * @return 昇順の重み付きソース
+     */
+    BinningSource1D subdivide(double resolution) {
+        final int m = subdivisionCount(width, resolution, MAX_SUBDIVISION);
+
+        int occupied = 0;
+        for (double c : counts) {
+            if (c > 0d) {
+                occupied++;
+            }
+        }
+
+        double[] values = new double[occupied * m];
+        double[] weights = new double[occupied * m];
+        int position = 0;
+        for (int i = 0; i < counts.length; i++) {
+            double c = counts[i];
+            if (!(c > 0d)) {
+                continue;
+            }
+            for (int s = 0; s < m; s++) {
+                values[position] = start + (i + (s + 0.5d) / m) * width;
+                weights[position] = c / m;
+                position++;
+            }
+        }
+        return BinningSource1D.of(values, weights, true);
+    }
+
+    /**
+     * 幅 width のビンを, 小区間の幅が resolution 以下になるように等分する個数を返す
+     * (1以上 max 以下).
+     */
+    static int subdivisionCount(double width, double resolution, int max) {
+        double m = Math.ceil(width / resolution);
+        return m >= max ? max : Math.max(1, (int) m);
+    }
+
+    /**
+     * 標準偏差に, ビンの幅 width に対する Sheppard の補正を施す. <br>
+     * 補正後の分散が負になる場合は0とする.
+     */
+    static double sheppardCorrected(double std, double width) {
+        if (!(std > 0d)) {
+            return std;
+        }
+        double ratio = width / std;
+        return std * Math.sqrt(Math.max(1d - ratio * ratio / 12d, 0d));
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+/**
+ * 等幅ヒストグラムによる2次元ソースを表す.
+ * 
+ * <p>
+ * ビンの内部では, 度数が一様に分布しているとみなす. <br>
+ * ビニングの際は, ビンを各軸について空間分解能程度の幅に等分し,
+ * 度数を等分した重みを小矩形の中心に置いた重み付きソースとして扱う
+ * ({@link #subdivide(double, double)}). <br>
+ * 各軸の標準偏差は, 周辺ヒストグラムから {@link BucketedSource1D} と同様に
+ * (Sheppard の補正を施して) 計算する.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class BucketedSource2D {
+
+    /**
+     * ビンを各軸について等分する個数の最大値.
+     */
+    static final int MAX_SUBDIVISION = 4;
+
+    private final Kde2DHistogramDto histogram;
+
+    /**
+     * 度数の総和.
+     */
+    final double totalCount;
+
+    /**
+     * 度数が正のビンの, 各軸の範囲.
+     */
+    final SupportWindow supportX;
+    final SupportWindow supportY;
+
+    /**
+     * 周辺ヒストグラムの度数.
+     */
+    private final double[] marginalX;
+    private final double[] marginalY;
+
+    /**
+     * 与えたヒストグラムから構築する. <br>
+     * ヒストグラムは, {@link KernelDensity2D.Factory#validateSource(Kde2DHistogramDto)}
+     * の条件を満たしていなければならない. <br>
+     * ヒストグラムはコピーされずに保持される.
+     * 
+     * @param histogram ヒストグラム
+     */
+    BucketedSource2D(Kde2DHistogramDto histogram) {
+        super();
+        this.histogram = histogram;
+
+        final int sizeX = histogram.sizeX;
+        final int sizeY = histogram.sizeY;
+        final double[] counts = histogram.counts;
+        this.marginalX = new double[sizeX];
+        this.marginalY = new double[sizeY];
+        double total = 0d;
+        for (int j = 0; j < sizeX; j++) {
+            for (int k = 0; k < sizeY; k++) {
+                double c = counts[j * sizeY + k];
+                if (c > 0d) {
+                    marginalX[j] += c;
+                    marginalY[k] += c;
+                    total += c;
+                }
+            }
+        }
+        assert total > 0d;
+        this.totalCount = total;
+        this.supportX = support(marginalX, histogram.startX, histogram.widthX);
+        this.supportY = support(marginalY, histogram.startY, histogram.widthY);
+    }
+
+    /**
+     * 周辺ヒストグラムの, 度数が正のビンの範囲を返す.
+     */
+    private static SupportWindow support(double[] marginal, double start, double width) {
+        int first = -1;
+        int last = -1;
+        for (int i = 0; i < marginal.length; i++) {
+            if (marginal[i] > 0d) {
+                first = first < 0 ? i : first;
+                last = i;
+            }
+        }
+        return new SupportWindow(new double[] { start + first * width, start + (last + 1) * width });
+    }
+
+    /**
+     * Sheppard の補正を施した, x の標準偏差を返す.
+     */
+    double stdX() {
+        return marginalStd(marginalX, histogram.startX, histogram.widthX);
+    }
+
+    /**
+     * Sheppard の補正を施した, y の標準偏差を返す.
+     */
+    double stdY() {
+        return marginalStd(marginalY, histogram.startY, histogram.widthY);
+    }
+
+    private static double marginalStd(double[] marginal, double start, double width) {
+        double[] centers = new double[marginal.length];
+        for (int i = 0; i < centers.length; i++) {
+            centers[i] = start + (i + 0.5d) * width;
+        }
+        return BucketedSource1D.sheppardCorrected(MomentAccumulator.of(centers, marginal).std(), width);
+    }
+
+    /**
+     * このソースのヒストグラムを, 度数をコピーして返す.
+     * 
+     * @return ヒストグラム
+     */
+    Kde2DHistogramDto toDto() {
+        return histogram.copy();
+    }
+
+    /**
+     * 空間分解能に応じてビンを等分し, 小矩形の中心に度数を等分した重みを置いたソースを返す.
+     * 
+     * <p>
+     * 度数が0のビンは含まない. <br>
+     * 点は x について昇順に並ぶ.
+     * </p>
+     * 
+     * @param resolutionX Xの空間分解能
+     * @param resolutionY Yの空間分解能
+     * @return x について昇順の重み付きソース
+     */
+    BinningSource2D subdivide(double resolutionX, double resolutionY) {
+        final int mX = BucketedSource1D.subdivisionCount(histogram.widthX, resolutionX, MAX_SUBDIVISION);
+        final int mY = BucketedSource1D.subdivisionCount(histogram.widthY, resolutionY, MAX_SUBDIVISION);
+        final int sizeX = histogram.sizeX;
+        final int sizeY = histogram.sizeY;
+        final double[] counts = histogram.counts;
+
+        int occupied = 0;
+        for (double c : counts) {
+            if (c > 0d) {
+                occupied++;
+            }
+        }
+
+        final int size = Math.multiplyExact(occupied, mX * mY);
+        Kde2DSourceDto points = new Kde2DSourceDto(size);
+        double[] weights = new double[size];
+        int position = 0;
+        // x について昇順となるよう, (ビン j, x の小区間 s, ビン k, y の小区間 t) の順に並べる
+        for (int j = 0; j < sizeX; j++) {
+            for (int s = 0; s < mX; s++) {
+                double x = histogram.startX + (j + (s + 0.5d) / mX) * histogram.widthX;
+                for (int k = 0; k < sizeY; k++) {
+                    double c = counts[j * sizeY + k];
+                    if (!(c > 0d)) {
+                        continue;
+                    }
+                    for (int t = 0; t < mY; t++) {
+                        points.x[position] = x;
+                        points.y[position] = histogram.startY + (k + (t + 0.5d) / mY) * histogram.widthY;
+                        weights[position] = c / (mX * mY);
+                        position++;
+                    }
+                }
+            }
+        }
+        return BinningSource2D.of(points, weights, true);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+/**
+ * 複数の {@link DoubleBuffer} (チャンク) を連結した, {@code long} で添え字付けられる値の列.
+ * 
+ * <p>
+ * 配列の長さやメモリマップの上限 ({@link Integer#MAX_VALUE}) を超える個数の値を,
+ * 単一の巨大な配列を作らずに扱うために用いる. <br>
+ * 各チャンクの index 0 からリミットまでが, 順に連結される. <br>
+ * チャンクはコピーされずに保持されるため, 生成後に書き換えてはならない.
+ * </p>
+ * 
+ * <p>
+ * 読み込みは絶対位置で行うため, チャンクの位置は参照・変更されず,
+ * 複数のスレッドから同時に読み込んでよい.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class ChunkedDoubles {
+
+    private final DoubleBuffer[] chunks;
+
+    /**
+     * チャンクの開始位置, 長さはチャンクの個数 + 1 (最後の要素は {@link #size}).
+     */
+    private final long[] offsets;
+
+    /**
+     * 値の個数.
+     */
+    final long size;
+
+    private ChunkedDoubles(DoubleBuffer[] chunks, long[] offsets) {
+        super();
+        this.chunks = chunks;
+        this.offsets = offsets;
+        this.size = offsets[chunks.length];
+    }
+
+    /**
+     * チャンクを連結した値の列を返す. <br>
+     * 空のチャンクは取り除かれる.
+     * 
+     * @param chunks チャンク (配列自体はコピーされる)
+     * @return 値の列
+     */
+    static ChunkedDoubles of(DoubleBuffer[] chunks) {
+        DoubleBuffer[] nonEmpty = Arrays.stream(chunks)
+                .filter(DoubleBuffer::hasRemaining)
+                .toArray(DoubleBuffer[]::new);
+        long[] offsets = new long[nonEmpty.length + 1];
+        for (int c = 0; c < nonEmpty.length; c++) {
+            assert nonEmpty[c].position() == 0;
+            offsets[c + 1] = offsets[c] + nonEmpty[c].limit();
+        }
+        return new ChunkedDoubles(nonEmpty, offsets);
+    }
+
+    /**
+     * 各チャンクの, 位置からリミットまでの読み取り専用のビューを連結した値の列を返す. <br>
+     * チャンクの位置やリミットは変更されない.
+     * 
+     * @param chunks チャンク
+     * @return 値の列
+     * @throws NullPointerException 引数が null の場合, null の要素を含む場合
+     */
+    static ChunkedDoubles readOnlyViewOf(DoubleBuffer[] chunks) {
+        return of(Arrays.stream(chunks)
+                .map(chunk -> chunk.slice().asReadOnlyBuffer())
+                .toArray(DoubleBuffer[]::new));
+    }
+
+    /**
+     * [from, from + length) の値を, dst の dstOffset から読み込む. <br>
+     * チャンクの境界をまたいでもよい.
+     * 
+     * @param from 開始位置
+     * @param length 個数
+     * @param dst 読み込み先
+     * @param dstOffset 読み込み先の開始位置
+     */
+    void read(long from, int length, double[] dst, int dstOffset) {
+        assert 0 <= from && from + length <= size;
+
+        int c = chunkIndexOf(from);
+        long position = from;
+        int remaining = length;
+        int offset = dstOffset;
+        while (remaining > 0) {
+            int inChunk = (int) (position - offsets[c]);
+            int n = (int) Math.min(remaining, offsets[c + 1] - position);
+            chunks[c].get(inChunk, dst, offset, n);
+            position += n;
+            offset += n;
+            remaining -= n;
+            c++;
+        }
+    }
+
+    /**
+     * 昇順の値の列のうち, 値が key 以上である最小の位置を返す. <br>
+     * 存在しない場合は値の個数を返す.
+     * 
+     * @param key 値
+     * @return key 以上である最小の位置
+     */
+    long lowerBound(double key) {
+        long low = 0L;
+        long high = size;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            int c = chunkIndexOf(mid);
+            if (chunks[c].get((int) (mid - offsets[c])) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * 位置 i の値を含むチャンクの番号を返す.
+     */
+    private int chunkIndexOf(long i) {
+        int found = Arrays.binarySearch(offsets, i);
+        // 一致した場合はそのチャンクの先頭, そうでなければ挿入位置の1個前
+        return found >= 0 ? Math.min(found, chunks.length - 1) : -found - 2;
+    }
+}
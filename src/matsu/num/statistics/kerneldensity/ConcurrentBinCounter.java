@@ -0,0 +1,208 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 複数のスレッドから同時に計数でき, 計数を止めずに度数を読み出せる, ビンの度数の計数器.
+ * 
+ * <p>
+ * 度数は {@code LongAdder} と同様に複数のストライプに分散して保持し,
+ * 各スレッドはスレッドの識別子で定まるストライプのみに計数する. <br>
+ * ストライプは, 最初に計数するスレッドが生成する. <br>
+ * 計数はアトミックな加算のみからなり, ブロックしない.
+ * </p>
+ * 
+ * <p>
+ * 各ストライプは2相の度数の配列と, 書き込みの開始・終了を数えるエポックをもつ
+ * (HdrHistogram の WriterReaderPhaser と同様の手法). <br>
+ * 読み出しはストライプごとに相を切り替え, 切り替え前の相への書き込みが終わるのを待ってから,
+ * その相の度数を累計に移して0に戻す. <br>
+ * したがって, 計数した値はいずれかの読み出しにちょうど1回だけ反映され,
+ * 読み出した度数が書き込み途中の値を含むことはない. <br>
+ * 読み出しは互いに排他的に行われる (書き込みは排他されない).
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class ConcurrentBinCounter {
+
+    /**
+     * ストライプの個数の上限.
+     */
+    static final int MAX_STRIPE_COUNT = 1 << 6;
+
+    /**
+     * ストライプの個数の既定値を定める際の, (ストライプの個数) &times; (ビンの個数) の上限. <br>
+     * 各ストライプは2相分の {@code long} の度数をもつため,
+     * 度数が占めるメモリは最大で 2 &times; 8 &times; 2<sup>21</sup> バイト (32 MiB) である.
+     */
+    static final int MAX_TOTAL_CELLS = 1 << 21;
+
+    private final int binCount;
+    private final int stripeMask;
+    private final AtomicReferenceArray<Stripe> stripes;
+
+    /**
+     * 読み出し済みの度数の累計, 読み出しのロックの下でのみ扱う.
+     */
+    private final long[] drained;
+
+    private final ReentrantLock readLock = new ReentrantLock();
+
+    /**
+     * ビンの個数とストライプの個数を与えて構築する.
+     * 
+     * @param binCount ビンの個数
+     * @param stripeCount ストライプの個数 (2の累乗)
+     */
+    ConcurrentBinCounter(int binCount, int stripeCount) {
+        super();
+        assert binCount > 0;
+        assert stripeCount > 0 && Integer.bitCount(stripeCount) == 1;
+
+        this.binCount = binCount;
+        this.stripeMask = stripeCount - 1;
+        this.stripes = new AtomicReferenceArray<>(stripeCount);
+        this.drained = new long[binCount];
+    }
+
+    /**
+     * ビンの個数に対する, ストライプの個数の既定値を返す.
+     * 
+     * <p>
+     * 利用可能なプロセッサの個数以上の最小の2の累乗を基本とし,
+     * {@link #MAX_STRIPE_COUNT} と,
+     * (ストライプの個数) &times; (ビンの個数) が {@link #MAX_TOTAL_CELLS} 以下となる最大の2の累乗
+     * (ただし1以上) を上限とする.
+     * </p>
+     * 
+     * @param binCount ビンの個数 (正でない場合は1とみなす)
+     * @return ストライプの個数の既定値
+     */
+    static int defaultStripeCount(int binCount) {
+        int n = Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPE_COUNT);
+        int byProcessors = n <= 1 ? 1 : Integer.highestOneBit(n - 1) << 1;
+        int byMemory = Integer.highestOneBit(Math.max(1, MAX_TOTAL_CELLS / Math.max(1, binCount)));
+        return Math.min(byProcessors, byMemory);
+    }
+
+    /**
+     * ビンの度数に1を加える. <br>
+     * 複数のスレッドから同時に呼んでよい.
+     * 
+     * @param bin ビンの番号
+     */
+    void increment(int bin) {
+        assert 0 <= bin && bin < binCount;
+        stripeOfCurrentThread().increment(bin);
+    }
+
+    /**
+     * これまでに計数された度数の累計を返す. <br>
+     * 計数と同時に呼んでよく, 呼び出しの開始までに完了した計数は全て反映される.
+     * 
+     * @return 各ビンの度数 (新しい配列)
+     */
+    long[] snapshot() {
+        readLock.lock();
+        try {
+            for (int s = 0; s <= stripeMask; s++) {
+                Stripe stripe = stripes.get(s);
+                if (Objects.nonNull(stripe)) {
+                    stripe.drainInto(drained);
+                }
+            }
+            return drained.clone();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private Stripe stripeOfCurrentThread() {
+        // スレッドの識別子を攪拌してストライプを選ぶ (黄金比による乗算ハッシュ)
+        long id = Thread.currentThread().getId();
+        int s = (int) ((id * 0x9E37_79B9_7F4A_7C15L) >>> 32) & stripeMask;
+        Stripe stripe = stripes.get(s);
+        if (Objects.isNull(stripe)) {
+            stripes.compareAndSet(s, null, new Stripe(binCount));
+            stripe = stripes.get(s);
+        }
+        return stripe;
+    }
+
+    /**
+     * 1個のストライプ.
+     * 
+     * <p>
+     * 開始エポックの符号が現在の相を表す (非負ならば偶数相, 負ならば奇数相). <br>
+     * 書き込みは開始エポックを1増やしてから相を判定し, その相の度数に加算した後,
+     * その相の終了エポックを1増やす. <br>
+     * 相の切り替えでは, 開始エポックを新しい相の初期値に置き換え,
+     * 置き換える前の値に古い相の終了エポックが達するまで待つ.
+     * </p>
+     */
+    private static final class Stripe {
+
+        private final AtomicLongArray evenCounts;
+        private final AtomicLongArray oddCounts;
+
+        private final AtomicLong startEpoch = new AtomicLong(0L);
+        private final AtomicLong evenEndEpoch = new AtomicLong(0L);
+        private final AtomicLong oddEndEpoch = new AtomicLong(Long.MIN_VALUE);
+
+        Stripe(int binCount) {
+            super();
+            this.evenCounts = new AtomicLongArray(binCount);
+            this.oddCounts = new AtomicLongArray(binCount);
+        }
+
+        void increment(int bin) {
+            if (startEpoch.getAndIncrement() < 0L) {
+                oddCounts.getAndIncrement(bin);
+                oddEndEpoch.getAndIncrement();
+            } else {
+                evenCounts.getAndIncrement(bin);
+                evenEndEpoch.getAndIncrement();
+            }
+        }
+
+        /**
+         * 相を切り替え, 古い相の度数を累計に移して0に戻す.
+         */
+        void drainInto(long[] totals) {
+            final boolean nextIsEven = startEpoch.get() < 0L;
+            final long initialEpoch = nextIsEven ? 0L : Long.MIN_VALUE;
+            (nextIsEven ? evenEndEpoch : oddEndEpoch).set(initialEpoch);
+            final long epochAtFlip = startEpoch.getAndSet(initialEpoch);
+
+            final AtomicLong oldEndEpoch = nextIsEven ? oddEndEpoch : evenEndEpoch;
+            while (oldEndEpoch.get() != epochAtFlip) {
+                // 古い相への書き込みは有限個の加算で終わる
+                Thread.onSpinWait();
+            }
+
+            AtomicLongArray old = nextIsEven ? oddCounts : evenCounts;
+            for (int i = 0, len = totals.length; i < len; i++) {
+                long c = old.get(i);
+                if (c != 0L) {
+                    old.set(i, 0L);
+                    totals[i] += c;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Objects;
+
+/**
+ * 複数のスレッドから同時に値を追加でき, 追加を止めずにカーネル密度推定を得られる,
+ * 1次元の等幅ヒストグラムの集計器.
+ * 
+ * <p>
+ * 多数のスレッドが観測値を生成する (サーバーのレイテンシの計測など) 用途のためのクラスである. <br>
+ * ビンの配置は生成時に固定し, 値は {@link #add(double)} でビンに計数する. <br>
+ * 範囲の外の値はヒストグラムに含めず (端のビンに寄せると, 端に偽のピークが生じるため),
+ * その個数を別に数える ({@link #outOfRangeCount()}).
+ * </p>
+ * 
+ * <p>
+ * {@link #add(double)} は複数のスレッドから同時に呼んでよく, ロックを取得せずブロックしない. <br>
+ * 度数はスレッドごとに分散したストライプに保持するため,
+ * 同じビンへの計数が集中しても, スレッド間での競合は生じにくい. <br>
+ * {@link #toHistogram()}, {@link #snapshot(KernelDensity1D.Factory)} も,
+ * 値の追加と同時に呼んでよい. <br>
+ * その結果には, 呼び出しの開始までに完了した追加が全て反映され,
+ * 追加の途中の値は (部分的にも) 反映されない.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class ConcurrentKde1DAccumulator {
+
+    /**
+     * ビンの個数の上限.
+     */
+    public static final int MAX_BIN_COUNT = 1 << 20;
+
+    private final double start;
+    private final double width;
+    private final int size;
+
+    private final ConcurrentBinCounter counter;
+
+    private ConcurrentKde1DAccumulator(double start, double width, int size, int stripeCount) {
+        super();
+        this.start = start;
+        this.width = width;
+        this.size = size;
+        // 最後のセルは範囲の外の値の個数
+        this.counter = new ConcurrentBinCounter(size + 1, stripeCount);
+    }
+
+    /**
+     * ビンの配置を与えて, 空の集計器を生成する. <br>
+     * ビンの配置の条件は {@link Kde1DHistogramDto} のコンストラクタと同様であり,
+     * 加えて, ビンの個数は {@link #MAX_BIN_COUNT} 以下でなければならない.
+     * 
+     * <p>
+     * 度数はストライプごとに2相分の {@code long} の配列で保持するため,
+     * メモリは (ストライプの個数) &times; (ビンの個数) &times; 16 バイトである. <br>
+     * ストライプは値を追加したスレッドに応じて必要になった時点で確保され,
+     * その個数はプロセッサの個数程度 (最大64) であるが,
+     * 全体のメモリが 32 MiB 程度を超えないよう, ビンの個数が多いほど少なくなる
+     * (ビンの個数が最大の場合は高々2個). <br>
+     * ストライプが少ない場合, 同じストライプを共有するスレッド間での競合が増える.
+     * </p>
+     * 
+     * @param start 最初のビンの開始位置
+     * @param width ビンの幅
+     * @param size ビンの個数
+     * @return 集計器
+     * @throws IllegalArgumentException 引数が不適な場合
+     */
+    public static ConcurrentKde1DAccumulator of(double start, double width, int size) {
+        return of(start, width, size, defaultStripeCount(size));
+    }
+
+    /**
+     * ビンの個数に対する, ストライプの個数の既定値を返す. <br>
+     * 範囲の外の値を数えるセルはメモリの見積もりに含めない
+     * (含めると, ビンの個数が最大の場合にストライプが1個になる).
+     * 
+     * @param binCount ビンの個数
+     * @return ストライプの個数の既定値
+     */
+    static int defaultStripeCount(int binCount) {
+        return ConcurrentBinCounter.defaultStripeCount(binCount);
+    }
+
+    /**
+     * ストライプの個数を指定して, 空の集計器を生成する.
+     */
+    static ConcurrentKde1DAccumulator of(double start, double width, int size, int stripeCount) {
+        // ビンの配置の検証
+        new Kde1DHistogramDto(start, width, size);
+        if (size > MAX_BIN_COUNT) {
+            throw new IllegalArgumentException("too many bins: size = %s".formatted(size));
+        }
+        return new ConcurrentKde1DAccumulator(start, width, size, stripeCount);
+    }
+
+    /**
+     * 値を1個追加する. <br>
+     * 複数のスレッドから同時に呼んでよい. <br>
+     * 範囲の外の値は, ヒストグラムに含めず, 範囲の外の値として数える.
+     * 
+     * @param value 値
+     * @return this
+     * @throws IllegalArgumentException 値が有限でない場合
+     */
+    public ConcurrentKde1DAccumulator add(double value) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("illegal: value is not finite: value = %s".formatted(value));
+        }
+
+        int i = binIndex(value, start, width, size);
+        counter.increment(i >= 0 ? i : size);
+        return this;
+    }
+
+    /**
+     * その時点までに追加された, 範囲の外の値の個数を返す. <br>
+     * 値の追加と同時に呼んでよい.
+     * 
+     * @return 範囲の外の値の個数
+     */
+    public long outOfRangeCount() {
+        return counter.snapshot()[size];
+    }
+
+    /**
+     * その時点までに追加された値を集計したヒストグラムを返す. <br>
+     * ヒストグラムのビンの配置は, 生成時に与えたものであり, 範囲の外の値は含まない.
+     * 
+     * @return ヒストグラム
+     * @throws IllegalStateException 範囲内の値が1個も追加されていない場合
+     */
+    public Kde1DHistogramDto toHistogram() {
+        long[] counts = counter.snapshot();
+        Kde1DHistogramDto histogram = new Kde1DHistogramDto(start, width, size);
+        long total = 0L;
+        for (int i = 0; i < size; i++) {
+            histogram.counts[i] = counts[i];
+            total += counts[i];
+        }
+        if (total == 0L) {
+            throw new IllegalStateException("no value in range has been added");
+        }
+        return histogram;
+    }
+
+    /**
+     * その時点までに追加された値を集計したヒストグラムから, カーネル密度推定を生成する. <br>
+     * {@code factory.createOf(this.toHistogram())} と同等である.
+     * 
+     * @param factory カーネル密度推定のファクトリ
+     * @return カーネル密度推定
+     * @throws IllegalStateException 範囲内の値が1個も追加されていない場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public KernelDensity1D snapshot(KernelDensity1D.Factory factory) {
+        Objects.requireNonNull(factory);
+        return factory.createOf(toHistogram());
+    }
+
+    /**
+     * 値が属するビンの番号を返す. <br>
+     * 範囲の外の値の場合は -1 を返す.
+     */
+    static int binIndex(double value, double start, double width, int size) {
+        double i = Math.floor((value - start) / width);
+        return 0d <= i && i < size ? (int) i : -1;
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Objects;
+
+/**
+ * 複数のスレッドから同時に点を追加でき, 追加を止めずにカーネル密度推定を得られる,
+ * 2次元の等幅ヒストグラムの集計器.
+ * 
+ * <p>
+ * {@link ConcurrentKde1DAccumulator} の2次元版である. <br>
+ * いずれかの軸の範囲の外にある点はヒストグラムに含めず,
+ * その個数を別に数える ({@link #outOfRangeCount()}). <br>
+ * スレッドセーフティに関する性質は, {@link ConcurrentKde1DAccumulator} と同様である.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class ConcurrentKde2DAccumulator {
+
+    /**
+     * ビンの総数の上限.
+     */
+    public static final int MAX_BIN_COUNT = 1 << 20;
+
+    private final double startX;
+    private final double widthX;
+    private final int sizeX;
+    private final double startY;
+    private final double widthY;
+    private final int sizeY;
+
+    private final ConcurrentBinCounter counter;
+
+    private ConcurrentKde2DAccumulator(
+            double startX, double widthX, int sizeX,
+            double startY, double widthY, int sizeY, int stripeCount) {
+        super();
+        this.startX = startX;
+        this.widthX = widthX;
+        this.sizeX = sizeX;
+        this.startY = startY;
+        this.widthY = widthY;
+        this.sizeY = sizeY;
+        // 最後のセルは範囲の外の点の個数
+        this.counter = new ConcurrentBinCounter(sizeX * sizeY + 1, stripeCount);
+    }
+
+    /**
+     * ビンの配置を与えて, 空の集計器を生成する. <br>
+     * ビンの配置の条件は {@link Kde2DHistogramDto} のコンストラクタと同様であり,
+     * 加えて, ビンの総数は {@link #MAX_BIN_COUNT} 以下でなければならない.
+     * 
+     * <p>
+     * メモリは (ストライプの個数) &times; (ビンの総数) &times; 16 バイトであり,
+     * ストライプの個数の決め方は {@link ConcurrentKde1DAccumulator#of(double, double, int)}
+     * と同様である (全体のメモリは 32 MiB 程度を超えない).
+     * </p>
+     * 
+     * @param startX x 方向の最初のビンの開始位置
+     * @param widthX x 方向のビンの幅
+     * @param sizeX x 方向のビンの個数
+     * @param startY y 方向の最初のビンの開始位置
+     * @param widthY y 方向のビンの幅
+     * @param sizeY y 方向のビンの個数
+     * @return 集計器
+     * @throws IllegalArgumentException 引数が不適な場合
+     */
+    public static ConcurrentKde2DAccumulator of(
+            double startX, double widthX, int sizeX, double startY, double widthY, int sizeY) {
+        return of(startX, widthX, sizeX, startY, widthY, sizeY,
+                ConcurrentKde1DAccumulator.defaultStripeCount(sizeX * sizeY));
+    }
+
+    /**
+     * ストライプの個数を指定して, 空の集計器を生成する.
+     */
+    static ConcurrentKde2DAccumulator of(
+            double startX, double widthX, int sizeX,
+            double startY, double widthY, int sizeY, int stripeCount) {
+        // ビンの配置の検証
+        new Kde2DHistogramDto(startX, widthX, sizeX, startY, widthY, sizeY);
+        if ((long) sizeX * sizeY > MAX_BIN_COUNT) {
+            throw new IllegalArgumentException(
+                    "too many bins: sizeX = %s, sizeY = %s".formatted(sizeX, sizeY));
+        }
+        return new ConcurrentKde2DAccumulator(startX, widthX, sizeX, startY, widthY, sizeY, stripeCount);
+    }
+
+    /**
+     * 点を1個追加する. <br>
+     * 複数のスレッドから同時に呼んでよい. <br>
+     * 範囲の外の点は, ヒストグラムに含めず, 範囲の外の点として数える.
+     * 
+     * @param x 点の x
+     * @param y 点の y
+     * @return this
+     * @throws IllegalArgumentException 値が有限でない場合
+     */
+    public ConcurrentKde2DAccumulator add(double x, double y) {
+        if (!(Double.isFinite(x) && Double.isFinite(y))) {
+            throw new IllegalArgumentException(
+                    "illegal: value is not finite: x = %s, y = %s".formatted(x, y));
+        }
+
+        int j = ConcurrentKde1DAccumulator.binIndex(x, startX, widthX, sizeX);
+        int k = ConcurrentKde1DAccumulator.binIndex(y, startY, widthY, sizeY);
+        counter.increment(j >= 0 && k >= 0 ? j * sizeY + k : sizeX * sizeY);
+        return this;
+    }
+
+    /**
+     * その時点までに追加された, 範囲の外の点の個数を返す. <br>
+     * 点の追加と同時に呼んでよい.
+     * 
+     * @return 範囲の外の点の個数
+     */
+    public long outOfRangeCount() {
+        return counter.snapshot()[sizeX * sizeY];
+    }
+
+    /**
+     * その時点までに追加された点を集計したヒストグラムを返す. <br>
+     * ヒストグラムのビンの配置は, 生成時に与えたものであり, 範囲の外の点は含まない.
+     * 
+     * @return ヒストグラム
+     * @throws IllegalStateException 範囲内の点が1個も追加されていない場合
+     */
+    public Kde2DHistogramDto toHistogram() {
+        long[] counts = counter.snapshot();
+        Kde2DHistogramDto histogram = new Kde2DHistogramDto(startX, widthX, sizeX, startY, widthY, sizeY);
+        long total = 0L;
+        for (int i = 0, len = histogram.counts.length; i < len; i++) {
+            histogram.counts[i] = counts[i];
+            total += counts[i];
+        }
+        if (total == 0L) {
+            throw new IllegalStateException("no point in range has been added");
+        }
+        return histogram;
+    }
+
+    /**
+     * その時点までに追加された点を集計したヒストグラムから, カーネル密度推定を生成する. <br>
+     * {@code factory.createOf(this.toHistogram())} と同等である.
+     * 
+     * @param factory カーネル密度推定のファクトリ
+     * @return カーネル密度推定
+     * @throws IllegalStateException 範囲内の点が1個も追加されていない場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public KernelDensity2D snapshot(KernelDensity2D.Factory factory) {
+        Objects.requireNonNull(factory);
+        return factory.createOf(toHistogram());
+    }
+}
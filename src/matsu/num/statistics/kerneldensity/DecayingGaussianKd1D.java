@@ -0,0 +1,258 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Objects;
+
+/**
+ * 観測の重みが経過時間とともに指数的に減衰する,
+ * ガウシアンをカーネル関数とする1次元のカーネル密度推定.
+ * 
+ * <p>
+ * 時刻 <i>s</i> に追加した値の, 現在時刻 <i>t</i> での重みは
+ * exp(-&lambda;(<i>t</i> - <i>s</i>)) である (&lambda; は減衰率). <br>
+ * 半減期 <i>T</i> を与えたい場合は, &lambda; = ln 2 / <i>T</i> とすればよい. <br>
+ * 値は {@link #add(double)} により現在時刻に追加し,
+ * 時刻は {@link #elapse(double)} により進める. <br>
+ * 時間窓 ({@link SlidingWindowGaussianKd1D}) と異なり, 値が突然失効することはない.
+ * </p>
+ * 
+ * <p>
+ * 減衰は, 全ての重みに共通の係数として遅延して適用する. <br>
+ * すなわち, 値は基準時刻からの経過時間 <i>u</i> に応じた重み exp(&lambda;<i>u</i>)
+ * で計数し, 時刻を進める操作では何も更新しない. <br>
+ * 重みが大きくなりすぎる前に, 全ての重みを一律に縮小して基準時刻を現在時刻に移す (規格化) . <br>
+ * したがって, 値の追加と時刻の進行は O(1) であり,
+ * 規格化の O(ビンの個数) のコストはまれにしか生じない.
+ * </p>
+ * 
+ * <p>
+ * 値は {@link Kde1DStreamingBuilder} と同様の等幅ヒストグラムに重み付きで計数し,
+ * 保持するメモリはビンの個数 (上限 {@link Kde1DStreamingBuilder#MAX_BIN_COUNT}) に比例する. <br>
+ * バンド幅は, 減衰した重みによる重み付き標準偏差と有効サンプルサイズ
+ * (&Sigma;<i>w</i>)<sup>2</sup>/&Sigma;<i>w</i><sup>2</sup> から,
+ * 生成時に与えた {@link GaussianKd1D.Factory} のルールにより計算する. <br>
+ * 結果はヒストグラムから {@link GaussianKd1D} を構築して計算する. <br>
+ * 一律の減衰は推定を変化させないため, 時刻を進めても結果のキャッシュは破棄されない.
+ * </p>
+ * 
+ * <p>
+ * このクラスはスレッドセーフではない.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class DecayingGaussianKd1D {
+
+    /**
+     * 規格化を行う, 基準時刻からの減衰の指数 (&lambda;<i>u</i>) の閾値.
+     */
+    static final double RENORMALIZATION_EXPONENT = 32d;
+
+    private final GaussianKd1D.Factory factory;
+    private final double decayRate;
+
+    private final GrowableHistogram1D histogram;
+    private final MomentAccumulator moments = new MomentAccumulator();
+
+    /**
+     * 基準時刻からの経過時間.
+     */
+    private double sinceReference = 0d;
+
+    /**
+     * 状態が変化していない間の推定, 状態が変化した場合は null.
+     */
+    private GaussianKd1D cachedSnapshot;
+    private Range cachedRange;
+    private KdeGrid1dDto cachedResult;
+
+    private DecayingGaussianKd1D(GaussianKd1D.Factory factory, double decayRate) {
+        super();
+        this.factory = factory;
+        this.decayRate = decayRate;
+        this.histogram = new GrowableHistogram1D(
+                Kde1DStreamingBuilder.PILOT_SIZE, Kde1DStreamingBuilder.BINS_PER_STD,
+                Kde1DStreamingBuilder.INITIAL_BIN_COUNT, Kde1DStreamingBuilder.MAX_BIN_COUNT);
+    }
+
+    /**
+     * 減衰率を返す.
+     * 
+     * @return 減衰率
+     */
+    public double decayRate() {
+        return decayRate;
+    }
+
+    /**
+     * 現在時刻での重みの総和を返す. <br>
+     * 追加した値が無い場合 (完全に減衰した場合を含む) は0である.
+     * 
+     * @return 重みの総和
+     */
+    public double totalWeight() {
+        return moments.totalWeight() * Math.exp(-decayRate * sinceReference);
+    }
+
+    /**
+     * 現在時刻に値を1個追加する.
+     * 
+     * @param value 値
+     * @return this
+     * @throws IllegalArgumentException 値が有限でない場合
+     */
+    public DecayingGaussianKd1D add(double value) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("illegal: value is not finite: value = %s".formatted(value));
+        }
+        addValidated(value);
+        return this;
+    }
+
+    /**
+     * 現在時刻に値をまとめて追加する. <br>
+     * 全ての値を検証してから追加するため, 例外をスローした場合は何も追加されない.
+     * 
+     * @param values 値
+     * @return this
+     * @throws IllegalArgumentException 有限でない値を含む場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public DecayingGaussianKd1D addAll(double[] values) {
+        for (double v : values) {
+            if (!Double.isFinite(v)) {
+                throw new IllegalArgumentException("illegal: value is not finite: value = %s".formatted(v));
+            }
+        }
+        for (double v : values) {
+            addValidated(v);
+        }
+        return this;
+    }
+
+    private void addValidated(double value) {
+        if (decayRate * sinceReference > RENORMALIZATION_EXPONENT) {
+            renormalize();
+        }
+        double weight = Math.exp(decayRate * sinceReference);
+        histogram.add(value, weight);
+        moments.accept(value, weight);
+        invalidate();
+    }
+
+    /**
+     * 時刻を進める.
+     * 
+     * @param duration 経過時間
+     * @return this
+     * @throws IllegalArgumentException 経過時間が0以上の有限値でない場合
+     */
+    public DecayingGaussianKd1D elapse(double duration) {
+        if (!(duration >= 0d && Double.isFinite(duration))) {
+            throw new IllegalArgumentException("illegal: duration = %s".formatted(duration));
+        }
+        if (decayRate > 0d) {
+            sinceReference += duration;
+        }
+        return this;
+    }
+
+    /**
+     * 全ての重みを現在時刻での値に縮小し, 基準時刻を現在時刻に移す. <br>
+     * 重みが完全に減衰した (正規化数で表せなくなった) 場合は, 空の状態に戻す.
+     */
+    private void renormalize() {
+        double factor = Math.exp(-decayRate * sinceReference);
+        sinceReference = 0d;
+        moments.scaleWeights(factor);
+        if (moments.totalWeight() == 0d) {
+            histogram.clear();
+            moments.clear();
+        } else {
+            histogram.scale(factor);
+        }
+        invalidate();
+    }
+
+    /**
+     * 現在のバンド幅を返す.
+     * 
+     * @return バンド幅
+     * @throws IllegalStateException 重みを持つ値が存在しない場合
+     */
+    public double bandWidth() {
+        requireNonEmpty();
+        return factory.computeBandwidth(moments.std(), moments.sampleSize());
+    }
+
+    /**
+     * 与えられた範囲において, 現在時刻の重みによる確率値をカーネル密度推定する.
+     * 
+     * @param range 推定する区間
+     * @return 推定結果
+     * @throws IllegalStateException 重みを持つ値が存在しない場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public KdeGrid1dDto evaluateIn(Range range) {
+        Objects.requireNonNull(range);
+        if (Objects.isNull(cachedResult) || !range.equals(cachedRange)) {
+            cachedResult = snapshot().evaluateIn(range);
+            cachedRange = range;
+        }
+        return new KdeGrid1dDto(cachedResult.x.clone(), cachedResult.density.clone());
+    }
+
+    /**
+     * 現在時刻の重みによる推定を, イミュータブルな {@link KernelDensity1D} として返す. <br>
+     * その後に値を追加しても, 返した推定は変化しない.
+     * 
+     * @return 推定
+     * @throws IllegalStateException 重みを持つ値が存在しない場合
+     */
+    public KernelDensity1D snapshot() {
+        requireNonEmpty();
+        if (Objects.isNull(cachedSnapshot)) {
+            cachedSnapshot = factory.createOf(new BucketedSource1D(histogram.toHistogram()), bandWidth());
+        }
+        return cachedSnapshot;
+    }
+
+    private void invalidate() {
+        cachedSnapshot = null;
+        cachedRange = null;
+        cachedResult = null;
+    }
+
+    private void requireNonEmpty() {
+        if (moments.totalWeight() == 0d) {
+            throw new IllegalStateException("no value is present");
+        }
+    }
+
+    /**
+     * 空の推定を生成する. <br>
+     * 時刻は0から始まる.
+     * 
+     * @param factory ファクトリ
+     * @param decayRate 減衰率 (単位時間あたり), 0 の場合は減衰しない
+     * @return 空の推定
+     * @throws IllegalArgumentException 減衰率が0以上の有限値でない場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static DecayingGaussianKd1D of(GaussianKd1D.Factory factory, double decayRate) {
+        Objects.requireNonNull(factory);
+        if (!(decayRate >= 0d && Double.isFinite(decayRate))) {
+            throw new IllegalArgumentException("illegal: decayRate = %s".formatted(decayRate));
+        }
+        return new DecayingGaussianKd1D(factory, decayRate);
+    }
+}
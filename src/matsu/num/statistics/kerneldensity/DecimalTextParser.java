@@ -0,0 +1,397 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.DoubleConsumer;
+
+/**
+ * 数値を区切り文字で並べたテキスト (CSV, TSV など) を1文字ずつ読み込み,
+ * 10進数の数値を解釈して逐次的に通知する.
+ * 
+ * <p>
+ * 空白文字 (制御文字を含む, {@code ' '} 以下のコードの文字),
+ * {@code ','}, {@code ';'}, {@code '"'} を区切り文字とし,
+ * それ以外の文字の連続を1個の数値の表記 (トークン) とみなす. <br>
+ * トークンは
+ * {@code [+-]?(数字+(.数字*)?|.数字+)([eE][+-]?数字+)?}
+ * の形式でなければならず, そうでない場合は {@link IllegalArgumentException} をスローする.
+ * </p>
+ * 
+ * <p>
+ * 値ごとに通知する方式と, 行ごとに通知する方式がある. <br>
+ * 行ごとに通知する方式では, 改行 ({@code '\n'}) で行を区切り,
+ * 1個以上の数値を含む行の数値を, 行の終わりでまとめて通知する
+ * (数値を含まない行は通知しない). <br>
+ * また, 先頭の指定した行数 (ヘッダ行) を, 内容を解釈せずに読み飛ばすことができる.
+ * </p>
+ * 
+ * <p>
+ * 解釈は文字ごとの状態遷移で行い, 部分文字列を生成しない. <br>
+ * 仮数が2<sup>53</sup>以下で, 10進の指数の絶対値が22以下の場合は,
+ * 仮数と10の累乗の1回の乗除算で正しく丸められた値が得られる (Clinger の高速経路). <br>
+ * それ以外の (まれな) 場合に限り, トークンを {@link Double#parseDouble(String)} で解釈する.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class DecimalTextParser {
+
+    /**
+     * 入力を読み込む際のバッファのサイズ.
+     */
+    private static final int BUFFER_SIZE = 1 << 13;
+
+    /**
+     * 仮数として保持する有効数字の最大桁数 ({@code long} で桁あふれしない桁数).
+     */
+    private static final int MAX_MANTISSA_DIGITS = 18;
+
+    /**
+     * 指数の絶対値の上限 (これ以上は値に影響しない).
+     */
+    private static final int MAX_EXPONENT = 100_000;
+
+    /**
+     * 高速経路で使用する, 正確に表現できる10の累乗.
+     */
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20,
+            1e21, 1e22
+    };
+
+    // 状態
+    private static final int NONE = 0;
+    private static final int SIGN = 1;
+    private static final int INTEGER = 2;
+    private static final int POINT = 3;
+    private static final int FRACTION = 4;
+    private static final int EXPONENT_MARK = 5;
+    private static final int EXPONENT_SIGN = 6;
+    private static final int EXPONENT = 7;
+
+    /**
+     * 値ごとの通知先, 行ごとに通知する場合は null.
+     */
+    private final DoubleConsumer consumer;
+
+    /**
+     * 行ごとの通知先, 値ごとに通知する場合は null.
+     */
+    private final RowConsumer rowConsumer;
+
+    /**
+     * 読み飛ばす先頭の行数.
+     */
+    private final long skippedLines;
+
+    /**
+     * 現在の行の数値 (行ごとに通知する場合のみ使う).
+     */
+    private double[] fields = new double[4];
+    private int fieldCount;
+
+    private int state = NONE;
+    private boolean negative;
+    private boolean hasIntegerDigits;
+    private long mantissa;
+    private int mantissaDigits;
+    private boolean truncated;
+    private int scale;
+    private boolean negativeExponent;
+    private int exponent;
+
+    /**
+     * 現在のトークンの文字 (高速経路を使えない場合のために保持する).
+     */
+    private char[] token = new char[32];
+    private int tokenLength;
+
+    /**
+     * 現在の行番号 (1始まり).
+     */
+    private long line = 1L;
+
+    /**
+     * 解釈した値の通知先を与えて構築する.
+     * 
+     * @param consumer 値の通知先
+     */
+    DecimalTextParser(DoubleConsumer consumer) {
+        super();
+        this.consumer = Objects.requireNonNull(consumer);
+        this.rowConsumer = null;
+        this.skippedLines = 0L;
+    }
+
+    /**
+     * 読み飛ばすヘッダ行の行数と, 行ごとの通知先を与えて構築する.
+     * 
+     * @param skippedLines 読み飛ばす先頭の行数, 0以上
+     * @param rowConsumer 行ごとの通知先
+     */
+    DecimalTextParser(long skippedLines, RowConsumer rowConsumer) {
+        super();
+        assert skippedLines >= 0L;
+        this.consumer = null;
+        this.rowConsumer = Objects.requireNonNull(rowConsumer);
+        this.skippedLines = skippedLines;
+    }
+
+    /**
+     * 文字の並びの終端まで読み込み, {@link #finish()} を呼ぶ.
+     * 
+     * @param reader 入力
+     * @throws IOException 入力に失敗した場合
+     * @throws IllegalArgumentException 数値の表記が不正な場合
+     */
+    void parse(Reader reader) throws IOException {
+        char[] buffer = new char[BUFFER_SIZE];
+        int read;
+        while ((read = reader.read(buffer)) >= 0) {
+            for (int i = 0; i < read; i++) {
+                accept(buffer[i]);
+            }
+        }
+        finish();
+    }
+
+    /**
+     * バイトの並びを ASCII 互換の符号化 (UTF-8 など) の文字として終端まで読み込み,
+     * {@link #finish()} を呼ぶ. <br>
+     * 文字への復号は行わない.
+     * 
+     * @param channel 入力
+     * @throws IOException 入力に失敗した場合
+     * @throws IllegalArgumentException 数値の表記が不正な場合
+     */
+    void parse(ReadableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        while (channel.read(buffer) >= 0) {
+            buffer.flip();
+            for (int i = 0, end = buffer.limit(); i < end; i++) {
+                accept(buffer.get(i) & 0xFF);
+            }
+            buffer.clear();
+        }
+        finish();
+    }
+
+    /**
+     * 1文字を読み込む.
+     * 
+     * @param ch 文字
+     * @throws IllegalArgumentException 数値の表記が不正な場合
+     */
+    void accept(int ch) {
+        if (line <= skippedLines) {
+            // ヘッダ行は解釈しない
+            if (ch == '\n') {
+                line++;
+            }
+            return;
+        }
+        if (isSeparator(ch)) {
+            if (state != NONE) {
+                emit();
+            }
+            if (ch == '\n') {
+                endRow();
+                line++;
+            }
+            return;
+        }
+
+        appendToToken(ch);
+        if ('0' <= ch && ch <= '9') {
+            acceptDigit(ch - '0');
+            return;
+        }
+        switch (ch) {
+            case '+', '-' -> {
+                if (state == NONE) {
+                    negative = ch == '-';
+                    state = SIGN;
+                    return;
+                }
+                if (state == EXPONENT_MARK) {
+                    negativeExponent = ch == '-';
+                    state = EXPONENT_SIGN;
+                    return;
+                }
+            }
+            case '.' -> {
+                if (state == NONE || state == SIGN || state == INTEGER) {
+                    state = POINT;
+                    return;
+                }
+            }
+            case 'e', 'E' -> {
+                if (state == INTEGER || state == FRACTION || (state == POINT && hasIntegerDigits)) {
+                    state = EXPONENT_MARK;
+                    return;
+                }
+            }
+            default -> {
+                // 不正な文字
+            }
+        }
+        throw invalidToken();
+    }
+
+    /**
+     * 入力の終端を通知し, 読み込み途中のトークンを解釈する.
+     * 
+     * @throws IllegalArgumentException 数値の表記が不正な場合
+     */
+    void finish() {
+        if (state != NONE) {
+            emit();
+        }
+        endRow();
+    }
+
+    private void acceptDigit(int d) {
+        switch (state) {
+            case NONE, SIGN, INTEGER -> {
+                state = INTEGER;
+                hasIntegerDigits = true;
+                appendToMantissa(d);
+            }
+            case POINT, FRACTION -> {
+                state = FRACTION;
+                appendToMantissa(d);
+                scale--;
+            }
+            case EXPONENT_MARK, EXPONENT_SIGN, EXPONENT -> {
+                state = EXPONENT;
+                exponent = Math.min(exponent * 10 + d, MAX_EXPONENT);
+            }
+            default -> throw new AssertionError();
+        }
+    }
+
+    private void appendToMantissa(int d) {
+        if (mantissaDigits < MAX_MANTISSA_DIGITS) {
+            mantissa = mantissa * 10 + d;
+            if (mantissa != 0L) {
+                // 先頭の0は有効数字に数えない
+                mantissaDigits++;
+            }
+        } else {
+            // 桁あふれする数字は高速経路では扱わない
+            truncated = true;
+        }
+    }
+
+    private void appendToToken(int ch) {
+        if (tokenLength == token.length) {
+            token = Arrays.copyOf(token, token.length * 2);
+        }
+        token[tokenLength++] = (char) ch;
+    }
+
+    /**
+     * トークンを解釈して通知し, 状態を初期化する.
+     */
+    private void emit() {
+        boolean complete = state == INTEGER || state == FRACTION || state == EXPONENT
+                || (state == POINT && hasIntegerDigits);
+        if (!complete) {
+            throw invalidToken();
+        }
+
+        double value = toDouble();
+        reset();
+        if (Objects.isNull(rowConsumer)) {
+            consumer.accept(value);
+            return;
+        }
+        if (fieldCount == fields.length) {
+            fields = Arrays.copyOf(fields, fields.length * 2);
+        }
+        fields[fieldCount++] = value;
+    }
+
+    /**
+     * 行の終わりにおいて, 行の数値を通知する.
+     */
+    private void endRow() {
+        if (fieldCount > 0) {
+            int count = fieldCount;
+            fieldCount = 0;
+            rowConsumer.accept(fields, count, line);
+        }
+    }
+
+    private double toDouble() {
+        if (!truncated) {
+            if (mantissa == 0L) {
+                return negative ? -0d : 0d;
+            }
+            int e10 = scale + (negativeExponent ? -exponent : exponent);
+            if (mantissa <= (1L << 53) && -POW10.length < e10 && e10 < POW10.length) {
+                double m = negative ? -mantissa : mantissa;
+                return e10 >= 0 ? m * POW10[e10] : m / POW10[-e10];
+            }
+        }
+        return Double.parseDouble(new String(token, 0, tokenLength));
+    }
+
+    private void reset() {
+        state = NONE;
+        negative = false;
+        hasIntegerDigits = false;
+        mantissa = 0L;
+        mantissaDigits = 0;
+        truncated = false;
+        scale = 0;
+        negativeExponent = false;
+        exponent = 0;
+        tokenLength = 0;
+    }
+
+    private IllegalArgumentException invalidToken() {
+        // 例外の生成時のみ文字列を生成する
+        String text = new String(token, 0, Math.min(tokenLength, 64));
+        reset();
+        return new IllegalArgumentException(
+                "illegal number: line = %s, token = \"%s\"".formatted(line, text));
+    }
+
+    private static boolean isSeparator(int ch) {
+        return ch <= ' ' || ch == ',' || ch == ';' || ch == '"';
+    }
+
+    /**
+     * 行ごとの数値の通知先.
+     */
+    @FunctionalInterface
+    interface RowConsumer {
+
+        /**
+         * 行の数値を受け取る. <br>
+         * 配列は通知の後に再利用されるため, 参照を保持してはならない.
+         * 
+         * @param fields 行の数値, 先頭の {@code count} 個が有効
+         * @param count 行の数値の個数, 1以上
+         * @param line 行番号 (1始まり)
+         * @throws IllegalArgumentException 行の内容が不正な場合
+         */
+        void accept(double[] fields, int count, long line);
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * カーネル密度推定の計算途中で使用する一時的な {@code double} 配列を,
+ * スレッドごとに再利用するためのワークスペース. <br>
+ * パッケージ外には公開されない.
+ * 
+ * <p>
+ * 一時配列は {@link #borrow(int)} で借り受け, 使用後に {@link #release(double[])} で返却する. <br>
+ * 借り受けた配列は返却されるまでワークスペースから取り除かれるため,
+ * 同一スレッド内で入れ子に借り受けた場合
+ * (ForkJoin のワークスティーリングによる再入を含む) でも競合しない.
+ * 借り受けた配列は, パッケージ内の計算にのみ使用し,
+ * 利用者が与えた実装 (巡回畳み込みなど) に渡してはならない
+ * (参照が保持された場合, 返却後の再利用により内容が書き換わるため).
+ * </p>
+ * 
+ * <p>
+ * スレッドごとに保持する配列には, 1個あたりの長さと総要素数の上限がある
+ * (総要素数の上限は 8 MiB 相当であり, スレッド数に比例するメモリが常駐しうる). <br>
+ * 1個あたりの上限は, 2次元の推定のメッシュ全体の配列 (各軸は最大で500程度にフィルタの拡張を加えた長さ)
+ * を保持できるように定められており,
+ * 総要素数の上限は, 重み配列と転置用の配列の2個を同時に保持できるように定められている. <br>
+ * 総要素数の上限を超える場合は, 返却された配列と長さが異なるものから破棄し,
+ * それでも超える場合は返却された配列を保持せずに破棄する (GC に委ねる). <br>
+ * したがって, 巨大な一時配列や, 使われなくなった長さの配列がスレッドに残り続けることはない.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class DoubleArrayWorkspace {
+
+    /**
+     * 保持する配列の長さの上限 (2次元のメッシュ全体, 724<sup>2</sup> 程度まで).
+     */
+    static final int MAX_RETAINED_LENGTH = 1 << 19;
+
+    /**
+     * スレッドごとに保持する配列の総要素数の上限.
+     */
+    static final long MAX_RETAINED_TOTAL_LENGTH = 1L << 20;
+
+    private static final ThreadLocal<Pool> POOL = ThreadLocal.withInitial(Pool::new);
+
+    private DoubleArrayWorkspace() {
+        // インスタンス化不可
+        throw new AssertionError();
+    }
+
+    /**
+     * 与えた長さの, 0埋めされた配列を借り受ける. <br>
+     * 使用後は {@link #release(double[])} で返却することが望ましい
+     * (返却しなくても問題は生じないが, 再利用されない).
+     * 
+     * @param length 配列の長さ
+     * @return 長さが {@code length} で0埋めされた配列
+     * @throws NegativeArraySizeException length が負の場合
+     */
+    static double[] borrow(int length) {
+        double[] out = POOL.get().take(length);
+        if (out == null) {
+            return new double[length];
+        }
+        Arrays.fill(out, 0d);
+        return out;
+    }
+
+    /**
+     * {@link #borrow(int)} で借り受けた配列を返却する. <br>
+     * 返却後は, 呼び出し元はその配列を参照してはならない.
+     * 
+     * <p>
+     * {@code null} を与えた場合は何もしない.
+     * </p>
+     * 
+     * @param array 返却する配列
+     */
+    static void release(double[] array) {
+        if (array == null || array.length == 0 || array.length > MAX_RETAINED_LENGTH) {
+            return;
+        }
+        POOL.get().put(array);
+    }
+
+    /**
+     * 現在のスレッドにおいて, これまでに再利用された (プールから貸し出された) 配列の長さの総和を返す. <br>
+     * 計装用である.
+     * 
+     * @return 再利用された配列の長さの総和
+     */
+    static long reusedTotalLength() {
+        return POOL.get().reusedTotalLength;
+    }
+
+    /**
+     * スレッドごとの配列プール.
+     */
+    private static final class Pool {
+
+        /**
+         * 長さごとに, 返却された配列を保持する.
+         */
+        private final Map<Integer, ArrayDeque<double[]>> arraysByLength = new HashMap<>();
+        private long retainedTotalLength = 0L;
+        private long reusedTotalLength = 0L;
+
+        Pool() {
+            super();
+        }
+
+        /**
+         * 長さが一致する配列を取り出す. <br>
+         * 存在しない場合は null.
+         */
+        double[] take(int length) {
+            ArrayDeque<double[]> arrays = arraysByLength.get(length);
+            if (arrays == null || arrays.isEmpty()) {
+                return null;
+            }
+            retainedTotalLength -= length;
+            reusedTotalLength += length;
+            return arrays.pollLast();
+        }
+
+        /**
+         * 配列を保持する. <br>
+         * 上限を超える場合は, 長さが異なるものから破棄する.
+         */
+        void put(double[] array) {
+            final int length = array.length;
+            ArrayDeque<double[]> arrays = arraysByLength.computeIfAbsent(length, l -> new ArrayDeque<>());
+            for (double[] retained : arrays) {
+                if (retained == array) {
+                    // 二重返却は無視する
+                    return;
+                }
+            }
+
+            if (retainedTotalLength + length > MAX_RETAINED_TOTAL_LENGTH) {
+                for (Iterator<Map.Entry<Integer, ArrayDeque<double[]>>> ite =
+                        arraysByLength.entrySet().iterator(); ite.hasNext();) {
+                    var entry = ite.next();
+                    if (entry.getKey() != length) {
+                        retainedTotalLength -= (long) entry.getKey() * entry.getValue().size();
+                        ite.remove();
+                    }
+                }
+                if (retainedTotalLength + length > MAX_RETAINED_TOTAL_LENGTH) {
+                    return;
+                }
+            }
+
+            arrays.addLast(array);
+            retainedTotalLength += length;
+        }
+    }
+}
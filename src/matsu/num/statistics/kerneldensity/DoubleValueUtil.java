@@ -6,7 +6,7 @@
  */
 
 /*
- * 2025.10.15
+ * 2026.10.18
  */
 package matsu.num.statistics.kerneldensity;
 
@@ -72,205 +72,48 @@ final class DoubleValueUtil {
     }
 
     /**
-     * 与えた配列の絶対値最大を計算する. <br>
-     * 空の場合は0が返る.
+     * 昇順の配列のうち, 値が key 以上である最小の index を返す. <br>
+     * 存在しない場合は配列の長さを返す.
      * 
-     * @param v 配列
-     * @return 絶対値最大
-     */
-    static double absMax(double[] v) {
-        double absMax = 0d;
-        for (double e : v) {
-            absMax = Math.max(absMax, Math.abs(e));
-        }
-        return absMax;
-    }
-
-    /**
-     * 与えた配列の平均値を計算する. <br>
-     * 無限大を含む場合は結果は不定である. <br>
-     * 空の場合は NaN が返る.
-     * 
-     * <p>
-     * このメソッドは, 次と等価である. <br>
-     * {@code return average(v, absMax(v));}
-     * </p>
-     * 
-     * @param v 配列
-     * @return vの要素の平均
-     */
-    static double average(double[] v) {
-        return average(v, absMax(v));
-    }
-
-    /**
-     * 安定化用のabsMaxを陽に与えて, 配列の平均値を計算する. <br>
-     * 無限大を含む場合は結果は不定である. <br>
-     * 空の場合は NaN が返る.
-     * 
-     * @param v 配列
-     * @param absMax absMax(v)
-     * @return vの要素の平均
+     * @param sorted 昇順の配列 (NaN を含まない)
+     * @param key 値
+     * @return key 以上である最小の index
+     * @throws NullPointerException 引数がnullの場合
      */
-    static double average(double[] v, double absMax) {
-        if (v.length == 0) {
-            return Double.NaN;
-        }
-
-        final double largeLimit = 6.668014432879854274e+240; // 2^800
-        if (absMax >= largeLimit) {
-            return averageHuge(v);
-        }
-
-        double currentAverage = 0d;
-        // 2回平均化を試みる:精度向上の期待
-        for (int c = 0; c < 2; c++) {
-            double sum = 0d;
-            for (double e : v) {
-                sum += e - currentAverage;
+    static int lowerBound(double[] sorted, double key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
-            currentAverage += sum / v.length;
         }
-
-        return currentAverage;
+        return low;
     }
 
     /**
-     * vの要素が大きすぎる場合の, vの平均の計算.
-     * 
-     * <p>
-     * 引数には空でない配列が渡されなければならない.
-     * </p>
+     * 昇順の配列のうち, 値が key より大きい最小の index を返す. <br>
+     * 存在しない場合は配列の長さを返す.
      * 
-     * <p>
-     * 実装の詳細: <br>
-     * (この説明は古いかもしれない) <br>
-     * 要素を2^800 (正確に, およそ 1E+240) で割って平均を計算し,
-     * 最後に戻す.
-     * </p>
+     * @param sorted 昇順の配列 (NaN を含まない)
+     * @param key 値
+     * @return key より大きい最小の index
+     * @throws NullPointerException 引数がnullの場合
      */
-    private static double averageHuge(double[] v) {
-
-        final double largeCoeff = 6.668014432879854274e+240; // 2^800
-        final double invLargeCoeff = 1d / largeCoeff; // 2^(-800)
-
-        double currentAverage = 0d;
-        // 2回平均化を試みる:精度向上の期待
-        for (int c = 0; c < 2; c++) {
-            final double modifiedCurrentAverage = currentAverage * invLargeCoeff;
-            double sum = 0d;
-            for (double e : v) {
-                sum += e * invLargeCoeff - modifiedCurrentAverage;
+    static int upperBound(double[] sorted, double key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] <= key) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
-            currentAverage += (sum / v.length) * largeCoeff;
-        }
-
-        return currentAverage;
-    }
-
-    /**
-     * 与えた配列の center に対する二乗平均平方根 (RMS) を計算する. <br>
-     * 有限の値しか含まない場合であっても, 無限大が返る場合がある
-     * (巨大要素と center が逆符号の場合). <br>
-     * 無限大を含む場合は結果は不定である. <br>
-     * 空の場合は NaN が返る.
-     * 
-     * <p>
-     * center に average を与えた場合は, (n で割るタイプの) 標準偏差が返る.
-     * </p>
-     * 
-     * <p>
-     * このメソッドは, 次と等価である. <br>
-     * {@code return rms(v, center, absMax(v));}
-     * </p>
-     * 
-     * @param v 配列
-     * @param center 中心
-     * @param absMax absMax(v)
-     * @return vの要素の center に対する RMS
-     */
-    static double rms(double[] v, double center) {
-        return rms(v, center, absMax(v));
-    }
-
-    /**
-     * 安定化用のabsMaxを陽に与えて, 配列の center に対する二乗平均平方根 (RMS) を計算する. <br>
-     * 有限の値しか含まない場合であっても, 無限大が返る場合がある
-     * (巨大要素と center が逆符号の場合). <br>
-     * 無限大を含む場合は結果は不定である. <br>
-     * 空の場合は NaN が返る.
-     * 
-     * <p>
-     * center に average を与えた場合は, (n で割るタイプの) 標準偏差が返る.
-     * </p>
-     * 
-     * @param v 配列
-     * @param center 中心
-     * @param absMax absMax(v)
-     * @return vの要素の center に対する RMS
-     */
-    static double rms(double[] v, double center, double absMax) {
-        if (v.length == 0) {
-            return Double.NaN;
-        }
-
-        final double largeLimit = 2.58224987808690859e+120; // 2^400
-        if (absMax >= largeLimit || Math.abs(center) >= largeLimit) {
-            return rmsHuge(v, center);
-        }
-
-        double sum = 0d;
-        for (double e : v) {
-            double diff = e - center;
-            sum += diff * diff;
         }
-        return Math.sqrt(sum / v.length);
-    }
-
-    /**
-     * vの要素が大きすぎる場合の, vのRMSの計算.
-     * 
-     * <p>
-     * 引数には空でない配列が渡されなければならない.
-     * </p>
-     * 
-     * <p>
-     * 実装の詳細: <br>
-     * (この説明は古いかもしれない) <br>
-     * 要素を2^800 (正確に, およそ 1E+240) で割ってRMSを計算し,
-     * 最後に戻す.
-     * </p>
-     */
-    private static double rmsHuge(double[] v, double center) {
-
-        final double largeCoeff = 6.668014432879854274e+240; // 2^800
-        final double invLargeCoeff = 1d / largeCoeff; // 2^(-800)
-
-        double modifiedCenter = center * invLargeCoeff;
-        double sum = 0d;
-        for (double e : v) {
-            double mdiff = e * invLargeCoeff - modifiedCenter;
-            sum += mdiff * mdiff;
-        }
-        return Math.sqrt((sum / v.length)) * largeCoeff;
-    }
-
-    /**
-     * 与えた配列の (n で割るタイプの) 標準偏差を計算する. <br>
-     * 無限大を含む場合は結果は不定である. <br>
-     * 空の場合は NaN が返る.
-     * 
-     * <p>
-     * このメソッドは, 次と等価である. <br>
-     * {@code double absMax = absMax(v);} <br>
-     * {@code return rms(v, average(v, absMax), absMax);}
-     * </p>
-     * 
-     * @param v 配列
-     * @return vの要素の (n で割るタイプの) 標準偏差
-     */
-    static double std(double[] v) {
-        double absMax = absMax(v);
-        return rms(v, average(v, absMax), absMax);
+        return low;
     }
 }
@@ -6,7 +6,7 @@
  */
 
 /*
- * 2025.12.19
+ * 2026.10.18
  */
 package matsu.num.statistics.kerneldensity;
 
@@ -14,6 +14,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -59,7 +60,7 @@ final class EffectiveFilterZeroFillingConvolution
      * @return インスタンス
      * @throws NullPointerException 引数が null の場合
      */
-    static FilterZeroFillingConvolution instanceOf(
+    static EffectiveFilterZeroFillingConvolution instanceOf(
             EffectiveCyclicConvolution cyclicConvolution) {
 
         return new EffectiveFilterZeroFillingConvolution(
@@ -80,7 +81,7 @@ final class EffectiveFilterZeroFillingConvolution
      * @throws NullPointerException {@inheritDoc}
      */
     @Override
-    public PartialApplied applyPartial(double[] filter) {
+    public EffectiveFilterZeroFillingConvolution.PartialApplied applyPartial(double[] filter) {
         double[] filterCopy = filter.clone();
 
         if (filterCopy.length == 0) {
@@ -96,12 +97,23 @@ final class EffectiveFilterZeroFillingConvolution
     /**
      * {@link EffectiveFilterZeroFillingConvolution#applyPartial(double[])}
      * の実装.
+     * 
+     * <p>
+     * 計装のため, 入力が全て0であり畳み込みを省略したブロックの個数を,
+     * インスタンスごとに累積して {@link #skippedBlockCount()} で公開する. <br>
+     * この個数は計算結果に影響しない.
+     * </p>
      */
-    private final class PartialApplied implements FilterZeroFillingConvolution.PartialApplied {
+    final class PartialApplied implements FilterZeroFillingConvolution.PartialApplied {
 
         private final double[] filter;
         private final ConvolutionExecution convolution;
 
+        /**
+         * 畳み込みを省略したブロックの個数の累積.
+         */
+        private final LongAdder skippedBlocks = new LongAdder();
+
         /**
          * 非公開コンストラクタ.
          * 引数チェックは行われていない.
@@ -134,6 +146,16 @@ final class EffectiveFilterZeroFillingConvolution
             return convolution.compute(signal, parallel);
         }
 
+        /**
+         * このインスタンスによる全ての計算で, 入力が全て0であったため
+         * 巡回畳み込みを省略したブロックの個数の累積を返す.
+         * 
+         * @return 省略したブロックの個数
+         */
+        long skippedBlockCount() {
+            return skippedBlocks.sum();
+        }
+
         /**
          * フィルタ畳み込みの実体.
          */
@@ -209,12 +231,23 @@ final class EffectiveFilterZeroFillingConvolution
 
                 private final double[] signal;
 
+                /**
+                 * シグナルの非ゼロ要素の個数の累積. <br>
+                 * {@code nonZeroCount[i]} は, [0, i) に含まれる非ゼロ要素の個数である.
+                 */
+                private final int[] nonZeroCount;
+
                 /**
                  * 唯一のコンストラクタ. <br>
                  * filter,signalは必ず正当である.
                  */
                 ExecutionInner(final double[] signal) {
                     this.signal = signal;
+
+                    this.nonZeroCount = new int[signal.length + 1];
+                    for (int i = 0, len = signal.length; i < len; i++) {
+                        nonZeroCount[i + 1] = nonZeroCount[i] + (signal[i] != 0d ? 1 : 0);
+                    }
                 }
 
                 /**
@@ -276,7 +309,17 @@ final class EffectiveFilterZeroFillingConvolution
                 private double[] computeSubListConvolution(
                         int start, int subListEfficientLength) {
 
+                    // 拡張した区間の入力が全て0ならば, 結果も0である
+                    int windowFrom = Math.max(start - extendSize, 0);
+                    int windowTo = Math.min(signal.length, start + subListLength + extendSize);
+                    if (nonZeroCount[windowTo] == nonZeroCount[windowFrom]) {
+                        skippedBlocks.increment();
+                        return new double[subListEfficientLength];
+                    }
+
                     // 長さがconvolutionSizeのシグナルを得る
+                    // 巡回畳み込みは外部の実装であり, 入力の参照を保持する可能性があるため,
+                    // 入力はワークスペースから借りずに新たに生成する
                     double[] partialConvolutionSignal = cutSignal(
                             start - extendSize, start + subListLength + extendSize);
                     double[] partialOut = partialAppliedConv.apply(partialConvolutionSignal);
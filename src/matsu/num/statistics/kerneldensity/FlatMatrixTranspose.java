@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.stream.IntStream;
+
+/**
+ * 行優先の1次元配列で表された行列の転置を扱う.
+ * 
+ * <p>
+ * 素朴な転置では, 読み込みか書き込みのどちらかが行の長さのストライドを持つため,
+ * 行列が大きいとキャッシュミスが頻発する. <br>
+ * このクラスでは, 行列を {@link #BLOCK_SIZE} 四方のブロックに区切り,
+ * ブロックごとに転置する. <br>
+ * 行列が大きい場合は, ブロックの行ごとに並列に処理する.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class FlatMatrixTranspose {
+
+    /**
+     * ブロックの一辺のサイズ.
+     */
+    static final int BLOCK_SIZE = 32;
+
+    /**
+     * 並列実行に適する場合の, 行列の要素数の最低値.
+     */
+    static final int MIN_SIZE_IN_PARALLEL = 1 << 16;
+
+    private FlatMatrixTranspose() {
+        // インスタンス化不可
+        throw new AssertionError();
+    }
+
+    /**
+     * rows 行 cols 列の行列 src を転置し, cols 行 rows 列の行列として dst に書き込む. <br>
+     * すなわち, {@code dst[k * rows + j] = src[j * cols + k]} とする.
+     * 
+     * <p>
+     * src と dst は別の配列でなければならない. <br>
+     * 引数の整合性は呼び出し元で保証すること.
+     * </p>
+     * 
+     * @param src 転置元, 長さは {@code rows * cols}
+     * @param rows src の行数
+     * @param cols src の列数
+     * @param dst 書き込み先, 長さは {@code rows * cols}
+     */
+    static void transpose(double[] src, int rows, int cols, double[] dst) {
+        assert src != dst : "src != dst";
+        assert src.length == rows * cols && dst.length == rows * cols;
+
+        final int blockRows = (rows + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream stream = IntStream.range(0, blockRows);
+        if ((long) rows * cols >= MIN_SIZE_IN_PARALLEL) {
+            stream = stream.parallel();
+        }
+        stream.forEach(bj -> {
+            int jFrom = bj * BLOCK_SIZE;
+            int jTo = Math.min(rows, jFrom + BLOCK_SIZE);
+            for (int kFrom = 0; kFrom < cols; kFrom += BLOCK_SIZE) {
+                int kTo = Math.min(cols, kFrom + BLOCK_SIZE);
+                for (int j = jFrom; j < jTo; j++) {
+                    int srcOffset = j * cols;
+                    for (int k = kFrom; k < kTo; k++) {
+                        dst[k * rows + j] = src[srcOffset + k];
+                    }
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import matsu.num.statistics.kerneldensity.FilterZeroFillingConvolution.PartialApplied;
+
+/**
+ * 行優先の1次元配列で表された行列の各行に, フィルタ畳み込みを適用する.
+ * 
+ * @author Matsuura Y.
+ */
+final class FlatRowConvolution {
+
+    /**
+     * 畳み込みを行ごとに並列実行する場合の, 行列の要素数の最低値.
+     */
+    private static final int MIN_SIZE_IN_ROW_PARALLEL = 1 << 14;
+
+    private FlatRowConvolution() {
+        // インスタンス化不可
+        throw new AssertionError();
+    }
+
+    /**
+     * 行列の各行に畳み込みを適用し, 結果で上書きする.
+     * 
+     * <p>
+     * 行列が大きい場合は行ごとに並列に計算し, 各行の畳み込みは逐次で行う. <br>
+     * そうでない場合は, 行ごとの畳み込みに並列化の判定を委ねる.
+     * </p>
+     * 
+     * @param matrix 行列, 長さは {@code rows * cols}
+     * @param rows 行数
+     * @param cols 列数 (行の長さ)
+     * @param conv 畳み込み
+     */
+    static void convolveRows(double[] matrix, int rows, int cols, PartialApplied conv) {
+        if (rows >= 2 && (long) rows * cols >= MIN_SIZE_IN_ROW_PARALLEL) {
+            IntStream.range(0, rows)
+                    .parallel()
+                    .forEach(j -> convolveSegment(matrix, j * cols, cols, conv, true));
+            return;
+        }
+
+        for (int j = 0; j < rows; j++) {
+            convolveSegment(matrix, j * cols, cols, conv, false);
+        }
+    }
+
+    /**
+     * 行列の各行に畳み込みを適用し, 結果で上書きする. <br>
+     * ただし, タイルの占有状態を用いて, 畳み込み結果が非ゼロになりうる区間のみを計算する.
+     * 
+     * <p>
+     * 行 j の畳み込みは, 行 j を含むタイル行の占有タイルを extent セルだけ広げた区間の和に対してのみ行い,
+     * それ以外の要素は0とする. <br>
+     * 区間の外側は0であるため, 区間ごとに外部を0埋めして畳み込んだ結果は,
+     * 行全体を畳み込んだ結果と (丸め誤差を除いて) 一致する.
+     * </p>
+     * 
+     * @param matrix 行列, 長さは {@code rows * cols}
+     * @param occupancy matrix のタイル占有状態
+     * @param extent フィルタの片側の広がり (フィルタの片側の長さ - 1)
+     * @param conv 畳み込み
+     */
+    static void convolveRowsSparse(
+            double[] matrix, TileOccupancy2D occupancy, int extent, PartialApplied conv) {
+        final int rows = occupancy.rows;
+        final int cols = occupancy.cols;
+        final boolean parallel = rows >= 2 && (long) rows * cols >= MIN_SIZE_IN_ROW_PARALLEL;
+
+        IntStream stream = IntStream.range(0, rows);
+        if (parallel) {
+            stream = stream.parallel();
+        }
+        stream.forEach(j -> {
+            final int offset = j * cols;
+            final int tj = j / TileOccupancy2D.TILE_SIZE;
+
+            // 占有タイルを広げた区間を, 重なりを併合しながら左から順に処理する
+            int filled = 0;
+            int tk = 0;
+            while (tk < occupancy.tileCols) {
+                if (!occupancy.isOccupied(tj, tk)) {
+                    tk++;
+                    continue;
+                }
+                int from = Math.max(0, tk * TileOccupancy2D.TILE_SIZE - extent);
+                int to = Math.min(cols, (tk + 1) * TileOccupancy2D.TILE_SIZE + extent);
+                for (tk++; tk < occupancy.tileCols && tk * TileOccupancy2D.TILE_SIZE - extent <= to; tk++) {
+                    if (occupancy.isOccupied(tj, tk)) {
+                        to = Math.min(cols, (tk + 1) * TileOccupancy2D.TILE_SIZE + extent);
+                    }
+                }
+
+                Arrays.fill(matrix, offset + filled, offset + from, 0d);
+                convolveSegment(matrix, offset + from, to - from, conv, parallel);
+                filled = to;
+            }
+            Arrays.fill(matrix, offset + filled, offset + cols, 0d);
+        });
+    }
+
+    /**
+     * 配列の区間 [offset, offset + length) を信号として畳み込みを適用し, 結果で上書きする. <br>
+     * 行ごとに並列実行している場合は, 区間の畳み込みは逐次で行う.
+     * そうでない場合は, 並列化の判定を畳み込みに委ねる.
+     */
+    private static void convolveSegment(
+            double[] matrix, int offset, int length, PartialApplied conv, boolean rowParallel) {
+        double[] signal = DoubleArrayWorkspace.borrow(length);
+        System.arraycopy(matrix, offset, signal, 0, length);
+        double[] result = rowParallel
+                ? conv.compute(signal, false)
+                : conv.compute(signal);
+        System.arraycopy(result, 0, matrix, offset, length);
+        DoubleArrayWorkspace.release(signal);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * 64ビット浮動小数点数 ({@code double}) の値を並べただけのバイナリファイル (raw float64)
+ * を, データソースとして扱うためのユーティリティ.
+ * 
+ * <p>
+ * {@link #map(Path, ByteOrder)} はファイルを読み取り専用でメモリマップし,
+ * {@link DoubleBuffer} として返す. <br>
+ * 1回のメモリマップの上限を超える大きなファイルは,
+ * {@link #mapChunks(Path, ByteOrder)} により複数のバッファ (チャンク) に分割してメモリマップする. <br>
+ * 返されたバッファを
+ * {@link KernelDensity1D.Factory#createOf(DoubleBuffer)},
+ * {@link KernelDensity2D.Factory#createOf(DoubleBuffer)},
+ * {@link KernelDensity2D.Factory#createOf(DoubleBuffer, DoubleBuffer)}
+ * (チャンクの場合は {@link KernelDensity1D.Factory#createOf(DoubleBuffer[])} など)
+ * に与えることで, ファイルの内容をヒープに読み込むことなくカーネル密度推定を行うことができる.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class Float64Files {
+
+    /**
+     * メモリマップできるファイルの最大バイト数. <br>
+     * 1回のメモリマップの上限 ({@link Integer#MAX_VALUE} バイト) 以下の, 8の倍数である.
+     */
+    public static final long MAX_FILE_SIZE = (Integer.MAX_VALUE / Double.BYTES) * (long) Double.BYTES;
+
+    /**
+     * {@link #mapChunks(Path, ByteOrder)} における, チャンクの最大バイト数. <br>
+     * (x, y) の組が分断されないように, 16の倍数とする.
+     */
+    public static final long MAX_CHUNK_SIZE = 1L << 30;
+
+    private Float64Files() {
+        // インスタンス化不可
+        throw new AssertionError();
+    }
+
+    /**
+     * raw float64 ファイルを読み取り専用でメモリマップし,
+     * 与えたバイト順で解釈した {@link DoubleBuffer} を返す.
+     * 
+     * <p>
+     * 返されるバッファの位置は0, リミットはファイルの値の個数である. <br>
+     * メモリマップはバッファがガベージコレクトされるまで有効であり,
+     * ファイルのチャネルはこのメソッドの終了時に閉じられる. <br>
+     * マップ中にファイルが他から変更された場合, バッファの内容は保証されない.
+     * </p>
+     * 
+     * <p>
+     * ファイルのサイズは8の倍数で, {@link #MAX_FILE_SIZE} 以下でなければならない. <br>
+     * これに違反する場合, {@link IllegalArgumentException} をスローする.
+     * </p>
+     * 
+     * @param file ファイル
+     * @param order 値のバイト順 ({@link ByteOrder#LITTLE_ENDIAN} または {@link ByteOrder#BIG_ENDIAN})
+     * @return ファイルの値を表す読み取り専用のバッファ
+     * @throws IOException ファイルの読み込み, メモリマップに失敗した場合
+     * @throws IllegalArgumentException ファイルのサイズが不正な場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static DoubleBuffer map(Path file, ByteOrder order) throws IOException {
+        Objects.requireNonNull(order);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % Double.BYTES != 0) {
+                throw new IllegalArgumentException(
+                        "file size is not a multiple of 8: size = %s".formatted(size));
+            }
+            if (size > MAX_FILE_SIZE) {
+                throw new IllegalArgumentException(
+                        "file is too large to map: size = %s".formatted(size));
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0L, size)
+                    .order(order)
+                    .asDoubleBuffer();
+        }
+    }
+
+    /**
+     * raw float64 ファイルを, 先頭から {@link #MAX_CHUNK_SIZE} バイトごとのチャンクに分割して
+     * 読み取り専用でメモリマップし, 与えたバイト順で解釈した {@link DoubleBuffer} の配列を返す.
+     * 
+     * <p>
+     * ファイルのサイズに上限はなく, 値の総数は {@code int} の範囲を超えてもよい. <br>
+     * 各チャンクの位置は0, リミットはチャンクの値の個数である. <br>
+     * 空のファイルの場合は, 長さ0の配列を返す. <br>
+     * メモリマップとチャネルの扱いは {@link #map(Path, ByteOrder)} と同様である.
+     * </p>
+     * 
+     * <p>
+     * ファイルのサイズは8の倍数でなければならない. <br>
+     * これに違反する場合, {@link IllegalArgumentException} をスローする.
+     * </p>
+     * 
+     * @param file ファイル
+     * @param order 値のバイト順 ({@link ByteOrder#LITTLE_ENDIAN} または {@link ByteOrder#BIG_ENDIAN})
+     * @return ファイルの値を表す読み取り専用のチャンク
+     * @throws IOException ファイルの読み込み, メモリマップに失敗した場合
+     * @throws IllegalArgumentException ファイルのサイズが不正な場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static DoubleBuffer[] mapChunks(Path file, ByteOrder order) throws IOException {
+        Objects.requireNonNull(order);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % Double.BYTES != 0) {
+                throw new IllegalArgumentException(
+                        "file size is not a multiple of 8: size = %s".formatted(size));
+            }
+            int chunkCount = Math.toIntExact((size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE);
+            DoubleBuffer[] chunks = new DoubleBuffer[chunkCount];
+            for (int c = 0; c < chunkCount; c++) {
+                long position = c * MAX_CHUNK_SIZE;
+                chunks[c] = channel.map(
+                        FileChannel.MapMode.READ_ONLY, position, Math.min(MAX_CHUNK_SIZE, size - position))
+                        .order(order)
+                        .asDoubleBuffer();
+            }
+            return chunks;
+        }
+    }
+}
@@ -6,12 +6,14 @@
  */
 
 /*
- * 2025.12.19
+ * 2026.10.18
  */
 package matsu.num.statistics.kerneldensity;
 
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.function.ToDoubleFunction;
+import java.util.function.DoubleBinaryOperator;
 
 /**
  * ガウシアンをカーネル関数とする, 1次元のカーネル密度推定.
@@ -37,15 +39,35 @@ import java.util.function.ToDoubleFunction;
 public final class GaussianKd1D implements KernelDensity1D {
 
     /**
-     * 結果出力のメッシュの最大値(概算).
+     * 実効範囲 (ソースの台の近傍) におけるメッシュの最大値(概算).
      */
     private static final int MAX_MESH = 10_000;
 
+    /**
+     * 結果出力の (評価範囲全体での) メッシュの最大値(概算).
+     */
+    private static final int MAX_OUTPUT_MESH = 1_000_000;
+
     private final BandWidthRule bandWidthRule;
     private final ResolutionRule resolutionRule;
     private final FilterZeroFillingConvolution convolution;
 
-    private final double[] source;
+    /**
+     * ビニングの対象となるソース (重み付き, バッファによるものを含む). <br>
+     * ヒストグラムから生成された場合, ソースを格子に集計した場合は null.
+     */
+    private final BinningSource1D source;
+
+    /**
+     * ヒストグラムによるソース (格子に集計したソースを含む). <br>
+     * 点から生成され, 格子に集計しなかった場合は null.
+     */
+    private final BucketedSource1D histogram;
+
+    /**
+     * ソースの台.
+     */
+    private final SupportWindow support;
 
     /**
      * カーネルバンド幅, Double.MIN_NORMAL以上である.
@@ -54,29 +76,37 @@ public final class GaussianKd1D implements KernelDensity1D {
 
     /**
      * 非公開の唯一のコンストラクタ. <br>
-     * {@link Factory#createOf(double[])} から呼ばれるために用意. <br>
-     * 引数は, {@link Factory#createOf(double[])} の契約を満たした状態で渡される.
+     * {@link Factory#createOf(double[])}, {@link Factory#createOf(double[], double[])},
+     * {@link Factory#createOf(Kde1DHistogramDto)}, {@link Factory#createOf(DoubleBuffer)},
+     * {@link Factory#createOf(DoubleBuffer[])}
+     * から呼ばれるために用意. <br>
+     * 引数は, それらの契約を満たした状態で渡される. <br>
+     * source と histogram は, ちょうど一方が null である.
      * 
      * <p>
      * 配列はこのコンストラクタ内部ではコピーされない. <br>
      * 配列の要素が変更される可能性がある場合, 呼び出しもとでコピーを取らなければならない.
      * </p>
+     * 
+     * @param source 点によるソース
+     * @param histogram ヒストグラムによるソース
+     * @param support ソースの台
+     * @param bandWidth {@link BandWidthRule} により計算されたバンド幅
+     * @param factory ファクトリ
      */
-    private GaussianKd1D(double[] source, GaussianKd1D.Factory factory) {
+    private GaussianKd1D(BinningSource1D source, BucketedSource1D histogram,
+            SupportWindow support, double bandWidth, GaussianKd1D.Factory factory) {
         super();
 
         this.bandWidthRule = factory.bandWidthRule;
         this.resolutionRule = factory.resolutionRule;
+        this.convolution = factory.convolution();
 
-        EffectiveCyclicConvolution cycconv = factory.effectiveCyclicConvolution;
-        this.convolution = Objects.isNull(cycconv)
-                ? NaiveFilterZeroFillingConvolutionParallelizable.instance()
-                : EffectiveFilterZeroFillingConvolution.instanceOf(cycconv);
-
+        assert Objects.isNull(source) != Objects.isNull(histogram);
         this.source = source;
-        this.bandWidth = Math.max(
-                bandWidthRule.computeBandwidth(source),
-                1E-300);
+        this.histogram = histogram;
+        this.support = support;
+        this.bandWidth = Math.max(bandWidth, 1E-300);
     }
 
     /**
@@ -84,23 +114,76 @@ public final class GaussianKd1D implements KernelDensity1D {
      */
     @Override
     public KdeGrid1dDto evaluateIn(Range range) {
-        // resolutionScale のデフォルトは定数だが, 範囲が広すぎる場合は粗くする.
+        // 評価範囲のうち, ソースの台の近傍 (実効範囲) のみを計算し, 残りは0埋めする.
+        final Range effectiveRange = support.effectiveRange(range, bandWidth);
+
+        // resolutionScale のデフォルトは定数だが, 実効範囲が広すぎる場合は粗くする.
+        // 出力が大きくなりすぎないよう, 評価範囲全体に対しても上限を設ける.
         final double resolutionScale =
                 Math.max(
-                        resolutionRule.resolutionScale,
-                        range.halfWidth() / (MAX_MESH * 0.5d * bandWidth));
+                        Math.max(
+                                resolutionRule.resolutionScale,
+                                range.halfWidth() / (MAX_OUTPUT_MESH * 0.5d * bandWidth)),
+                        Objects.isNull(effectiveRange)
+                                ? 0d
+                                : effectiveRange.halfWidth() / (MAX_MESH * 0.5d * bandWidth));
         final double resolution = bandWidth * resolutionScale;
 
+        final double[] x = SupportWindow.mesh(range, resolution);
+        final double[] density = new double[x.length];
+        if (Objects.isNull(effectiveRange)) {
+            return new KdeGrid1dDto(x, density);
+        }
+        final int[] window = SupportWindow.indexWindow(x, effectiveRange.min(), effectiveRange.max());
+        if (window[0] == window[1]) {
+            return new KdeGrid1dDto(x, density);
+        }
+
         // bandWidth と resolution から, フィルタを計算する.
         final double[] filterOneSide = GaussianFilterComputation.compute(resolutionScale);
 
-        final Mesh1D mesh1d = new Mesh1D(range, resolution, filterOneSide.length - 1, source);
+        final Mesh1D mesh1d = new Mesh1D(
+                Arrays.copyOfRange(x, window[0], window[1]), resolution, filterOneSide.length - 1,
+                Objects.isNull(source) ? histogram.subdivide(resolution) : source);
 
         // 範囲外を0埋めしてフィルタ畳み込みを行い, 端をカット
-        double[] result = mesh1d.reduceSize(
-                convolution.applyPartial(filterOneSide).compute(mesh1d.weight));
+        // 畳み込み後は weight は不要なので, ワークスペースに返却する
+        double[] convolved = convolution.applyPartial(filterOneSide).compute(mesh1d.weight);
+        DoubleArrayWorkspace.release(mesh1d.weight);
+        double[] result = mesh1d.reduceSize(convolved);
+        System.arraycopy(result, 0, density, window[0], result.length);
 
-        return new KdeGrid1dDto(mesh1d.x, result);
+        return new KdeGrid1dDto(x, density);
+    }
+
+    /**
+     * ビニングの対象となるソースを返す. <br>
+     * ヒストグラムによるソースの場合は null.
+     */
+    BinningSource1D source() {
+        return source;
+    }
+
+    /**
+     * ヒストグラムによるソースを返す. <br>
+     * ビニングの対象となるソースの場合は null.
+     */
+    BucketedSource1D histogram() {
+        return histogram;
+    }
+
+    /**
+     * ソースの台を返す.
+     */
+    SupportWindow support() {
+        return support;
+    }
+
+    /**
+     * カーネルバンド幅を返す.
+     */
+    double bandWidth() {
+        return bandWidth;
     }
 
     /**
@@ -120,6 +203,9 @@ public final class GaussianKd1D implements KernelDensity1D {
         private final BandWidthRule bandWidthRule;
         private final ResolutionRule resolutionRule;
         private final EffectiveCyclicConvolution effectiveCyclicConvolution;
+        private final boolean sortsSource;
+        private final boolean deduplicatesSource;
+        private final boolean compactsSource;
 
         /**
          * 唯一の非公開コンストラクタ.
@@ -127,12 +213,16 @@ public final class GaussianKd1D implements KernelDensity1D {
          * @throws NullPointerException 引数にnullが含まれる場合
          */
         private Factory(BandWidthRule bandWidthRule, ResolutionRule resolutionRule,
-                EffectiveCyclicConvolution effectiveCyclicConvolution) {
+                EffectiveCyclicConvolution effectiveCyclicConvolution,
+                boolean sortsSource, boolean deduplicatesSource, boolean compactsSource) {
             super();
 
             this.bandWidthRule = Objects.requireNonNull(bandWidthRule);
             this.resolutionRule = Objects.requireNonNull(resolutionRule);
             this.effectiveCyclicConvolution = effectiveCyclicConvolution;
+            this.sortsSource = sortsSource;
+            this.deduplicatesSource = deduplicatesSource;
+            this.compactsSource = compactsSource;
         }
 
         /**
@@ -141,11 +231,179 @@ public final class GaussianKd1D implements KernelDensity1D {
          */
         @Override
         public GaussianKd1D createOf(double[] source) {
-            double[] srcCopy = source.clone();
-            if (!KernelDensity1D.Factory.validateSource(srcCopy)) {
+            // コピー, 検証, モーメントの集計を1度の走査で行う
+            SourceIngestion.Source1D ingested = SourceIngestion.of(source);
+            if (Objects.isNull(ingested)) {
+                throw new IllegalArgumentException("illegal: source is invalid");
+            }
+            // バンド幅は, 重複の集約前のソースから計算する
+            double bandWidth = bandWidthRule.computeBandwidth(ingested.std, ingested.sampleSize);
+            return newInstance(ingested.values, null, bandWidth);
+        }
+
+        /**
+         * @throws IllegalArgumentException {@inheritDoc }
+         * @throws NullPointerException {@inheritDoc }
+         */
+        @Override
+        public GaussianKd1D createOf(double[] values, double[] weights) {
+            // コピー, 検証, モーメントの集計を1度の走査で行う
+            SourceIngestion.Source1D ingested = SourceIngestion.of(values, weights);
+            if (Objects.isNull(ingested)) {
+                throw new IllegalArgumentException("illegal: source is invalid");
+            }
+            // バンド幅は, 重複の集約前のソースから計算する
+            double bandWidth = bandWidthRule.computeBandwidth(ingested.std, ingested.sampleSize);
+            return newInstance(ingested.values, ingested.weights, bandWidth);
+        }
+
+        /**
+         * @throws IllegalArgumentException {@inheritDoc }
+         * @throws NullPointerException {@inheritDoc }
+         */
+        @Override
+        public GaussianKd1D createOf(Kde1DHistogramDto histogram) {
+            Kde1DHistogramDto histCopy = histogram.copy();
+            if (!KernelDensity1D.Factory.validateSource(histCopy)) {
                 throw new IllegalArgumentException("illegal: source is invalid");
             }
-            return new GaussianKd1D(srcCopy, this);
+            BucketedSource1D bucketed = new BucketedSource1D(histCopy);
+            double bandWidth = bandWidthRule.computeBandwidth(bucketed.std(), bucketed.totalCount);
+            return new GaussianKd1D(null, bucketed, bucketed.support, bandWidth, this);
+        }
+
+        /**
+         * @throws IllegalArgumentException {@inheritDoc }
+         * @throws NullPointerException {@inheritDoc }
+         */
+        @Override
+        public GaussianKd1D createOf(DoubleBuffer source) {
+            return createOf(new DoubleBuffer[] { source });
+        }
+
+        /**
+         * @throws IllegalArgumentException {@inheritDoc }
+         * @throws NullPointerException {@inheritDoc }
+         */
+        @Override
+        public GaussianKd1D createOf(DoubleBuffer[] chunks) {
+            // 呼び出し元の位置, リミットに依存しない読み取り専用のビュー
+            ChunkedDoubles values = ChunkedDoubles.readOnlyViewOf(chunks);
+            if (values.size == 0L) {
+                throw new IllegalArgumentException("illegal: source is invalid");
+            }
+
+            // 検証, モーメントと台の集計を, コピーせずに1度の走査で行う
+            BinningSource1D binningSource = BinningSource1D.of(values, false);
+            SourceIngestion.ScannedAxis scanned = SourceIngestion.scan(binningSource);
+            if (Objects.isNull(scanned)) {
+                throw new IllegalArgumentException("illegal: source is invalid");
+            }
+            double bandWidth = bandWidthRule.computeBandwidth(scanned.std, scanned.sampleSize);
+            return new GaussianKd1D(binningSource, null, scanned.support, bandWidth, this);
+        }
+
+        /**
+         * ヒストグラムによるソースと, 計算済みのバンド幅からインスタンスを生成する. <br>
+         * 逐次的に集計したソースや, 保存したスナップショットのために用意されている.
+         * 
+         * @param histogram ヒストグラムによるソース
+         * @param bandWidth バンド幅, 0以上の有限値
+         * @return インスタンス
+         */
+        GaussianKd1D createOf(BucketedSource1D histogram, double bandWidth) {
+            return new GaussianKd1D(null, histogram, histogram.support, bandWidth, this);
+        }
+
+        /**
+         * ビニングの対象となるソースと, その台, 計算済みのバンド幅からインスタンスを生成する. <br>
+         * 逐次的に集計したソースや, 保存したスナップショットのために用意されている.
+         * 
+         * @param source ソース, 生成後に書き換えてはならない
+         * @param support ソースの台
+         * @param bandWidth バンド幅, 0以上の有限値
+         * @return インスタンス
+         */
+        GaussianKd1D createOf(BinningSource1D source, SupportWindow support, double bandWidth) {
+            return new GaussianKd1D(source, null, support, bandWidth, this);
+        }
+
+        /**
+         * このファクトリのルールにより, 標準偏差とサンプルサイズからバンド幅を計算する.
+         * 
+         * @param std 標準偏差, 0以上の有限値
+         * @param sampleSize サンプルサイズ, 正の値
+         * @return バンド幅, 0以上の数
+         */
+        double computeBandwidth(double std, double sampleSize) {
+            return bandWidthRule.computeBandwidth(std, sampleSize);
+        }
+
+        /**
+         * このファクトリの設定によるフィルタ畳み込みを返す.
+         * 
+         * @return フィルタ畳み込み
+         */
+        FilterZeroFillingConvolution convolution() {
+            return Objects.isNull(effectiveCyclicConvolution)
+                    ? NaiveFilterZeroFillingConvolutionParallelizable.instance()
+                    : EffectiveFilterZeroFillingConvolution.instanceOf(effectiveCyclicConvolution);
+        }
+
+        /**
+         * このファクトリのルールによる分解能スケールを返す.
+         * 
+         * @return 分解能スケール
+         */
+        double resolutionScale() {
+            return resolutionRule.resolutionScale;
+        }
+
+        /**
+         * (コピー済みの) 配列によるソースからインスタンスを生成する. <br>
+         * ファクトリの設定に従い, ソースを格子に集計するか,
+         * ビニングの対象となるソースを構築する.
+         * 
+         * @param values 値, 書き換えられる
+         * @param weights 重み (重みを持たない場合は null), 書き換えられる
+         * @param bandWidth バンド幅
+         * @return インスタンス
+         */
+        private GaussianKd1D newInstance(double[] values, double[] weights, double bandWidth) {
+            SupportWindow support = new SupportWindow(values);
+            if (compactsSource) {
+                // 集計した場合, 値の配列は保持されない
+                BucketedSource1D compacted = SourceCompaction.compact(values, weights, support, bandWidth);
+                if (Objects.nonNull(compacted)) {
+                    return new GaussianKd1D(null, compacted, compacted.support, bandWidth, this);
+                }
+            }
+            BinningSource1D binningSource = toBinningSource(values, weights);
+            return new GaussianKd1D(binningSource, null, support, bandWidth, this);
+        }
+
+        /**
+         * ファクトリの設定に従い, (コピー済みの) ソースを並べ替え, 重複を集約して,
+         * ビニングの対象となるソースを構築する.
+         * 
+         * @param values 値, 書き換えられる
+         * @param weights 重み (重みを持たない場合は null), 書き換えられる
+         * @return ソース
+         */
+        private BinningSource1D toBinningSource(double[] values, double[] weights) {
+            if (deduplicatesSource && SourceDeduplication.isWorthwhile(values)) {
+                return SourceDeduplication.collapse(values, weights);
+            }
+            if (Objects.isNull(weights)) {
+                if (sortsSource) {
+                    SourceSorting.sort(values);
+                }
+                return BinningSource1D.of(values, sortsSource);
+            }
+            if (sortsSource) {
+                SourceSorting.sort(values, weights);
+            }
+            return BinningSource1D.of(values, weights, sortsSource);
         }
 
         /**
@@ -159,7 +417,116 @@ public final class GaussianKd1D implements KernelDensity1D {
          * @return 置き換えられた新しい {@code Factory} インスタンス
          */
         public Factory withConvolutionBy(EffectiveCyclicConvolution other) {
-            return new Factory(bandWidthRule, resolutionRule, other);
+            return new Factory(
+                    bandWidthRule, resolutionRule, other, sortsSource, deduplicatesSource, compactsSource);
+        }
+
+        /**
+         * ソースを並べ替えて保持するかどうかを与えたものに変更し, 新しいインスタンスとして返す.
+         * 
+         * <p>
+         * 並べ替えを有効にした場合, {@link #createOf(double[])},
+         * {@link #createOf(double[], double[])} において,
+         * ソースのコピーを値について昇順に並べ替えて保持する
+         * (並べ替えのコストは生成時に1度だけかかる). <br>
+         * これにより, 評価ごとに, 評価範囲に寄与しうる点の区間を二分探索で求め,
+         * その区間のみをビニングするようになる. <br>
+         * 大きなソースに対して, 狭い範囲の評価を繰り返す場合に有効である. <br>
+         * コピーを保持しない {@link #createOf(DoubleBuffer)}, {@link #createOf(DoubleBuffer[])}
+         * には適用されない.
+         * </p>
+         * 
+         * <p>
+         * デフォルトは無効である. <br>
+         * 並べ替えの有無により, 結果は丸め誤差の範囲で異なる可能性がある.
+         * </p>
+         * 
+         * @param sortsSource ソースを並べ替えるならば {@code true}
+         * @return 置き換えられた新しい {@code Factory} インスタンス
+         */
+        public Factory withSourceSorting(boolean sortsSource) {
+            return new Factory(
+                    bandWidthRule, resolutionRule, effectiveCyclicConvolution,
+                    sortsSource, deduplicatesSource, compactsSource);
+        }
+
+        /**
+         * ソースの重複した値を集約するかどうかを与えたものに変更し, 新しいインスタンスとして返す.
+         * 
+         * <p>
+         * 集約を有効にした場合, {@link #createOf(double[])},
+         * {@link #createOf(double[], double[])} において,
+         * ソースの異なる値の個数を (1度の走査で) 概算し,
+         * それがソースのサイズに比べて十分に少ないときに限り,
+         * ソースのコピーを並べ替えて重複した値を (値, 重複度) に集約して保持する. <br>
+         * 集約したソースは重み付きのソースとしてビニングされるため,
+         * 保持するメモリと評価のコストは, ソースのサイズでなく異なる値の個数に比例する. <br>
+         * 量子化されたデータ (整数値, ミリ秒単位の時間など) の大きなソースに対して有効である. <br>
+         * 全ての値が整数, または小数点以下の桁数が少ない10進数を読み込んだ値である場合は,
+         * 並べ替えの代わりに格子上の計数により集約する. <br>
+         * コピーを保持しない {@link #createOf(DoubleBuffer)}, {@link #createOf(DoubleBuffer[])}
+         * には適用されない.
+         * </p>
+         * 
+         * <p>
+         * バンド幅は集約前のソースから計算されるため, 集約の有無によって変わらない. <br>
+         * ただし, ビニングの加算順序が異なるため, 結果は丸め誤差の範囲で異なる可能性がある. <br>
+         * 集約されたソースは昇順に並んでいるため, 集約が行われた場合は
+         * {@link #withSourceSorting(boolean)} の設定によらず, 並べ替えを有効にした場合と同様に評価される.
+         * </p>
+         * 
+         * <p>
+         * デフォルトは無効である.
+         * </p>
+         * 
+         * @param deduplicatesSource 重複した値を集約するならば {@code true}
+         * @return 置き換えられた新しい {@code Factory} インスタンス
+         */
+        public Factory withSourceDeduplication(boolean deduplicatesSource) {
+            return new Factory(
+                    bandWidthRule, resolutionRule, effectiveCyclicConvolution,
+                    sortsSource, deduplicatesSource, compactsSource);
+        }
+
+        /**
+         * ソースを格子に集計して保持するかどうかを与えたものに変更し, 新しいインスタンスとして返す.
+         * 
+         * <p>
+         * 集計を有効にした場合, {@link #createOf(double[])},
+         * {@link #createOf(double[], double[])} において,
+         * ソースのコピーをその台にわたる細かい等幅の格子 (ヒストグラム) に集計し,
+         * 格子の度数のみを保持する (ソースのコピーは保持しない). <br>
+         * 格子のビンの幅はバンド幅の 1/64 である. <br>
+         * これにより, 保持するメモリと評価ごとのビニングのコストは,
+         * ソースのサイズによらず, 格子のビンの個数に比例する. <br>
+         * 多数のインスタンスを長期間保持する場合に有効である. <br>
+         * コピーを保持しない {@link #createOf(DoubleBuffer)}, {@link #createOf(DoubleBuffer[])}
+         * には適用されない.
+         * </p>
+         * 
+         * <p>
+         * バンド幅は集計前のソースから計算されるため, 集計の有無によって変わらない. <br>
+         * 集計は各値をビンの中心へ (ビンの幅の半分以内だけ) 動かすことに相当するため,
+         * 密度の誤差は, 至るところでカーネルの最大値
+         * 1/(&radic;(2&pi;)<i>h</i>) (<i>h</i> はバンド幅) の 0.5% 以下である. <br>
+         * 台がバンド幅に比べて非常に広い場合 (ビンの個数が 2<sup>20</sup> を超える場合)
+         * や, ビンの個数がソースのサイズ以上となる場合は集計せず,
+         * 集計を無効にした場合と同様にソースを保持する. <br>
+         * 集計が行われた場合, {@link #withSourceSorting(boolean)},
+         * {@link #withSourceDeduplication(boolean)} の設定は意味を持たない.
+         * </p>
+         * 
+         * <p>
+         * デフォルトは無効である.
+         * </p>
+         * 
+         * @param compactsSource ソースを格子に集計するならば {@code true}
+         * @return 置き換えられた新しい {@code Factory} インスタンス
+         */
+        public Factory withSourceCompaction(boolean compactsSource) {
+            return new Factory(
+                    bandWidthRule, resolutionRule, effectiveCyclicConvolution,
+                    sortsSource, deduplicatesSource, compactsSource);
         }
 
         /**
@@ -187,7 +554,7 @@ public final class GaussianKd1D implements KernelDensity1D {
          * @throws NullPointerException 引数にnullが含まれる場合
          */
         public static Factory of(BandWidthRule bandWidthRule, ResolutionRule resolutionRule) {
-            return new Factory(bandWidthRule, resolutionRule, null);
+            return new Factory(bandWidthRule, resolutionRule, null, false, false, false);
         }
     }
 
@@ -195,6 +562,14 @@ public final class GaussianKd1D implements KernelDensity1D {
      * ガウシアン1次元のカーネル密度推定での, バンド幅の設定ルールを扱う列挙型.
      * 
      * <p>
+     * バンド幅は, データの (各軸の) 標準偏差とサンプルサイズから計算される. <br>
+     * 重み付きのデータソースの場合, 標準偏差は重み付き標準偏差,
+     * サンプルサイズは有効サンプルサイズ
+     * (&Sigma;<i>w</i>)<sup>2</sup>/&Sigma;<i>w</i><sup>2</sup>
+     * として計算される.
+     * </p>
+     * 
+     * <p>
      * <i>
      * <u>
      * 将来のバージョンで列挙定数が追加される可能性がある. <br>
@@ -212,38 +587,42 @@ public final class GaussianKd1D implements KernelDensity1D {
         /**
          * 標準のバンド幅計算ルールを表すシングルトンインスタンス.
          */
-        STANDARD(da -> Math.min(
-                DoubleValueUtil.std(da) / Math.pow(da.length, 0.2),
+        STANDARD((std, n) -> Math.min(
+                std / Math.pow(n, 0.2),
                 Double.MAX_VALUE));
 
         /**
-         * データ列を与えてバンド幅を返す関数.
+         * データ列の標準偏差とサンプルサイズを与えてバンド幅を返す関数.
          * 
          * <p>
-         * 関数の引数には, サイズは1以上であり, 有限値であることが保証されている配列が与えられるとしてよい. <br>
+         * 関数の引数には, 0以上の標準偏差と, 1以上のサンプルサイズ
+         * (重み付きの場合は有効サンプルサイズ) が与えられるとしてよい. <br>
          * 戻り値は0以上の有限の数である必要がある.
          * </p>
          */
-        private final ToDoubleFunction<double[]> bandwidthComputer;
+        private final DoubleBinaryOperator bandwidthComputer;
 
-        private BandWidthRule(ToDoubleFunction<double[]> bandwidthComputer) {
+        private BandWidthRule(DoubleBinaryOperator bandwidthComputer) {
             this.bandwidthComputer = bandwidthComputer;
         }
 
         /**
-         * ソースとなるデータ点を与えて, バンド幅を計算する. <br>
+         * 標準偏差とサンプルサイズを与えて, バンド幅を計算する. <br>
          * 戻り値は, 0以上の有限の数である.
          * 
          * <p>
-         * クラス外から呼ばれることは想定されていないので, 非公開である. <br>
-         * 引数は, サイズは1以上であり, 有限値であることが保証されている.
+         * ソースの取り込み時に集計したモーメントや,
+         * データ点を持たないソース (ヒストグラム) のために用意されている. <br>
+         * 重み付きのソースの場合, サンプルサイズには有効サンプルサイズを与える. <br>
+         * クラス外から呼ばれることは想定されていないので, 非公開である.
          * </p>
          * 
-         * @param source ソース, サイズは1以上の有限値配列
+         * @param std 標準偏差, 0以上の有限値
+         * @param sampleSize サンプルサイズ, 正の値
          * @return バンド幅, 0以上の数
          */
-        double computeBandwidth(double[] source) {
-            return this.bandwidthComputer.applyAsDouble(source);
+        double computeBandwidth(double std, double sampleSize) {
+            return this.bandwidthComputer.applyAsDouble(std, sampleSize);
         }
     }
 
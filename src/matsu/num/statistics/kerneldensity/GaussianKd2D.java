@@ -6,12 +6,14 @@
  */
 
 /*
- * 2025.12.19
+ * 2026.10.18
  */
 package matsu.num.statistics.kerneldensity;
 
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.function.ToDoubleFunction;
+import java.util.function.DoubleBinaryOperator;
 
 import matsu.num.statistics.kerneldensity.FilterZeroFillingConvolution.PartialApplied;
 
@@ -39,15 +41,41 @@ import matsu.num.statistics.kerneldensity.FilterZeroFillingConvolution.PartialAp
 public final class GaussianKd2D implements KernelDensity2D {
 
     /**
-     * 結果出力のメッシュの各軸方向の最大値(概算).
+     * 実効範囲 (ソースの台の近傍) におけるメッシュの各軸方向の最大値(概算).
      */
     private static final int MAX_MESH = 500;
 
+    /**
+     * 結果出力の (評価範囲全体での) メッシュの各軸方向の最大値(概算).
+     */
+    private static final int MAX_OUTPUT_MESH = 2_000;
+
+    /**
+     * 疎な評価を行う場合の, 重み配列の占有タイルの割合の最大値.
+     */
+    private static final double MAX_OCCUPIED_FRACTION_FOR_SPARSE = 0.25;
+
     private final BandWidthRule bandWidthRule;
     private final ResolutionRule resolutionRule;
     private final FilterZeroFillingConvolution convolution;
 
-    private final Kde2DSourceDto source;
+    /**
+     * ビニングの対象となるソース (重み付き, バッファによるものを含む). <br>
+     * ヒストグラムから生成された場合は null.
+     */
+    private final BinningSource2D source;
+
+    /**
+     * ヒストグラムによるソース. <br>
+     * 点から生成された場合は null.
+     */
+    private final BucketedSource2D histogram;
+
+    /**
+     * ソースの台 (X, Y それぞれ).
+     */
+    private final SupportWindow supportX;
+    private final SupportWindow supportY;
 
     /**
      * Xのカーネルバンド幅, Double.MIN_NORMAL以上である.
@@ -61,32 +89,43 @@ public final class GaussianKd2D implements KernelDensity2D {
 
     /**
      * 非公開の唯一のコンストラクタ. <br>
-     * {@link Factory#createOf(double[])} から呼ばれるために用意. <br>
-     * 引数は, {@link Factory#createOf(double[])} の契約を満たした状態で渡される.
+     * {@link Factory#createOf(Kde2DSourceDto)}, {@link Factory#createOf(Kde2DWeightedSourceDto)},
+     * {@link Factory#createOf(Kde2DHistogramDto)}, {@link Factory#createOf(DoubleBuffer)},
+     * {@link Factory#createOf(DoubleBuffer, DoubleBuffer)}, {@link Factory#createOf(DoubleBuffer[])},
+     * {@link Factory#createOf(DoubleBuffer[], DoubleBuffer[])}
+     * から呼ばれるために用意. <br>
+     * 引数は, それらの契約を満たした状態で渡される. <br>
+     * source と histogram は, ちょうど一方が null である.
      * 
      * <p>
      * 配列はこのコンストラクタ内部ではコピーされない. <br>
      * 配列の要素が変更される可能性がある場合, 呼び出しもとでコピーを取らなければならない.
      * </p>
+     * 
+     * @param source 点によるソース
+     * @param histogram ヒストグラムによるソース
+     * @param supportX ソースの X の台
+     * @param supportY ソースの Y の台
+     * @param bandWidthX {@link BandWidthRule} により計算された X のバンド幅
+     * @param bandWidthY {@link BandWidthRule} により計算された Y のバンド幅
+     * @param factory ファクトリ
      */
-    private GaussianKd2D(Kde2DSourceDto source, GaussianKd2D.Factory factory) {
+    private GaussianKd2D(BinningSource2D source, BucketedSource2D histogram,
+            SupportWindow supportX, SupportWindow supportY, double bandWidthX, double bandWidthY, GaussianKd2D.Factory factory) {
         super();
 
         this.bandWidthRule = factory.bandWidthRule;
         this.resolutionRule = factory.resolutionRule;
 
-        EffectiveCyclicConvolution cycconv = factory.effectiveCyclicConvolution;
-        this.convolution = Objects.isNull(cycconv)
-                ? NaiveFilterZeroFillingConvolutionParallelizable.instance()
-                : EffectiveFilterZeroFillingConvolution.instanceOf(cycconv);
+        this.convolution = factory.convolution();
 
+        assert Objects.isNull(source) != Objects.isNull(histogram);
         this.source = source;
-        this.bandWidthX = Math.max(
-                bandWidthRule.computeBandwidth(source.x),
-                1E-300);
-        this.bandWidthY = Math.max(
-                bandWidthRule.computeBandwidth(source.y),
-                1E-300);
+        this.histogram = histogram;
+        this.supportX = supportX;
+        this.supportY = supportY;
+        this.bandWidthX = Math.max(bandWidthX, 1E-300);
+        this.bandWidthY = Math.max(bandWidthY, 1E-300);
     }
 
     /**
@@ -94,21 +133,33 @@ public final class GaussianKd2D implements KernelDensity2D {
      */
     @Override
     public KdeGrid2dDto evaluateIn(Range rangeX, Range rangeY) {
-        // resolutionScale のデフォルトは定数だが, 範囲が広すぎる場合は粗くする.
+        // 評価範囲のうち, ソースの台の近傍 (実効範囲) のみを計算し, 残りは0埋めする.
+        final Range effectiveRangeX = supportX.effectiveRange(rangeX, bandWidthX);
+        final Range effectiveRangeY = supportY.effectiveRange(rangeY, bandWidthY);
+
+        // resolutionScale のデフォルトは定数だが, 実効範囲が広すぎる場合は粗くする.
+        // 出力が大きくなりすぎないよう, 評価範囲全体に対しても上限を設ける.
         // XYは異なるフィルタを使用する: 片方の「粗さ」の影響がもう片方に伝播しないようにするため
         final double filterResolutionScaleX =
-                Math.max(
-                        resolutionRule.resolutionScale,
-                        rangeX.halfWidth() / (MAX_MESH * 0.5d * bandWidthX));
-
+                filterResolutionScale(rangeX, effectiveRangeX, bandWidthX);
         final double filterResolutionScaleY =
-                Math.max(
-                        resolutionRule.resolutionScale,
-                        rangeY.halfWidth() / (MAX_MESH * 0.5d * bandWidthY));
+                filterResolutionScale(rangeY, effectiveRangeY, bandWidthY);
 
         final double resolutionX = bandWidthX * filterResolutionScaleX;
         final double resolutionY = bandWidthY * filterResolutionScaleY;
 
+        final double[] x = SupportWindow.mesh(rangeX, resolutionX);
+        final double[] y = SupportWindow.mesh(rangeY, resolutionY);
+        final double[] density = new double[x.length * y.length];
+        if (Objects.isNull(effectiveRangeX) || Objects.isNull(effectiveRangeY)) {
+            return new KdeGrid2dDto(x, y, density);
+        }
+        final int[] windowX = SupportWindow.indexWindow(x, effectiveRangeX.min(), effectiveRangeX.max());
+        final int[] windowY = SupportWindow.indexWindow(y, effectiveRangeY.min(), effectiveRangeY.max());
+        if (windowX[0] == windowX[1] || windowY[0] == windowY[1]) {
+            return new KdeGrid2dDto(x, y, density);
+        }
+
         // フィルタを計算し, フィルタ畳み込みを用意
         final double[] filterOneSideX = GaussianFilterComputation.compute(filterResolutionScaleX);
         final double[] filterOneSideY = GaussianFilterComputation.compute(filterResolutionScaleY);
@@ -118,36 +169,117 @@ public final class GaussianKd2D implements KernelDensity2D {
         int extendSizeX = filterOneSideX.length - 1;
         int extendSizeY = filterOneSideY.length - 1;
         final Mesh2D mesh2d = new Mesh2D(
-                rangeX, rangeY, resolutionX, resolutionY, extendSizeX, extendSizeY, source);
-        final double[][] weight = mesh2d.weight;
+                Arrays.copyOfRange(x, windowX[0], windowX[1]),
+                Arrays.copyOfRange(y, windowY[0], windowY[1]),
+                resolutionX, resolutionY, extendSizeX, extendSizeY,
+                Objects.isNull(source) ? histogram.subdivide(resolutionX, resolutionY) : source);
+        final double[] weight = mesh2d.weight;
         final int lenX = mesh2d.extendX.length;
         final int lenY = mesh2d.extendY.length;
 
+        // 重み配列の占有タイルが少ない (データがまとまっている) 場合,
+        // フィルタの届く範囲のみを畳み込む疎な評価を行う
+        final TileOccupancy2D occupancy = TileOccupancy2D.of(weight, lenX, lenY);
+        final boolean sparse = occupancy.occupiedFraction() <= MAX_OCCUPIED_FRACTION_FOR_SPARSE;
+
         // 各Xについて, y方向にConv
-        double[][] convY = new double[lenX][];
-        for (int j = 0; j < lenX; j++) {
-            convY[j] = convToSignalY.compute(weight[j]);
+        // 重み配列は畳み込み後に不要なので, 結果をそのまま上書きする
+        final double[] convY = weight;
+        if (sparse) {
+            FlatRowConvolution.convolveRowsSparse(convY, occupancy, extendSizeY, convToSignalY);
+        } else {
+            FlatRowConvolution.convolveRows(convY, lenX, lenY, convToSignalY);
         }
 
-        // 転置 -> x方向にConv -> 転置
-        double[][] convXY = new double[lenX][lenY];
-        for (int k = 0; k < lenY; k++) {
-            // y:k についてx方向を配列化
-            double[] signal_k = new double[lenX];
-            for (int j = 0; j < lenX; j++) {
-                signal_k[j] = convY[j][k];
-            }
+        // 転置 -> 各Yについて, x方向にConv -> 転置
+        // 転置はブロック化されており, 畳み込みは連続した行に対して行われる
+        double[] transposed = DoubleArrayWorkspace.borrow(lenX * lenY);
+        FlatMatrixTranspose.transpose(convY, lenX, lenY, transposed);
+        if (sparse) {
+            FlatRowConvolution.convolveRowsSparse(
+                    transposed, occupancy.dilateColumns(extendSizeY).transpose(),
+                    extendSizeX, convToSignalX);
+        } else {
+            FlatRowConvolution.convolveRows(transposed, lenY, lenX, convToSignalX);
+        }
+        final double[] convXY = convY;
+        FlatMatrixTranspose.transpose(transposed, lenY, lenX, convXY);
+        DoubleArrayWorkspace.release(transposed);
+
+        double[] result = mesh2d.reduceSize(convXY);
+        DoubleArrayWorkspace.release(convXY);
+
+        // 実効範囲の結果を, 評価範囲全体の配列に書き込む
+        final int sizeY = y.length;
+        final int subSizeY = mesh2d.y.length;
+        for (int j = 0, len = mesh2d.x.length; j < len; j++) {
+            System.arraycopy(
+                    result, j * subSizeY, density, (windowX[0] + j) * sizeY + windowY[0], subSizeY);
+        }
 
-            // y:k のconv
-            double[] convX_k = convToSignalX.compute(signal_k);
+        return new KdeGrid2dDto(x, y, density);
+    }
 
-            // (x,y) 配列に代入
-            for (int j = 0; j < lenX; j++) {
-                convXY[j][k] = convX_k[j];
-            }
-        }
+    /**
+     * 1軸分の, フィルタの分解能スケールを計算する.
+     * 
+     * @param range 評価範囲
+     * @param effectiveRange 実効範囲, 空の場合は null
+     * @param bandWidth バンド幅
+     * @return 分解能スケール
+     */
+    private double filterResolutionScale(Range range, Range effectiveRange, double bandWidth) {
+        return Math.max(
+                Math.max(
+                        resolutionRule.resolutionScale,
+                        range.halfWidth() / (MAX_OUTPUT_MESH * 0.5d * bandWidth)),
+                Objects.isNull(effectiveRange)
+                        ? 0d
+                        : effectiveRange.halfWidth() / (MAX_MESH * 0.5d * bandWidth));
+    }
 
-        return new KdeGrid2dDto(mesh2d.x, mesh2d.y, mesh2d.reduceSize(convXY));
+    /**
+     * ビニングの対象となるソースを返す. <br>
+     * ヒストグラムによるソースの場合は null.
+     */
+    BinningSource2D source() {
+        return source;
+    }
+
+    /**
+     * ヒストグラムによるソースを返す. <br>
+     * ビニングの対象となるソースの場合は null.
+     */
+    BucketedSource2D histogram() {
+        return histogram;
+    }
+
+    /**
+     * ソースの X の台を返す.
+     */
+    SupportWindow supportX() {
+        return supportX;
+    }
+
+    /**
+     * ソースの Y の台を返す.
+     */
+    SupportWindow supportY() {
+        return supportY;
+    }
+
+    /**
+     * X のカーネルバンド幅を返す.
+     */
+    double bandWidthX() {
+        return bandWidthX;
+    }
+
+    /**
+     * Y のカーネルバンド幅を返す.
+     */
+    double bandWidthY() {
+        return bandWidthY;
     }
 
     /**
@@ -167,6 +299,8 @@ public final class GaussianKd2D implements KernelDensity2D {
         private final BandWidthRule bandWidthRule;
         private final ResolutionRule resolutionRule;
         private final EffectiveCyclicConvolution effectiveCyclicConvolution;
+        private final boolean sortsSource;
+        private final boolean deduplicatesSource;
 
         /**
          * 唯一の非公開コンストラクタ.
@@ -174,12 +308,15 @@ public final class GaussianKd2D implements KernelDensity2D {
          * @throws NullPointerException 引数にnullが含まれる場合
          */
         private Factory(BandWidthRule bandWidthRule, ResolutionRule resolutionRule,
-                EffectiveCyclicConvolution effectiveCyclicConvolution) {
+                EffectiveCyclicConvolution effectiveCyclicConvolution,
+                boolean sortsSource, boolean deduplicatesSource) {
             super();
 
             this.bandWidthRule = Objects.requireNonNull(bandWidthRule);
             this.resolutionRule = Objects.requireNonNull(resolutionRule);
             this.effectiveCyclicConvolution = effectiveCyclicConvolution;
+            this.sortsSource = sortsSource;
+            this.deduplicatesSource = deduplicatesSource;
         }
 
         /**
@@ -188,11 +325,197 @@ public final class GaussianKd2D implements KernelDensity2D {
          */
         @Override
         public GaussianKd2D createOf(Kde2DSourceDto source) {
-            Kde2DSourceDto srcCopy = source.copy();
-            if (!KernelDensity2D.Factory.validateSource(srcCopy)) {
+            // コピー, 検証, モーメントの集計を1度の走査で行う
+            SourceIngestion.Source2D ingested = SourceIngestion.of(source);
+            if (Objects.isNull(ingested)) {
+                throw new IllegalArgumentException("illegal: source is invalid");
+            }
+            // バンド幅は, 重複の集約前のソースから計算する
+            double bandWidthX = bandWidthRule.computeBandwidth(ingested.stdX, ingested.sampleSize);
+            double bandWidthY = bandWidthRule.computeBandwidth(ingested.stdY, ingested.sampleSize);
+            return newInstance(toBinningSource(ingested.points, null), bandWidthX, bandWidthY);
+        }
+
+        /**
+         * @throws IllegalArgumentException {@inheritDoc }
+         * @throws NullPointerException {@inheritDoc }
+         */
+        @Override
+        public GaussianKd2D createOf(Kde2DWeightedSourceDto source) {
+            // コピー, 検証, モーメントの集計を1度の走査で行う
+            // 座標と重みは分けて保持される
+            SourceIngestion.Source2D ingested = SourceIngestion.of(source);
+            if (Objects.isNull(ingested)) {
+                throw new IllegalArgumentException("illegal: source is invalid");
+            }
+            // バンド幅は, 重複の集約前のソースから計算する
+            double bandWidthX = bandWidthRule.computeBandwidth(ingested.stdX, ingested.sampleSize);
+            double bandWidthY = bandWidthRule.computeBandwidth(ingested.stdY, ingested.sampleSize);
+            return newInstance(toBinningSource(ingested.points, ingested.weights), bandWidthX, bandWidthY);
+        }
+
+        /**
+         * @throws IllegalArgumentException {@inheritDoc }
+         * @throws NullPointerException {@inheritDoc }
+         */
+        @Override
+        public GaussianKd2D createOf(Kde2DHistogramDto histogram) {
+            Kde2DHistogramDto histCopy = histogram.copy();
+            if (!KernelDensity2D.Factory.validateSource(histCopy)) {
+                throw new IllegalArgumentException("illegal: source is invalid");
+            }
+            BucketedSource2D bucketed = new BucketedSource2D(histCopy);
+            double bandWidthX = bandWidthRule.computeBandwidth(bucketed.stdX(), bucketed.totalCount);
+            double bandWidthY = bandWidthRule.computeBandwidth(bucketed.stdY(), bucketed.totalCount);
+            return new GaussianKd2D(
+                    null, bucketed, bucketed.supportX, bucketed.supportY, bandWidthX, bandWidthY, this);
+        }
+
+        /**
+         * @throws IllegalArgumentException {@inheritDoc }
+         * @throws NullPointerException {@inheritDoc }
+         */
+        @Override
+        public GaussianKd2D createOf(DoubleBuffer interleaved) {
+            return createOf(new DoubleBuffer[] { interleaved });
+        }
+
+        /**
+         * @throws IllegalArgumentException {@inheritDoc }
+         * @throws NullPointerException {@inheritDoc }
+         */
+        @Override
+        public GaussianKd2D createOf(DoubleBuffer x, DoubleBuffer y) {
+            return createOf(new DoubleBuffer[] { x }, new DoubleBuffer[] { y });
+        }
+
+        /**
+         * @throws IllegalArgumentException {@inheritDoc }
+         * @throws NullPointerException {@inheritDoc }
+         */
+        @Override
+        public GaussianKd2D createOf(DoubleBuffer[] interleavedChunks) {
+            // 呼び出し元の位置, リミットに依存しない読み取り専用のビュー
+            ChunkedDoubles values = ChunkedDoubles.readOnlyViewOf(interleavedChunks);
+            if (values.size == 0L || values.size % 2 != 0) {
                 throw new IllegalArgumentException("illegal: source is invalid");
             }
-            return new GaussianKd2D(srcCopy, this);
+            return createOfBuffer(BinningSource2D.of(values));
+        }
+
+        /**
+         * @throws IllegalArgumentException {@inheritDoc }
+         * @throws NullPointerException {@inheritDoc }
+         */
+        @Override
+        public GaussianKd2D createOf(DoubleBuffer[] x, DoubleBuffer[] y) {
+            // 呼び出し元の位置, リミットに依存しない読み取り専用のビュー
+            ChunkedDoubles valuesX = ChunkedDoubles.readOnlyViewOf(x);
+            ChunkedDoubles valuesY = ChunkedDoubles.readOnlyViewOf(y);
+            if (valuesX.size == 0L || valuesX.size != valuesY.size) {
+                throw new IllegalArgumentException("illegal: source is invalid");
+            }
+            return createOfBuffer(BinningSource2D.of(valuesX, valuesY, false));
+        }
+
+        /**
+         * バッファで保持されたソースから, 推定を生成する. <br>
+         * 検証, モーメントと台の集計を, コピーせずに1度の走査で行う.
+         */
+        private GaussianKd2D createOfBuffer(BinningSource2D binningSource) {
+            SourceIngestion.ScannedAxis[] scanned = SourceIngestion.scan(binningSource);
+            if (Objects.isNull(scanned)) {
+                throw new IllegalArgumentException("illegal: source is invalid");
+            }
+            double bandWidthX = bandWidthRule.computeBandwidth(scanned[0].std, scanned[0].sampleSize);
+            double bandWidthY = bandWidthRule.computeBandwidth(scanned[1].std, scanned[1].sampleSize);
+            return new GaussianKd2D(
+                    binningSource, null, scanned[0].support, scanned[1].support, bandWidthX, bandWidthY, this);
+        }
+
+        /**
+         * ヒストグラムによるソースと, 計算済みのバンド幅からインスタンスを生成する. <br>
+         * 保存したスナップショットから復元するために用意されている.
+         * 
+         * @param histogram ヒストグラムによるソース
+         * @param bandWidthX X のバンド幅, 0以上の有限値
+         * @param bandWidthY Y のバンド幅, 0以上の有限値
+         * @return インスタンス
+         */
+        GaussianKd2D createOf(BucketedSource2D histogram, double bandWidthX, double bandWidthY) {
+            return new GaussianKd2D(
+                    null, histogram, histogram.supportX, histogram.supportY, bandWidthX, bandWidthY, this);
+        }
+
+        /**
+         * ビニングの対象となるソースと, その台, 計算済みのバンド幅からインスタンスを生成する. <br>
+         * 保存したスナップショットから復元するために用意されている.
+         * 
+         * @param source ソース, 生成後に書き換えてはならない
+         * @param supportX ソースの X の台
+         * @param supportY ソースの Y の台
+         * @param bandWidthX X のバンド幅, 0以上の有限値
+         * @param bandWidthY Y のバンド幅, 0以上の有限値
+         * @return インスタンス
+         */
+        GaussianKd2D createOf(BinningSource2D source, SupportWindow supportX, SupportWindow supportY,
+                double bandWidthX, double bandWidthY) {
+            return new GaussianKd2D(source, null, supportX, supportY, bandWidthX, bandWidthY, this);
+        }
+
+        /**
+         * 配列で保持されたソースから, 推定を生成する.
+         */
+        private GaussianKd2D newInstance(BinningSource2D binningSource, double bandWidthX, double bandWidthY) {
+            return new GaussianKd2D(binningSource, null,
+                    new SupportWindow(binningSource.points.x), new SupportWindow(binningSource.points.y),
+                    bandWidthX, bandWidthY, this);
+        }
+
+        /**
+         * ファクトリの設定に従い, (コピー済みの) ソースを並べ替え, 重複を集約して,
+         * ビニングの対象となるソースを構築する.
+         * 
+         * @param points 点, 書き換えられる
+         * @param weights 重み (重みを持たない場合は null), 書き換えられる
+         * @return ソース
+         */
+        private BinningSource2D toBinningSource(Kde2DSourceDto points, double[] weights) {
+            if (deduplicatesSource && SourceDeduplication.isWorthwhile(points)) {
+                return SourceDeduplication.collapse(points, weights);
+            }
+            if (Objects.isNull(weights)) {
+                if (sortsSource) {
+                    SourceSorting.sortByX(points);
+                }
+                return BinningSource2D.of(points, sortsSource);
+            }
+            if (sortsSource) {
+                SourceSorting.sortByX(points, weights);
+            }
+            return BinningSource2D.of(points, weights, sortsSource);
+        }
+
+        /**
+         * このファクトリのルールにより, 1軸分の標準偏差とサンプルサイズからバンド幅を計算する.
+         * 
+         * @param std 標準偏差, 0以上の有限値
+         * @param sampleSize サンプルサイズ, 正の値
+         * @return バンド幅, 0以上の数
+         */
+        double computeBandwidth(double std, double sampleSize) {
+            return bandWidthRule.computeBandwidth(std, sampleSize);
+        }
+
+        /**
+         * このファクトリの設定によるフィルタ畳み込みを返す.
+         * 
+         * @return フィルタ畳み込み
+         */
+        FilterZeroFillingConvolution convolution() {
+            return Objects.isNull(effectiveCyclicConvolution)
+                    ? NaiveFilterZeroFillingConvolutionParallelizable.instance()
+                    : EffectiveFilterZeroFillingConvolution.instanceOf(effectiveCyclicConvolution);
         }
 
         /**
@@ -206,7 +529,69 @@ public final class GaussianKd2D implements KernelDensity2D {
          * @return 置き換えられた新しい {@code Factory} インスタンス
          */
         public Factory withConvolutionBy(EffectiveCyclicConvolution other) {
-            return new Factory(bandWidthRule, resolutionRule, other);
+            return new Factory(bandWidthRule, resolutionRule, other, sortsSource, deduplicatesSource);
+        }
+
+        /**
+         * ソースを並べ替えて保持するかどうかを与えたものに変更し, 新しいインスタンスとして返す.
+         * 
+         * <p>
+         * 並べ替えを有効にした場合, {@link #createOf(Kde2DSourceDto)},
+         * {@link #createOf(Kde2DWeightedSourceDto)} において,
+         * ソースのコピーを<i>x</i> について昇順に並べ替えて保持する
+         * (並べ替えのコストは生成時に1度だけかかる). <br>
+         * これにより, 評価ごとに, 評価範囲に寄与しうる点の区間を二分探索で求め,
+         * その区間のみをビニングするようになる. <br>
+         * 大きなソースに対して, 狭い範囲の評価を繰り返す場合に有効である. <br>
+         * コピーを保持しない {@link #createOf(DoubleBuffer)},
+         * {@link #createOf(DoubleBuffer, DoubleBuffer)} などのバッファによるソースには適用されない.
+         * </p>
+         * 
+         * <p>
+         * デフォルトは無効である. <br>
+         * 並べ替えの有無により, 結果は丸め誤差の範囲で異なる可能性がある.
+         * </p>
+         * 
+         * @param sortsSource ソースを並べ替えるならば {@code true}
+         * @return 置き換えられた新しい {@code Factory} インスタンス
+         */
+        public Factory withSourceSorting(boolean sortsSource) {
+            return new Factory(
+                    bandWidthRule, resolutionRule, effectiveCyclicConvolution, sortsSource, deduplicatesSource);
+        }
+
+        /**
+         * ソースの重複した点を集約するかどうかを与えたものに変更し, 新しいインスタンスとして返す.
+         * 
+         * <p>
+         * 集約を有効にした場合, {@link #createOf(Kde2DSourceDto)},
+         * {@link #createOf(Kde2DWeightedSourceDto)} において,
+         * ソースの異なる点の個数を (1度の走査で) 概算し,
+         * それがソースのサイズに比べて十分に少ないときに限り,
+         * ソースのコピーを並べ替えて重複した点を (点, 重複度) に集約して保持する. <br>
+         * 集約したソースは重み付きのソースとしてビニングされるため,
+         * 保持するメモリと評価のコストは, ソースのサイズでなく異なる点の個数に比例する. <br>
+         * コピーを保持しない {@link #createOf(DoubleBuffer)},
+         * {@link #createOf(DoubleBuffer, DoubleBuffer)} などのバッファによるソースには適用されない.
+         * </p>
+         * 
+         * <p>
+         * バンド幅は集約前のソースから計算されるため, 集約の有無によって変わらない. <br>
+         * ただし, ビニングの加算順序が異なるため, 結果は丸め誤差の範囲で異なる可能性がある. <br>
+         * 集約されたソースは <i>x</i> について昇順に並んでいるため, 集約が行われた場合は
+         * {@link #withSourceSorting(boolean)} の設定によらず, 並べ替えを有効にした場合と同様に評価される.
+         * </p>
+         * 
+         * <p>
+         * デフォルトは無効である.
+         * </p>
+         * 
+         * @param deduplicatesSource 重複した点を集約するならば {@code true}
+         * @return 置き換えられた新しい {@code Factory} インスタンス
+         */
+        public Factory withSourceDeduplication(boolean deduplicatesSource) {
+            return new Factory(
+                    bandWidthRule, resolutionRule, effectiveCyclicConvolution, sortsSource, deduplicatesSource);
         }
 
         /**
@@ -234,7 +619,7 @@ public final class GaussianKd2D implements KernelDensity2D {
          * @throws NullPointerException 引数にnullが含まれる場合
          */
         public static Factory of(BandWidthRule bandWidthRule, ResolutionRule resolutionRule) {
-            return new Factory(bandWidthRule, resolutionRule, null);
+            return new Factory(bandWidthRule, resolutionRule, null, false, false);
         }
     }
 
@@ -242,6 +627,14 @@ public final class GaussianKd2D implements KernelDensity2D {
      * ガウシアン2次元のカーネル密度推定での, バンド幅の設定ルールを扱う列挙型.
      * 
      * <p>
+     * バンド幅は, データの (各軸の) 標準偏差とサンプルサイズから計算される. <br>
+     * 重み付きのデータソースの場合, 標準偏差は重み付き標準偏差,
+     * サンプルサイズは有効サンプルサイズ
+     * (&Sigma;<i>w</i>)<sup>2</sup>/&Sigma;<i>w</i><sup>2</sup>
+     * として計算される.
+     * </p>
+     * 
+     * <p>
      * <i>
      * <u>
      * 将来のバージョンで列挙定数が追加される可能性がある. <br>
@@ -259,38 +652,42 @@ public final class GaussianKd2D implements KernelDensity2D {
         /**
          * 標準のバンド幅計算ルールを表すシングルトンインスタンス.
          */
-        STANDARD(da -> Math.min(
-                DoubleValueUtil.std(da) / Math.pow(da.length, 1d / 6),
+        STANDARD((std, n) -> Math.min(
+                std / Math.pow(n, 1d / 6),
                 Double.MAX_VALUE));
 
         /**
-         * データ列を与えてバンド幅を返す関数.
+         * データ列の標準偏差とサンプルサイズを与えてバンド幅を返す関数.
          * 
          * <p>
-         * 関数の引数には, サイズは1以上であり, 有限値であることが保証されている配列が与えられるとしてよい. <br>
+         * 関数の引数には, 0以上の標準偏差と, 1以上のサンプルサイズ
+         * (重み付きの場合は有効サンプルサイズ) が与えられるとしてよい. <br>
          * 戻り値は0以上の有限の数である必要がある.
          * </p>
          */
-        private final ToDoubleFunction<double[]> bandwidthComputer;
+        private final DoubleBinaryOperator bandwidthComputer;
 
-        private BandWidthRule(ToDoubleFunction<double[]> bandwidthComputer) {
+        private BandWidthRule(DoubleBinaryOperator bandwidthComputer) {
             this.bandwidthComputer = bandwidthComputer;
         }
 
         /**
-         * ソースとなるデータ点を与えて, バンド幅を計算する. <br>
+         * 標準偏差とサンプルサイズ (1軸分) を与えて, バンド幅を計算する. <br>
          * 戻り値は, 0以上の有限の数である.
          * 
          * <p>
-         * クラス外から呼ばれることは想定されていないので, 非公開である. <br>
-         * 引数は, サイズは1以上であり, 有限値であることが保証されている.
+         * ソースの取り込み時に集計したモーメントや,
+         * データ点を持たないソース (ヒストグラム) のために用意されている. <br>
+         * 重み付きのソースの場合, サンプルサイズには有効サンプルサイズを与える. <br>
+         * クラス外から呼ばれることは想定されていないので, 非公開である.
          * </p>
          * 
-         * @param source ソース, サイズは1以上の有限値配列
+         * @param std 標準偏差, 0以上の有限値
+         * @param sampleSize サンプルサイズ, 正の値
          * @return バンド幅, 0以上の数
          */
-        double computeBandwidth(double[] source) {
-            return this.bandwidthComputer.applyAsDouble(source);
+        double computeBandwidth(double std, double sampleSize) {
+            return this.bandwidthComputer.applyAsDouble(std, sampleSize);
         }
     }
 
@@ -0,0 +1,175 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+/**
+ * 逐次的に値を集計する等幅ヒストグラムの, 1軸分のビンの配置を扱う.
+ * 
+ * <p>
+ * ビンは原点 {@code origin} と幅 {@code width} で定まる格子であり,
+ * 大域的な番号 <i>g</i> のビンは区間
+ * [{@code origin + g * width}, {@code origin + (g + 1) * width})
+ * である. <br>
+ * 保持するのは大域的な番号が [{@link #base()}, {@code base() + length()}) のビンである.
+ * </p>
+ * 
+ * <p>
+ * 保持する範囲の外の値が現れた場合は, {@link #expandTo(double)} により範囲を広げる. <br>
+ * 範囲は長さが倍になるように広げるため, 広げる回数は値の個数に対して対数的である. <br>
+ * 長さが上限を超える場合は, 隣接する2個のビンを統合して幅を倍にする (粗視化する). <br>
+ * 統合は大域的な番号 (2<i>g</i>, 2<i>g</i> + 1) の組で行うため,
+ * 粗視化の後も格子の原点は変わらない.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class GrowableBinAxis {
+
+    private final double origin;
+    private final int maxLength;
+
+    private double width;
+    private long base;
+    private int length;
+
+    /**
+     * 中心付近のビンの範囲を与えて構築する.
+     * 
+     * @param origin 格子の原点
+     * @param width ビンの幅 ({@link Double#MIN_NORMAL} 以上)
+     * @param initialLength 初期のビンの個数
+     * @param maxLength ビンの個数の上限
+     */
+    GrowableBinAxis(double origin, double width, int initialLength, int maxLength) {
+        super();
+        assert Double.isFinite(origin);
+        assert width >= Double.MIN_NORMAL && Double.isFinite(width);
+        assert 0 < initialLength && initialLength <= maxLength;
+
+        this.origin = origin;
+        this.maxLength = maxLength;
+        this.width = width;
+        this.length = initialLength;
+        this.base = -(initialLength / 2);
+    }
+
+    /**
+     * 保持する最初のビンの大域的な番号.
+     */
+    long base() {
+        return base;
+    }
+
+    /**
+     * 保持するビンの個数.
+     */
+    int length() {
+        return length;
+    }
+
+    /**
+     * ビンの幅.
+     */
+    double width() {
+        return width;
+    }
+
+    /**
+     * 保持する範囲内での番号が i のビンの開始位置を返す.
+     */
+    double edge(int i) {
+        return origin + (base + i) * width;
+    }
+
+    /**
+     * 値が属するビンの大域的な番号を返す. <br>
+     * 大域的な番号は {@code long} に収まるとは限らないため, {@code double} で返す.
+     * 
+     * @param v 有限の値
+     * @return 大域的な番号 (非常に大きい場合は無限大)
+     */
+    double globalIndex(double v) {
+        // 差のオーバーフローを避けるため, 半分の値で差をとる (2の累乗による除算は正確)
+        return Math.floor((0.5 * v - 0.5 * origin) / (0.5 * width));
+    }
+
+    /**
+     * 大域的な番号が g のビンの, 保持する範囲内での番号を返す. <br>
+     * 範囲外の場合は -1 を返す.
+     */
+    int localIndex(double g) {
+        double i = g - base;
+        return 0d <= i && i < length ? (int) i : -1;
+    }
+
+    /**
+     * 大域的な番号が g のビンを含むように, 保持する範囲を広げる
+     * (必要に応じて粗視化する).
+     * 
+     * <p>
+     * 粗視化した場合, 呼び出し元は値の番号を計算し直さなければならない. <br>
+     * 丸め誤差のため, 計算し直した番号がなお範囲外となる場合があるが,
+     * その場合は再度このメソッドを呼べばよい.
+     * </p>
+     * 
+     * @param g 大域的な番号 (無限大も可)
+     * @return 広げる前の範囲内での番号から, 広げた後の範囲内での番号への対応
+     */
+    int[] expandTo(double g) {
+        final long oldBase = base;
+        final int oldLength = length;
+
+        int shift = 0;
+        double gs = g;
+        if (Double.isInfinite(g)) {
+            // 番号が計算できないほど幅が小さい: 大きく粗視化して計算し直させる
+            shift = Long.SIZE;
+        } else {
+            double lo = Math.min(oldBase, g);
+            double hi = Math.max(oldBase + oldLength - 1, g);
+            while (hi - lo + 1d > maxLength) {
+                shift++;
+                lo = Math.floor(lo / 2);
+                hi = Math.floor(hi / 2);
+            }
+            gs = Math.floor(Math.scalb(g, -shift));
+        }
+
+        width = Math.scalb(width, shift);
+        final long coarseLo = shiftFloor(oldBase, shift);
+        final long coarseHi = shiftFloor(oldBase + oldLength - 1, shift);
+        final long coarseLength = coarseHi - coarseLo + 1;
+
+        if (Double.isInfinite(gs)) {
+            base = coarseLo;
+            length = (int) coarseLength;
+        } else {
+            double lo = Math.min(coarseLo, gs);
+            double hi = Math.max(coarseHi, gs);
+            long needed = (long) (hi - lo) + 1L;
+            length = (int) Math.max(needed, Math.min(maxLength, 2 * coarseLength));
+            base = gs < coarseLo ? (long) hi - length + 1 : (long) lo;
+        }
+
+        int[] map = new int[oldLength];
+        for (int i = 0; i < oldLength; i++) {
+            map[i] = (int) (shiftFloor(oldBase + i, shift) - base);
+        }
+        return map;
+    }
+
+    /**
+     * floor(x / 2<sup>shift</sup>) を返す.
+     */
+    private static long shiftFloor(long x, int shift) {
+        return x >> Math.min(shift, Long.SIZE - 1);
+    }
+}
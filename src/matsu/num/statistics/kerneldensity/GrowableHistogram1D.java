@@ -0,0 +1,241 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Objects;
+
+/**
+ * 値を逐次的に計数する, 範囲と幅が自動的に定まる1次元の等幅ヒストグラム.
+ * 
+ * <p>
+ * 最初の (先行標本の容量の) 個数の値は先行標本として保持し,
+ * その標準偏差 σ から, ビンの幅 σ / {@code binsPerStd} を定める. <br>
+ * 以降の値は直接ビンに計数する. <br>
+ * ビンの範囲と粗視化は {@link GrowableBinAxis} により扱う.
+ * </p>
+ * 
+ * <p>
+ * 値は重み付きで計数することもできる ({@link #add(double, double)}). <br>
+ * 全ての度数を一律に定数倍すること ({@link #scale(double)}) もできる. <br>
+ * 計数済みの (重み1の) 値を取り除くこともできる ({@link #remove(double)}). <br>
+ * ビンに計数した後は値そのものを保持しないため,
+ * 取り除く値が実際に計数されたものかどうかは, その値が属するビンの度数が正であるかによってのみ判定される.
+ * </p>
+ * 
+ * <p>
+ * このクラスはスレッドセーフではない.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class GrowableHistogram1D {
+
+    private final int binsPerStd;
+    private final int initialBinCount;
+    private final int maxBinCount;
+
+    private final double[] pilot;
+    private final double[] pilotWeights;
+    private int pilotSize = 0;
+
+    /**
+     * ビンの配置, 先行標本を集計するまでは null.
+     */
+    private GrowableBinAxis axis;
+    private double[] counts;
+
+    private long size = 0L;
+
+    /**
+     * ビンの配置に関する設定を与えて, 空のヒストグラムを構築する.
+     * 
+     * @param pilotCapacity 先行標本の容量
+     * @param binsPerStd 先行標本の標準偏差あたりのビンの個数
+     * @param initialBinCount ビンの個数の初期値
+     * @param maxBinCount ビンの個数の上限
+     */
+    GrowableHistogram1D(int pilotCapacity, int binsPerStd, int initialBinCount, int maxBinCount) {
+        super();
+        this.binsPerStd = binsPerStd;
+        this.initialBinCount = initialBinCount;
+        this.maxBinCount = maxBinCount;
+        this.pilot = new double[pilotCapacity];
+        this.pilotWeights = new double[pilotCapacity];
+    }
+
+    /**
+     * 計数されている値の個数を返す.
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * 値を1個計数する.
+     * 
+     * @param value 有限の値
+     */
+    void add(double value) {
+        add(value, 1d);
+    }
+
+    /**
+     * 値を1個, 重み付きで計数する.
+     * 
+     * @param value 有限の値
+     * @param weight 重み, 0以上の有限値
+     */
+    void add(double value, double weight) {
+        assert Double.isFinite(value);
+        assert weight >= 0d && Double.isFinite(weight);
+
+        size++;
+        if (Objects.nonNull(axis)) {
+            count(value, weight);
+            return;
+        }
+        pilot[pilotSize] = value;
+        pilotWeights[pilotSize] = weight;
+        pilotSize++;
+        if (pilotSize == pilot.length) {
+            prepareBins();
+        }
+    }
+
+    /**
+     * 全ての度数 (先行標本の重みを含む) を factor 倍する.
+     * 
+     * @param factor 係数, 0以上の有限値
+     */
+    void scale(double factor) {
+        for (int i = 0; i < pilotSize; i++) {
+            pilotWeights[i] *= factor;
+        }
+        if (Objects.nonNull(counts)) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] *= factor;
+            }
+        }
+    }
+
+    /**
+     * 空の状態に戻す (ビンの配置も破棄する).
+     */
+    void clear() {
+        pilotSize = 0;
+        axis = null;
+        counts = null;
+        size = 0L;
+    }
+
+    /**
+     * 計数済みの値を1個取り除く. <br>
+     * 先行標本に含まれる場合はその値を, そうでない場合は値が属するビンの度数を1だけ減らす. <br>
+     * 該当する値やビンの度数が存在しない場合は何もせずに false を返す.
+     * 
+     * @param value 有限の値
+     * @return 取り除いた場合は true
+     */
+    boolean remove(double value) {
+        assert Double.isFinite(value);
+
+        if (Objects.isNull(axis)) {
+            for (int i = 0; i < pilotSize; i++) {
+                if (pilot[i] == value) {
+                    pilotSize--;
+                    pilot[i] = pilot[pilotSize];
+                    pilotWeights[i] = pilotWeights[pilotSize];
+                    size--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int i = axis.localIndex(axis.globalIndex(value));
+        if (i < 0 || !(counts[i] >= 1d)) {
+            return false;
+        }
+        counts[i]--;
+        size--;
+        return true;
+    }
+
+    /**
+     * 計数されている値を集計したヒストグラムを返す. <br>
+     * ヒストグラムは度数が正の最初のビンから最後のビンまでを含む. <br>
+     * 先行標本を集計していない場合は, この時点で集計する.
+     * 
+     * <p>
+     * 度数が正のビンが1個以上存在しなければならない.
+     * </p>
+     * 
+     * @return ヒストグラム
+     */
+    Kde1DHistogramDto toHistogram() {
+        assert size > 0L;
+        if (Objects.isNull(axis)) {
+            prepareBins();
+        }
+
+        int first = 0;
+        while (counts[first] == 0d) {
+            first++;
+        }
+        int last = counts.length - 1;
+        while (counts[last] == 0d) {
+            last--;
+        }
+
+        Kde1DHistogramDto histogram = new Kde1DHistogramDto(axis.edge(first), axis.width(), last - first + 1);
+        System.arraycopy(counts, first, histogram.counts, 0, histogram.size);
+        return histogram;
+    }
+
+    /**
+     * 先行標本からビンの配置を定め, 先行標本を計数する.
+     */
+    private void prepareBins() {
+        assert Objects.isNull(axis) && pilotSize > 0;
+
+        MomentAccumulator moments = new MomentAccumulator();
+        for (int i = 0; i < pilotSize; i++) {
+            moments.accept(pilot[i]);
+        }
+        double origin = moments.mean();
+        axis = new GrowableBinAxis(
+                origin, Kde1DStreamingBuilder.binWidth(origin, moments.std(), binsPerStd),
+                initialBinCount, maxBinCount);
+        counts = new double[axis.length()];
+
+        for (int i = 0; i < pilotSize; i++) {
+            count(pilot[i], pilotWeights[i]);
+        }
+        pilotSize = 0;
+    }
+
+    private void count(double value, double weight) {
+        while (true) {
+            double g = axis.globalIndex(value);
+            int i = axis.localIndex(g);
+            if (i >= 0) {
+                counts[i] += weight;
+                return;
+            }
+            int[] map = axis.expandTo(g);
+            double[] expanded = new double[axis.length()];
+            for (int j = 0; j < map.length; j++) {
+                expanded[map[j]] += counts[j];
+            }
+            counts = expanded;
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.19
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Objects;
+
+/**
+ * 点を逐次的に計数する, 範囲と幅が自動的に定まる2次元の等幅ヒストグラム.
+ * 
+ * <p>
+ * {@link GrowableHistogram1D} の2次元版である. <br>
+ * 最初の (先行標本の容量の) 個数の点は先行標本として保持し,
+ * 各軸の標準偏差 σ から, その軸のビンの幅 σ / {@code binsPerStd} を定める. <br>
+ * 以降の点は直接ビンに計数する. <br>
+ * ビンの範囲と粗視化は, 軸ごとに {@link GrowableBinAxis} により扱う.
+ * </p>
+ * 
+ * <p>
+ * 計数済みの点を取り除くこともできる ({@link #remove(double, double)}). <br>
+ * ビンに計数した後は点そのものを保持しないため,
+ * 取り除く点が実際に計数されたものかどうかは, その点が属するビンの度数が正であるかによってのみ判定される.
+ * </p>
+ * 
+ * <p>
+ * このクラスはスレッドセーフではない.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class GrowableHistogram2D {
+
+    private final int binsPerStd;
+    private final int initialBinCount;
+    private final int maxBinCount;
+
+    private final double[] pilotX;
+    private final double[] pilotY;
+    private int pilotSize = 0;
+
+    /**
+     * ビンの配置, 先行標本を集計するまでは null.
+     */
+    private GrowableBinAxis axisX;
+    private GrowableBinAxis axisY;
+
+    /**
+     * 度数, 行優先 (要素 index は {@code j * axisY.length() + k}).
+     */
+    private double[] counts;
+
+    private long size = 0L;
+
+    /**
+     * ビンの配置に関する設定を与えて, 空のヒストグラムを構築する.
+     * 
+     * @param pilotCapacity 先行標本の容量
+     * @param binsPerStd 先行標本の標準偏差あたりのビンの個数
+     * @param initialBinCount 各軸のビンの個数の初期値
+     * @param maxBinCount 各軸のビンの個数の上限
+     */
+    GrowableHistogram2D(int pilotCapacity, int binsPerStd, int initialBinCount, int maxBinCount) {
+        super();
+        this.binsPerStd = binsPerStd;
+        this.initialBinCount = initialBinCount;
+        this.maxBinCount = maxBinCount;
+        this.pilotX = new double[pilotCapacity];
+        this.pilotY = new double[pilotCapacity];
+    }
+
+    /**
+     * 計数されている点の個数を返す.
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * 点を1個計数する.
+     * 
+     * @param x 有限の値
+     * @param y 有限の値
+     */
+    void add(double x, double y) {
+        assert Double.isFinite(x) && Double.isFinite(y);
+
+        size++;
+        if (Objects.nonNull(axisX)) {
+            count(x, y);
+            return;
+        }
+        pilotX[pilotSize] = x;
+        pilotY[pilotSize] = y;
+        pilotSize++;
+        if (pilotSize == pilotX.length) {
+            prepareBins();
+        }
+    }
+
+    /**
+     * 計数済みの点を1個取り除く. <br>
+     * 先行標本に含まれる場合はその点を, そうでない場合は点が属するビンの度数を1だけ減らす. <br>
+     * 該当する点やビンの度数が存在しない場合は何もせずに false を返す.
+     * 
+     * @param x 有限の値
+     * @param y 有限の値
+     * @return 取り除いた場合は true
+     */
+    boolean remove(double x, double y) {
+        assert Double.isFinite(x) && Double.isFinite(y);
+
+        if (Objects.isNull(axisX)) {
+            for (int i = 0; i < pilotSize; i++) {
+                if (pilotX[i] == x && pilotY[i] == y) {
+                    pilotSize--;
+                    pilotX[i] = pilotX[pilotSize];
+                    pilotY[i] = pilotY[pilotSize];
+                    size--;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        int j = axisX.localIndex(axisX.globalIndex(x));
+        int k = axisY.localIndex(axisY.globalIndex(y));
+        if (j < 0 || k < 0) {
+            return false;
+        }
+        int i = j * axisY.length() + k;
+        if (!(counts[i] >= 1d)) {
+            return false;
+        }
+        counts[i]--;
+        size--;
+        return true;
+    }
+
+    /**
+     * 計数されている点を集計したヒストグラムを返す. <br>
+     * ヒストグラムは度数が正のビンを全て含む最小の矩形である. <br>
+     * 先行標本を集計していない場合は, この時点で集計する.
+     * 
+     * <p>
+     * 度数が正のビンが1個以上存在しなければならない.
+     * </p>
+     * 
+     * @return ヒストグラム
+     */
+    Kde2DHistogramDto toHistogram() {
+        assert size > 0L;
+        if (Objects.isNull(axisX)) {
+            prepareBins();
+        }
+
+        final int lenY = axisY.length();
+        int firstJ = Integer.MAX_VALUE;
+        int lastJ = -1;
+        int firstK = Integer.MAX_VALUE;
+        int lastK = -1;
+        for (int j = 0; j < axisX.length(); j++) {
+            for (int k = 0; k < lenY; k++) {
+                if (counts[j * lenY + k] != 0d) {
+                    firstJ = Math.min(firstJ, j);
+                    lastJ = j;
+                    firstK = Math.min(firstK, k);
+                    lastK = Math.max(lastK, k);
+                }
+            }
+        }
+
+        Kde2DHistogramDto histogram = new Kde2DHistogramDto(
+                axisX.edge(firstJ), axisX.width(), lastJ - firstJ + 1,
+                axisY.edge(firstK), axisY.width(), lastK - firstK + 1);
+        for (int j = firstJ; j <= lastJ; j++) {
+            System.arraycopy(
+                    counts, j * lenY + firstK,
+                    histogram.counts, (j - firstJ) * histogram.sizeY, histogram.sizeY);
+        }
+        return histogram;
+    }
+
+    /**
+     * 先行標本からビンの配置を定め, 先行標本を計数する.
+     */
+    private void prepareBins() {
+        assert Objects.isNull(axisX) && pilotSize > 0;
+
+        MomentAccumulator momentsX = new MomentAccumulator();
+        MomentAccumulator momentsY = new MomentAccumulator();
+        for (int i = 0; i < pilotSize; i++) {
+            momentsX.accept(pilotX[i]);
+            momentsY.accept(pilotY[i]);
+        }
+        double originX = momentsX.mean();
+        double originY = momentsY.mean();
+        axisX = new GrowableBinAxis(
+                originX, Kde1DStreamingBuilder.binWidth(originX, momentsX.std(), binsPerStd),
+                initialBinCount, maxBinCount);
+        axisY = new GrowableBinAxis(
+                originY, Kde1DStreamingBuilder.binWidth(originY, momentsY.std(), binsPerStd),
+                initialBinCount, maxBinCount);
+        counts = new double[axisX.length() * axisY.length()];
+
+        for (int i = 0; i < pilotSize; i++) {
+            count(pilotX[i], pilotY[i]);
+        }
+        pilotSize = 0;
+    }
+
+    private void count(double x, double y) {
+        while (true) {
+            double gx = axisX.globalIndex(x);
+            double gy = axisY.globalIndex(y);
+            int j = axisX.localIndex(gx);
+            int k = axisY.localIndex(gy);
+            if (j >= 0 && k >= 0) {
+                counts[j * axisY.length() + k]++;
+                return;
+            }
+
+            final int oldLenY = axisY.length();
+            int[] mapX = j >= 0 ? identity(axisX.length()) : axisX.expandTo(gx);
+            int[] mapY = k >= 0 ? identity(oldLenY) : axisY.expandTo(gy);
+            final int newLenY = axisY.length();
+            double[] expanded = new double[axisX.length() * newLenY];
+            for (int oj = 0; oj < mapX.length; oj++) {
+                int rowFrom = oj * oldLenY;
+                int newRowFrom = mapX[oj] * newLenY;
+                for (int ok = 0; ok < oldLenY; ok++) {
+                    expanded[newRowFrom + mapY[ok]] += counts[rowFrom + ok];
+                }
+            }
+            counts = expanded;
+        }
+    }
+
+    private static int[] identity(int length) {
+        int[] map = new int[length];
+        for (int i = 0; i < length; i++) {
+            map[i] = i;
+        }
+        return map;
+    }
+}
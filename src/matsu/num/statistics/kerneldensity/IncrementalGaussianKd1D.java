@@ -0,0 +1,348 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Objects;
+
+/**
+ * 値の追加・除去を逐次的に受け付ける, ガウシアンをカーネル関数とする
+ * 1次元のカーネル密度推定.
+ * 
+ * <p>
+ * {@link KernelDensity1D} はイミュータブルであるため,
+ * ソースが少し変化しただけでも, 推定を最初から構築し直す必要がある. <br>
+ * このクラスは可変であり, 値を {@link #add(double)}, {@link #remove(double)}
+ * (および {@link #addAll(double[])}, {@link #removeAll(double[])})
+ * により追加・除去しながら, 任意の時点で {@link #evaluateIn(Range)} により結果を得る. <br>
+ * ある時点の推定をイミュータブルな {@link KernelDensity1D} として得るには,
+ * {@link #snapshot()} を用いる. <br>
+ * このクラスは {@link KernelDensity1D} を実装しない.
+ * </p>
+ * 
+ * <p>
+ * バンド幅と計算の設定は, 生成時に与えた {@link GaussianKd1D.Factory} に従う. <br>
+ * 推定のモードには次の2種類がある.
+ * </p>
+ * 
+ * <ul>
+ * <li>
+ * {@link #of(GaussianKd1D.Factory)}: 
+ * バンド幅をファクトリのルールにより, 保持している値のモーメントから計算する. <br>
+ * 値は等幅ヒストグラム ({@link Kde1DStreamingBuilder} と同様のもの) に計数され,
+ * モーメントとともに, 追加・除去ごとに O(1) で更新される. <br>
+ * 結果を要求された時点で状態が変化していれば, ヒストグラムから推定を構築し直して畳み込みを行う. <br>
+ * 状態が変化しておらず, 前回と同じ範囲が要求された場合は, 前回の結果のコピーを返す.
+ * </li>
+ * <li>
+ * {@link #withFrozenBandwidth(GaussianKd1D.Factory, double)}:
+ * バンド幅を固定し, 空間分解能の格子上で密度そのものを保持する. <br>
+ * 追加・除去ごとに, 値の近傍の密度のみをフィルタの長さに比例するコストで更新するため,
+ * 全体を畳み込み直すことはない. <br>
+ * 結果の <i>x</i> は格子点 (値の近傍以外でも, 最初に追加した値から空間分解能の整数倍の位置)
+ * である.
+ * </li>
+ * </ul>
+ * 
+ * <p>
+ * 値を計数した後は値そのものを保持しないため,
+ * {@link #remove(double)} は, 与えた値と同じビン (格子の区間) に属する値が存在すれば,
+ * その1個を除去したものとして扱う. <br>
+ * 追加していない値を除去した結果は, 同じビンに属する値を除去した結果と区別できない.
+ * </p>
+ * 
+ * <p>
+ * このクラスはスレッドセーフではない.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class IncrementalGaussianKd1D {
+
+    /**
+     * 結果出力の (評価範囲全体での) メッシュの最大値(概算).
+     */
+    private static final int MAX_OUTPUT_MESH = 1_000_000;
+
+    private final GaussianKd1D.Factory factory;
+
+    /**
+     * モーメントから推定する場合のヒストグラム, バンド幅を固定した場合は null.
+     */
+    private final GrowableHistogram1D histogram;
+    private final MomentAccumulator moments;
+
+    /**
+     * バンド幅を固定した場合の密度, そうでない場合は null.
+     */
+    private final PatchedDensity1D patched;
+    private final double frozenBandWidth;
+
+    /**
+     * 状態が変化していない間の推定, 状態が変化した場合は null.
+     */
+    private GaussianKd1D cachedSnapshot;
+    private Range cachedRange;
+    private KdeGrid1dDto cachedResult;
+
+    private IncrementalGaussianKd1D(GaussianKd1D.Factory factory, double frozenBandWidth) {
+        super();
+        this.factory = factory;
+        this.frozenBandWidth = frozenBandWidth;
+        if (Double.isNaN(frozenBandWidth)) {
+            this.histogram = new GrowableHistogram1D(
+                    Kde1DStreamingBuilder.PILOT_SIZE, Kde1DStreamingBuilder.BINS_PER_STD,
+                    Kde1DStreamingBuilder.INITIAL_BIN_COUNT, Kde1DStreamingBuilder.MAX_BIN_COUNT);
+            this.moments = new MomentAccumulator();
+            this.patched = null;
+        } else {
+            double resolutionScale = factory.resolutionScale();
+            this.histogram = null;
+            this.moments = null;
+            this.patched = new PatchedDensity1D(
+                    frozenBandWidth * resolutionScale, GaussianFilterComputation.compute(resolutionScale));
+        }
+    }
+
+    /**
+     * 値を1個追加する.
+     * 
+     * @param value 値
+     * @return this
+     * @throws IllegalArgumentException 値が有限でない場合,
+     *             (バンド幅を固定した場合) 格子で扱える範囲にない場合
+     */
+    public IncrementalGaussianKd1D add(double value) {
+        validate(value);
+        addValidated(value);
+        return this;
+    }
+
+    /**
+     * 値を1個除去する.
+     * 
+     * @param value 値
+     * @return this
+     * @throws IllegalArgumentException 値が有限でない場合, 値と同じビンに属する値が存在しない場合
+     */
+    public IncrementalGaussianKd1D remove(double value) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("illegal: value is not finite: value = %s".formatted(value));
+        }
+        if (!removeIfPresent(value)) {
+            throw new IllegalArgumentException("illegal: value is not present: value = %s".formatted(value));
+        }
+        return this;
+    }
+
+    /**
+     * 値をまとめて追加する. <br>
+     * 全ての値を検証してから追加するため, 例外をスローした場合は何も追加されない.
+     * 
+     * @param values 値
+     * @return this
+     * @throws IllegalArgumentException 有限でない値を含む場合,
+     *             (バンド幅を固定した場合) 格子で扱える範囲にない値を含む場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public IncrementalGaussianKd1D addAll(double[] values) {
+        for (double v : values) {
+            validate(v);
+        }
+        for (double v : values) {
+            addValidated(v);
+        }
+        return this;
+    }
+
+    /**
+     * 値をまとめて除去する. <br>
+     * 除去できない値が現れた場合は, それまでに除去した値を追加し直してから例外をスローするため,
+     * 状態は変化しない.
+     * 
+     * @param values 値
+     * @return this
+     * @throws IllegalArgumentException 有限でない値を含む場合, 除去できない値を含む場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public IncrementalGaussianKd1D removeAll(double[] values) {
+        for (double v : values) {
+            if (!Double.isFinite(v)) {
+                throw new IllegalArgumentException("illegal: value is not finite: value = %s".formatted(v));
+            }
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (!removeIfPresent(values[i])) {
+                for (int j = 0; j < i; j++) {
+                    addValidated(values[j]);
+                }
+                throw new IllegalArgumentException(
+                        "illegal: value is not present: value = %s".formatted(values[i]));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 保持している値の個数を返す.
+     * 
+     * @return 値の個数
+     */
+    public long size() {
+        return Objects.isNull(patched) ? histogram.size() : patched.size();
+    }
+
+    /**
+     * 現在のバンド幅を返す. <br>
+     * バンド幅を固定した場合は, その値である.
+     * 
+     * @return バンド幅
+     * @throws IllegalStateException 値を1個も保持していない場合
+     */
+    public double bandWidth() {
+        requireNonEmpty();
+        if (Objects.nonNull(patched)) {
+            return frozenBandWidth;
+        }
+        return factory.computeBandwidth(moments.std(), moments.sampleSize());
+    }
+
+    /**
+     * 与えられた範囲において, 現在保持している値による確率値をカーネル密度推定する.
+     * 
+     * @param range 推定する区間
+     * @return 推定結果
+     * @throws IllegalStateException 値を1個も保持していない場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public KdeGrid1dDto evaluateIn(Range range) {
+        Objects.requireNonNull(range);
+        requireNonEmpty();
+        if (Objects.nonNull(patched)) {
+            return patched.evaluateIn(range, MAX_OUTPUT_MESH);
+        }
+
+        if (Objects.isNull(cachedResult) || !range.equals(cachedRange)) {
+            cachedResult = snapshot().evaluateIn(range);
+            cachedRange = range;
+        }
+        return new KdeGrid1dDto(cachedResult.x.clone(), cachedResult.density.clone());
+    }
+
+    /**
+     * 現在保持している値による推定を, イミュータブルな {@link KernelDensity1D} として返す. <br>
+     * その後に値を追加・除去しても, 返した推定は変化しない.
+     * 
+     * <p>
+     * バンド幅を固定した場合は, 格子点に線形ビニングした重みをソースとする推定を返す. <br>
+     * その結果は {@link #evaluateIn(Range)} と格子の位置が異なるため,
+     * 離散化の誤差の範囲で異なる.
+     * </p>
+     * 
+     * @return 推定
+     * @throws IllegalStateException 値を1個も保持していない場合
+     */
+    public KernelDensity1D snapshot() {
+        requireNonEmpty();
+        if (Objects.nonNull(cachedSnapshot)) {
+            return cachedSnapshot;
+        }
+        if (Objects.nonNull(patched)) {
+            BinningSource1D source = patched.toBinningSource();
+            cachedSnapshot = factory.createOf(
+                    source, new SupportWindow(source.values), frozenBandWidth);
+        } else {
+            cachedSnapshot = factory.createOf(new BucketedSource1D(histogram.toHistogram()), bandWidth());
+        }
+        return cachedSnapshot;
+    }
+
+    private void validate(double value) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("illegal: value is not finite: value = %s".formatted(value));
+        }
+        if (Objects.nonNull(patched) && !patched.accepts(value)) {
+            throw new IllegalArgumentException("illegal: value is out of the lattice: value = %s".formatted(value));
+        }
+    }
+
+    private void addValidated(double value) {
+        invalidate();
+        if (Objects.nonNull(patched)) {
+            patched.add(value);
+            return;
+        }
+        histogram.add(value);
+        moments.accept(value);
+    }
+
+    private boolean removeIfPresent(double value) {
+        if (Objects.nonNull(patched)) {
+            if (!patched.remove(value)) {
+                return false;
+            }
+        } else {
+            if (!histogram.remove(value)) {
+                return false;
+            }
+            moments.remove(value, 1d);
+        }
+        invalidate();
+        return true;
+    }
+
+    private void invalidate() {
+        cachedSnapshot = null;
+        cachedRange = null;
+        cachedResult = null;
+    }
+
+    private void requireNonEmpty() {
+        if (size() == 0L) {
+            throw new IllegalStateException("no value is present");
+        }
+    }
+
+    /**
+     * 推定ルールを与えたファクトリに従い, バンド幅を保持している値のモーメントから計算する,
+     * 空の推定を生成する.
+     * 
+     * @param factory ファクトリ
+     * @return 空の推定
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static IncrementalGaussianKd1D of(GaussianKd1D.Factory factory) {
+        return new IncrementalGaussianKd1D(Objects.requireNonNull(factory), Double.NaN);
+    }
+
+    /**
+     * バンド幅を固定した, 空の推定を生成する. <br>
+     * 計算の空間分解能と畳み込みの設定は, 与えたファクトリに従う.
+     * 
+     * <p>
+     * 格子の原点は最初に追加した値である. <br>
+     * 原点からの距離が空間分解能の 2<sup>50</sup> 倍以上の値は追加できない.
+     * </p>
+     * 
+     * @param factory ファクトリ
+     * @param bandWidth バンド幅
+     * @return 空の推定
+     * @throws IllegalArgumentException バンド幅が正の有限値でない場合
+     *             (正規化数でない場合を含む)
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static IncrementalGaussianKd1D withFrozenBandwidth(GaussianKd1D.Factory factory, double bandWidth) {
+        Objects.requireNonNull(factory);
+        if (!(bandWidth >= Double.MIN_NORMAL && Double.isFinite(bandWidth * factory.resolutionScale()))) {
+            throw new IllegalArgumentException("illegal: bandWidth = %s".formatted(bandWidth));
+        }
+        return new IncrementalGaussianKd1D(factory, bandWidth);
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.19
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Objects;
+
+/**
+ * 点の追加・除去を逐次的に受け付ける, ガウシアンをカーネル関数とする
+ * 2次元のカーネル密度推定.
+ * 
+ * <p>
+ * {@link IncrementalGaussianKd1D} の2次元版である. <br>
+ * 点を {@link #add(double, double)}, {@link #remove(double, double)}
+ * (および {@link #addAll(Kde2DSourceDto)}, {@link #removeAll(Kde2DSourceDto)})
+ * により追加・除去しながら, 任意の時点で {@link #evaluateIn(Range, Range)} により結果を得る. <br>
+ * ある時点の推定をイミュータブルな {@link KernelDensity2D} として得るには,
+ * {@link #snapshot()} を用いる. <br>
+ * このクラスは {@link KernelDensity2D} を実装しない.
+ * </p>
+ * 
+ * <p>
+ * バンド幅と計算の設定は, 生成時に与えた {@link GaussianKd2D.Factory} に従う. <br>
+ * 点は等幅ヒストグラム ({@link Kde2DStreamingBuilder} と同様のもの) に計数され,
+ * 各軸のモーメントとともに, 追加・除去ごとに O(1) で更新される. <br>
+ * 結果を要求された時点で状態が変化していれば, ヒストグラムから推定を構築し直して畳み込みを行う. <br>
+ * 状態が変化しておらず, 前回と同じ範囲が要求された場合は, 前回の結果のコピーを返す.
+ * </p>
+ * 
+ * <p>
+ * バンド幅は, {@link #of(GaussianKd2D.Factory)} では保持している点の各軸のモーメントから
+ * ファクトリのルールにより計算し,
+ * {@link #withFrozenBandwidth(GaussianKd2D.Factory, double, double)} では固定する. <br>
+ * 1次元版と異なり, バンド幅を固定した場合も密度の局所的な更新は行わない
+ * (1個の点の更新はフィルタの長さの2乗の格子点に及び, 畳み込み全体のコストと大差ないため).
+ * </p>
+ * 
+ * <p>
+ * 点を計数した後は点そのものを保持しないため,
+ * {@link #remove(double, double)} は, 与えた点と同じビンに属する点が存在すれば,
+ * その1個を除去したものとして扱う. <br>
+ * 追加していない点を除去した結果は, 同じビンに属する点を除去した結果と区別できない.
+ * </p>
+ * 
+ * <p>
+ * このクラスはスレッドセーフではない.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class IncrementalGaussianKd2D {
+
+    private final GaussianKd2D.Factory factory;
+
+    private final GrowableHistogram2D histogram = new GrowableHistogram2D(
+            Kde2DStreamingBuilder.PILOT_SIZE, Kde2DStreamingBuilder.BINS_PER_STD,
+            Kde2DStreamingBuilder.INITIAL_BIN_COUNT_PER_AXIS, Kde2DStreamingBuilder.MAX_BIN_COUNT_PER_AXIS);
+
+    /**
+     * 各軸のモーメント, バンド幅を固定した場合は null.
+     */
+    private final MomentAccumulator momentsX;
+    private final MomentAccumulator momentsY;
+
+    /**
+     * 固定したバンド幅, そうでない場合は NaN.
+     */
+    private final double frozenBandWidthX;
+    private final double frozenBandWidthY;
+
+    /**
+     * 状態が変化していない間の推定, 状態が変化した場合は null.
+     */
+    private GaussianKd2D cachedSnapshot;
+    private Range cachedRangeX;
+    private Range cachedRangeY;
+    private KdeGrid2dDto cachedResult;
+
+    private IncrementalGaussianKd2D(
+            GaussianKd2D.Factory factory, double frozenBandWidthX, double frozenBandWidthY) {
+        super();
+        this.factory = factory;
+        this.frozenBandWidthX = frozenBandWidthX;
+        this.frozenBandWidthY = frozenBandWidthY;
+        boolean frozen = !Double.isNaN(frozenBandWidthX);
+        this.momentsX = frozen ? null : new MomentAccumulator();
+        this.momentsY = frozen ? null : new MomentAccumulator();
+    }
+
+    /**
+     * 点を1個追加する.
+     * 
+     * @param x 点の x
+     * @param y 点の y
+     * @return this
+     * @throws IllegalArgumentException 値が有限でない場合
+     */
+    public IncrementalGaussianKd2D add(double x, double y) {
+        validate(x, y);
+        addValidated(x, y);
+        return this;
+    }
+
+    /**
+     * 点を1個除去する.
+     * 
+     * @param x 点の x
+     * @param y 点の y
+     * @return this
+     * @throws IllegalArgumentException 値が有限でない場合, 点と同じビンに属する点が存在しない場合
+     */
+    public IncrementalGaussianKd2D remove(double x, double y) {
+        validate(x, y);
+        if (!removeIfPresent(x, y)) {
+            throw new IllegalArgumentException(
+                    "illegal: point is not present: x = %s, y = %s".formatted(x, y));
+        }
+        return this;
+    }
+
+    /**
+     * 点をまとめて追加する. <br>
+     * 全ての点を検証してから追加するため, 例外をスローした場合は何も追加されない.
+     * 
+     * @param source 点
+     * @return this
+     * @throws IllegalArgumentException 有限でない値を含む場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public IncrementalGaussianKd2D addAll(Kde2DSourceDto source) {
+        for (int i = 0; i < source.size; i++) {
+            validate(source.x[i], source.y[i]);
+        }
+        for (int i = 0; i < source.size; i++) {
+            addValidated(source.x[i], source.y[i]);
+        }
+        return this;
+    }
+
+    /**
+     * 点をまとめて除去する. <br>
+     * 除去できない点が現れた場合は, それまでに除去した点を追加し直してから例外をスローするため,
+     * 状態は変化しない.
+     * 
+     * @param source 点
+     * @return this
+     * @throws IllegalArgumentException 有限でない値を含む場合, 除去できない点を含む場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public IncrementalGaussianKd2D removeAll(Kde2DSourceDto source) {
+        for (int i = 0; i < source.size; i++) {
+            validate(source.x[i], source.y[i]);
+        }
+        for (int i = 0; i < source.size; i++) {
+            if (!removeIfPresent(source.x[i], source.y[i])) {
+                for (int j = 0; j < i; j++) {
+                    addValidated(source.x[j], source.y[j]);
+                }
+                throw new IllegalArgumentException(
+                        "illegal: point is not present: x = %s, y = %s".formatted(source.x[i], source.y[i]));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * 保持している点の個数を返す.
+     * 
+     * @return 点の個数
+     */
+    public long size() {
+        return histogram.size();
+    }
+
+    /**
+     * 現在の x のバンド幅を返す. <br>
+     * バンド幅を固定した場合は, その値である.
+     * 
+     * @return x のバンド幅
+     * @throws IllegalStateException 点を1個も保持していない場合
+     */
+    public double bandWidthX() {
+        requireNonEmpty();
+        if (Objects.isNull(momentsX)) {
+            return frozenBandWidthX;
+        }
+        return factory.computeBandwidth(momentsX.std(), momentsX.sampleSize());
+    }
+
+    /**
+     * 現在の y のバンド幅を返す. <br>
+     * バンド幅を固定した場合は, その値である.
+     * 
+     * @return y のバンド幅
+     * @throws IllegalStateException 点を1個も保持していない場合
+     */
+    public double bandWidthY() {
+        requireNonEmpty();
+        if (Objects.isNull(momentsY)) {
+            return frozenBandWidthY;
+        }
+        return factory.computeBandwidth(momentsY.std(), momentsY.sampleSize());
+    }
+
+    /**
+     * 与えられた範囲において, 現在保持している点による確率値をカーネル密度推定する.
+     * 
+     * @param rangeX 推定する x の区間
+     * @param rangeY 推定する y の区間
+     * @return 推定結果
+     * @throws IllegalStateException 点を1個も保持していない場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public KdeGrid2dDto evaluateIn(Range rangeX, Range rangeY) {
+        Objects.requireNonNull(rangeX);
+        Objects.requireNonNull(rangeY);
+        requireNonEmpty();
+
+        if (Objects.isNull(cachedResult) || !rangeX.equals(cachedRangeX) || !rangeY.equals(cachedRangeY)) {
+            cachedResult = snapshot().evaluateIn(rangeX, rangeY);
+            cachedRangeX = rangeX;
+            cachedRangeY = rangeY;
+        }
+        return new KdeGrid2dDto(cachedResult.x.clone(), cachedResult.y.clone(), cachedResult.flatDensity.clone());
+    }
+
+    /**
+     * 現在保持している点による推定を, イミュータブルな {@link KernelDensity2D} として返す. <br>
+     * その後に点を追加・除去しても, 返した推定は変化しない.
+     * 
+     * @return 推定
+     * @throws IllegalStateException 点を1個も保持していない場合
+     */
+    public KernelDensity2D snapshot() {
+        requireNonEmpty();
+        if (Objects.isNull(cachedSnapshot)) {
+            cachedSnapshot = factory.createOf(
+                    new BucketedSource2D(histogram.toHistogram()), bandWidthX(), bandWidthY());
+        }
+        return cachedSnapshot;
+    }
+
+    private static void validate(double x, double y) {
+        if (!(Double.isFinite(x) && Double.isFinite(y))) {
+            throw new IllegalArgumentException(
+                    "illegal: value is not finite: x = %s, y = %s".formatted(x, y));
+        }
+    }
+
+    private void addValidated(double x, double y) {
+        invalidate();
+        histogram.add(x, y);
+        if (Objects.nonNull(momentsX)) {
+            momentsX.accept(x);
+            momentsY.accept(y);
+        }
+    }
+
+    private boolean removeIfPresent(double x, double y) {
+        if (!histogram.remove(x, y)) {
+            return false;
+        }
+        if (Objects.nonNull(momentsX)) {
+            momentsX.remove(x, 1d);
+            momentsY.remove(y, 1d);
+        }
+        invalidate();
+        return true;
+    }
+
+    private void invalidate() {
+        cachedSnapshot = null;
+        cachedRangeX = null;
+        cachedRangeY = null;
+        cachedResult = null;
+    }
+
+    private void requireNonEmpty() {
+        if (size() == 0L) {
+            throw new IllegalStateException("no point is present");
+        }
+    }
+
+    /**
+     * 推定ルールを与えたファクトリに従い, バンド幅を保持している点の各軸のモーメントから計算する,
+     * 空の推定を生成する.
+     * 
+     * @param factory ファクトリ
+     * @return 空の推定
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static IncrementalGaussianKd2D of(GaussianKd2D.Factory factory) {
+        return new IncrementalGaussianKd2D(Objects.requireNonNull(factory), Double.NaN, Double.NaN);
+    }
+
+    /**
+     * バンド幅を固定した, 空の推定を生成する. <br>
+     * 計算の空間分解能と畳み込みの設定は, 与えたファクトリに従う.
+     * 
+     * @param factory ファクトリ
+     * @param bandWidthX x のバンド幅
+     * @param bandWidthY y のバンド幅
+     * @return 空の推定
+     * @throws IllegalArgumentException バンド幅が正の有限値でない場合
+     *             (正規化数でない場合を含む)
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static IncrementalGaussianKd2D withFrozenBandwidth(
+            GaussianKd2D.Factory factory, double bandWidthX, double bandWidthY) {
+        Objects.requireNonNull(factory);
+        if (!(bandWidthX >= Double.MIN_NORMAL && Double.isFinite(bandWidthX)
+                && bandWidthY >= Double.MIN_NORMAL && Double.isFinite(bandWidthY))) {
+            throw new IllegalArgumentException(
+                    "illegal: bandWidthX = %s, bandWidthY = %s".formatted(bandWidthX, bandWidthY));
+        }
+        return new IncrementalGaussianKd2D(factory, bandWidthX, bandWidthY);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+/**
+ * 1次元のカーネル密度推定 ({@link KernelDensity1D}) の,
+ * 等幅ヒストグラムによるデータソースを表現する転送用クラス.
+ * 
+ * <p>
+ * ヒストグラムは, 開始位置 {@link #start}, ビンの幅 {@link #width}, ビンの個数 {@link #size}
+ * と, 各ビンの度数 {@link #counts} で表現される. <br>
+ * {@code i} 番目のビンは区間
+ * [{@code start + i * width}, {@code start + (i + 1) * width})
+ * であり, その度数が {@code counts[i]} である.
+ * </p>
+ * 
+ * <p>
+ * データの転送にのみ使用されるため, ミュータブルに設計されている. <br>
+ * 公開APIとしては,
+ * {@link KernelDensity1D.Factory#createOf(Kde1DHistogramDto)}
+ * の引数としてのみ使用される. <br>
+ * ユーザーは, コンストラクタによりビンの配置が固定されたインスタンスを生成し,
+ * フィールド {@link #counts} の要素を置き換えることでデータソースを構築する.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class Kde1DHistogramDto {
+
+    /**
+     * 最初のビンの開始位置.
+     */
+    public final double start;
+
+    /**
+     * ビンの幅, 正の値.
+     */
+    public final double width;
+
+    /**
+     * ビンの個数.
+     */
+    public final int size;
+
+    /**
+     * 各ビンの度数を表す配列. <br>
+     * 配列の長さは {@link #size} である.
+     */
+    public final double[] counts;
+
+    /**
+     * ビンの配置を与えてインスタンスを生成する. <br>
+     * 唯一のコンストラクタであり, 度数は全て {@code 0d} で初期化される.
+     * 
+     * <p>
+     * {@code start}, {@code width} は有限で {@code width > 0} でなければならず,
+     * {@code size >= 1} でなければならない. <br>
+     * また, ヒストグラムの終端 {@code start + size * width} は有限でなければならない. <br>
+     * そうでないならば, 例外がスローされる.
+     * </p>
+     * 
+     * @param start 最初のビンの開始位置
+     * @param width ビンの幅
+     * @param size ビンの個数
+     * @throws IllegalArgumentException 引数が不適な場合
+     */
+    public Kde1DHistogramDto(double start, double width, int size) {
+        super();
+
+        if (!(Double.isFinite(start) && width > 0d && size >= 1
+                && Double.isFinite(start + size * width))) {
+            throw new IllegalArgumentException(
+                    "illegal bins: start = %s, width = %s, size = %s".formatted(start, width, size));
+        }
+
+        this.start = start;
+        this.width = width;
+        this.size = size;
+        this.counts = new double[size];
+    }
+
+    /**
+     * 内部から呼ばれるコピーコンストラクタ.
+     */
+    private Kde1DHistogramDto(Kde1DHistogramDto src) {
+        super();
+        this.start = src.start;
+        this.width = src.width;
+        this.size = src.size;
+        this.counts = src.counts.clone();
+    }
+
+    /**
+     * このインスタンスのコピーを生成して返す.
+     * 
+     * @return {@code this} のコピー
+     */
+    public Kde1DHistogramDto copy() {
+        return new Kde1DHistogramDto(this);
+    }
+}
@@ -0,0 +1,494 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+/**
+ * 結合可能な, 1次元のカーネル密度推定の要約 (スケッチ).
+ * 
+ * <p>
+ * 複数のプロセスに分割 (シャーディング) されたデータソースから,
+ * 値そのものを1箇所に集めずにカーネル密度推定を行うためのクラスである. <br>
+ * 各シャードで {@link #of(double, double)} により共通の格子を宣言してスケッチを生成し,
+ * 値を {@link #add(double)} で追加する. <br>
+ * スケッチは {@link #toBytes()} によりバイト列に変換してプロセス間で受け渡し,
+ * {@link #fromBytes(byte[])} で復元して {@link #merge(Kde1DSketch, Kde1DSketch)} で結合する. <br>
+ * 結合したスケッチから, {@link #build(GaussianKd1D.Factory)} でカーネル密度推定を得る. <br>
+ * 通信量とメモリは, 値の個数によらず, ビンの個数に比例する.
+ * </p>
+ * 
+ * <p>
+ * スケッチは, 格子に沿った等幅ヒストグラムと, 値のモーメント
+ * (重みの総和, 平均, 標準偏差, 有効サンプルサイズ) からなる. <br>
+ * 格子は原点 {@code origin} と幅 {@code step} で宣言し,
+ * 番号 <i>g</i> のビンは区間
+ * [{@code origin + g * width}, {@code origin + (g + 1) * width})
+ * である (ビンの幅 {@code width} は, 初めは {@code step} である). <br>
+ * 重みが正のビンの範囲が {@link #MAX_BIN_COUNT} を超える場合は,
+ * 番号 (2<i>g</i>, 2<i>g</i> + 1) のビンを統合して幅を倍にする (粗視化する). <br>
+ * 粗視化の後も格子の原点は変わらないため, 粗視化の度合いが異なるスケッチも,
+ * 細かい方を粗い方に合わせて結合できる.
+ * </p>
+ * 
+ * <p>
+ * 結合は可換かつ結合的である. <br>
+ * ヒストグラムの度数は, 整数の重み (値の個数) である限り, 結合の順序によらず正確に一致する. <br>
+ * モーメントは {@link MomentAccumulator} の方法で結合するため, 丸め誤差の範囲で一致する. <br>
+ * バンド幅は, ヒストグラムではなくモーメント (正確な標準偏差と有効サンプルサイズ) から計算される.
+ * </p>
+ * 
+ * <p>
+ * このクラスはスレッドセーフではない.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class Kde1DSketch {
+
+    /**
+     * 重みが正のビンの範囲の, ビンの個数の上限.
+     */
+    public static final int MAX_BIN_COUNT = 1 << 20;
+
+    /**
+     * 最初に値を追加した際に確保する, ビンの個数.
+     */
+    static final int INITIAL_BIN_COUNT = 1 << 10;
+
+    /**
+     * ビンの番号の絶対値の上限 ({@code double} で正確に表せる範囲).
+     */
+    private static final double MAX_INDEX = 0x1p52;
+
+    /**
+     * バイト列の先頭を表す値 ("KDSK").
+     */
+    private static final int MAGIC = 0x4B44_534B;
+
+    /**
+     * バイト列の形式の版.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * バイト列の, 度数を除く部分のバイト数.
+     */
+    private static final int HEADER_BYTES =
+            3 * Integer.BYTES + 2 * Double.BYTES + Long.BYTES + Integer.BYTES + MomentAccumulator.BYTES;
+
+    private final double origin;
+    private final double step;
+    private final MomentAccumulator moments;
+
+    /**
+     * 粗視化の回数 (ビンの幅は {@code step * 2^level}).
+     */
+    private int level = 0;
+
+    /**
+     * 保持するビンの度数, 番号が [base, base + counts.length) のビンを保持する.
+     */
+    private long base = 0L;
+    private double[] counts = new double[0];
+
+    /**
+     * 重みが正の最初と最後のビンの番号 (空の場合は意味をもたない).
+     */
+    private long first;
+    private long last;
+
+    private Kde1DSketch(double origin, double step, MomentAccumulator moments) {
+        super();
+        this.origin = origin;
+        this.step = step;
+        this.moments = moments;
+    }
+
+    /**
+     * 格子を宣言して, 空のスケッチを生成する. <br>
+     * 結合するスケッチは, 全て同じ格子を宣言していなければならない.
+     * 
+     * <p>
+     * {@code origin} は有限, {@code step} は {@link Double#MIN_NORMAL} 以上の有限値でなければならない.
+     * </p>
+     * 
+     * @param origin 格子の原点
+     * @param step ビンの幅
+     * @return 空のスケッチ
+     * @throws IllegalArgumentException 引数が不適な場合
+     */
+    public static Kde1DSketch of(double origin, double step) {
+        if (!validatesLattice(origin, step)) {
+            throw new IllegalArgumentException(
+                    "illegal lattice: origin = %s, step = %s".formatted(origin, step));
+        }
+        return new Kde1DSketch(origin, step, new MomentAccumulator());
+    }
+
+    private static boolean validatesLattice(double origin, double step) {
+        return Double.isFinite(origin) && step >= Double.MIN_NORMAL && Double.isFinite(step);
+    }
+
+    /**
+     * 宣言した格子の原点を返す.
+     * 
+     * @return 格子の原点
+     */
+    public double origin() {
+        return origin;
+    }
+
+    /**
+     * 宣言したビンの幅を返す.
+     * 
+     * @return 宣言したビンの幅
+     */
+    public double step() {
+        return step;
+    }
+
+    /**
+     * 現在のビンの幅 (粗視化した場合は, 宣言した幅の2の累乗倍) を返す.
+     * 
+     * @return 現在のビンの幅
+     */
+    public double width() {
+        return Math.scalb(step, level);
+    }
+
+    /**
+     * 追加された値の重みの総和を返す.
+     * 
+     * @return 重みの総和
+     */
+    public double totalWeight() {
+        return moments.totalWeight();
+    }
+
+    /**
+     * 値が1個も追加されていないかどうかを判定する.
+     * 
+     * @return 空の場合は true
+     */
+    public boolean isEmpty() {
+        return counts.length == 0;
+    }
+
+    /**
+     * 値を重み1で1個追加する.
+     * 
+     * @param value 値
+     * @return this
+     * @throws IllegalArgumentException 値が有限でない場合
+     */
+    public Kde1DSketch add(double value) {
+        return add(value, 1d);
+    }
+
+    /**
+     * 重み付きの値を1個追加する.
+     * 
+     * @param value 値
+     * @param weight 重み, 正の有限値
+     * @return this
+     * @throws IllegalArgumentException 値が有限でない場合, 重みが正の有限値でない場合
+     */
+    public Kde1DSketch add(double value, double weight) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("illegal: value is not finite: value = %s".formatted(value));
+        }
+        if (!(weight > 0d && Double.isFinite(weight))) {
+            throw new IllegalArgumentException(
+                    "illegal: weight is not positive finite: weight = %s".formatted(weight));
+        }
+
+        long g = prepareBinOf(value);
+        counts[(int) (g - base)] += weight;
+        moments.accept(value, weight);
+        return this;
+    }
+
+    /**
+     * 2個のスケッチを結合した, 新しいスケッチを返す. <br>
+     * 引数のスケッチは変更されない.
+     * 
+     * <p>
+     * 結果の粗視化の度合いは, 両者のうち粗い方以上で,
+     * 重みが正のビンの範囲が {@link #MAX_BIN_COUNT} に収まる最小のものである.
+     * </p>
+     * 
+     * @param a スケッチ
+     * @param b スケッチ
+     * @return 結合したスケッチ
+     * @throws IllegalArgumentException 宣言した格子が異なる場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static Kde1DSketch merge(Kde1DSketch a, Kde1DSketch b) {
+        if (!(Double.compare(a.origin, b.origin) == 0 && Double.compare(a.step, b.step) == 0)) {
+            throw new IllegalArgumentException(
+                    "illegal: lattices differ: (%s, %s), (%s, %s)".formatted(a.origin, a.step, b.origin, b.step));
+        }
+
+        MomentAccumulator moments = new MomentAccumulator();
+        moments.merge(a.moments);
+        moments.merge(b.moments);
+        Kde1DSketch out = new Kde1DSketch(a.origin, a.step, moments);
+        if (a.isEmpty() && b.isEmpty()) {
+            return out;
+        }
+
+        int level = 0;
+        long lo = Long.MAX_VALUE;
+        long hi = Long.MIN_VALUE;
+        for (Kde1DSketch s : new Kde1DSketch[] { a, b }) {
+            if (!s.isEmpty()) {
+                level = Math.max(level, s.level);
+            }
+        }
+        for (Kde1DSketch s : new Kde1DSketch[] { a, b }) {
+            if (!s.isEmpty()) {
+                lo = Math.min(lo, shiftFloor(s.first, level - s.level));
+                hi = Math.max(hi, shiftFloor(s.last, level - s.level));
+            }
+        }
+        while (hi - lo >= MAX_BIN_COUNT) {
+            level++;
+            lo >>= 1;
+            hi >>= 1;
+        }
+
+        out.level = level;
+        out.base = lo;
+        out.first = lo;
+        out.last = hi;
+        out.counts = new double[(int) (hi - lo + 1)];
+        a.addCountsTo(out.counts, lo, level);
+        b.addCountsTo(out.counts, lo, level);
+        return out;
+    }
+
+    /**
+     * 重みが正の最初のビンから最後のビンまでを含むヒストグラムを返す.
+     * 
+     * @return ヒストグラム
+     * @throws IllegalStateException 値が1個も追加されていない場合
+     */
+    public Kde1DHistogramDto toHistogram() {
+        if (isEmpty()) {
+            throw new IllegalStateException("no value has been added");
+        }
+
+        final double width = width();
+        Kde1DHistogramDto histogram = new Kde1DHistogramDto(
+                origin + first * width, width, (int) (last - first + 1));
+        System.arraycopy(counts, (int) (first - base), histogram.counts, 0, histogram.size);
+        return histogram;
+    }
+
+    /**
+     * スケッチからカーネル密度推定を生成する.
+     * 
+     * <p>
+     * ヒストグラム ({@link #toHistogram()}) をデータソースとし,
+     * バンド幅はモーメントの標準偏差と有効サンプルサイズから, ファクトリのルールで計算する. <br>
+     * スケッチはその後も値の追加や結合に使用できる
+     * (生成されたカーネル密度推定には影響しない).
+     * </p>
+     * 
+     * @param factory カーネル密度推定のファクトリ
+     * @return カーネル密度推定
+     * @throws IllegalStateException 値が1個も追加されていない場合, 重みの総和がオーバーフローする場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public KernelDensity1D build(GaussianKd1D.Factory factory) {
+        Objects.requireNonNull(factory);
+        Kde1DHistogramDto histogram = toHistogram();
+        if (!KernelDensity1D.Factory.validateSource(histogram)) {
+            throw new IllegalStateException("total weight overflows");
+        }
+        return factory.createOf(
+                new BucketedSource1D(histogram),
+                factory.computeBandwidth(moments.std(), moments.sampleSize()));
+    }
+
+    /**
+     * スケッチをバイト列に変換する. <br>
+     * バイト列は, 重みが正の最初のビンから最後のビンまでの度数のみを含む.
+     * 
+     * <p>
+     * バイト列は, 先頭を表す値, 形式の版, 格子, 粗視化の回数, ビンの範囲, モーメント, 度数を,
+     * ビッグエンディアンで並べたものである. <br>
+     * {@link #fromBytes(byte[])} で復元できる.
+     * </p>
+     * 
+     * @return バイト列
+     */
+    public byte[] toBytes() {
+        final int length = isEmpty() ? 0 : (int) (last - first + 1);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + length * Double.BYTES);
+        buffer.putInt(MAGIC)
+                .putInt(VERSION)
+                .putDouble(origin)
+                .putDouble(step)
+                .putInt(level)
+                .putLong(isEmpty() ? 0L : first)
+                .putInt(length);
+        moments.writeTo(buffer);
+        buffer.asDoubleBuffer().put(counts, isEmpty() ? 0 : (int) (first - base), length);
+        return buffer.array();
+    }
+
+    /**
+     * {@link #toBytes()} で変換したバイト列からスケッチを復元する.
+     * 
+     * @param bytes バイト列
+     * @return スケッチ
+     * @throws IllegalArgumentException バイト列が不正な場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static Kde1DSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("illegal bytes: not a sketch");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("illegal bytes: unsupported version: %s".formatted(version));
+        }
+
+        double origin = buffer.getDouble();
+        double step = buffer.getDouble();
+        int level = buffer.getInt();
+        long first = buffer.getLong();
+        int length = buffer.getInt();
+        MomentAccumulator moments = MomentAccumulator.readFrom(buffer);
+        boolean valid = validatesLattice(origin, step)
+                && level >= 0 && Double.isFinite(Math.scalb(step, level - 1))
+                && Objects.nonNull(moments)
+                && 0 <= length && length <= MAX_BIN_COUNT
+                && buffer.remaining() == (long) length * Double.BYTES
+                && Math.abs(first) <= MAX_INDEX && Math.abs(first + length - 1) <= MAX_INDEX
+                && (length == 0) == (moments.totalWeight() == 0d);
+        if (!valid) {
+            throw new IllegalArgumentException("illegal bytes: inconsistent sketch");
+        }
+
+        double[] counts = new double[length];
+        buffer.asDoubleBuffer().get(counts);
+        for (double c : counts) {
+            if (!(c >= 0d && c < Double.POSITIVE_INFINITY)) {
+                throw new IllegalArgumentException("illegal bytes: count is invalid");
+            }
+        }
+        if (length > 0 && !(counts[0] > 0d && counts[length - 1] > 0d)) {
+            throw new IllegalArgumentException("illegal bytes: count is invalid");
+        }
+
+        Kde1DSketch out = new Kde1DSketch(origin, step, moments);
+        if (length > 0) {
+            out.level = level;
+            out.base = first;
+            out.first = first;
+            out.last = first + length - 1;
+            out.counts = counts;
+        }
+        return out;
+    }
+
+    /**
+     * 値が属するビンを保持するように, 必要に応じて粗視化し範囲を広げ,
+     * そのビンの番号を返す.
+     */
+    private long prepareBinOf(double value) {
+        while (true) {
+            // 差のオーバーフローを避けるため, 半分の値で差をとる (2の累乗による除算は正確)
+            double g = Math.floor((0.5 * value - 0.5 * origin) / Math.scalb(step, level - 1));
+            if (Math.abs(g) <= MAX_INDEX) {
+                long index = (long) g;
+                if (isEmpty()) {
+                    base = index - INITIAL_BIN_COUNT / 2;
+                    counts = new double[INITIAL_BIN_COUNT];
+                    first = index;
+                    last = index;
+                    return index;
+                }
+                long lo = Math.min(first, index);
+                long hi = Math.max(last, index);
+                if (hi - lo < MAX_BIN_COUNT) {
+                    ensureCapacity(lo, hi);
+                    first = lo;
+                    last = hi;
+                    return index;
+                }
+            }
+
+            // 番号が大きすぎる, または範囲が上限を超える: 粗視化して計算し直す
+            if (isEmpty()) {
+                level++;
+            } else {
+                relayout(level + 1, first >> 1, (int) ((last >> 1) - (first >> 1) + 1));
+            }
+        }
+    }
+
+    /**
+     * 番号が [lo, hi] のビンを保持するように, 範囲を広げる. <br>
+     * 範囲は長さが倍になるように広げるため, 広げる回数は値の個数に対して対数的である.
+     */
+    private void ensureCapacity(long lo, long hi) {
+        if (base <= lo && hi < base + counts.length) {
+            return;
+        }
+        long needed = hi - lo + 1;
+        int length = (int) Math.max(needed, Math.min(MAX_BIN_COUNT, 2L * counts.length));
+        relayout(level, lo < base ? hi - length + 1 : lo, length);
+    }
+
+    /**
+     * 粗視化の回数と保持する範囲を変更する.
+     */
+    private void relayout(int newLevel, long newBase, int newLength) {
+        double[] next = new double[newLength];
+        addCountsTo(next, newBase, newLevel);
+        int shift = newLevel - level;
+        level = newLevel;
+        base = newBase;
+        counts = next;
+        first = shiftFloor(first, shift);
+        last = shiftFloor(last, shift);
+    }
+
+    /**
+     * 度数を, 粗視化の回数が dstLevel (このインスタンス以上) で番号 dstBase から始まる配列に加える.
+     */
+    private void addCountsTo(double[] dst, long dstBase, int dstLevel) {
+        if (isEmpty()) {
+            return;
+        }
+        final int shift = dstLevel - level;
+        final int offset = (int) (first - base);
+        for (int i = 0, len = (int) (last - first + 1); i < len; i++) {
+            double c = counts[offset + i];
+            if (c != 0d) {
+                dst[(int) (shiftFloor(first + i, shift) - dstBase)] += c;
+            }
+        }
+    }
+
+    /**
+     * floor(x / 2<sup>shift</sup>) を返す.
+     */
+    private static long shiftFloor(long x, int shift) {
+        return x >> Math.min(shift, Long.SIZE - 1);
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+
+/**
+ * 1次元のデータソースを逐次的に受け取り, 等幅ヒストグラムに集計しながら
+ * カーネル密度推定を構築するビルダー.
+ * 
+ * <p>
+ * ヒープに収まらないテキストファイル (CSV, TSV など) のデータソースを,
+ * 値の配列を経由せずに扱うためのクラスである. <br>
+ * 値は {@link #accept(double)} で1個ずつ与えるか,
+ * {@link #read(Reader)}, {@link #read(ReadableByteChannel)} でテキストから読み込む. <br>
+ * 最後に {@link #build(KernelDensity1D.Factory)} を呼ぶことで,
+ * 集計したヒストグラムを
+ * {@link KernelDensity1D.Factory#createOf(Kde1DHistogramDto)}
+ * に与えたカーネル密度推定を得る.
+ * </p>
+ * 
+ * <p>
+ * 最初の {@link #PILOT_SIZE} 個の値は先行標本として保持し,
+ * その標準偏差 σ からビンの幅 (σ / {@link #BINS_PER_STD}) を定める. <br>
+ * 以降の値は直接ビンに計数するため, 保持するメモリは値の個数によらず,
+ * ビンの個数 (最大で {@link #MAX_BIN_COUNT}) に比例する. <br>
+ * 先行標本から外れた値が現れた場合はビンの範囲を広げ,
+ * ビンの個数が上限を超える場合は隣接するビンを統合して幅を倍にする. <br>
+ * したがって, 外れ値を多く含むデータソースでは, ビンが粗くなる場合がある.
+ * </p>
+ * 
+ * <p>
+ * バンド幅は, 集計したヒストグラムの (Sheppard の補正を施した) 標準偏差から計算される. <br>
+ * ビンの幅は標準偏差に比べて十分に小さいため,
+ * 値の配列から推定した場合との差は通常は無視できる.
+ * </p>
+ * 
+ * <p>
+ * テキストの書式は, 数値を空白文字 (改行を含む), {@code ','}, {@code ';'}
+ * で区切ったものである ({@code '"'} は無視される). <br>
+ * 数値は {@code [+-]?(数字+(.数字*)?|.数字+)([eE][+-]?数字+)?} の10進表記でなければならない. <br>
+ * {@link #read(Reader)} はテキストの全ての数値を読み込む. <br>
+ * {@link #read(Reader, int, int)} は, 先頭のヘッダ行を読み飛ばしたうえで,
+ * 各行の指定した列の数値のみを読み込む. <br>
+ * いずれの場合も, 読み込む行の全てのトークンは数値でなければならない. <br>
+ * 数値の解釈は部分文字列を生成しない状態遷移で行う.
+ * </p>
+ * 
+ * <p>
+ * このクラスはスレッドセーフではない.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class Kde1DStreamingBuilder {
+
+    /**
+     * ビンの幅を定めるために保持する, 先行標本のサイズ.
+     */
+    public static final int PILOT_SIZE = 1 << 12;
+
+    /**
+     * ビンの個数の上限.
+     */
+    public static final int MAX_BIN_COUNT = 1 << 20;
+
+    /**
+     * 先行標本の標準偏差あたりのビンの個数.
+     */
+    public static final int BINS_PER_STD = 1 << 10;
+
+    /**
+     * ビンの個数の初期値.
+     */
+    static final int INITIAL_BIN_COUNT = 1 << 12;
+
+    private final GrowableHistogram1D histogram =
+            new GrowableHistogram1D(PILOT_SIZE, BINS_PER_STD, INITIAL_BIN_COUNT, MAX_BIN_COUNT);
+
+    /**
+     * 空のビルダーを生成する.
+     */
+    public Kde1DStreamingBuilder() {
+        super();
+    }
+
+    /**
+     * 値を1個追加する.
+     * 
+     * @param value 値
+     * @return this
+     * @throws IllegalArgumentException 値が有限でない場合
+     */
+    public Kde1DStreamingBuilder accept(double value) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("illegal: value is not finite: value = %s".formatted(value));
+        }
+
+        histogram.add(value);
+        return this;
+    }
+
+    /**
+     * テキストの終端まで数値を読み込み, 追加する.
+     * 
+     * <p>
+     * 不正な表記や有限でない値が現れた場合は例外をスローするが,
+     * それ以前に読み込んだ値は追加されたままである.
+     * </p>
+     * 
+     * @param reader 入力
+     * @return this
+     * @throws IOException 入力に失敗した場合
+     * @throws IllegalArgumentException 数値の表記が不正な場合, 値が有限でない場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public Kde1DStreamingBuilder read(Reader reader) throws IOException {
+        new DecimalTextParser(this::accept).parse(reader);
+        return this;
+    }
+
+    /**
+     * ASCII 互換の符号化 (UTF-8 など) のテキストのバイト列を終端まで読み込み,
+     * 数値を追加する. <br>
+     * 文字への復号は行わない.
+     * 
+     * <p>
+     * 不正な表記や有限でない値が現れた場合は例外をスローするが,
+     * それ以前に読み込んだ値は追加されたままである.
+     * </p>
+     * 
+     * @param channel 入力
+     * @return this
+     * @throws IOException 入力に失敗した場合
+     * @throws IllegalArgumentException 数値の表記が不正な場合, 値が有限でない場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public Kde1DStreamingBuilder read(ReadableByteChannel channel) throws IOException {
+        new DecimalTextParser(this::accept).parse(channel);
+        return this;
+    }
+
+    /**
+     * 先頭の指定した行数 (ヘッダ行) を読み飛ばし,
+     * テキストの終端まで, 各行の指定した列の数値を読み込み, 追加する.
+     * 
+     * <p>
+     * 数値を含まない行 (空行) は無視する. <br>
+     * 不正な表記や有限でない値, 指定した列を持たない行が現れた場合は例外をスローするが,
+     * それ以前の行で読み込んだ値は追加されたままである.
+     * </p>
+     * 
+     * @param reader 入力
+     * @param headerLines 読み飛ばすヘッダ行の行数
+     * @param column 読み込む列 (0始まり)
+     * @return this
+     * @throws IOException 入力に失敗した場合
+     * @throws IllegalArgumentException ヘッダ行の行数, 列が負の場合,
+     *             数値の表記が不正な場合, 値が有限でない場合, 指定した列を持たない行がある場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public Kde1DStreamingBuilder read(Reader reader, int headerLines, int column) throws IOException {
+        Objects.requireNonNull(reader);
+        columnParser(headerLines, column).parse(reader);
+        return this;
+    }
+
+    /**
+     * ASCII 互換の符号化 (UTF-8 など) のテキストのバイト列について,
+     * 先頭の指定した行数 (ヘッダ行) を読み飛ばし,
+     * 終端まで, 各行の指定した列の数値を読み込み, 追加する. <br>
+     * 文字への復号は行わない.
+     * 
+     * <p>
+     * 数値を含まない行 (空行) は無視する. <br>
+     * 不正な表記や有限でない値, 指定した列を持たない行が現れた場合は例外をスローするが,
+     * それ以前の行で読み込んだ値は追加されたままである.
+     * </p>
+     * 
+     * @param channel 入力
+     * @param headerLines 読み飛ばすヘッダ行の行数
+     * @param column 読み込む列 (0始まり)
+     * @return this
+     * @throws IOException 入力に失敗した場合
+     * @throws IllegalArgumentException ヘッダ行の行数, 列が負の場合,
+     *             数値の表記が不正な場合, 値が有限でない場合, 指定した列を持たない行がある場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public Kde1DStreamingBuilder read(ReadableByteChannel channel, int headerLines, int column)
+            throws IOException {
+        Objects.requireNonNull(channel);
+        columnParser(headerLines, column).parse(channel);
+        return this;
+    }
+
+    /**
+     * 各行の指定した列の数値を追加するパーサを生成する.
+     */
+    private DecimalTextParser columnParser(int headerLines, int column) {
+        if (headerLines < 0 || column < 0) {
+            throw new IllegalArgumentException(
+                    "illegal: headerLines = %s, column = %s".formatted(headerLines, column));
+        }
+        return new DecimalTextParser(headerLines, (fields, count, line) -> {
+            if (count <= column) {
+                throw new IllegalArgumentException(
+                        "illegal: column %s is missing: line = %s".formatted(column, line));
+            }
+            accept(fields[column]);
+        });
+    }
+
+    /**
+     * 追加された値の個数を返す.
+     * 
+     * @return 値の個数
+     */
+    public long size() {
+        return histogram.size();
+    }
+
+    /**
+     * 追加された値を集計したヒストグラムを返す. <br>
+     * ヒストグラムは度数が正の最初のビンから最後のビンまでを含む.
+     * 
+     * @return ヒストグラム
+     * @throws IllegalStateException 値が1個も追加されていない場合
+     */
+    public Kde1DHistogramDto toHistogram() {
+        if (histogram.size() == 0L) {
+            throw new IllegalStateException("no value has been accepted");
+        }
+        return histogram.toHistogram();
+    }
+
+    /**
+     * 追加された値を集計したヒストグラムから, カーネル密度推定を生成する. <br>
+     * {@code factory.createOf(this.toHistogram())} と同等である.
+     * 
+     * <p>
+     * ビルダーはその後も値を追加できる
+     * (生成されたカーネル密度推定には影響しない).
+     * </p>
+     * 
+     * @param factory カーネル密度推定のファクトリ
+     * @return カーネル密度推定
+     * @throws IllegalStateException 値が1個も追加されていない場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public KernelDensity1D build(KernelDensity1D.Factory factory) {
+        Objects.requireNonNull(factory);
+        return factory.createOf(toHistogram());
+    }
+
+    /**
+     * 先行標本の標準偏差からビンの幅を定める. <br>
+     * 標準偏差が0の場合などでも, 原点付近で値を区別できる幅以上とする.
+     */
+    static double binWidth(double origin, double std, int binsPerStd) {
+        double width = std / binsPerStd;
+        double minWidth = Math.max(Math.ulp(origin), Double.MIN_NORMAL);
+        return width >= minWidth && Double.isFinite(width) ? width : minWidth;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+/**
+ * 2次元のカーネル密度推定 ({@link KernelDensity2D}) の,
+ * 等幅ヒストグラムによるデータソースを表現する転送用クラス.
+ * 
+ * <p>
+ * ヒストグラムは, 各軸の開始位置, ビンの幅, ビンの個数と,
+ * 各ビンの度数 {@link #counts} で表現される. <br>
+ * ({@code j}, {@code k}) 番目のビンは矩形
+ * [{@code startX + j * widthX}, {@code startX + (j + 1) * widthX})
+ * &times;
+ * [{@code startY + k * widthY}, {@code startY + (k + 1) * widthY})
+ * であり, その度数が {@code counts[j * sizeY + k]} である (行優先).
+ * </p>
+ * 
+ * <p>
+ * データの転送にのみ使用されるため, ミュータブルに設計されている. <br>
+ * 公開APIとしては,
+ * {@link KernelDensity2D.Factory#createOf(Kde2DHistogramDto)}
+ * の引数としてのみ使用される. <br>
+ * ユーザーは, コンストラクタによりビンの配置が固定されたインスタンスを生成し,
+ * フィールド {@link #counts} の要素を置き換えることでデータソースを構築する.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class Kde2DHistogramDto {
+
+    /**
+     * x 方向の最初のビンの開始位置.
+     */
+    public final double startX;
+
+    /**
+     * x 方向のビンの幅, 正の値.
+     */
+    public final double widthX;
+
+    /**
+     * x 方向のビンの個数.
+     */
+    public final int sizeX;
+
+    /**
+     * y 方向の最初のビンの開始位置.
+     */
+    public final double startY;
+
+    /**
+     * y 方向のビンの幅, 正の値.
+     */
+    public final double widthY;
+
+    /**
+     * y 方向のビンの個数.
+     */
+    public final int sizeY;
+
+    /**
+     * 各ビンの度数を表す, 行優先の配列. <br>
+     * 配列の長さは {@code sizeX * sizeY} であり,
+     * {@code counts[j * sizeY + k]} が ({@code j}, {@code k}) 番目のビンの度数である.
+     */
+    public final double[] counts;
+
+    /**
+     * ビンの配置を与えてインスタンスを生成する. <br>
+     * 唯一のコンストラクタであり, 度数は全て {@code 0d} で初期化される.
+     * 
+     * <p>
+     * 各軸について, 開始位置と幅は有限で幅は正, ビンの個数は1以上でなければならず,
+     * ヒストグラムの終端 (開始位置 + 個数 &times; 幅) は有限でなければならない. <br>
+     * また, ビンの総数 {@code sizeX * sizeY} は {@code int} の範囲に収まらなければならない. <br>
+     * そうでないならば, 例外がスローされる.
+     * </p>
+     * 
+     * @param startX x 方向の最初のビンの開始位置
+     * @param widthX x 方向のビンの幅
+     * @param sizeX x 方向のビンの個数
+     * @param startY y 方向の最初のビンの開始位置
+     * @param widthY y 方向のビンの幅
+     * @param sizeY y 方向のビンの個数
+     * @throws IllegalArgumentException 引数が不適な場合
+     */
+    public Kde2DHistogramDto(
+            double startX, double widthX, int sizeX, double startY, double widthY, int sizeY) {
+        super();
+
+        if (!(Double.isFinite(startX) && widthX > 0d && sizeX >= 1
+                && Double.isFinite(startX + sizeX * widthX))) {
+            throw new IllegalArgumentException(
+                    "illegal x bins: start = %s, width = %s, size = %s".formatted(startX, widthX, sizeX));
+        }
+        if (!(Double.isFinite(startY) && widthY > 0d && sizeY >= 1
+                && Double.isFinite(startY + sizeY * widthY))) {
+            throw new IllegalArgumentException(
+                    "illegal y bins: start = %s, width = %s, size = %s".formatted(startY, widthY, sizeY));
+        }
+        if ((long) sizeX * sizeY > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(
+                    "too many bins: sizeX = %s, sizeY = %s".formatted(sizeX, sizeY));
+        }
+
+        this.startX = startX;
+        this.widthX = widthX;
+        this.sizeX = sizeX;
+        this.startY = startY;
+        this.widthY = widthY;
+        this.sizeY = sizeY;
+        this.counts = new double[sizeX * sizeY];
+    }
+
+    /**
+     * 内部から呼ばれるコピーコンストラクタ.
+     */
+    private Kde2DHistogramDto(Kde2DHistogramDto src) {
+        super();
+        this.startX = src.startX;
+        this.widthX = src.widthX;
+        this.sizeX = src.sizeX;
+        this.startY = src.startY;
+        this.widthY = src.widthY;
+        this.sizeY = src.sizeY;
+        this.counts = src.counts.clone();
+    }
+
+    /**
+     * このインスタンスのコピーを生成して返す.
+     * 
+     * @return {@code this} のコピー
+     */
+    public Kde2DHistogramDto copy() {
+        return new Kde2DHistogramDto(this);
+    }
+}
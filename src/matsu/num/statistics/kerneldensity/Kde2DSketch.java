@@ -0,0 +1,719 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.19
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.util.Objects;
+
+/**
+ * 結合可能な, 2次元のカーネル密度推定の要約 (スケッチ).
+ * 
+ * <p>
+ * {@link Kde1DSketch} の2次元版である. <br>
+ * 各シャードで {@link #of(double, double, double, double)} により共通の格子を宣言してスケッチを生成し,
+ * 点を {@link #add(double, double)} で追加する. <br>
+ * スケッチは {@link #toBytes()} によりバイト列に変換してプロセス間で受け渡し,
+ * {@link #fromBytes(byte[])} で復元して {@link #merge(Kde2DSketch, Kde2DSketch)} で結合する. <br>
+ * 結合したスケッチから, {@link #build(GaussianKd2D.Factory)} でカーネル密度推定を得る.
+ * </p>
+ * 
+ * <p>
+ * スケッチは, 格子に沿った2次元の等幅ヒストグラムと, 軸ごとの値のモーメントからなる. <br>
+ * 格子は軸ごとに原点と幅で宣言し, ビンの番号の付け方は {@link Kde1DSketch} と同様である. <br>
+ * 重みが正のビンの範囲が, ある軸について {@link #MAX_BIN_COUNT_PER_AXIS} を超える場合は,
+ * その軸についてのみ番号 (2<i>g</i>, 2<i>g</i> + 1) のビンを統合して幅を倍にする (粗視化する). <br>
+ * 粗視化の度合いが異なるスケッチも, 軸ごとに細かい方を粗い方に合わせて結合できる. <br>
+ * 通信量とメモリは, 点の個数によらず, 重みが正のビンを囲む矩形のビンの個数
+ * (最大で {@link #MAX_BIN_COUNT_PER_AXIS} の2乗) に比例する.
+ * </p>
+ * 
+ * <p>
+ * 結合は可換かつ結合的であり, 度数とモーメントの一致の程度は {@link Kde1DSketch} と同様である. <br>
+ * バンド幅は, ヒストグラムではなく軸ごとのモーメントから計算される.
+ * </p>
+ * 
+ * <p>
+ * このクラスはスレッドセーフではない.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class Kde2DSketch {
+
+    /**
+     * 重みが正のビンの範囲の, 各軸のビンの個数の上限.
+     */
+    public static final int MAX_BIN_COUNT_PER_AXIS = 1 << 10;
+
+    /**
+     * 最初に点を追加した際に確保する, 各軸のビンの個数.
+     */
+    static final int INITIAL_BIN_COUNT_PER_AXIS = 1 << 5;
+
+    /**
+     * ビンの番号の絶対値の上限 ({@code double} で正確に表せる範囲).
+     */
+    private static final double MAX_INDEX = 0x1p52;
+
+    /**
+     * バイト列の先頭を表す値 ("KDS2").
+     */
+    private static final int MAGIC = 0x4B44_5332;
+
+    /**
+     * バイト列の形式の版.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * バイト列の, 1軸分の格子とビンの範囲のバイト数.
+     */
+    private static final int AXIS_BYTES = 2 * Double.BYTES + Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    /**
+     * バイト列の, 度数を除く部分のバイト数.
+     */
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + 2 * AXIS_BYTES + 2 * MomentAccumulator.BYTES;
+
+    private final MomentAccumulator momentsX;
+    private final MomentAccumulator momentsY;
+
+    private Axis axisX;
+    private Axis axisY;
+
+    /**
+     * 保持するビンの度数, 行優先 (要素 index は {@link #offsetOf(long, long)}).
+     */
+    private double[] counts = new double[0];
+
+    private Kde2DSketch(Axis axisX, Axis axisY, MomentAccumulator momentsX, MomentAccumulator momentsY) {
+        super();
+        this.axisX = axisX;
+        this.axisY = axisY;
+        this.momentsX = momentsX;
+        this.momentsY = momentsY;
+    }
+
+    /**
+     * 格子を宣言して, 空のスケッチを生成する. <br>
+     * 結合するスケッチは, 全て同じ格子を宣言していなければならない.
+     * 
+     * <p>
+     * 各軸について, 原点は有限, 幅は {@link Double#MIN_NORMAL} 以上の有限値でなければならない.
+     * </p>
+     * 
+     * @param originX x の格子の原点
+     * @param stepX x のビンの幅
+     * @param originY y の格子の原点
+     * @param stepY y のビンの幅
+     * @return 空のスケッチ
+     * @throws IllegalArgumentException 引数が不適な場合
+     */
+    public static Kde2DSketch of(double originX, double stepX, double originY, double stepY) {
+        if (!(Axis.validatesLattice(originX, stepX) && Axis.validatesLattice(originY, stepY))) {
+            throw new IllegalArgumentException(
+                    "illegal lattice: originX = %s, stepX = %s, originY = %s, stepY = %s"
+                            .formatted(originX, stepX, originY, stepY));
+        }
+        return new Kde2DSketch(
+                new Axis(originX, stepX), new Axis(originY, stepY),
+                new MomentAccumulator(), new MomentAccumulator());
+    }
+
+    /**
+     * 宣言した x の格子の原点を返す.
+     * 
+     * @return x の格子の原点
+     */
+    public double originX() {
+        return axisX.origin;
+    }
+
+    /**
+     * 宣言した x のビンの幅を返す.
+     * 
+     * @return 宣言した x のビンの幅
+     */
+    public double stepX() {
+        return axisX.step;
+    }
+
+    /**
+     * 現在の x のビンの幅 (粗視化した場合は, 宣言した幅の2の累乗倍) を返す.
+     * 
+     * @return 現在の x のビンの幅
+     */
+    public double widthX() {
+        return axisX.width();
+    }
+
+    /**
+     * 宣言した y の格子の原点を返す.
+     * 
+     * @return y の格子の原点
+     */
+    public double originY() {
+        return axisY.origin;
+    }
+
+    /**
+     * 宣言した y のビンの幅を返す.
+     * 
+     * @return 宣言した y のビンの幅
+     */
+    public double stepY() {
+        return axisY.step;
+    }
+
+    /**
+     * 現在の y のビンの幅 (粗視化した場合は, 宣言した幅の2の累乗倍) を返す.
+     * 
+     * @return 現在の y のビンの幅
+     */
+    public double widthY() {
+        return axisY.width();
+    }
+
+    /**
+     * 追加された点の重みの総和を返す.
+     * 
+     * @return 重みの総和
+     */
+    public double totalWeight() {
+        return momentsX.totalWeight();
+    }
+
+    /**
+     * 点が1個も追加されていないかどうかを判定する.
+     * 
+     * @return 空の場合は true
+     */
+    public boolean isEmpty() {
+        return counts.length == 0;
+    }
+
+    /**
+     * 点を重み1で1個追加する.
+     * 
+     * @param x 点の x
+     * @param y 点の y
+     * @return this
+     * @throws IllegalArgumentException 値が有限でない場合
+     */
+    public Kde2DSketch add(double x, double y) {
+        return add(x, y, 1d);
+    }
+
+    /**
+     * 重み付きの点を1個追加する.
+     * 
+     * @param x 点の x
+     * @param y 点の y
+     * @param weight 重み, 正の有限値
+     * @return this
+     * @throws IllegalArgumentException 値が有限でない場合, 重みが正の有限値でない場合
+     */
+    public Kde2DSketch add(double x, double y, double weight) {
+        if (!(Double.isFinite(x) && Double.isFinite(y))) {
+            throw new IllegalArgumentException(
+                    "illegal: value is not finite: x = %s, y = %s".formatted(x, y));
+        }
+        if (!(weight > 0d && Double.isFinite(weight))) {
+            throw new IllegalArgumentException(
+                    "illegal: weight is not positive finite: weight = %s".formatted(weight));
+        }
+
+        // 配列の参照は添字の評価より先に行われるため, 位置を先に確定させる
+        int offset = prepareCellOf(x, y);
+        counts[offset] += weight;
+        momentsX.accept(x, weight);
+        momentsY.accept(y, weight);
+        return this;
+    }
+
+    /**
+     * 2個のスケッチを結合した, 新しいスケッチを返す. <br>
+     * 引数のスケッチは変更されない.
+     * 
+     * <p>
+     * 結果の粗視化の度合いは, 軸ごとに, 両者のうち粗い方以上で,
+     * 重みが正のビンの範囲が {@link #MAX_BIN_COUNT_PER_AXIS} に収まる最小のものである.
+     * </p>
+     * 
+     * @param a スケッチ
+     * @param b スケッチ
+     * @return 結合したスケッチ
+     * @throws IllegalArgumentException 宣言した格子が異なる場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static Kde2DSketch merge(Kde2DSketch a, Kde2DSketch b) {
+        if (!(a.axisX.hasSameLattice(b.axisX) && a.axisY.hasSameLattice(b.axisY))) {
+            throw new IllegalArgumentException("illegal: lattices differ");
+        }
+
+        MomentAccumulator momentsX = new MomentAccumulator();
+        momentsX.merge(a.momentsX);
+        momentsX.merge(b.momentsX);
+        MomentAccumulator momentsY = new MomentAccumulator();
+        momentsY.merge(a.momentsY);
+        momentsY.merge(b.momentsY);
+        if (a.isEmpty() && b.isEmpty()) {
+            return new Kde2DSketch(
+                    new Axis(a.axisX.origin, a.axisX.step), new Axis(a.axisY.origin, a.axisY.step),
+                    momentsX, momentsY);
+        }
+
+        Kde2DSketch[] nonEmpty = a.isEmpty()
+                ? new Kde2DSketch[] { b }
+                : b.isEmpty()
+                        ? new Kde2DSketch[] { a }
+                        : new Kde2DSketch[] { a, b };
+        Axis[] axesX = new Axis[nonEmpty.length];
+        Axis[] axesY = new Axis[nonEmpty.length];
+        for (int i = 0; i < nonEmpty.length; i++) {
+            axesX[i] = nonEmpty[i].axisX;
+            axesY[i] = nonEmpty[i].axisY;
+        }
+
+        Kde2DSketch out = new Kde2DSketch(Axis.union(axesX), Axis.union(axesY), momentsX, momentsY);
+        out.counts = new double[out.axisX.length * out.axisY.length];
+        for (Kde2DSketch s : nonEmpty) {
+            s.addCountsTo(out.counts, out.axisX, out.axisY);
+        }
+        return out;
+    }
+
+    /**
+     * 重みが正のビンを囲む矩形を範囲とするヒストグラムを返す.
+     * 
+     * @return ヒストグラム
+     * @throws IllegalStateException 点が1個も追加されていない場合
+     */
+    public Kde2DHistogramDto toHistogram() {
+        if (isEmpty()) {
+            throw new IllegalStateException("no point has been added");
+        }
+
+        final double widthX = axisX.width();
+        final double widthY = axisY.width();
+        final int sizeX = axisX.spanLength();
+        final int sizeY = axisY.spanLength();
+        Kde2DHistogramDto histogram = new Kde2DHistogramDto(
+                axisX.origin + axisX.first * widthX, widthX, sizeX,
+                axisY.origin + axisY.first * widthY, widthY, sizeY);
+        for (int j = 0; j < sizeX; j++) {
+            System.arraycopy(counts, offsetOf(axisX.first + j, axisY.first), histogram.counts, j * sizeY, sizeY);
+        }
+        return histogram;
+    }
+
+    /**
+     * スケッチからカーネル密度推定を生成する.
+     * 
+     * <p>
+     * ヒストグラム ({@link #toHistogram()}) をデータソースとし,
+     * 各軸のバンド幅はその軸のモーメントの標準偏差と有効サンプルサイズから, ファクトリのルールで計算する. <br>
+     * スケッチはその後も点の追加や結合に使用できる
+     * (生成されたカーネル密度推定には影響しない).
+     * </p>
+     * 
+     * @param factory カーネル密度推定のファクトリ
+     * @return カーネル密度推定
+     * @throws IllegalStateException 点が1個も追加されていない場合, 重みの総和がオーバーフローする場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public KernelDensity2D build(GaussianKd2D.Factory factory) {
+        Objects.requireNonNull(factory);
+        Kde2DHistogramDto histogram = toHistogram();
+        if (!KernelDensity2D.Factory.validateSource(histogram)) {
+            throw new IllegalStateException("total weight overflows");
+        }
+        return factory.createOf(
+                new BucketedSource2D(histogram),
+                factory.computeBandwidth(momentsX.std(), momentsX.sampleSize()),
+                factory.computeBandwidth(momentsY.std(), momentsY.sampleSize()));
+    }
+
+    /**
+     * スケッチをバイト列に変換する. <br>
+     * バイト列は, 重みが正のビンを囲む矩形の度数のみを含む.
+     * 
+     * <p>
+     * バイト列は, 先頭を表す値, 形式の版, 各軸の格子, 粗視化の回数, ビンの範囲,
+     * 各軸のモーメント, 度数 (行優先) を, ビッグエンディアンで並べたものである. <br>
+     * {@link #fromBytes(byte[])} で復元できる.
+     * </p>
+     * 
+     * @return バイト列
+     */
+    public byte[] toBytes() {
+        final int sizeX = isEmpty() ? 0 : axisX.spanLength();
+        final int sizeY = isEmpty() ? 0 : axisY.spanLength();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + sizeX * sizeY * Double.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION);
+        axisX.writeTo(buffer, sizeX);
+        axisY.writeTo(buffer, sizeY);
+        momentsX.writeTo(buffer);
+        momentsY.writeTo(buffer);
+        DoubleBuffer view = buffer.asDoubleBuffer();
+        for (int j = 0; j < sizeX; j++) {
+            view.put(counts, offsetOf(axisX.first + j, axisY.first), sizeY);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * {@link #toBytes()} で変換したバイト列からスケッチを復元する.
+     * 
+     * @param bytes バイト列
+     * @return スケッチ
+     * @throws IllegalArgumentException バイト列が不正な場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static Kde2DSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("illegal bytes: not a sketch");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("illegal bytes: unsupported version: %s".formatted(version));
+        }
+
+        Axis axisX = Axis.readFrom(buffer);
+        Axis axisY = Axis.readFrom(buffer);
+        MomentAccumulator momentsX = MomentAccumulator.readFrom(buffer);
+        MomentAccumulator momentsY = MomentAccumulator.readFrom(buffer);
+        boolean valid = Objects.nonNull(axisX) && Objects.nonNull(axisY)
+                && Objects.nonNull(momentsX) && Objects.nonNull(momentsY)
+                && (axisX.length == 0) == (axisY.length == 0)
+                && (axisX.length == 0) == (momentsX.totalWeight() == 0d)
+                && (axisX.length == 0) == (momentsY.totalWeight() == 0d)
+                && buffer.remaining() == (long) axisX.length * axisY.length * Double.BYTES;
+        if (!valid) {
+            throw new IllegalArgumentException("illegal bytes: inconsistent sketch");
+        }
+
+        double[] counts = new double[axisX.length * axisY.length];
+        buffer.asDoubleBuffer().get(counts);
+        for (double c : counts) {
+            if (!(c >= 0d && c < Double.POSITIVE_INFINITY)) {
+                throw new IllegalArgumentException("illegal bytes: count is invalid");
+            }
+        }
+        if (counts.length > 0 && !hasPositiveEdges(counts, axisX.length, axisY.length)) {
+            throw new IllegalArgumentException("illegal bytes: count is invalid");
+        }
+
+        Kde2DSketch out = new Kde2DSketch(axisX, axisY, momentsX, momentsY);
+        out.counts = counts;
+        return out;
+    }
+
+    /**
+     * 行優先の度数の, 最初と最後の行と列が, それぞれ正の度数を含むかどうかを判定する.
+     */
+    private static boolean hasPositiveEdges(double[] counts, int sizeX, int sizeY) {
+        boolean firstRow = false;
+        boolean lastRow = false;
+        boolean firstColumn = false;
+        boolean lastColumn = false;
+        for (int j = 0; j < sizeX; j++) {
+            for (int k = 0; k < sizeY; k++) {
+                if (counts[j * sizeY + k] > 0d) {
+                    firstRow |= j == 0;
+                    lastRow |= j == sizeX - 1;
+                    firstColumn |= k == 0;
+                    lastColumn |= k == sizeY - 1;
+                }
+            }
+        }
+        return firstRow && lastRow && firstColumn && lastColumn;
+    }
+
+    /**
+     * 点が属するビンを保持するように, 必要に応じて軸ごとに粗視化し範囲を広げ,
+     * そのビンの度数の位置を返す.
+     */
+    private int prepareCellOf(double x, double y) {
+        while (true) {
+            double gx = axisX.index(x);
+            double gy = axisY.index(y);
+            boolean fitsX = Math.abs(gx) <= MAX_INDEX;
+            boolean fitsY = Math.abs(gy) <= MAX_INDEX;
+            if (fitsX && fitsY) {
+                long ix = (long) gx;
+                long iy = (long) gy;
+                if (isEmpty()) {
+                    axisX.start(ix);
+                    axisY.start(iy);
+                    counts = new double[axisX.length * axisY.length];
+                    return offsetOf(ix, iy);
+                }
+                fitsX = axisX.fits(ix);
+                fitsY = axisY.fits(iy);
+                if (fitsX && fitsY) {
+                    if (!(axisX.holds(ix) && axisY.holds(iy))) {
+                        relayout(axisX.grownToHold(ix), axisY.grownToHold(iy));
+                    }
+                    axisX.include(ix);
+                    axisY.include(iy);
+                    return offsetOf(ix, iy);
+                }
+            }
+
+            // 番号が大きすぎる, または範囲が上限を超える軸を粗視化して計算し直す
+            if (isEmpty()) {
+                axisX.level += fitsX ? 0 : 1;
+                axisY.level += fitsY ? 0 : 1;
+            } else {
+                relayout(fitsX ? axisX : axisX.coarsened(), fitsY ? axisY : axisY.coarsened());
+            }
+        }
+    }
+
+    /**
+     * 軸の粗視化の回数と保持する範囲を変更する.
+     */
+    private void relayout(Axis newX, Axis newY) {
+        double[] next = new double[newX.length * newY.length];
+        addCountsTo(next, newX, newY);
+        axisX = newX;
+        axisY = newY;
+        counts = next;
+    }
+
+    /**
+     * 度数を, 与えた軸 (粗視化の回数はこのインスタンス以上) による行優先の配列に加える.
+     */
+    private void addCountsTo(double[] dst, Axis dstX, Axis dstY) {
+        if (isEmpty()) {
+            return;
+        }
+        final int shiftX = dstX.level - axisX.level;
+        final int shiftY = dstY.level - axisY.level;
+        for (long gx = axisX.first; gx <= axisX.last; gx++) {
+            final int dstRow = (int) (shiftFloor(gx, shiftX) - dstX.base) * dstY.length;
+            for (long gy = axisY.first; gy <= axisY.last; gy++) {
+                double c = counts[offsetOf(gx, gy)];
+                if (c != 0d) {
+                    dst[dstRow + (int) (shiftFloor(gy, shiftY) - dstY.base)] += c;
+                }
+            }
+        }
+    }
+
+    /**
+     * 番号 (gx, gy) のビンの度数の, 配列における位置を返す.
+     */
+    private int offsetOf(long gx, long gy) {
+        return (int) (gx - axisX.base) * axisY.length + (int) (gy - axisY.base);
+    }
+
+    /**
+     * floor(x / 2<sup>shift</sup>) を返す.
+     */
+    private static long shiftFloor(long x, int shift) {
+        return x >> Math.min(shift, Long.SIZE - 1);
+    }
+
+    /**
+     * 1軸分の格子と, 粗視化の回数, 保持するビンの範囲.
+     */
+    private static final class Axis {
+
+        final double origin;
+        final double step;
+
+        /**
+         * 粗視化の回数 (ビンの幅は {@code step * 2^level}).
+         */
+        int level;
+
+        /**
+         * 番号が [base, base + length) のビンを保持する.
+         */
+        long base;
+        int length;
+
+        /**
+         * 重みが正の最初と最後のビンの番号 (空の場合は意味をもたない).
+         */
+        long first;
+        long last;
+
+        Axis(double origin, double step) {
+            super();
+            this.origin = origin;
+            this.step = step;
+        }
+
+        /**
+         * 与えた軸の粗視化の回数と保持する範囲を変更したものを構築する.
+         */
+        private Axis(Axis src, int level, long base, int length) {
+            this(src.origin, src.step);
+            this.level = level;
+            this.base = base;
+            this.length = length;
+            this.first = shiftFloor(src.first, level - src.level);
+            this.last = shiftFloor(src.last, level - src.level);
+        }
+
+        static boolean validatesLattice(double origin, double step) {
+            return Double.isFinite(origin) && step >= Double.MIN_NORMAL && Double.isFinite(step);
+        }
+
+        boolean hasSameLattice(Axis other) {
+            return Double.compare(origin, other.origin) == 0 && Double.compare(step, other.step) == 0;
+        }
+
+        double width() {
+            return Math.scalb(step, level);
+        }
+
+        /**
+         * 値が属するビンの番号を返す. <br>
+         * 番号が大きすぎる場合, 戻り値の絶対値は {@link #MAX_INDEX} を超える.
+         */
+        double index(double value) {
+            // 差のオーバーフローを避けるため, 半分の値で差をとる (2の累乗による除算は正確)
+            return Math.floor((0.5 * value - 0.5 * origin) / Math.scalb(step, level - 1));
+        }
+
+        /**
+         * 重みが正のビンの範囲の, ビンの個数を返す.
+         */
+        int spanLength() {
+            return (int) (last - first + 1);
+        }
+
+        /**
+         * 最初のビンを中心に, 保持する範囲を初期化する.
+         */
+        void start(long index) {
+            base = index - INITIAL_BIN_COUNT_PER_AXIS / 2;
+            length = INITIAL_BIN_COUNT_PER_AXIS;
+            first = index;
+            last = index;
+        }
+
+        /**
+         * 番号 index のビンを加えた範囲が, 上限に収まるかどうかを判定する.
+         */
+        boolean fits(long index) {
+            return Math.max(last, index) - Math.min(first, index) < MAX_BIN_COUNT_PER_AXIS;
+        }
+
+        boolean holds(long index) {
+            return base <= index && index < base + length;
+        }
+
+        void include(long index) {
+            first = Math.min(first, index);
+            last = Math.max(last, index);
+        }
+
+        /**
+         * 番号 index のビンを保持するように範囲を広げたものを返す (保持している場合は this). <br>
+         * 範囲は長さが倍になるように広げるため, 広げる回数は点の個数に対して対数的である.
+         */
+        Axis grownToHold(long index) {
+            if (holds(index)) {
+                return this;
+            }
+            long lo = Math.min(first, index);
+            long hi = Math.max(last, index);
+            int newLength = (int) Math.max(hi - lo + 1, Math.min(MAX_BIN_COUNT_PER_AXIS, 2L * length));
+            return new Axis(this, level, lo < base ? hi - newLength + 1 : lo, newLength);
+        }
+
+        /**
+         * 1回粗視化し, 重みが正のビンの範囲のみを保持するものを返す.
+         */
+        Axis coarsened() {
+            long lo = first >> 1;
+            long hi = last >> 1;
+            return new Axis(this, level + 1, lo, (int) (hi - lo + 1));
+        }
+
+        /**
+         * 空でない (格子が同一の) 軸の, 重みが正のビンの範囲を合わせた軸を返す.
+         */
+        static Axis union(Axis... axes) {
+            int level = 0;
+            for (Axis a : axes) {
+                level = Math.max(level, a.level);
+            }
+            long lo = Long.MAX_VALUE;
+            long hi = Long.MIN_VALUE;
+            for (Axis a : axes) {
+                lo = Math.min(lo, shiftFloor(a.first, level - a.level));
+                hi = Math.max(hi, shiftFloor(a.last, level - a.level));
+            }
+            while (hi - lo >= MAX_BIN_COUNT_PER_AXIS) {
+                level++;
+                lo >>= 1;
+                hi >>= 1;
+            }
+
+            Axis out = new Axis(axes[0].origin, axes[0].step);
+            out.level = level;
+            out.base = lo;
+            out.length = (int) (hi - lo + 1);
+            out.first = lo;
+            out.last = hi;
+            return out;
+        }
+
+        /**
+         * 格子, 粗視化の回数, 重みが正のビンの範囲を書き込む.
+         */
+        void writeTo(ByteBuffer buffer, int spanLength) {
+            buffer.putDouble(origin)
+                    .putDouble(step)
+                    .putInt(level)
+                    .putLong(spanLength == 0 ? 0L : first)
+                    .putInt(spanLength);
+        }
+
+        /**
+         * {@link #writeTo(ByteBuffer, int)} で書き込んだ軸を読み込む. <br>
+         * 保持する範囲は, 重みが正のビンの範囲に一致する. <br>
+         * 不正な場合は null を返す.
+         */
+        static Axis readFrom(ByteBuffer buffer) {
+            double origin = buffer.getDouble();
+            double step = buffer.getDouble();
+            int level = buffer.getInt();
+            long first = buffer.getLong();
+            int length = buffer.getInt();
+            boolean valid = validatesLattice(origin, step)
+                    && level >= 0 && Double.isFinite(Math.scalb(step, level - 1))
+                    && 0 <= length && length <= MAX_BIN_COUNT_PER_AXIS
+                    && Math.abs(first) <= MAX_INDEX && Math.abs(first + length - 1) <= MAX_INDEX;
+            if (!valid) {
+                return null;
+            }
+
+            Axis out = new Axis(origin, step);
+            if (length > 0) {
+                out.level = level;
+                out.base = first;
+                out.length = length;
+                out.first = first;
+                out.last = first + length - 1;
+            }
+            return out;
+        }
+    }
+}
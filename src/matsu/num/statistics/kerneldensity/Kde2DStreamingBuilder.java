@@ -0,0 +1,241 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Objects;
+
+/**
+ * 2次元のデータソースを逐次的に受け取り, 等幅ヒストグラムに集計しながら
+ * カーネル密度推定を構築するビルダー.
+ * 
+ * <p>
+ * {@link Kde1DStreamingBuilder} の2次元版である. <br>
+ * 点は {@link #accept(double, double)} で1個ずつ与えるか,
+ * {@link #read(Reader)}, {@link #read(ReadableByteChannel)} でテキストから読み込む. <br>
+ * テキストでは, 各行に x, y の2列を並べたものを読み込む
+ * (先頭のヘッダ行を読み飛ばすこともできる). <br>
+ * 最後に {@link #build(KernelDensity2D.Factory)} を呼ぶことで,
+ * 集計したヒストグラムを
+ * {@link KernelDensity2D.Factory#createOf(Kde2DHistogramDto)}
+ * に与えたカーネル密度推定を得る.
+ * </p>
+ * 
+ * <p>
+ * 最初の {@link #PILOT_SIZE} 個の点を先行標本として保持し,
+ * 各軸の標準偏差 σ からビンの幅 (σ / {@link #BINS_PER_STD}) を定める. <br>
+ * 各軸のビンの個数の上限は {@link #MAX_BIN_COUNT_PER_AXIS} であり,
+ * これを超える場合はその軸の隣接するビンを統合して幅を倍にする.
+ * </p>
+ * 
+ * <p>
+ * このクラスはスレッドセーフではない.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class Kde2DStreamingBuilder {
+
+    /**
+     * ビンの幅を定めるために保持する, 先行標本のサイズ.
+     */
+    public static final int PILOT_SIZE = 1 << 12;
+
+    /**
+     * 各軸のビンの個数の上限.
+     */
+    public static final int MAX_BIN_COUNT_PER_AXIS = 1 << 11;
+
+    /**
+     * 先行標本の標準偏差あたりのビンの個数.
+     */
+    public static final int BINS_PER_STD = 1 << 6;
+
+    /**
+     * 各軸のビンの個数の初期値.
+     */
+    static final int INITIAL_BIN_COUNT_PER_AXIS = 1 << 8;
+
+    private final GrowableHistogram2D histogram = new GrowableHistogram2D(
+            PILOT_SIZE, BINS_PER_STD, INITIAL_BIN_COUNT_PER_AXIS, MAX_BIN_COUNT_PER_AXIS);
+
+    /**
+     * 空のビルダーを生成する.
+     */
+    public Kde2DStreamingBuilder() {
+        super();
+    }
+
+    /**
+     * 点を1個追加する.
+     * 
+     * @param x 点の x
+     * @param y 点の y
+     * @return this
+     * @throws IllegalArgumentException 値が有限でない場合
+     */
+    public Kde2DStreamingBuilder accept(double x, double y) {
+        if (!(Double.isFinite(x) && Double.isFinite(y))) {
+            throw new IllegalArgumentException(
+                    "illegal: value is not finite: x = %s, y = %s".formatted(x, y));
+        }
+
+        histogram.add(x, y);
+        return this;
+    }
+
+    /**
+     * テキストの終端まで, 各行の x, y の2列の数値を点として読み込み, 追加する.
+     * 
+     * <p>
+     * {@link #read(Reader, int)} においてヘッダ行の行数を0としたものと同等である.
+     * </p>
+     * 
+     * @param reader 入力
+     * @return this
+     * @throws IOException 入力に失敗した場合
+     * @throws IllegalArgumentException 数値の表記が不正な場合, 値が有限でない場合,
+     *             数値の個数が2でない行がある場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public Kde2DStreamingBuilder read(Reader reader) throws IOException {
+        return read(reader, 0);
+    }
+
+    /**
+     * ASCII 互換の符号化 (UTF-8 など) のテキストのバイト列を終端まで読み込み,
+     * 各行の x, y の2列の数値を点として追加する. <br>
+     * 文字への復号は行わない.
+     * 
+     * <p>
+     * {@link #read(ReadableByteChannel, int)} においてヘッダ行の行数を0としたものと同等である.
+     * </p>
+     * 
+     * @param channel 入力
+     * @return this
+     * @throws IOException 入力に失敗した場合
+     * @throws IllegalArgumentException 数値の表記が不正な場合, 値が有限でない場合,
+     *             数値の個数が2でない行がある場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public Kde2DStreamingBuilder read(ReadableByteChannel channel) throws IOException {
+        return read(channel, 0);
+    }
+
+    /**
+     * 先頭の指定した行数 (ヘッダ行) を読み飛ばし,
+     * テキストの終端まで, 各行の x, y の2列の数値を点として読み込み, 追加する.
+     * 
+     * <p>
+     * テキストの書式は {@link Kde1DStreamingBuilder#read(Reader)} と同様である. <br>
+     * 数値を含まない行 (空行) は無視し, それ以外の行はちょうど2個の数値を含まなければならない. <br>
+     * 不正な表記や有限でない値, 数値の個数が2でない行が現れた場合は例外をスローするが,
+     * それ以前の行で読み込んだ点は追加されたままである.
+     * </p>
+     * 
+     * @param reader 入力
+     * @param headerLines 読み飛ばすヘッダ行の行数
+     * @return this
+     * @throws IOException 入力に失敗した場合
+     * @throws IllegalArgumentException ヘッダ行の行数が負の場合,
+     *             数値の表記が不正な場合, 値が有限でない場合, 数値の個数が2でない行がある場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public Kde2DStreamingBuilder read(Reader reader, int headerLines) throws IOException {
+        Objects.requireNonNull(reader);
+        pairParser(headerLines).parse(reader);
+        return this;
+    }
+
+    /**
+     * ASCII 互換の符号化 (UTF-8 など) のテキストのバイト列について,
+     * 先頭の指定した行数 (ヘッダ行) を読み飛ばし,
+     * 終端まで, 各行の x, y の2列の数値を点として読み込み, 追加する. <br>
+     * 文字への復号は行わない.
+     * 
+     * <p>
+     * 行の扱いは {@link #read(Reader, int)} と同様である.
+     * </p>
+     * 
+     * @param channel 入力
+     * @param headerLines 読み飛ばすヘッダ行の行数
+     * @return this
+     * @throws IOException 入力に失敗した場合
+     * @throws IllegalArgumentException ヘッダ行の行数が負の場合,
+     *             数値の表記が不正な場合, 値が有限でない場合, 数値の個数が2でない行がある場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public Kde2DStreamingBuilder read(ReadableByteChannel channel, int headerLines) throws IOException {
+        Objects.requireNonNull(channel);
+        pairParser(headerLines).parse(channel);
+        return this;
+    }
+
+    /**
+     * 各行の2列の数値を点として追加するパーサを生成する.
+     */
+    private DecimalTextParser pairParser(int headerLines) {
+        if (headerLines < 0) {
+            throw new IllegalArgumentException("illegal: headerLines = " + headerLines);
+        }
+        return new DecimalTextParser(headerLines, (fields, count, line) -> {
+            if (count != 2) {
+                throw new IllegalArgumentException(
+                        "illegal: row must have 2 values: line = %s, count = %s".formatted(line, count));
+            }
+            accept(fields[0], fields[1]);
+        });
+    }
+
+    /**
+     * 追加された点の個数を返す.
+     * 
+     * @return 点の個数
+     */
+    public long size() {
+        return histogram.size();
+    }
+
+    /**
+     * 追加された点を集計したヒストグラムを返す. <br>
+     * ヒストグラムは度数が正のビンを全て含む最小の矩形である.
+     * 
+     * @return ヒストグラム
+     * @throws IllegalStateException 点が1個も追加されていない場合
+     */
+    public Kde2DHistogramDto toHistogram() {
+        if (histogram.size() == 0L) {
+            throw new IllegalStateException("no point has been accepted");
+        }
+        return histogram.toHistogram();
+    }
+
+    /**
+     * 追加された点を集計したヒストグラムから, カーネル密度推定を生成する. <br>
+     * {@code factory.createOf(this.toHistogram())} と同等である.
+     * 
+     * <p>
+     * ビルダーはその後も点を追加できる
+     * (生成されたカーネル密度推定には影響しない).
+     * </p>
+     * 
+     * @param factory カーネル密度推定のファクトリ
+     * @return カーネル密度推定
+     * @throws IllegalStateException 点が1個も追加されていない場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public KernelDensity2D build(KernelDensity2D.Factory factory) {
+        Objects.requireNonNull(factory);
+        return factory.createOf(toHistogram());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Arrays;
+
+/**
+ * 2次元のカーネル密度推定 ({@link KernelDensity2D}) の重み付きデータソースを表現する転送用クラス.
+ * 
+ * <p>
+ * 重み付きデータソース: <br>
+ * (x<sub>0</sub>, y<sub>0</sub>; w<sub>0</sub>),
+ * (x<sub>1</sub>, y<sub>1</sub>; w<sub>1</sub>), ... <br>
+ * をこのクラスでは <br>
+ * {@code x} = {x<sub>0</sub>, x<sub>1</sub>, ... } <br>
+ * {@code y} = {y<sub>0</sub>, y<sub>1</sub>, ... } <br>
+ * {@code weight} = {w<sub>0</sub>, w<sub>1</sub>, ... } <br>
+ * と表現する.
+ * </p>
+ * 
+ * <p>
+ * データの転送にのみ使用されるため, ミュータブルに設計されている. <br>
+ * 公開APIとしては,
+ * {@link KernelDensity2D.Factory#createOf(Kde2DWeightedSourceDto)}
+ * の引数としてのみ使用される. <br>
+ * ユーザーは, コンストラクタにより固定サイズ ({@link #size}) のインスタンスを生成し,
+ * フィールド {@link #x}, {@link #y}, {@link #weight} の要素を置き換えることでデータソースを構築する.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class Kde2DWeightedSourceDto {
+
+    /**
+     * データソースの個数.
+     */
+    public final int size;
+
+    /**
+     * データソースの x 座標値を表す配列. <br>
+     * 配列の長さは {@link #size} である.
+     */
+    public final double[] x;
+
+    /**
+     * データソースの y 座標値を表す配列. <br>
+     * 配列の長さは {@link #size} である.
+     */
+    public final double[] y;
+
+    /**
+     * データソースの重みを表す配列. <br>
+     * 配列の長さは {@link #size} である.
+     */
+    public final double[] weight;
+
+    /**
+     * データソースの個数 ({@code size}) を与えてインスタンスを生成する. <br>
+     * 唯一のコンストラクタであり, 座標値は全て {@code 0d}, 重みは全て {@code 1d} で初期化される.
+     * 
+     * <p>
+     * {@code size >= 1} でなければならない. <br>
+     * そうでないならば, 例外がスローされる.
+     * </p>
+     * 
+     * @param size データソースの個数
+     * @throws IllegalArgumentException size が不適な場合
+     */
+    public Kde2DWeightedSourceDto(int size) {
+        super();
+
+        if (size <= 0) {
+            throw new IllegalArgumentException(
+                    "size is invalid: size = %s".formatted(size));
+        }
+
+        this.size = size;
+        this.x = new double[size];
+        this.y = new double[size];
+        this.weight = new double[size];
+        Arrays.fill(this.weight, 1d);
+    }
+
+    /**
+     * 内部から呼ばれるコピーコンストラクタ.
+     */
+    private Kde2DWeightedSourceDto(Kde2DWeightedSourceDto src) {
+        super();
+        this.size = src.size;
+        this.x = src.x.clone();
+        this.y = src.y.clone();
+        this.weight = src.weight.clone();
+    }
+
+    /**
+     * このインスタンスのコピーを生成して返す.
+     * 
+     * @return {@code this} のコピー
+     */
+    public Kde2DWeightedSourceDto copy() {
+        return new Kde2DWeightedSourceDto(this);
+    }
+}
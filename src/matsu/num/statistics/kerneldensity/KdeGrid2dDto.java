@@ -6,7 +6,7 @@
  */
 
 /*
- * 2026.1.21
+ * 2026.10.18
  */
 package matsu.num.statistics.kerneldensity;
 
@@ -24,6 +24,12 @@ import java.util.Arrays;
  * </p>
  * 
  * <p>
+ * 確率値は, 行優先の1次元配列 {@link #flatDensity} としてのみ保持される. <br>
+ * 配列の配列の形 ({@link #density()}) は, 従来の形式との互換性のために残されており,
+ * 要求されたときにのみ構築される.
+ * </p>
+ * 
+ * <p>
  * 結果の転送にのみ使用される. <br>
  * 可変なフィールドを持っているが, モジュール内からは参照しないため,
  * モジュール外で書き換えることは問題ない.
@@ -58,19 +64,56 @@ public final class KdeGrid2dDto {
     public final double[] y;
 
     /**
-     * 結果の確率値の列. <br>
-     * 構造は {@code density[x_index][y_index]} である. <br>
-     * それぞれの配列の長さは {@link #sizeX}, {@link #sizeY} に一致する.
+     * 結果の確率値の列を, 行優先で1次元配列に格納したもの. <br>
+     * ({@code x_index}, {@code y_index}) の確率値は,
+     * {@code flatDensity[x_index * strideX + y_index * strideY]} である. <br>
+     * 長さは {@code sizeX * sizeY} に一致する.
+     */
+    public final double[] flatDensity;
+
+    /**
+     * {@link #flatDensity} における, <i>x</i> の index が1増えたときの位置の増分. <br>
+     * {@link #sizeY} に一致する.
+     */
+    public final int strideX;
+
+    /**
+     * {@link #flatDensity} における, <i>y</i> の index が1増えたときの位置の増分. <br>
+     * 常に 1 である.
+     */
+    public final int strideY;
+
+    /**
+     * 行優先の1次元配列で確率値を与えるコンストラクタ.
      * 
      * <p>
-     * 配列の配列は {@code final} フィールドでないので,
-     * mutability に注意.
+     * 空であってはならない. <br>
+     * flatDensity.length = x.length * y.length でなければならない. <br>
+     * 有限でなければならない. <br>
+     * x, y は昇順(できれば等間隔) でなければならない.
      * </p>
+     * 
+     * @param x x
+     * @param y y
+     * @param flatDensity 行優先の density, 要素 index は {@code j * y.length + k}
+     * @throws NullPointerException 引数がnullの場合
      */
-    public final double[][] density;
+    KdeGrid2dDto(double[] x, double[] y, double[] flatDensity) {
+        super();
+
+        assert isValid(x, y, flatDensity) : "isValid(x, y, flatDensity)";
+
+        this.sizeX = x.length;
+        this.sizeY = y.length;
+        this.x = x;
+        this.y = y;
+        this.flatDensity = flatDensity;
+        this.strideX = sizeY;
+        this.strideY = 1;
+    }
 
     /**
-     * 唯一のコンストラクタ.
+     * 配列の配列で確率値を与えるコンストラクタ.
      * 
      * <p>
      * 空であってはならない. <br>
@@ -94,7 +137,35 @@ public final class KdeGrid2dDto {
         this.sizeY = y.length;
         this.x = x;
         this.y = y;
-        this.density = density;
+        this.strideX = sizeY;
+        this.strideY = 1;
+
+        double[] flatDensity = new double[sizeX * sizeY];
+        for (int j = 0; j < sizeX; j++) {
+            System.arraycopy(density[j], 0, flatDensity, j * sizeY, sizeY);
+        }
+        this.flatDensity = flatDensity;
+    }
+
+    /**
+     * 結果の確率値の列を, 配列の配列として返す. <br>
+     * 構造は {@code density[x_index][y_index]} である. <br>
+     * それぞれの配列の長さは {@link #sizeX}, {@link #sizeY} に一致する.
+     * 
+     * <p>
+     * 互換性のために用意されている. <br>
+     * 呼ぶたびに {@link #flatDensity} から新しく構築するため,
+     * 戻り値を書き換えても {@link #flatDensity} には反映されない.
+     * </p>
+     * 
+     * @return 確率値の配列の配列
+     */
+    public double[][] density() {
+        double[][] density = new double[sizeX][];
+        for (int j = 0; j < sizeX; j++) {
+            density[j] = Arrays.copyOfRange(flatDensity, j * strideX, j * strideX + sizeY);
+        }
+        return density;
     }
 
     /**
@@ -139,4 +210,23 @@ public final class KdeGrid2dDto {
 
         return true;
     }
+
+    /**
+     * 引数が適切かどうかを判定するメソッド. <br>
+     * アサーション内で呼ばれる.
+     * 
+     * @param x x
+     * @param y y
+     * @param flatDensity flatDensity
+     * @throws NullPointerException 引数がnullの場合
+     */
+    private static boolean isValid(double[] x, double[] y, double[] flatDensity) {
+        return x.length > 0 && y.length > 0
+                && (long) x.length * y.length == flatDensity.length
+                && Arrays.stream(x).allMatch(Double::isFinite)
+                && Arrays.stream(y).allMatch(Double::isFinite)
+                && Arrays.stream(flatDensity).allMatch(Double::isFinite)
+                && DoubleValueUtil.isSorted(x)
+                && DoubleValueUtil.isSorted(y);
+    }
 }
@@ -0,0 +1,525 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * カーネル密度推定 ({@link GaussianKd1D}, {@link GaussianKd2D}) の状態を,
+ * メモリマップに適したバイナリファイル (スナップショット) に保存し, 復元するためのユーティリティ.
+ * 
+ * <p>
+ * 保存するのは, バンド幅, ソースの台, ソース (点, 重み付きの点, またはヒストグラム) である. <br>
+ * 復元ではバンド幅やソースのモーメントを計算し直さない. <br>
+ * 重みを持たない点によるソースはヒープに読み込まず,
+ * ファイルを読み取り専用でメモリマップしたバッファとして保持する
+ * ({@link KernelDensity1D.Factory#createOf(DoubleBuffer[])} などと同様). <br>
+ * したがって, 再起動時の推定の再構築は, ファイルのメモリマップとヘッダの解釈のみとなる. <br>
+ * 重み付きの点とヒストグラムは, ヒープの配列に読み込む.
+ * </p>
+ * 
+ * <p>
+ * 復元した推定のバンド幅はファイルのものであり,
+ * 与えたファクトリのバンド幅のルールは使用されない. <br>
+ * 分解能のルールとフィルタ畳み込みの設定は, 与えたファクトリのものが使用される. <br>
+ * 保存したファイルの内容が変更されていない限り, 復元した推定の評価結果は,
+ * 保存した推定を同じ設定のファクトリで生成した場合と一致する.
+ * </p>
+ * 
+ * <p>
+ * ファイルは, {@link #HEADER_BYTES} バイトのヘッダと, それに続く列からなる. <br>
+ * 各列は同じ個数の {@code double} の値を並べたものであり,
+ * 点によるソースの場合は座標 (1次元は値, 2次元は x, y) と, 重み付きの場合は重みの列,
+ * ヒストグラムの場合は度数 (2次元は行優先) の列である. <br>
+ * 値は全てリトルエンディアンで, 列は8バイト境界に整列する. <br>
+ * ヘッダは先頭を表す値と形式の版を含み, 異なる版のファイルは復元できない.
+ * </p>
+ * 
+ * <p>
+ * 復元ではヘッダとファイルのサイズの整合性を検証するが,
+ * 点によるソースの値 (有限であることなど) は検証しない. <br>
+ * メモリマップ中にファイルが他から変更された場合, 結果は保証されない.
+ * </p>
+ * 
+ * <p>
+ * 保存は, 同じディレクトリの一時ファイルに書き込んでディスクに同期した後,
+ * 一時ファイルを保存先にアトミックに移動することで行う. <br>
+ * したがって, 保存に失敗しても既存のファイルは失われず,
+ * 既存のファイルから復元した (メモリマップしている) 推定に同じファイルへ保存しても,
+ * その推定は置き換え前の内容を参照し続ける. <br>
+ * ファイルシステムがアトミックな移動に対応していない場合, 保存は失敗する.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class KdeSnapshotFiles {
+
+    /**
+     * ヘッダのバイト数.
+     */
+    public static final int HEADER_BYTES = 128;
+
+    /**
+     * 列を分割してメモリマップする際の, チャンクの最大バイト数.
+     */
+    static final long MAX_CHUNK_BYTES = Float64Files.MAX_CHUNK_SIZE;
+
+    /**
+     * ファイルの先頭を表す値 ("KDES").
+     */
+    private static final int MAGIC = 0x4B44_4553;
+
+    /**
+     * ファイルの形式の版.
+     */
+    private static final int VERSION = 1;
+
+    // ソースの種類
+    private static final int KIND_POINTS = 0;
+    private static final int KIND_HISTOGRAM = 1;
+
+    // フラグ
+    private static final int FLAG_WEIGHTED = 1;
+    private static final int FLAG_SORTED = 1 << 1;
+
+    /**
+     * 列を書き込む際の, 1回あたりの値の個数.
+     */
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    private KdeSnapshotFiles() {
+        // インスタンス化不可
+        throw new AssertionError();
+    }
+
+    /**
+     * 1次元のカーネル密度推定の状態を, ファイルに保存する. <br>
+     * ファイルが存在する場合は置き換える ({@link KdeSnapshotFiles} の説明を参照).
+     * 
+     * @param estimator カーネル密度推定
+     * @param file ファイル
+     * @throws IOException ファイルの書き込みに失敗した場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static void save(GaussianKd1D estimator, Path file) throws IOException {
+        Header header = new Header(1);
+        header.bandWidthX = estimator.bandWidth();
+        header.supportX = estimator.support();
+
+        BucketedSource1D histogram = estimator.histogram();
+        if (Objects.nonNull(histogram)) {
+            Kde1DHistogramDto dto = histogram.toDto();
+            header.kind = KIND_HISTOGRAM;
+            header.count = dto.size;
+            header.startX = dto.start;
+            header.widthX = dto.width;
+            header.sizeX = dto.size;
+            write(file, header, 1, (from, length, dst) -> System.arraycopy(
+                    dto.counts, (int) from, dst[0], 0, length));
+            return;
+        }
+
+        BinningSource1D source = estimator.source();
+        boolean weighted = Objects.nonNull(source.weights);
+        header.kind = KIND_POINTS;
+        header.flags = (weighted ? FLAG_WEIGHTED : 0) | (source.sorted ? FLAG_SORTED : 0);
+        header.count = source.size;
+        write(file, header, weighted ? 2 : 1, (from, length, dst) -> {
+            source.readValues(from, length, dst[0]);
+            if (weighted) {
+                System.arraycopy(source.weights, (int) from, dst[1], 0, length);
+            }
+        });
+    }
+
+    /**
+     * 2次元のカーネル密度推定の状態を, ファイルに保存する. <br>
+     * ファイルが存在する場合は置き換える ({@link KdeSnapshotFiles} の説明を参照).
+     * 
+     * @param estimator カーネル密度推定
+     * @param file ファイル
+     * @throws IOException ファイルの書き込みに失敗した場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static void save(GaussianKd2D estimator, Path file) throws IOException {
+        Header header = new Header(2);
+        header.bandWidthX = estimator.bandWidthX();
+        header.bandWidthY = estimator.bandWidthY();
+        header.supportX = estimator.supportX();
+        header.supportY = estimator.supportY();
+
+        BucketedSource2D histogram = estimator.histogram();
+        if (Objects.nonNull(histogram)) {
+            Kde2DHistogramDto dto = histogram.toDto();
+            header.kind = KIND_HISTOGRAM;
+            header.count = dto.counts.length;
+            header.startX = dto.startX;
+            header.widthX = dto.widthX;
+            header.sizeX = dto.sizeX;
+            header.startY = dto.startY;
+            header.widthY = dto.widthY;
+            header.sizeY = dto.sizeY;
+            write(file, header, 1, (from, length, dst) -> System.arraycopy(
+                    dto.counts, (int) from, dst[0], 0, length));
+            return;
+        }
+
+        BinningSource2D source = estimator.source();
+        boolean weighted = Objects.nonNull(source.weights);
+        header.kind = KIND_POINTS;
+        header.flags = (weighted ? FLAG_WEIGHTED : 0) | (source.sortedByX ? FLAG_SORTED : 0);
+        header.count = source.size;
+        write(file, header, weighted ? 3 : 2, (from, length, dst) -> {
+            source.readPoints(from, length, dst[0], dst[1]);
+            if (weighted) {
+                System.arraycopy(source.weights, (int) from, dst[2], 0, length);
+            }
+        });
+    }
+
+    /**
+     * {@link #save(GaussianKd1D, Path)} で保存したファイルから,
+     * 1次元のカーネル密度推定を復元する.
+     * 
+     * <p>
+     * ファイルのチャネルはこのメソッドの終了時に閉じられるが,
+     * メモリマップは復元した推定がガベージコレクトされるまで有効である.
+     * </p>
+     * 
+     * @param file ファイル
+     * @param factory 分解能のルールとフィルタ畳み込みの設定を与えるファクトリ
+     * @return カーネル密度推定
+     * @throws IOException ファイルの読み込み, メモリマップに失敗した場合
+     * @throws IllegalArgumentException ファイルが1次元のスナップショットとして不正な場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static GaussianKd1D load(Path file, GaussianKd1D.Factory factory) throws IOException {
+        Objects.requireNonNull(factory);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = readHeader(channel, 1);
+
+            if (header.kind == KIND_HISTOGRAM) {
+                Kde1DHistogramDto dto = new Kde1DHistogramDto(header.startX, header.widthX, header.sizeX);
+                mapColumn(channel, header, 0).read(0L, dto.size, dto.counts, 0);
+                if (!KernelDensity1D.Factory.validateSource(dto)) {
+                    throw new IllegalArgumentException("illegal snapshot: histogram is invalid");
+                }
+                return factory.createOf(new BucketedSource1D(dto), header.bandWidthX);
+            }
+
+            ChunkedDoubles values = mapColumn(channel, header, 0);
+            boolean sorted = (header.flags & FLAG_SORTED) != 0;
+            BinningSource1D source;
+            if ((header.flags & FLAG_WEIGHTED) != 0) {
+                int size = (int) header.count;
+                double[] valueArray = new double[size];
+                double[] weights = new double[size];
+                values.read(0L, size, valueArray, 0);
+                mapColumn(channel, header, 1).read(0L, size, weights, 0);
+                source = BinningSource1D.of(valueArray, weights, sorted);
+            } else {
+                source = BinningSource1D.of(values, sorted);
+            }
+            return factory.createOf(source, header.supportX, header.bandWidthX);
+        }
+    }
+
+    /**
+     * {@link #save(GaussianKd2D, Path)} で保存したファイルから,
+     * 2次元のカーネル密度推定を復元する.
+     * 
+     * <p>
+     * ファイルのチャネルはこのメソッドの終了時に閉じられるが,
+     * メモリマップは復元した推定がガベージコレクトされるまで有効である.
+     * </p>
+     * 
+     * @param file ファイル
+     * @param factory 分解能のルールとフィルタ畳み込みの設定を与えるファクトリ
+     * @return カーネル密度推定
+     * @throws IOException ファイルの読み込み, メモリマップに失敗した場合
+     * @throws IllegalArgumentException ファイルが2次元のスナップショットとして不正な場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static GaussianKd2D load(Path file, GaussianKd2D.Factory factory) throws IOException {
+        Objects.requireNonNull(factory);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Header header = readHeader(channel, 2);
+
+            if (header.kind == KIND_HISTOGRAM) {
+                Kde2DHistogramDto dto = new Kde2DHistogramDto(
+                        header.startX, header.widthX, header.sizeX,
+                        header.startY, header.widthY, header.sizeY);
+                mapColumn(channel, header, 0).read(0L, dto.counts.length, dto.counts, 0);
+                if (!KernelDensity2D.Factory.validateSource(dto)) {
+                    throw new IllegalArgumentException("illegal snapshot: histogram is invalid");
+                }
+                return factory.createOf(new BucketedSource2D(dto), header.bandWidthX, header.bandWidthY);
+            }
+
+            ChunkedDoubles x = mapColumn(channel, header, 0);
+            ChunkedDoubles y = mapColumn(channel, header, 1);
+            boolean sortedByX = (header.flags & FLAG_SORTED) != 0;
+            BinningSource2D source;
+            if ((header.flags & FLAG_WEIGHTED) != 0) {
+                int size = (int) header.count;
+                Kde2DSourceDto points = new Kde2DSourceDto(size);
+                double[] weights = new double[size];
+                x.read(0L, size, points.x, 0);
+                y.read(0L, size, points.y, 0);
+                mapColumn(channel, header, 2).read(0L, size, weights, 0);
+                source = BinningSource2D.of(points, weights, sortedByX);
+            } else {
+                source = BinningSource2D.of(x, y, sortedByX);
+            }
+            return factory.createOf(
+                    source, header.supportX, header.supportY, header.bandWidthX, header.bandWidthY);
+        }
+    }
+
+    /**
+     * ヘッダと列を一時ファイルに書き込み, 保存先にアトミックに移動する.
+     */
+    private static void write(Path file, Header header, int columnCount, BlockReader reader)
+            throws IOException {
+        Path target = file.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            writeTo(temp, header, columnCount, reader);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * ヘッダと列を, 新しいファイルに書き込んでディスクに同期する.
+     */
+    private static void writeTo(Path file, Header header, int columnCount, BlockReader reader)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            writeFully(channel, header.toBuffer(columnCount), 0L);
+
+            final long count = header.count;
+            final int blockSize = (int) Math.min(BLOCK_SIZE, count);
+            double[][] block = new double[columnCount][blockSize];
+            ByteBuffer bytes = ByteBuffer.allocate(blockSize * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (long from = 0L; from < count; from += blockSize) {
+                int length = (int) Math.min(blockSize, count - from);
+                reader.read(from, length, block);
+                for (int c = 0; c < columnCount; c++) {
+                    bytes.clear();
+                    bytes.asDoubleBuffer().put(block[c], 0, length);
+                    bytes.limit(length * Double.BYTES);
+                    writeFully(channel, bytes, columnOffset(count, c) + from * Double.BYTES);
+                }
+            }
+            channel.force(true);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer src, long position) throws IOException {
+        long p = position;
+        while (src.hasRemaining()) {
+            p += channel.write(src, p);
+        }
+    }
+
+    /**
+     * ヘッダを読み込み, ファイルのサイズとの整合性を検証する.
+     */
+    private static Header readHeader(FileChannel channel, int dimension) throws IOException {
+        final long fileSize = channel.size();
+        if (fileSize < HEADER_BYTES) {
+            throw new IllegalArgumentException("illegal snapshot: file is too short");
+        }
+        ByteBuffer bytes = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, bytes.position()) < 0) {
+                throw new IllegalArgumentException("illegal snapshot: file is too short");
+            }
+        }
+        bytes.flip();
+        return Header.parse(bytes, dimension, fileSize);
+    }
+
+    /**
+     * c 番目の列を, 読み取り専用でメモリマップする.
+     */
+    private static ChunkedDoubles mapColumn(FileChannel channel, Header header, int c) throws IOException {
+        final long offset = columnOffset(header.count, c);
+        final long bytes = header.count * Double.BYTES;
+        int chunkCount = Math.toIntExact((bytes + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+        DoubleBuffer[] chunks = new DoubleBuffer[chunkCount];
+        for (int i = 0; i < chunkCount; i++) {
+            long position = i * MAX_CHUNK_BYTES;
+            chunks[i] = channel.map(
+                    FileChannel.MapMode.READ_ONLY, offset + position, Math.min(MAX_CHUNK_BYTES, bytes - position))
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asDoubleBuffer();
+        }
+        return ChunkedDoubles.of(chunks);
+    }
+
+    /**
+     * 値の個数が count の場合の, c 番目の列の開始位置 (バイト) を返す.
+     */
+    private static long columnOffset(long count, int c) {
+        return HEADER_BYTES + c * count * Double.BYTES;
+    }
+
+    /**
+     * 列のブロックを読み込む.
+     */
+    @FunctionalInterface
+    private static interface BlockReader {
+
+        /**
+         * [from, from + length) の値を, 各列の配列の先頭から読み込む.
+         */
+        void read(long from, int length, double[][] dst);
+    }
+
+    /**
+     * ヘッダの内容.
+     * 
+     * <p>
+     * レイアウト (バイト位置) は次のとおりである. <br>
+     * 0: 先頭を表す値 (int), 4: 版 (int), 8: 次元 (int), 12: ソースの種類 (int),
+     * 16: フラグ (int), 20: 列の個数 (int), 24: 列の値の個数 (long), <br>
+     * 32, 40: X, Y のバンド幅, 48, 56: X の台, 64, 72: Y の台,
+     * 80, 88: X のビンの開始位置と幅, 96, 104: Y のビンの開始位置と幅,
+     * 112, 116: X, Y のビンの個数 (int), 120: 予約 (0).
+     * </p>
+     */
+    private static final class Header {
+
+        final int dimension;
+        int kind;
+        int flags;
+        long count;
+        double bandWidthX;
+        double bandWidthY;
+        SupportWindow supportX;
+        SupportWindow supportY;
+        double startX;
+        double widthX;
+        int sizeX;
+        double startY;
+        double widthY;
+        int sizeY;
+
+        Header(int dimension) {
+            super();
+            this.dimension = dimension;
+        }
+
+        ByteBuffer toBuffer(int columnCount) {
+            ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(MAGIC).putInt(VERSION).putInt(dimension).putInt(kind)
+                    .putInt(flags).putInt(columnCount).putLong(count)
+                    .putDouble(bandWidthX).putDouble(bandWidthY);
+            putSupport(out, supportX);
+            putSupport(out, supportY);
+            out.putDouble(startX).putDouble(widthX).putDouble(startY).putDouble(widthY)
+                    .putInt(sizeX).putInt(sizeY).putLong(0L);
+            assert !out.hasRemaining();
+            return out.flip();
+        }
+
+        private static void putSupport(ByteBuffer out, SupportWindow support) {
+            out.putDouble(Objects.isNull(support) ? Double.NaN : support.supportMin)
+                    .putDouble(Objects.isNull(support) ? Double.NaN : support.supportMax);
+        }
+
+        /**
+         * ヘッダを解釈し, 検証する.
+         */
+        static Header parse(ByteBuffer src, int dimension, long fileSize) {
+            if (src.getInt() != MAGIC) {
+                throw new IllegalArgumentException("illegal snapshot: not a snapshot file");
+            }
+            int version = src.getInt();
+            if (version != VERSION) {
+                throw new IllegalArgumentException(
+                        "illegal snapshot: unsupported version: %s".formatted(version));
+            }
+            int fileDimension = src.getInt();
+            if (fileDimension != dimension) {
+                throw new IllegalArgumentException(
+                        "illegal snapshot: dimension = %s, expected = %s".formatted(fileDimension, dimension));
+            }
+
+            Header header = new Header(dimension);
+            header.kind = src.getInt();
+            header.flags = src.getInt();
+            int columnCount = src.getInt();
+            header.count = src.getLong();
+            header.bandWidthX = src.getDouble();
+            header.bandWidthY = src.getDouble();
+            double minX = src.getDouble();
+            double maxX = src.getDouble();
+            double minY = src.getDouble();
+            double maxY = src.getDouble();
+            header.startX = src.getDouble();
+            header.widthX = src.getDouble();
+            header.startY = src.getDouble();
+            header.widthY = src.getDouble();
+            header.sizeX = src.getInt();
+            header.sizeY = src.getInt();
+
+            boolean weighted = (header.flags & FLAG_WEIGHTED) != 0;
+            int expectedColumnCount = header.kind == KIND_HISTOGRAM
+                    ? 1
+                    : dimension + (weighted ? 1 : 0);
+            boolean valid = (header.kind == KIND_POINTS || header.kind == KIND_HISTOGRAM)
+                    && (header.flags & ~(FLAG_WEIGHTED | FLAG_SORTED)) == 0
+                    && columnCount == expectedColumnCount
+                    && header.count > 0L
+                    && header.count <= (fileSize - HEADER_BYTES) / Double.BYTES
+                    && fileSize == HEADER_BYTES + columnCount * header.count * Double.BYTES
+                    && (!weighted || header.count <= Integer.MAX_VALUE)
+                    && validatesBandWidth(header.bandWidthX)
+                    && (dimension == 1 || validatesBandWidth(header.bandWidthY));
+            if (valid && header.kind == KIND_POINTS) {
+                valid = validatesSupport(minX, maxX) && (dimension == 1 || validatesSupport(minY, maxY));
+            }
+            if (valid && header.kind == KIND_HISTOGRAM) {
+                valid = dimension == 1
+                        ? header.count == header.sizeX
+                        : header.count == (long) header.sizeX * header.sizeY;
+            }
+            if (!valid) {
+                throw new IllegalArgumentException("illegal snapshot: inconsistent header");
+            }
+
+            header.supportX = new SupportWindow(minX, maxX);
+            header.supportY = dimension == 1 ? null : new SupportWindow(minY, maxY);
+            return header;
+        }
+
+        private static boolean validatesBandWidth(double bandWidth) {
+            return bandWidth > 0d && Double.isFinite(bandWidth);
+        }
+
+        private static boolean validatesSupport(double min, double max) {
+            return (Double.isNaN(min) && Double.isNaN(max)) || min <= max;
+        }
+    }
+}
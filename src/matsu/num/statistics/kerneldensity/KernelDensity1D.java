@@ -6,10 +6,11 @@
  */
 
 /*
- * 2025.11.18
+ * 2026.10.18
  */
 package matsu.num.statistics.kerneldensity;
 
+import java.nio.DoubleBuffer;
 import java.util.Arrays;
 
 /**
@@ -29,7 +30,19 @@ import java.util.Arrays;
  * {@link KernelDensity1D.Factory} を経由して行う. <br>
  * {@link KernelDensity1D.Factory#createOf(double[])}
  * メソッドのコール時にデータソースを渡すことで,
- * {@link KernelDensity1D} のインスタンスを得る.
+ * {@link KernelDensity1D} のインスタンスを得る. <br>
+ * 重み付きのデータソースの場合は,
+ * {@link KernelDensity1D.Factory#createOf(double[], double[])}
+ * を使用する. <br>
+ * 等幅ヒストグラムとして集計済みのデータソースの場合は,
+ * {@link KernelDensity1D.Factory#createOf(Kde1DHistogramDto)}
+ * を使用する. <br>
+ * ヒープ外のバッファやメモリマップトファイル上のデータソースを, コピーせずに扱う場合は,
+ * {@link KernelDensity1D.Factory#createOf(DoubleBuffer)}
+ * を使用する. <br>
+ * 配列の長さの上限を超える大きさのデータソースは, 複数のバッファに分割して
+ * {@link KernelDensity1D.Factory#createOf(DoubleBuffer[])}
+ * に与える.
  * </p>
  * 
  * <p>
@@ -114,6 +127,157 @@ public interface KernelDensity1D {
          */
         public abstract KernelDensity1D createOf(double[] source);
 
+        /**
+         * 与えた重み付きのデータソースから, カーネル密度推定を生成する.
+         * 
+         * <p>
+         * データソースは, 値の配列と, 値と同じ長さの重みの配列 (いずれも {@code double} 型) で与える. <br>
+         * 各値は, 重みに比例した寄与を推定結果に与える
+         * (重みの総和で正規化されるため, 重みの定数倍は結果に影響しない). <br>
+         * 重複の多いデータを (値, 個数) に集約して与えることで,
+         * 生成と評価のコストをデータの個数によらず, 異なる値の個数に比例させることができる.
+         * </p>
+         * 
+         * <p>
+         * カーネルのバンド幅などのデータ依存のパラメータは, 具象クラスの定めにより,
+         * 重み付きの統計量から計算される. <br>
+         * したがって, 値を重みの個数だけ重複させて {@link #createOf(double[])}
+         * を適用した結果と一致するとは限らない
+         * (全ての重みが等しい場合は, 重みを与えない場合と丸め誤差の範囲で一致する).
+         * </p>
+         * 
+         * <p>
+         * 値には, NaNを含んではいけない (無限大は境界の値で置き換えられる). <br>
+         * 重みは0以上の有限値でなければならず, 重みの総和は正の有限値でなければならない. <br>
+         * また, 値と重みの配列は空でなく, 同じ長さでなければならない. <br>
+         * これに違反する場合, {@link IllegalArgumentException} をスローする.
+         * </p>
+         * 
+         * <p>
+         * データソースはメソッドコール中は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.)
+         * </p>
+         * 
+         * <p>
+         * 引数の事前チェックとして, {@link Factory#validateSource(double[], double[])}
+         * を提供している.
+         * </p>
+         * 
+         * @param values データソースの値
+         * @param weights データソースの重み
+         * @return データソースから生成されたカーネル密度推定
+         * @throws IllegalArgumentException データソースが不正な場合
+         * @throws NullPointerException 引数が null の場合
+         */
+        public abstract KernelDensity1D createOf(double[] values, double[] weights);
+
+        /**
+         * 等幅ヒストグラムとして集計済みのデータソースから, カーネル密度推定を生成する.
+         * 
+         * <p>
+         * データソースは {@link Kde1DHistogramDto} 型で与える. <br>
+         * 各ビンの内部では度数が一様に分布しているとみなし,
+         * 度数の総和を保存するように評価の格子へ再配分する. <br>
+         * 生データを必要とせず, 生成と評価のコストはビンの個数に比例する.
+         * </p>
+         * 
+         * <p>
+         * 度数は0以上の有限値でなければならず, 度数の総和は正の有限値でなければならない. <br>
+         * これに違反する場合, {@link IllegalArgumentException} をスローする.
+         * </p>
+         * 
+         * <p>
+         * データソースはメソッドコール中は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.)
+         * </p>
+         * 
+         * <p>
+         * 引数の事前チェックとして, {@link Factory#validateSource(Kde1DHistogramDto)}
+         * を提供している.
+         * </p>
+         * 
+         * @param histogram データソース
+         * @return データソースから生成されたカーネル密度推定
+         * @throws IllegalArgumentException データソースが不正な場合
+         * @throws NullPointerException 引数が null の場合
+         */
+        public abstract KernelDensity1D createOf(Kde1DHistogramDto histogram);
+
+        /**
+         * バッファで与えたデータソースから, コピーせずにカーネル密度推定を生成する.
+         * 
+         * <p>
+         * データソースは, バッファの位置からリミットまでの値である. <br>
+         * バッファはコピーされずに (読み取り専用のビューとして) 生成されたインスタンスに保持され,
+         * 評価のたびに直接読み込まれる. <br>
+         * したがって, ダイレクトバッファや, メモリマップトファイルのバッファ
+         * ({@link Float64Files#map(java.nio.file.Path, java.nio.ByteOrder)} など) を与えることで,
+         * データソースをヒープに複製することなく扱うことができる.
+         * </p>
+         * 
+         * <p>
+         * データソースには, NaNを含んではいけない. <br>
+         * また, 空であってはいけない. <br>
+         * これに違反する場合, {@link IllegalArgumentException} をスローする.
+         * </p>
+         * 
+         * <p>
+         * バッファの内容は, 生成されたインスタンスを使用する間は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.) <br>
+         * バッファの位置やリミットは参照されるのみであり, 生成後に変更してもよい.
+         * </p>
+         * 
+         * <p>
+         * 引数の事前チェックとして, {@link Factory#validateSource(DoubleBuffer)}
+         * を提供している.
+         * </p>
+         * 
+         * @param source データソース
+         * @return データソースから生成されたカーネル密度推定
+         * @throws IllegalArgumentException データソースが空の場合, NaNを含む場合
+         * @throws NullPointerException 引数が null の場合
+         */
+        public abstract KernelDensity1D createOf(DoubleBuffer source);
+
+        /**
+         * 複数のバッファ (チャンク) に分割して与えたデータソースから,
+         * コピーせずにカーネル密度推定を生成する.
+         * 
+         * <p>
+         * データソースは, 各チャンクの位置からリミットまでの値を, 配列の順に連結したものである. <br>
+         * 値の総数は {@code int} の範囲を超えてもよく,
+         * 単一の巨大な配列やバッファを必要としない. <br>
+         * ヒープ上の配列は {@link DoubleBuffer#wrap(double[])} により, コピーせずにチャンクとすることができる. <br>
+         * 大きなファイルは {@link Float64Files#mapChunks(java.nio.file.Path, java.nio.ByteOrder)}
+         * によりチャンクに分割してメモリマップできる. <br>
+         * チャンクの扱いは {@link #createOf(DoubleBuffer)} と同様である
+         * (チャンクの配列自体は, 生成後に変更してもよい).
+         * </p>
+         * 
+         * <p>
+         * データソースには, NaNを含んではいけない. <br>
+         * また, 空であってはいけない (空のチャンクを含むことは許される). <br>
+         * これに違反する場合, {@link IllegalArgumentException} をスローする.
+         * </p>
+         * 
+         * <p>
+         * チャンクの内容は, 生成されたインスタンスを使用する間は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.) <br>
+         * チャンクの位置やリミットは参照されるのみであり, 生成後に変更してもよい.
+         * </p>
+         * 
+         * <p>
+         * 引数の事前チェックとして, {@link Factory#validateSource(DoubleBuffer[])}
+         * を提供している.
+         * </p>
+         * 
+         * @param chunks データソース
+         * @return データソースから生成されたカーネル密度推定
+         * @throws IllegalArgumentException データソースが空の場合, NaNを含む場合
+         * @throws NullPointerException 引数が null の場合, null の要素を含む場合
+         */
+        public abstract KernelDensity1D createOf(DoubleBuffer[] chunks);
+
         /**
          * データソースが正当であるか
          * ({@link #createOf(double[])} の引数に使用できるかどうか)
@@ -132,5 +296,117 @@ public interface KernelDensity1D {
             return source.length > 0
                     && Arrays.stream(source).noneMatch(Double::isNaN);
         }
+
+        /**
+         * 重み付きのデータソースが正当であるか
+         * ({@link #createOf(double[], double[])} の引数に使用できるかどうか)
+         * を検証する.
+         * 
+         * <p>
+         * データソースはメソッドコール中は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.)
+         * </p>
+         * 
+         * @param values データソースの値
+         * @param weights データソースの重み
+         * @return データソースが正当な場合は true
+         * @throws NullPointerException 引数が null の場合
+         */
+        public static boolean validateSource(double[] values, double[] weights) {
+            if (values.length != weights.length || !validateSource(values)) {
+                return false;
+            }
+            double totalWeight = 0d;
+            for (double w : weights) {
+                if (!(w >= 0d && w < Double.POSITIVE_INFINITY)) {
+                    return false;
+                }
+                totalWeight += w;
+            }
+            return totalWeight > 0d && Double.isFinite(totalWeight);
+        }
+
+        /**
+         * ヒストグラムによるデータソースが正当であるか
+         * ({@link #createOf(Kde1DHistogramDto)} の引数に使用できるかどうか)
+         * を検証する.
+         * 
+         * <p>
+         * データソースはメソッドコール中は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.)
+         * </p>
+         * 
+         * @param histogram データソース
+         * @return データソースが正当な場合は true
+         * @throws NullPointerException 引数が null の場合
+         */
+        public static boolean validateSource(Kde1DHistogramDto histogram) {
+            double totalCount = 0d;
+            for (double c : histogram.counts) {
+                if (!(c >= 0d && c < Double.POSITIVE_INFINITY)) {
+                    return false;
+                }
+                totalCount += c;
+            }
+            return totalCount > 0d && Double.isFinite(totalCount);
+        }
+
+        /**
+         * バッファによるデータソースが正当であるか
+         * ({@link #createOf(DoubleBuffer)} の引数に使用できるかどうか)
+         * を検証する.
+         * 
+         * <p>
+         * バッファの位置からリミットまでを検証する. <br>
+         * バッファの位置やリミットは変更されない.
+         * </p>
+         * 
+         * <p>
+         * データソースはメソッドコール中は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.)
+         * </p>
+         * 
+         * @param source データソース
+         * @return データソースが正当な場合は true
+         * @throws NullPointerException 引数が null の場合
+         */
+        public static boolean validateSource(DoubleBuffer source) {
+            for (int i = source.position(), end = source.limit(); i < end; i++) {
+                if (Double.isNaN(source.get(i))) {
+                    return false;
+                }
+            }
+            return source.hasRemaining();
+        }
+
+        /**
+         * チャンクに分割したバッファによるデータソースが正当であるか
+         * ({@link #createOf(DoubleBuffer[])} の引数に使用できるかどうか)
+         * を検証する.
+         * 
+         * <p>
+         * 各チャンクの位置からリミットまでを検証する. <br>
+         * チャンクの位置やリミットは変更されない.
+         * </p>
+         * 
+         * <p>
+         * データソースはメソッドコール中は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.)
+         * </p>
+         * 
+         * @param chunks データソース
+         * @return データソースが正当な場合は true
+         * @throws NullPointerException 引数が null の場合, null の要素を含む場合
+         */
+        public static boolean validateSource(DoubleBuffer[] chunks) {
+            boolean hasRemaining = false;
+            for (DoubleBuffer chunk : chunks) {
+                if (chunk.hasRemaining() && !validateSource(chunk)) {
+                    return false;
+                }
+                hasRemaining |= chunk.hasRemaining();
+            }
+            return hasRemaining;
+        }
     }
 }
@@ -6,10 +6,11 @@
  */
 
 /*
- * 2025.11.29
+ * 2026.10.18
  */
 package matsu.num.statistics.kerneldensity;
 
+import java.nio.DoubleBuffer;
 import java.util.Arrays;
 
 /**
@@ -29,7 +30,21 @@ import java.util.Arrays;
  * {@link KernelDensity2D.Factory} を経由して行う. <br>
  * {@link KernelDensity2D.Factory#createOf(Kde2DSourceDto)}
  * メソッドのコール時にデータソースを渡すことで,
- * {@link KernelDensity2D} のインスタンスを得る.
+ * {@link KernelDensity2D} のインスタンスを得る. <br>
+ * 重み付きのデータソースの場合は,
+ * {@link KernelDensity2D.Factory#createOf(Kde2DWeightedSourceDto)}
+ * を使用する. <br>
+ * 等幅ヒストグラムとして集計済みのデータソースの場合は,
+ * {@link KernelDensity2D.Factory#createOf(Kde2DHistogramDto)}
+ * を使用する. <br>
+ * ヒープ外のバッファやメモリマップトファイル上のデータソースを, コピーせずに扱う場合は,
+ * {@link KernelDensity2D.Factory#createOf(DoubleBuffer)},
+ * {@link KernelDensity2D.Factory#createOf(DoubleBuffer, DoubleBuffer)}
+ * を使用する. <br>
+ * 配列の長さの上限を超える大きさのデータソースは, 複数のバッファに分割して
+ * {@link KernelDensity2D.Factory#createOf(DoubleBuffer[])},
+ * {@link KernelDensity2D.Factory#createOf(DoubleBuffer[], DoubleBuffer[])}
+ * に与える.
  * </p>
  * 
  * <p>
@@ -114,6 +129,224 @@ public interface KernelDensity2D {
          */
         public abstract KernelDensity2D createOf(Kde2DSourceDto source);
 
+        /**
+         * 与えた重み付きのデータソースから, カーネル密度推定を生成する.
+         * 
+         * <p>
+         * データソースは {@link Kde2DWeightedSourceDto} 型で与える. <br>
+         * 各点は, 重みに比例した寄与を推定結果に与える
+         * (重みの総和で正規化されるため, 重みの定数倍は結果に影響しない).
+         * </p>
+         * 
+         * <p>
+         * カーネルのバンド幅などのデータ依存のパラメータは, 具象クラスの定めにより,
+         * 重み付きの統計量から計算される. <br>
+         * したがって, 点を重みの個数だけ重複させて {@link #createOf(Kde2DSourceDto)}
+         * を適用した結果と一致するとは限らない
+         * (全ての重みが等しい場合は, 重みを与えない場合と丸め誤差の範囲で一致する).
+         * </p>
+         * 
+         * <p>
+         * 座標値には, NaNを含んではいけない (無限大は境界の値で置き換えられる). <br>
+         * 重みは0以上の有限値でなければならず, 重みの総和は正の有限値でなければならない. <br>
+         * これに違反する場合, {@link IllegalArgumentException} をスローする.
+         * </p>
+         * 
+         * <p>
+         * データソースはメソッドコール中は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.)
+         * </p>
+         * 
+         * <p>
+         * 引数の事前チェックとして, {@link Factory#validateSource(Kde2DWeightedSourceDto)}
+         * を提供している.
+         * </p>
+         * 
+         * @param source データソース
+         * @return データソースから生成されたカーネル密度推定
+         * @throws IllegalArgumentException データソースが不正な場合
+         * @throws NullPointerException 引数が null の場合
+         */
+        public abstract KernelDensity2D createOf(Kde2DWeightedSourceDto source);
+
+        /**
+         * 等幅ヒストグラムとして集計済みのデータソースから, カーネル密度推定を生成する.
+         * 
+         * <p>
+         * データソースは {@link Kde2DHistogramDto} 型で与える. <br>
+         * 各ビンの内部では度数が一様に分布しているとみなし,
+         * 度数の総和を保存するように評価の格子へ再配分する. <br>
+         * 生データを必要とせず, 生成と評価のコストはビンの個数に比例する.
+         * </p>
+         * 
+         * <p>
+         * 度数は0以上の有限値でなければならず, 度数の総和は正の有限値でなければならない. <br>
+         * これに違反する場合, {@link IllegalArgumentException} をスローする.
+         * </p>
+         * 
+         * <p>
+         * データソースはメソッドコール中は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.)
+         * </p>
+         * 
+         * <p>
+         * 引数の事前チェックとして, {@link Factory#validateSource(Kde2DHistogramDto)}
+         * を提供している.
+         * </p>
+         * 
+         * @param histogram データソース
+         * @return データソースから生成されたカーネル密度推定
+         * @throws IllegalArgumentException データソースが不正な場合
+         * @throws NullPointerException 引数が null の場合
+         */
+        public abstract KernelDensity2D createOf(Kde2DHistogramDto histogram);
+
+        /**
+         * (x, y) を交互に並べたバッファで与えたデータソースから,
+         * コピーせずにカーネル密度推定を生成する.
+         * 
+         * <p>
+         * データソースは, バッファの位置からリミットまでの値を
+         * <i>x</i><sub>1</sub>, <i>y</i><sub>1</sub>, <i>x</i><sub>2</sub>, <i>y</i><sub>2</sub>, ...
+         * と解釈した点の列である. <br>
+         * バッファはコピーされずに (読み取り専用のビューとして) 生成されたインスタンスに保持され,
+         * 評価のたびに直接読み込まれる. <br>
+         * したがって, ダイレクトバッファや, メモリマップトファイルのバッファ
+         * ({@link Float64Files#map(java.nio.file.Path, java.nio.ByteOrder)} など) を与えることで,
+         * データソースをヒープに複製することなく扱うことができる.
+         * </p>
+         * 
+         * <p>
+         * データソースには, NaNを含んではいけない. <br>
+         * また, 値の個数は正の偶数でなければならない. <br>
+         * これに違反する場合, {@link IllegalArgumentException} をスローする.
+         * </p>
+         * 
+         * <p>
+         * バッファの内容は, 生成されたインスタンスを使用する間は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.) <br>
+         * バッファの位置やリミットは参照されるのみであり, 生成後に変更してもよい.
+         * </p>
+         * 
+         * <p>
+         * 引数の事前チェックとして, {@link Factory#validateSource(DoubleBuffer)}
+         * を提供している.
+         * </p>
+         * 
+         * @param interleaved データソース
+         * @return データソースから生成されたカーネル密度推定
+         * @throws IllegalArgumentException データソースが不正な場合
+         * @throws NullPointerException 引数が null の場合
+         */
+        public abstract KernelDensity2D createOf(DoubleBuffer interleaved);
+
+        /**
+         * x, y の列ごとのバッファで与えたデータソースから,
+         * コピーせずにカーネル密度推定を生成する.
+         * 
+         * <p>
+         * データソースは, 2個のバッファの位置からリミットまでの値をそれぞれ x, y とした点の列である. <br>
+         * バッファの扱いは {@link #createOf(DoubleBuffer)} と同様である.
+         * </p>
+         * 
+         * <p>
+         * データソースには, NaNを含んではいけない. <br>
+         * また, 2個のバッファの値の個数は等しく, 空であってはいけない. <br>
+         * これに違反する場合, {@link IllegalArgumentException} をスローする.
+         * </p>
+         * 
+         * <p>
+         * バッファの内容は, 生成されたインスタンスを使用する間は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.) <br>
+         * バッファの位置やリミットは参照されるのみであり, 生成後に変更してもよい.
+         * </p>
+         * 
+         * <p>
+         * 引数の事前チェックとして, {@link Factory#validateSource(DoubleBuffer, DoubleBuffer)}
+         * を提供している.
+         * </p>
+         * 
+         * @param x データソースの x
+         * @param y データソースの y
+         * @return データソースから生成されたカーネル密度推定
+         * @throws IllegalArgumentException データソースが不正な場合
+         * @throws NullPointerException 引数が null の場合
+         */
+        public abstract KernelDensity2D createOf(DoubleBuffer x, DoubleBuffer y);
+
+        /**
+         * (x, y) を交互に並べた値を複数のバッファ (チャンク) に分割して与えたデータソースから,
+         * コピーせずにカーネル密度推定を生成する.
+         * 
+         * <p>
+         * データソースは, 各チャンクの位置からリミットまでの値を配列の順に連結し,
+         * {@link #createOf(DoubleBuffer)} と同様に解釈した点の列である. <br>
+         * 点の x と y は, 異なるチャンクにまたがってもよい. <br>
+         * 点の総数は {@code int} の範囲を超えてもよく,
+         * 単一の巨大な配列やバッファを必要としない
+         * (チャンクの扱いは {@link KernelDensity1D.Factory#createOf(DoubleBuffer[])} と同様である).
+         * </p>
+         * 
+         * <p>
+         * データソースには, NaNを含んではいけない. <br>
+         * また, 値の総数は正の偶数でなければならない. <br>
+         * これに違反する場合, {@link IllegalArgumentException} をスローする.
+         * </p>
+         * 
+         * <p>
+         * チャンクの内容は, 生成されたインスタンスを使用する間は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.) <br>
+         * チャンクの位置やリミットは参照されるのみであり, 生成後に変更してもよい.
+         * </p>
+         * 
+         * <p>
+         * 引数の事前チェックとして, {@link Factory#validateSource(DoubleBuffer[])}
+         * を提供している.
+         * </p>
+         * 
+         * @param interleavedChunks データソース
+         * @return データソースから生成されたカーネル密度推定
+         * @throws IllegalArgumentException データソースが不正な場合
+         * @throws NullPointerException 引数が null の場合, null の要素を含む場合
+         */
+        public abstract KernelDensity2D createOf(DoubleBuffer[] interleavedChunks);
+
+        /**
+         * x, y の列ごとに値を複数のバッファ (チャンク) に分割して与えたデータソースから,
+         * コピーせずにカーネル密度推定を生成する.
+         * 
+         * <p>
+         * データソースは, x, y それぞれのチャンクの位置からリミットまでの値を配列の順に連結し,
+         * x, y とした点の列である. <br>
+         * x と y のチャンクの分割位置は一致していなくてもよい. <br>
+         * 点の総数は {@code int} の範囲を超えてもよい.
+         * </p>
+         * 
+         * <p>
+         * データソースには, NaNを含んではいけない. <br>
+         * また, x, y の値の総数は等しく, 空であってはいけない. <br>
+         * これに違反する場合, {@link IllegalArgumentException} をスローする.
+         * </p>
+         * 
+         * <p>
+         * チャンクの内容は, 生成されたインスタンスを使用する間は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.) <br>
+         * チャンクの位置やリミットは参照されるのみであり, 生成後に変更してもよい.
+         * </p>
+         * 
+         * <p>
+         * 引数の事前チェックとして, {@link Factory#validateSource(DoubleBuffer[], DoubleBuffer[])}
+         * を提供している.
+         * </p>
+         * 
+         * @param x データソースの x
+         * @param y データソースの y
+         * @return データソースから生成されたカーネル密度推定
+         * @throws IllegalArgumentException データソースが不正な場合
+         * @throws NullPointerException 引数が null の場合, null の要素を含む場合
+         */
+        public abstract KernelDensity2D createOf(DoubleBuffer[] x, DoubleBuffer[] y);
+
         /**
          * データソースが正当であるか
          * ({@link #createOf(Kde2DSourceDto)} の引数に使用できるかどうか)
@@ -132,5 +365,170 @@ public interface KernelDensity2D {
             return Arrays.stream(source.x).noneMatch(Double::isNaN)
                     && Arrays.stream(source.y).noneMatch(Double::isNaN);
         }
+
+        /**
+         * 重み付きのデータソースが正当であるか
+         * ({@link #createOf(Kde2DWeightedSourceDto)} の引数に使用できるかどうか)
+         * を検証する.
+         * 
+         * <p>
+         * データソースはメソッドコール中は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.)
+         * </p>
+         * 
+         * @param source データソース
+         * @return データソースが正当な場合は true
+         * @throws NullPointerException 引数が null の場合
+         */
+        public static boolean validateSource(Kde2DWeightedSourceDto source) {
+            if (Arrays.stream(source.x).anyMatch(Double::isNaN)
+                    || Arrays.stream(source.y).anyMatch(Double::isNaN)) {
+                return false;
+            }
+            double totalWeight = 0d;
+            for (double w : source.weight) {
+                if (!(w >= 0d && w < Double.POSITIVE_INFINITY)) {
+                    return false;
+                }
+                totalWeight += w;
+            }
+            return totalWeight > 0d && Double.isFinite(totalWeight);
+        }
+
+        /**
+         * ヒストグラムによるデータソースが正当であるか
+         * ({@link #createOf(Kde2DHistogramDto)} の引数に使用できるかどうか)
+         * を検証する.
+         * 
+         * <p>
+         * データソースはメソッドコール中は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.)
+         * </p>
+         * 
+         * @param histogram データソース
+         * @return データソースが正当な場合は true
+         * @throws NullPointerException 引数が null の場合
+         */
+        public static boolean validateSource(Kde2DHistogramDto histogram) {
+            double totalCount = 0d;
+            for (double c : histogram.counts) {
+                if (!(c >= 0d && c < Double.POSITIVE_INFINITY)) {
+                    return false;
+                }
+                totalCount += c;
+            }
+            return totalCount > 0d && Double.isFinite(totalCount);
+        }
+
+        /**
+         * (x, y) を交互に並べたバッファによるデータソースが正当であるか
+         * ({@link #createOf(DoubleBuffer)} の引数に使用できるかどうか)
+         * を検証する.
+         * 
+         * <p>
+         * バッファの位置からリミットまでを検証する. <br>
+         * バッファの位置やリミットは変更されない.
+         * </p>
+         * 
+         * <p>
+         * データソースはメソッドコール中は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.)
+         * </p>
+         * 
+         * @param interleaved データソース
+         * @return データソースが正当な場合は true
+         * @throws NullPointerException 引数が null の場合
+         */
+        public static boolean validateSource(DoubleBuffer interleaved) {
+            return interleaved.remaining() % 2 == 0
+                    && KernelDensity1D.Factory.validateSource(interleaved);
+        }
+
+        /**
+         * x, y の列ごとのバッファによるデータソースが正当であるか
+         * ({@link #createOf(DoubleBuffer, DoubleBuffer)} の引数に使用できるかどうか)
+         * を検証する.
+         * 
+         * <p>
+         * バッファの位置からリミットまでを検証する. <br>
+         * バッファの位置やリミットは変更されない.
+         * </p>
+         * 
+         * <p>
+         * データソースはメソッドコール中は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.)
+         * </p>
+         * 
+         * @param x データソースの x
+         * @param y データソースの y
+         * @return データソースが正当な場合は true
+         * @throws NullPointerException 引数が null の場合
+         */
+        public static boolean validateSource(DoubleBuffer x, DoubleBuffer y) {
+            return x.remaining() == y.remaining()
+                    && KernelDensity1D.Factory.validateSource(x)
+                    && KernelDensity1D.Factory.validateSource(y);
+        }
+
+        /**
+         * (x, y) を交互に並べたチャンクによるデータソースが正当であるか
+         * ({@link #createOf(DoubleBuffer[])} の引数に使用できるかどうか)
+         * を検証する.
+         * 
+         * <p>
+         * 各チャンクの位置からリミットまでを検証する. <br>
+         * チャンクの位置やリミットは変更されない.
+         * </p>
+         * 
+         * <p>
+         * データソースはメソッドコール中は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.)
+         * </p>
+         * 
+         * @param interleavedChunks データソース
+         * @return データソースが正当な場合は true
+         * @throws NullPointerException 引数が null の場合, null の要素を含む場合
+         */
+        public static boolean validateSource(DoubleBuffer[] interleavedChunks) {
+            return totalRemaining(interleavedChunks) % 2 == 0
+                    && KernelDensity1D.Factory.validateSource(interleavedChunks);
+        }
+
+        /**
+         * x, y の列ごとのチャンクによるデータソースが正当であるか
+         * ({@link #createOf(DoubleBuffer[], DoubleBuffer[])} の引数に使用できるかどうか)
+         * を検証する.
+         * 
+         * <p>
+         * 各チャンクの位置からリミットまでを検証する. <br>
+         * チャンクの位置やリミットは変更されない.
+         * </p>
+         * 
+         * <p>
+         * データソースはメソッドコール中は変更してはならない. <br>
+         * (変更された場合は, 結果は保証されない.)
+         * </p>
+         * 
+         * @param x データソースの x
+         * @param y データソースの y
+         * @return データソースが正当な場合は true
+         * @throws NullPointerException 引数が null の場合, null の要素を含む場合
+         */
+        public static boolean validateSource(DoubleBuffer[] x, DoubleBuffer[] y) {
+            return totalRemaining(x) == totalRemaining(y)
+                    && KernelDensity1D.Factory.validateSource(x)
+                    && KernelDensity1D.Factory.validateSource(y);
+        }
+
+        /**
+         * チャンクの値の総数を返す.
+         */
+        private static long totalRemaining(DoubleBuffer[] chunks) {
+            long total = 0L;
+            for (DoubleBuffer chunk : chunks) {
+                total += chunk.remaining();
+            }
+            return total;
+        }
     }
 }
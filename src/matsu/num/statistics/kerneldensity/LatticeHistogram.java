@@ -0,0 +1,161 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+/**
+ * 格子上の値 (整数, 固定小数点の小数) からなる1次元ソースの, 格子上の度数分布.
+ * 
+ * <p>
+ * ソースの全ての値が, ある <i>d</i> (0 &le; <i>d</i> &le; {@link #MAX_DECIMAL_DIGITS}) について
+ * <i>k</i> / 10<sup><i>d</i></sup> (<i>k</i> は整数) の形の {@code double} 値
+ * (すなわち, 小数点以下 <i>d</i> 桁の10進数を読み込んだ値) と一致する場合,
+ * ソースは格子上にあるとする. <br>
+ * この判定は, 値を並べ替えることなく1度の走査で (桁数ごとに) 行える. <br>
+ * 格子上のソースは, 計数のみで (並べ替えなしに) 度数分布にまとめることができ,
+ * 度数分布の占有セルのみをビニングすればよくなる.
+ * </p>
+ * 
+ * <p>
+ * 格子点の値は <i>k</i> / 10<sup><i>d</i></sup> として復元されるため,
+ * 元の値とビット列まで一致する.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class LatticeHistogram {
+
+    /**
+     * 判定する小数点以下の桁数の最大値.
+     */
+    static final int MAX_DECIMAL_DIGITS = 6;
+
+    /**
+     * 度数分布の格子の幅 (セル数) の最大値. <br>
+     * ただし, 格子の幅はソースのサイズも超えないようにする
+     * (作業領域がソースのコピーより大きくならないようにするため).
+     */
+    static final int MAX_SPAN = 1 << 22;
+
+    /**
+     * 格子の index の絶対値の上限 (これ以上では, 整数の double 表現が正確でない).
+     */
+    private static final double MAX_ABS_INDEX = 0x1p53;
+
+    /**
+     * 格子の逆数スケール 10<sup><i>d</i></sup>.
+     */
+    final double scale;
+
+    /**
+     * counts[0] に対応する格子の index.
+     */
+    final long origin;
+
+    /**
+     * 格子の index が {@code origin + c} のセルの度数 (重みの和).
+     */
+    final double[] counts;
+
+    /**
+     * 度数が正のセルの個数.
+     */
+    final int occupiedCellCount;
+
+    private LatticeHistogram(double scale, long origin, double[] counts) {
+        super();
+        this.scale = scale;
+        this.origin = origin;
+        this.counts = counts;
+
+        int occupied = 0;
+        for (double c : counts) {
+            if (c > 0d) {
+                occupied++;
+            }
+        }
+        this.occupiedCellCount = occupied;
+    }
+
+    /**
+     * ソースが格子上にあるならば, その度数分布を返す. <br>
+     * 格子上にない場合, または格子の幅が大きすぎる場合
+     * ({@link #MAX_SPAN} とソースのサイズの小さい方を超える場合) は null を返す.
+     * 
+     * <p>
+     * 複数の桁数で格子上にある場合, 最も小さい桁数を採用する.
+     * </p>
+     * 
+     * @param values 値
+     * @param weights 重み (重みを持たない場合は null)
+     * @return 度数分布, 格子上にない場合は null
+     */
+    static LatticeHistogram of(double[] values, double[] weights) {
+        final long maxSpan = Math.min(MAX_SPAN, values.length);
+        double scale = 1d;
+        for (int d = 0; d <= MAX_DECIMAL_DIGITS; d++, scale *= 10d) {
+            long[] indexRange = indexRange(values, scale, maxSpan);
+            if (indexRange == null) {
+                continue;
+            }
+
+            final long origin = indexRange[0];
+            final double[] counts = new double[(int) (indexRange[1] - origin + 1)];
+            for (int i = 0; i < values.length; i++) {
+                int c = (int) ((long) Math.rint(values[i] * scale) - origin);
+                counts[c] += weights == null ? 1d : weights[i];
+            }
+            return new LatticeHistogram(scale, origin, counts);
+        }
+        return null;
+    }
+
+    /**
+     * 全ての値が, 逆数スケール scale の格子上にあるかを判定し,
+     * そうであれば格子の index の範囲 {min, max} を返す. <br>
+     * そうでない場合, または格子の幅が maxSpan を超える場合は null を返す.
+     */
+    private static long[] indexRange(double[] values, double scale, long maxSpan) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (double v : values) {
+            double k = Math.rint(v * scale);
+            if (!(Math.abs(k) < MAX_ABS_INDEX) || k / scale != v) {
+                return null;
+            }
+            long index = (long) k;
+            min = Math.min(min, index);
+            max = Math.max(max, index);
+            if (max - min >= maxSpan) {
+                return null;
+            }
+        }
+        return new long[] { min, max };
+    }
+
+    /**
+     * 度数が正のセルを, 格子点の値と度数の組にした重み付きソースとして返す.
+     * 
+     * @return 昇順の重み付きソース
+     */
+    BinningSource1D toBinningSource() {
+        double[] values = new double[occupiedCellCount];
+        double[] weights = new double[occupiedCellCount];
+        int position = 0;
+        for (int c = 0; c < counts.length; c++) {
+            if (counts[c] > 0d) {
+                values[position] = (origin + c) / scale;
+                weights[position] = counts[c];
+                position++;
+            }
+        }
+        return BinningSource1D.of(values, weights, true);
+    }
+}
@@ -6,12 +6,12 @@
  */
 
 /*
- * 2025.11.16
+ * 2026.10.18
  */
 package matsu.num.statistics.kerneldensity;
 
 import java.util.Arrays;
-import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
 
 /**
  * 1次元メッシュを表現する.
@@ -20,6 +20,31 @@ import java.util.stream.DoubleStream;
  */
 final class Mesh1D {
 
+    /**
+     * ビニングを並列に実行する場合の, ソースの最低サイズ.
+     */
+    static final int MIN_SOURCE_SIZE_IN_PARALLEL = 1 << 18;
+
+    /**
+     * 並列ビニングにおける, 部分ソースの最低サイズ.
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 14;
+
+    /**
+     * 並列ビニングにおける, 部分ソースの最大個数.
+     */
+    private static final int MAX_CHUNK_COUNT = 64;
+
+    /**
+     * 並列ビニングにおける, 部分の重み配列の統合を行う単位.
+     */
+    private static final int MERGE_BLOCK_SIZE = 1 << 12;
+
+    /**
+     * バッファで保持されたソースを, 一時配列に読み込む単位.
+     */
+    private static final int STAGE_SIZE = 1 << 12;
+
     /**
      * 拡張サイズ.
      */
@@ -43,6 +68,11 @@ final class Mesh1D {
     /**
      * ソースを離散化した重み配列. <br>
      * 要素 index は, {@link #extendX} に対応する.
+     * 
+     * <p>
+     * この配列は {@link DoubleArrayWorkspace} から借りたものである. <br>
+     * 不要になった時点で, 利用者が返却してよい.
+     * </p>
      */
     final double[] weight;
 
@@ -52,14 +82,39 @@ final class Mesh1D {
      * @param extendSize 拡張サイズ (フィルタのための拡張)
      */
     Mesh1D(Range range, double resolution, int extendSize, double[] source) {
+        // range を resolution間隔で分割したメッシュ配列を構成する.
+        this(SupportWindow.mesh(range, resolution), resolution, extendSize,
+                BinningSource1D.of(source, false));
+    }
+
+    /**
+     * 構成済みのメッシュを与えて構築する.
+     * 
+     * <p>
+     * x は空でない, resolution 間隔の昇順の配列でなければならない. <br>
+     * 配列はコピーされずにそのまま {@link #x} となる.
+     * </p>
+     * 
+     * <p>
+     * ソースが昇順である場合, 拡張メッシュに寄与しうる点の区間を二分探索で求め,
+     * その区間のみをビニングする. <br>
+     * 重みは, ソースの重みの総和で正規化する. <br>
+     * ソースがバッファで保持されている場合は, 一時配列に {@link #STAGE_SIZE} 個ずつ読み込みながらビニングする.
+     * </p>
+     * 
+     * @param x メッシュ
+     * @param resolution 空間分解能, 正の値
+     * @param extendSize 拡張サイズ (フィルタのための拡張)
+     * @param binningSource ソース
+     */
+    Mesh1D(double[] x, double resolution, int extendSize, BinningSource1D binningSource) {
+        assert x.length > 0;
         assert resolution > 0d;
         assert extendSize >= 0;
-        assert source.length > 0;
 
-        // range を resolution間隔で分割したメッシュ配列を構成する.
-        this.x = DoubleStream
-                .iterate(range.min(), v -> v <= range.max(), v -> v + resolution)
-                .toArray();
+        final boolean sourceSorted = binningSource.sorted;
+
+        this.x = x;
         this.extendSize = extendSize;
 
         // xからextendedXを計算する, inf が現れる場合もある
@@ -73,27 +128,137 @@ final class Mesh1D {
         }
 
         /* ソースを反映したweightを構築する. */
-        this.weight = new double[extendX.length];
+        this.weight = DoubleArrayWorkspace.borrow(extendX.length);
         final double x0 = extendX[0];
-        // ソースの各要素を重み1として, weightにaddする.
-        for (double v : source) {
-            double srcXR = (v - x0) / resolution;
+
+        // ビニングする区間 [from, to)
+        // 昇順の場合, 格子点座標系で [-1, extendX.length) に入る点のみが寄与する (両側に余裕を持たせる)
+        final long from = sourceSorted
+                ? binningSource.lowerBound(x0 - 2 * resolution)
+                : 0L;
+        final long to = sourceSorted
+                ? Math.max(from, binningSource.lowerBound(x0 + (extendX.length + 1) * resolution))
+                : binningSource.size;
+        if (to - from >= MIN_SOURCE_SIZE_IN_PARALLEL) {
+            binInParallel(weight, binningSource, from, to, x0, resolution);
+        } else {
+            addLinearBinning(weight, binningSource, from, to, x0, resolution);
+
+            // 全区間を網羅した場合が総和が1相当になるように正規化
+            // (実際は有限区間なので, 総和は1以下になる)
+            final double totalWeight = binningSource.totalWeight;
+            for (int i = 0; i < weight.length; i++) {
+                weight[i] /= totalWeight;
+            }
+        }
+    }
+
+    /**
+     * ソースの [from, to) の各要素を, その重みで weightに線形ビニングでaddする.
+     * 
+     * @param weight 加算先
+     * @param source ソース
+     * @param from 開始位置 (inclusive)
+     * @param to 終了位置 (exclusive)
+     * @param x0 weight[0] の座標
+     * @param resolution 空間分解能
+     */
+    private static void addLinearBinning(
+            double[] weight, BinningSource1D binningSource, long from, long to, double x0, double resolution) {
+        if (binningSource.values != null) {
+            // 値を配列で保持するソースの区間は, int の範囲に収まる
+            addLinearBinning(
+                    weight, binningSource.values, binningSource.weights, (int) from, (int) to, x0, resolution);
+            return;
+        }
+
+        // バッファの場合は, 一時配列に読み込みながらビニングする
+        double[] stage = DoubleArrayWorkspace.borrow(STAGE_SIZE);
+        for (long s = from; s < to; s += STAGE_SIZE) {
+            int length = (int) Math.min(STAGE_SIZE, to - s);
+            binningSource.readValues(s, length, stage);
+            addLinearBinning(weight, stage, null, 0, length, x0, resolution);
+        }
+        DoubleArrayWorkspace.release(stage);
+    }
+
+    /**
+     * 配列の [from, to) の各要素を, その重みで weightに線形ビニングでaddする.
+     * 
+     * @param weight 加算先
+     * @param source 値
+     * @param sourceWeights 重み (重みを持たない場合は null)
+     * @param from 開始位置 (inclusive)
+     * @param to 終了位置 (exclusive)
+     * @param x0 weight[0] の座標
+     * @param resolution 空間分解能
+     */
+    private static void addLinearBinning(double[] weight, double[] source, double[] sourceWeights,
+            int from, int to, double x0, double resolution) {
+        final int len = weight.length;
+        for (int c = from; c < to; c++) {
+            double srcXR = (source[c] - x0) / resolution;
             int i = (int) Math.floor(srcXR);
-            double w_i = (i + 1) - srcXR;
-            double w_ip1 = srcXR - i;
+            double w = sourceWeights == null ? 1d : sourceWeights[c];
+            double w_i = ((i + 1) - srcXR) * w;
+            double w_ip1 = (srcXR - i) * w;
 
-            if (0 <= i && i < extendX.length) {
+            if (0 <= i && i < len) {
                 weight[i] += w_i;
             }
-            if (-1 <= i && i < extendX.length - 1) {
+            if (-1 <= i && i < len - 1) {
                 weight[i + 1] += w_ip1;
             }
         }
+    }
+
+    /**
+     * ソースの [from, to) を並列に線形ビニングし, ソース全体の重みの総和で正規化した結果をweightに書き込む.
+     * 
+     * <p>
+     * 区間を (区間のサイズのみから決まる) 固定個数の部分に分割し,
+     * 部分ごとの重み配列を並列に構築する. <br>
+     * その後, 重み配列の要素ごとに, 部分の順番通りに総和を取って正規化する
+     * (この統合も要素の区間ごとに並列に行う). <br>
+     * 加算順序はスレッドのスケジューリングに依存しないため, 結果は決定的である.
+     * </p>
+     */
+    private static void binInParallel(
+            double[] weight, BinningSource1D source, long from, long to, double x0, double resolution) {
+        final double totalWeight = source.totalWeight;
+        final long sliceLength = to - from;
+        final int chunkCount = (int) Math.min(MAX_CHUNK_COUNT, sliceLength / MIN_CHUNK_SIZE);
+
+        // ワークスペースはスレッドごとであるため, 部分の配列は呼び出しスレッドで借り受け, 返却する
+        final double[][] partials = new double[chunkCount][];
+        for (int c = 0; c < chunkCount; c++) {
+            partials[c] = DoubleArrayWorkspace.borrow(weight.length);
+        }
+        IntStream.range(0, chunkCount)
+                .parallel()
+                .forEach(c -> {
+                    long chunkFrom = from + sliceLength * c / chunkCount;
+                    long chunkTo = from + sliceLength * (c + 1) / chunkCount;
+                    addLinearBinning(partials[c], source, chunkFrom, chunkTo, x0, resolution);
+                });
+
+        // 部分の順番通りに総和を取り, 正規化を同時に行う
+        final int blockCount = (weight.length + MERGE_BLOCK_SIZE - 1) / MERGE_BLOCK_SIZE;
+        IntStream.range(0, blockCount)
+                .parallel()
+                .forEach(b -> {
+                    for (int i = b * MERGE_BLOCK_SIZE,
+                            end = Math.min(weight.length, i + MERGE_BLOCK_SIZE); i < end; i++) {
+                        double sum = 0d;
+                        for (double[] partial : partials) {
+                            sum += partial[i];
+                        }
+                        weight[i] = sum / totalWeight;
+                    }
+                });
 
-        // 全区間を網羅した場合が総和が1相当になるように正規化
-        // (実際は有限区間なので, 総和は1以下になる)
-        for (int i = 0; i < weight.length; i++) {
-            weight[i] /= source.length;
+        for (double[] partial : partials) {
+            DoubleArrayWorkspace.release(partial);
         }
     }
 
@@ -6,14 +6,11 @@
  */
 
 /*
- * 2025.12.1
+ * 2026.10.18
  */
 package matsu.num.statistics.kerneldensity;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
 
 /**
  * 2次元メッシュを表現する.
@@ -22,7 +19,41 @@ import java.util.stream.DoubleStream;
  */
 final class Mesh2D {
 
-    private static final double[][] EMPTY_DOUBLE_DOUBLE_ARRAY = new double[0][];
+    /**
+     * ビニングを並列に実行する場合の, ソースの最低サイズ.
+     */
+    static final int MIN_SOURCE_SIZE_IN_PARALLEL = 1 << 16;
+
+    /**
+     * タイル順に並べ替えたビニング ({@link TiledBinning2D}) を使う場合の, 拡張メッシュの最低セル数.
+     */
+    static final long MIN_GRID_SIZE_FOR_TILED_BINNING = 1L << 17;
+
+    /**
+     * 並列ビニングにおける, 部分ソースの最低サイズ.
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 14;
+
+    /**
+     * 並列ビニングにおける, 部分ソースの最大個数.
+     */
+    private static final int MAX_CHUNK_COUNT = 64;
+
+    /**
+     * 並列ビニングにおける, 部分の重み配列のセル数の総和の上限. <br>
+     * 部分の個数は, 部分の重み配列がこれを超えないように制限される.
+     */
+    private static final long MAX_TOTAL_PARTIAL_CELLS = 1L << 23;
+
+    /**
+     * 並列ビニングにおける, 部分の重み配列の統合を行う単位.
+     */
+    private static final int MERGE_BLOCK_SIZE = 1 << 12;
+
+    /**
+     * バッファで保持されたソースを, 一時配列に読み込む単位.
+     */
+    private static final int STAGE_SIZE = 1 << 12;
 
     /**
      * X方向の拡張サイズ.
@@ -66,9 +97,16 @@ final class Mesh2D {
 
     /**
      * ソースを離散化した重み配列. <br>
-     * 要素 index は, [{@link #extendX}][{@link #extendY}] に対応する.
+     * 行優先 (X方向が行) の1次元配列であり,
+     * {@code weight[j * extendY.length + k]} が
+     * ({@code extendX[j]}, {@code extendY[k]}) に対応する.
+     * 
+     * <p>
+     * この配列は {@link DoubleArrayWorkspace} から借りたものである. <br>
+     * 不要になった時点で, 利用者が返却してよい.
+     * </p>
      */
-    final double[][] weight;
+    final double[] weight;
 
     /**
      * @param rangeX rangeX
@@ -79,18 +117,51 @@ final class Mesh2D {
      */
     Mesh2D(Range rangeX, Range rangeY, double resolutionX, double resolutionY,
             int extendSizeX, int extendSizeY, Kde2DSourceDto source) {
+        // range を resolution間隔で分割したメッシュ配列を構成する.
+        this(SupportWindow.mesh(rangeX, resolutionX), SupportWindow.mesh(rangeY, resolutionY),
+                resolutionX, resolutionY, extendSizeX, extendSizeY, BinningSource2D.of(source, false));
+    }
+
+    /**
+     * 構成済みのメッシュを与えて構築する.
+     * 
+     * <p>
+     * x, y は空でない, 空間分解能の間隔の昇順の配列でなければならない. <br>
+     * 配列はコピーされずにそのまま {@link #x}, {@link #y} となる.
+     * </p>
+     * 
+     * <p>
+     * ソースが x について昇順である場合,
+     * 拡張メッシュの X 方向に寄与しうる点の区間を二分探索で求め, その区間のみをビニングする
+     * (Y 方向はビニング時に範囲外として除外される). <br>
+     * 重みは, ソースの重みの総和で正規化する.
+     * </p>
+     * 
+     * <p>
+     * ソースがバッファで保持されている場合は, 一時配列に {@link #STAGE_SIZE} 個ずつ読み込みながらビニングする
+     * (タイル順の並べ替えは行わない).
+     * </p>
+     * 
+     * @param x Xのメッシュ
+     * @param y Yのメッシュ
+     * @param resolutionX Xの空間分解能, 正の値
+     * @param resolutionY Yの空間分解能, 正の値
+     * @param extendSizeX Xの拡張サイズ (フィルタのための拡張)
+     * @param extendSizeY Yの拡張サイズ (フィルタのための拡張)
+     * @param binningSource ソース
+     */
+    Mesh2D(double[] x, double[] y, double resolutionX, double resolutionY,
+            int extendSizeX, int extendSizeY, BinningSource2D binningSource) {
+        assert x.length > 0 && y.length > 0;
         assert resolutionX > 0d;
         assert resolutionY > 0d;
         assert extendSizeX >= 0;
         assert extendSizeY >= 0;
 
-        // range を resolution間隔で分割したメッシュ配列を構成する.
-        this.x = DoubleStream
-                .iterate(rangeX.min(), v -> v <= rangeX.max(), v -> v + resolutionX)
-                .toArray();
-        this.y = DoubleStream
-                .iterate(rangeY.min(), v -> v <= rangeY.max(), v -> v + resolutionY)
-                .toArray();
+        final boolean sourceSortedByX = binningSource.sortedByX;
+
+        this.x = x;
+        this.y = y;
         this.extendSizeX = extendSizeX;
         this.extendSizeY = extendSizeY;
 
@@ -116,79 +187,229 @@ final class Mesh2D {
         }
 
         /* ソースを反映したweightを構築する. */
-        this.weight = new double[extendX.length][extendY.length];
+        final int lenX = extendX.length;
+        final int lenY = extendY.length;
+        this.weight = DoubleArrayWorkspace.borrow(Math.multiplyExact(lenX, lenY));
         final double x0 = extendX[0];
         final double y0 = extendY[0];
-        // ソースの各要素を重み1として, weightにaddする.
-        for (int i = 0, len = source.size; i < len; i++) {
-            double vx = source.x[i];
-            double vy = source.y[i];
 
-            // (vx, vy) を格子点座標系 (srcXR, srcYR) に直す
-            double srcXR = (vx - x0) / resolutionX;
-            double srcYR = (vy - y0) / resolutionY;
+        // ビニングする区間 [from, to)
+        // x について昇順の場合, 格子点座標系で [-1, lenX) に入る点のみが寄与する (両側に余裕を持たせる)
+        final long from = sourceSortedByX
+                ? binningSource.lowerBoundX(x0 - 2 * resolutionX)
+                : 0L;
+        final long to = sourceSortedByX
+                ? Math.max(from, binningSource.lowerBoundX(x0 + (lenX + 1) * resolutionX))
+                : binningSource.size;
+        if (to - from >= MIN_SOURCE_SIZE_IN_PARALLEL
+                && binningSource.points != null
+                && (long) lenX * lenY >= MIN_GRID_SIZE_FOR_TILED_BINNING) {
+            // 格子が大きい場合は, 点をタイル順に並べ替えてからビニングする
+            // 座標を配列で保持するソースの区間は, int の範囲に収まる
+            TiledBinning2D.bin(
+                    weight, lenX, lenY, binningSource, (int) from, (int) to, x0, y0, resolutionX, resolutionY);
+        } else if (to - from >= MIN_SOURCE_SIZE_IN_PARALLEL && chunkCount(to - from, weight.length) >= 2) {
+            binInParallel(weight, lenY, binningSource, from, to, x0, y0, resolutionX, resolutionY);
+        } else {
+            addLinearBinning(weight, lenY, 0, lenX, binningSource, from, to, x0, y0, resolutionX, resolutionY);
+            normalize(weight, lenY, 0, lenX, binningSource.totalWeight);
+        }
+    }
 
-            // (srcXR, srcYR) を格子点に重みを割り振る
-            // (srcXR, srcYR)が負になる可能性に注意して, floorを使う
+    /**
+     * ソースの [from, to) の各要素を, その重みで weightに線形ビニングでaddする. <br>
+     * ただし, weight の行 [jFrom, jTo) に属する部分のみをaddする.
+     * 
+     * @param weight 加算先, 行優先
+     * @param lenY 行の長さ
+     * @param jFrom 行の開始位置 (inclusive)
+     * @param jTo 行の終了位置 (exclusive)
+     * @param source ソース
+     * @param from ソースの開始位置 (inclusive)
+     * @param to ソースの終了位置 (exclusive)
+     * @param x0 weight[0][*] の x 座標
+     * @param y0 weight[*][0] の y 座標
+     * @param resolutionX Xの空間分解能
+     * @param resolutionY Yの空間分解能
+     */
+    private static void addLinearBinning(double[] weight, int lenY, int jFrom, int jTo,
+            BinningSource2D source, long from, long to,
+            double x0, double y0, double resolutionX, double resolutionY) {
+        if (source.points != null) {
+            addLinearBinning(weight, lenY, jFrom, jTo, source.points.x, source.points.y, source.weights,
+                    (int) from, (int) to, x0, y0, resolutionX, resolutionY);
+            return;
+        }
+
+        // バッファの場合は, 一時配列に読み込みながらビニングする
+        double[] stageX = DoubleArrayWorkspace.borrow(STAGE_SIZE);
+        double[] stageY = DoubleArrayWorkspace.borrow(STAGE_SIZE);
+        for (long s = from; s < to; s += STAGE_SIZE) {
+            int length = (int) Math.min(STAGE_SIZE, to - s);
+            source.readPoints(s, length, stageX, stageY);
+            addLinearBinning(weight, lenY, jFrom, jTo, stageX, stageY, null,
+                    0, length, x0, y0, resolutionX, resolutionY);
+        }
+        DoubleArrayWorkspace.release(stageX);
+        DoubleArrayWorkspace.release(stageY);
+    }
+
+    /**
+     * 配列の [from, to) の各要素を, その重みで weightに線形ビニングでaddする. <br>
+     * ただし, weight の行 [jFrom, jTo) に属する部分のみをaddする.
+     * 
+     * @param weight 加算先, 行優先
+     * @param lenY 行の長さ
+     * @param jFrom 行の開始位置 (inclusive)
+     * @param jTo 行の終了位置 (exclusive)
+     * @param sourceX x 座標
+     * @param sourceY y 座標
+     * @param sourceWeights 重み (重みを持たない場合は null)
+     * @param from 開始位置 (inclusive)
+     * @param to 終了位置 (exclusive)
+     * @param x0 weight[0][*] の x 座標
+     * @param y0 weight[*][0] の y 座標
+     * @param resolutionX Xの空間分解能
+     * @param resolutionY Yの空間分解能
+     */
+    private static void addLinearBinning(double[] weight, int lenY, int jFrom, int jTo,
+            double[] sourceX, double[] sourceY, double[] sourceWeights, int from, int to,
+            double x0, double y0, double resolutionX, double resolutionY) {
+        for (int i = from; i < to; i++) {
+            // vx を格子点座標系 srcXR に直す
+            // srcXR が負になる可能性に注意して, floorを使う
+            double srcXR = (sourceX[i] - x0) / resolutionX;
             int j = (int) Math.floor(srcXR);
-            int k = (int) Math.floor(srcYR);
-            double w_jk = ((j + 1) - srcXR) * ((k + 1) - srcYR);
-            double w_jkp1 = ((j + 1) - srcXR) * (srcYR - k);
-            double w_jp1k = (srcXR - j) * ((k + 1) - srcYR);
-            double w_jp1kp1 = (srcXR - j) * (srcYR - k);
-
-            if (0 <= j && j < extendX.length
-                    && 0 <= k && k < extendY.length) {
-                weight[j][k] += w_jk;
-            }
-            if (0 <= j && j < extendX.length
-                    && -1 <= k && k < extendY.length - 1) {
-                weight[j][k + 1] += w_jkp1;
+
+            // 担当する行に寄与しない場合はスキップ
+            if (j + 1 < jFrom || j >= jTo) {
+                continue;
             }
-            if (-1 <= j && j < extendX.length - 1
-                    && 0 <= k && k < extendY.length) {
-                weight[j + 1][k] += w_jp1k;
+
+            double srcYR = (sourceY[i] - y0) / resolutionY;
+            int k = (int) Math.floor(srcYR);
+
+            // (srcXR, srcYR) を格子点に重みを割り振る
+            double w = sourceWeights == null ? 1d : sourceWeights[i];
+            double w_j = ((j + 1) - srcXR) * w;
+            double w_jp1 = (srcXR - j) * w;
+            double w_jk = w_j * ((k + 1) - srcYR);
+            double w_jkp1 = w_j * (srcYR - k);
+            double w_jp1k = w_jp1 * ((k + 1) - srcYR);
+            double w_jp1kp1 = w_jp1 * (srcYR - k);
+
+            if (jFrom <= j && j < jTo) {
+                int offset_j = j * lenY;
+                if (0 <= k && k < lenY) {
+                    weight[offset_j + k] += w_jk;
+                }
+                if (-1 <= k && k < lenY - 1) {
+                    weight[offset_j + k + 1] += w_jkp1;
+                }
             }
-            if (-1 <= j && j < extendX.length - 1
-                    && -1 <= k && k < extendY.length - 1) {
-                weight[j + 1][k + 1] += w_jp1kp1;
+            if (jFrom <= j + 1 && j + 1 < jTo) {
+                int offset_jp1 = (j + 1) * lenY;
+                if (0 <= k && k < lenY) {
+                    weight[offset_jp1 + k] += w_jp1k;
+                }
+                if (-1 <= k && k < lenY - 1) {
+                    weight[offset_jp1 + k + 1] += w_jp1kp1;
+                }
             }
         }
+    }
 
-        // 全区間を網羅した場合が総和が1相当になるように正規化
-        // (実際は有限区間なので, 総和は1以下になる)
-        for (int j = 0; j < weight.length; j++) {
-            double[] weight_j = weight[j];
-            for (int k = 0; k < weight_j.length; k++) {
-                weight_j[k] /= source.size;
-            }
+    /**
+     * 並列ビニングにおける部分の個数を, 区間のサイズと重み配列のサイズのみから決める.
+     */
+    private static int chunkCount(long sliceLength, int gridSize) {
+        long byMemory = MAX_TOTAL_PARTIAL_CELLS / gridSize;
+        return (int) Math.min(Math.min(MAX_CHUNK_COUNT, sliceLength / MIN_CHUNK_SIZE), byMemory);
+    }
+
+    /**
+     * ソースの [from, to) を並列に線形ビニングし, ソース全体の重みの総和で正規化した結果をweightに書き込む.
+     * 
+     * <p>
+     * {@code Mesh1D} の並列ビニングと同様に,
+     * 区間を (区間と重み配列のサイズのみから決まる) 固定個数の部分に分割し,
+     * 部分ごとの重み配列を並列に構築する. <br>
+     * その後, 重み配列の要素ごとに, 部分の順番通りに総和を取って正規化する
+     * (この統合も要素の区間ごとに並列に行う). <br>
+     * 各点は1度だけ走査され, 加算順序はスレッドのスケジューリングに依存しないため, 結果は決定的である.
+     * </p>
+     */
+    private static void binInParallel(double[] weight, int lenY, BinningSource2D source, long from, long to,
+            double x0, double y0, double resolutionX, double resolutionY) {
+        final double totalWeight = source.totalWeight;
+        final int lenX = weight.length / lenY;
+        final long sliceLength = to - from;
+        final int chunkCount = chunkCount(sliceLength, weight.length);
+
+        // ワークスペースはスレッドごとであるため, 部分の配列は呼び出しスレッドで借り受け, 返却する
+        final double[][] partials = new double[chunkCount][];
+        for (int c = 0; c < chunkCount; c++) {
+            partials[c] = DoubleArrayWorkspace.borrow(weight.length);
+        }
+        IntStream.range(0, chunkCount)
+                .parallel()
+                .forEach(c -> {
+                    long chunkFrom = from + sliceLength * c / chunkCount;
+                    long chunkTo = from + sliceLength * (c + 1) / chunkCount;
+                    addLinearBinning(partials[c], lenY, 0, lenX, source, chunkFrom, chunkTo,
+                            x0, y0, resolutionX, resolutionY);
+                });
+
+        // 部分の順番通りに総和を取り, 正規化を同時に行う
+        final int blockCount = (weight.length + MERGE_BLOCK_SIZE - 1) / MERGE_BLOCK_SIZE;
+        IntStream.range(0, blockCount)
+                .parallel()
+                .forEach(b -> {
+                    for (int i = b * MERGE_BLOCK_SIZE,
+                            end = Math.min(weight.length, i + MERGE_BLOCK_SIZE); i < end; i++) {
+                        double sum = 0d;
+                        for (double[] partial : partials) {
+                            sum += partial[i];
+                        }
+                        weight[i] = sum / totalWeight;
+                    }
+                });
+
+        for (double[] partial : partials) {
+            DoubleArrayWorkspace.release(partial);
+        }
+    }
+
+    /**
+     * 全区間を網羅した場合が総和が1相当になるように, weight の行 [jFrom, jTo) を正規化する.
+     * (実際は有限区間なので, 総和は1以下になる)
+     */
+    private static void normalize(double[] weight, int lenY, int jFrom, int jTo, double totalWeight) {
+        for (int i = jFrom * lenY, end = jTo * lenY; i < end; i++) {
+            weight[i] /= totalWeight;
         }
     }
 
     /**
-     * 長さが (extendX, extendY) と同サイズの配列の両側をカットして,
-     * 長さが (x, y) と同サイズの配列として返す.
+     * 長さが (extendX, extendY) と同サイズの行優先配列の両側をカットして,
+     * 長さが (x, y) と同サイズの行優先配列として返す.
      * 
-     * @param src src
-     * @return 両側をカットした配列
+     * @param src src, 長さは {@code extendX.length * extendY.length}
+     * @return 両側をカットした配列, 長さは {@code x.length * y.length}
      * @throws IllegalArgumentException src の長さが不正の場合
      * @throws NullPointerException 引数が null の場合
      */
-    double[][] reduceSize(double[][] src) {
-        if (src.length != extendX.length) {
-            throw new IllegalArgumentException("src.length != extendX.length");
+    double[] reduceSize(double[] src) {
+        final int lenY = extendY.length;
+        if (src.length != extendX.length * lenY) {
+            throw new IllegalArgumentException("src.length != extendX.length * extendY.length");
         }
 
-        List<double[]> outList = new ArrayList<double[]>(extendX.length);
-        for (int j = extendSizeX; j < extendX.length - extendSizeX; j++) {
-            double[] src_j = src[j];
-
-            if (src_j.length != extendY.length) {
-                throw new IllegalArgumentException("src[j].length != extendY.length");
-            }
-            outList.add(Arrays.copyOfRange(src_j, extendSizeY, extendSizeY + y.length));
+        final int sizeY = y.length;
+        double[] out = new double[x.length * sizeY];
+        for (int j = 0, len = x.length; j < len; j++) {
+            System.arraycopy(src, (j + extendSizeX) * lenY + extendSizeY, out, j * sizeY, sizeY);
         }
-
-        return outList.toArray(EMPTY_DOUBLE_DOUBLE_ARRAY);
+        return out;
     }
 }
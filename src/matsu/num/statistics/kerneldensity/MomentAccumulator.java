@@ -0,0 +1,432 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.nio.ByteBuffer;
+import java.util.stream.IntStream;
+
+/**
+ * 重み付きの値の列の, 重みの総和, 平均, 標準偏差, 有効サンプルサイズを
+ * 1度の走査で集計する, 結合可能な集計器. <br>
+ * パッケージ外には公開されない.
+ * 
+ * <p>
+ * 集計は Welford のオンラインアルゴリズムにより行い,
+ * 部分ごとに集計した結果は Chan らの方法で結合する
+ * ({@link #merge(MomentAccumulator)}). <br>
+ * したがって, 値の列を任意に分割して (並列に) 集計し, 後から結合することができる. <br>
+ * {@link #of(double[])}, {@link #of(double[], double[])} は,
+ * サイズが大きい場合は固定サイズの部分に分けて並列に集計し,
+ * 部分の順序を保ったまま2個ずつ (対ごとに) 結合する.
+ * 結果はスレッドのスケジューリングに依存せず, 決定的である.
+ * </p>
+ * 
+ * <p>
+ * 結果は, 平均を先に求めてから偏差の二乗和を求める多パスの計算
+ * (標準偏差, 重み付き標準偏差, 有効サンプルサイズ) と,
+ * 相対誤差 1E-12 程度で一致する.
+ * </p>
+ * 
+ * <p>
+ * 絶対値が 2<sup>400</sup> 以上の値が現れた時点で,
+ * 集計済みの状態と以降の値を 2<sup>-800</sup> 倍に規格化した集計に切り替える. <br>
+ * これにより, 多パスの計算において値を規格化してから平均や二乗平均を取るのに
+ * 相当するオーバーフロー対策を, 走査をやり直すことなく行う
+ * (規格化により, 2<sup>-800</sup> 倍で非正規化数となる程度の小さな寄与は失われるが,
+ * 巨大な値の寄与に比べて無視できる). <br>
+ * 無限大は, {@link DoubleValueUtil#correctInfinite(double)}
+ * により有限の境界値に修正して集計する.
+ * </p>
+ * 
+ * <p>
+ * 重みは, それまでに現れた重みの最大値に対する相対値で保持するため,
+ * 重みの2乗和がオーバーフローすることはない. <br>
+ * 平均は, 最初に集計した値からの差で保持する
+ * (平均の絶対値が標準偏差に比べて大きい場合の, 平均の更新における丸め誤差を避けるため). <br>
+ * 重みが0の値は, 平均と分散に寄与しない.
+ * </p>
+ * 
+ * <p>
+ * このクラスのインスタンスはスレッドセーフでない.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class MomentAccumulator {
+
+    /**
+     * {@link #of(double[])}, {@link #of(double[], double[])}
+     * が並列に集計を行う, 配列の最小サイズ.
+     */
+    static final int MIN_SIZE_IN_PARALLEL = 1 << 16;
+
+    /**
+     * 並列に集計する場合の, 部分のサイズ.
+     */
+    static final int CHUNK_SIZE = 1 << 14;
+
+    /**
+     * 平方の計算のために規格化が必要になる, 絶対値の下限.
+     */
+    private static final double LARGE_LIMIT = 2.58224987808690859e+120; // 2^400
+
+    /**
+     * 規格化の係数.
+     */
+    private static final double LARGE_COEFF = 6.668014432879854274e+240; // 2^800
+    private static final double INV_LARGE_COEFF = 1d / LARGE_COEFF; // 2^(-800)
+
+    /**
+     * 規格化した集計であるかどうか.
+     */
+    private boolean scaled = false;
+
+    private double shift = 0d;
+    private double maxWeight = 0d;
+    private double weightSum = 0d;
+    private double weightSquareSum = 0d;
+    private double mean = 0d;
+    private double m2 = 0d;
+
+    /**
+     * 空の集計器を構築する.
+     */
+    MomentAccumulator() {
+        super();
+    }
+
+    /**
+     * 値 v を重み1で集計する.
+     * 
+     * @param v 値, NaN であってはならない
+     */
+    void accept(double v) {
+        accept(v, 1d);
+    }
+
+    /**
+     * 値 v を重み w で集計する.
+     * 
+     * @param v 値, NaN であってはならない
+     * @param w 重み, 0以上の有限値
+     */
+    void accept(double v, double w) {
+        v = DoubleValueUtil.correctInfinite(v);
+        if (!scaled && Math.abs(v) >= LARGE_LIMIT) {
+            toScaled();
+        }
+        if (scaled) {
+            v *= INV_LARGE_COEFF;
+        }
+        if (w == 0d) {
+            return;
+        }
+        if (weightSum == 0d) {
+            shift = v;
+        }
+        if (w > maxWeight) {
+            rescaleWeight(w);
+        }
+        double r = w / maxWeight;
+        weightSum += r;
+        weightSquareSum += r * r;
+        double shifted = v - shift;
+        double delta = shifted - mean;
+        mean += delta * (r / weightSum);
+        m2 += r * delta * (shifted - mean);
+    }
+
+    /**
+     * 重み w で集計済みの値 v を, 集計から取り除く. <br>
+     * {@link #accept(double, double)} の逆操作であり,
+     * 結果は v を集計しなかった場合と丸め誤差の範囲で一致する
+     * (ただし, 集計と除去を繰り返すと丸め誤差が蓄積する). <br>
+     * 取り除いた結果, 重みの総和が0以下になった場合は空の状態に戻す.
+     * 
+     * <p>
+     * v を重み w で集計していない場合の結果は保証されない.
+     * </p>
+     * 
+     * @param v 値, NaN であってはならない
+     * @param w 重み, 0以上の有限値
+     */
+    void remove(double v, double w) {
+        v = DoubleValueUtil.correctInfinite(v);
+        if (scaled) {
+            v *= INV_LARGE_COEFF;
+        }
+        if (w == 0d) {
+            return;
+        }
+        double r = w / maxWeight;
+        double newWeightSum = weightSum - r;
+        if (!(newWeightSum > 0d)) {
+            clear();
+            return;
+        }
+        // accept の更新式を逆にたどる
+        double shifted = v - shift;
+        double delta = shifted - mean;
+        double oldMean = mean - delta * (r / newWeightSum);
+        m2 = Math.max(m2 - r * delta * (shifted - oldMean), 0d);
+        mean = oldMean;
+        weightSum = newWeightSum;
+        weightSquareSum = Math.max(weightSquareSum - r * r, 0d);
+    }
+
+    /**
+     * 集計済みの全ての重みを, 一律に factor 倍する. <br>
+     * 平均, 標準偏差, 有効サンプルサイズは変化しない. <br>
+     * 重みの最大値が正規化数でなくなる場合は, 空の状態に戻す.
+     * 
+     * @param factor 係数, 正の有限値
+     */
+    void scaleWeights(double factor) {
+        // 重みは最大値に対する相対値で保持しているため, 最大値のみを変更すればよい
+        maxWeight *= factor;
+        if (!(maxWeight >= Double.MIN_NORMAL)) {
+            clear();
+        }
+    }
+
+    /**
+     * 空の状態に戻す.
+     */
+    void clear() {
+        scaled = false;
+        shift = 0d;
+        maxWeight = 0d;
+        weightSum = 0d;
+        weightSquareSum = 0d;
+        mean = 0d;
+        m2 = 0d;
+    }
+
+    /**
+     * other の集計結果をこのインスタンスに結合する. <br>
+     * 結果は, other が集計した値の列をこのインスタンスに続けて集計した場合と,
+     * 丸め誤差の範囲で一致する. <br>
+     * other は変更されない.
+     * 
+     * @param other 結合する集計器
+     */
+    void merge(MomentAccumulator other) {
+        if (other.weightSum == 0d) {
+            return;
+        }
+        if (other.scaled && !scaled) {
+            toScaled();
+        }
+        // 規格化の有無を, このインスタンスに合わせる
+        final double c = scaled && !other.scaled ? INV_LARGE_COEFF : 1d;
+        final double otherShift = other.shift * c;
+        final double otherMean = other.mean * c;
+        final double otherM2 = other.m2 * c * c;
+
+        if (weightSum == 0d) {
+            shift = otherShift;
+        }
+        if (other.maxWeight > maxWeight) {
+            rescaleWeight(other.maxWeight);
+        }
+        double f = other.maxWeight / maxWeight;
+        double otherWeightSum = other.weightSum * f;
+        double newWeightSum = weightSum + otherWeightSum;
+        double delta = (otherShift - shift) + (otherMean - mean);
+        m2 += otherM2 * f + delta * delta * (weightSum * (otherWeightSum / newWeightSum));
+        mean += delta * (otherWeightSum / newWeightSum);
+        weightSum = newWeightSum;
+        weightSquareSum += other.weightSquareSum * (f * f);
+    }
+
+    /**
+     * 集計済みの状態を, 規格化した集計に切り替える.
+     */
+    private void toScaled() {
+        scaled = true;
+        shift *= INV_LARGE_COEFF;
+        mean *= INV_LARGE_COEFF;
+        // 2^(-1600) は double で表せないので, 2回に分けて掛ける
+        m2 = m2 * INV_LARGE_COEFF * INV_LARGE_COEFF;
+    }
+
+    /**
+     * 重みの基準を, 与えた最大値に切り替える.
+     */
+    private void rescaleWeight(double newMaxWeight) {
+        double f = maxWeight / newMaxWeight;
+        weightSum *= f;
+        weightSquareSum *= f * f;
+        m2 *= f;
+        maxWeight = newMaxWeight;
+    }
+
+    /**
+     * 重みの総和を返す. <br>
+     * オーバーフローした場合は無限大が返る.
+     * 
+     * @return 重みの総和
+     */
+    double totalWeight() {
+        return weightSum * maxWeight;
+    }
+
+    /**
+     * (重み付き) 平均を返す. <br>
+     * 重みの総和が0の場合は NaN が返る.
+     * 
+     * @return 平均
+     */
+    double mean() {
+        if (weightSum == 0d) {
+            return Double.NaN;
+        }
+        double out = shift + mean;
+        return scaled ? out * LARGE_COEFF : out;
+    }
+
+    /**
+     * (重みの総和で割るタイプの) 標準偏差を返す. <br>
+     * 重みの総和が0の場合は NaN が返る.
+     * 
+     * @return 標準偏差
+     */
+    double std() {
+        double out = Math.sqrt(m2 / weightSum);
+        return scaled ? out * LARGE_COEFF : out;
+    }
+
+    /**
+     * 有効サンプルサイズ (&Sigma;<i>w</i>)<sup>2</sup>/&Sigma;<i>w</i><sup>2</sup> を返す. <br>
+     * 全ての重みが1の場合は, 集計した値の個数に一致する. <br>
+     * 重みの総和が0の場合は NaN が返る.
+     * 
+     * @return 有効サンプルサイズ
+     */
+    double sampleSize() {
+        return weightSum * weightSum / weightSquareSum;
+    }
+
+    /**
+     * {@link #writeTo(ByteBuffer)} が書き込むバイト数.
+     */
+    static final int BYTES = 1 + 6 * Double.BYTES;
+
+    /**
+     * 集計の状態を, バッファの現在位置から {@link #BYTES} バイトで書き込む. <br>
+     * 書き込んだ状態は {@link #readFrom(ByteBuffer)} で読み込める.
+     * 
+     * @param dst 書き込み先
+     */
+    void writeTo(ByteBuffer dst) {
+        dst.put(scaled ? (byte) 1 : (byte) 0)
+                .putDouble(shift)
+                .putDouble(maxWeight)
+                .putDouble(weightSum)
+                .putDouble(weightSquareSum)
+                .putDouble(mean)
+                .putDouble(m2);
+    }
+
+    /**
+     * {@link #writeTo(ByteBuffer)} で書き込んだ状態を, バッファの現在位置から読み込む. <br>
+     * 状態として不正な値の場合は null を返す.
+     * 
+     * @param src 読み込み元, {@link #BYTES} バイト以上残っていなければならない
+     * @return 集計器, 不正な場合は null
+     */
+    static MomentAccumulator readFrom(ByteBuffer src) {
+        byte scaledFlag = src.get();
+        MomentAccumulator out = new MomentAccumulator();
+        out.scaled = scaledFlag == 1;
+        out.shift = src.getDouble();
+        out.maxWeight = src.getDouble();
+        out.weightSum = src.getDouble();
+        out.weightSquareSum = src.getDouble();
+        out.mean = src.getDouble();
+        out.m2 = src.getDouble();
+
+        boolean valid = (scaledFlag == 0 || scaledFlag == 1)
+                && Double.isFinite(out.shift) && Double.isFinite(out.mean)
+                && out.maxWeight >= 0d && out.maxWeight < Double.POSITIVE_INFINITY
+                && out.weightSum >= 0d && out.weightSum < Double.POSITIVE_INFINITY
+                && out.weightSquareSum >= 0d && out.weightSquareSum < Double.POSITIVE_INFINITY
+                && out.m2 >= 0d && out.m2 < Double.POSITIVE_INFINITY;
+        return valid ? out : null;
+    }
+
+    /**
+     * 値の配列を集計する. <br>
+     * サイズが大きい場合は並列に集計する.
+     * 
+     * @param values 値, NaN を含んではならない
+     * @return 集計結果
+     * @throws NullPointerException 引数がnullの場合
+     */
+    static MomentAccumulator of(double[] values) {
+        return of(values, null);
+    }
+
+    /**
+     * 重み付きの値の配列を集計する. <br>
+     * サイズが大きい場合は並列に集計する.
+     * 
+     * @param values 値, NaN を含んではならない
+     * @param weights 重み, 値と同じ長さで0以上の有限値 (null の場合は全て1)
+     * @return 集計結果
+     * @throws NullPointerException values がnullの場合
+     */
+    static MomentAccumulator of(double[] values, double[] weights) {
+        final int size = values.length;
+        if (size < MIN_SIZE_IN_PARALLEL) {
+            return accumulate(values, weights, 0, size);
+        }
+        final int chunkCount = (size - 1) / CHUNK_SIZE + 1;
+        return combine(IntStream.range(0, chunkCount)
+                .parallel()
+                .mapToObj(c -> accumulate(values, weights,
+                        c * CHUNK_SIZE, Math.min(size, (c + 1) * CHUNK_SIZE)))
+                .toArray(MomentAccumulator[]::new));
+    }
+
+    /**
+     * [from, to) を逐次に集計する.
+     */
+    private static MomentAccumulator accumulate(double[] values, double[] weights, int from, int to) {
+        MomentAccumulator out = new MomentAccumulator();
+        if (weights == null) {
+            for (int i = from; i < to; i++) {
+                out.accept(values[i]);
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                out.accept(values[i], weights[i]);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 値の列の連続した部分ごとの集計結果を, 部分の順序を保ったまま対ごとに結合する. <br>
+     * 配列の要素は書き換えられる.
+     * 
+     * @param parts 部分ごとの集計結果, 空であってはならない
+     * @return 全体の集計結果
+     */
+    static MomentAccumulator combine(MomentAccumulator[] parts) {
+        for (int step = 1; step < parts.length; step *= 2) {
+            for (int i = 0; i + step < parts.length; i += 2 * step) {
+                parts[i].merge(parts[i + step]);
+            }
+        }
+        return parts[0];
+    }
+}
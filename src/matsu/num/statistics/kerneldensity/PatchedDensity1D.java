@@ -0,0 +1,399 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * バンド幅を固定した1次元のカーネル密度推定を, 値の追加・除去ごとに局所的に更新しながら保持する.
+ * 
+ * <p>
+ * 空間分解能 <i>r</i> の格子 (番号 <i>k</i> の格子点は {@code origin + k * r})
+ * の上で, 値を線形ビニングした重みと, それにガウシアンフィルタを畳み込んだ密度を保持する. <br>
+ * フィルタの片側の長さを <i>L</i> とすると, 1個の値の追加・除去は,
+ * 2個の格子点の重みと, その周囲の 2<i>L</i> 個の格子点の密度の更新 (パッチ) で済む. <br>
+ * したがって, 更新のコストはソースのサイズによらず, フィルタの長さに比例する. <br>
+ * 密度は, 全体を畳み込み直した場合と丸め誤差の範囲で一致する.
+ * </p>
+ * 
+ * <p>
+ * 格子は {@link #PAGE_SIZE} 個ずつのページに分けて, 値の近傍のページのみを保持する. <br>
+ * 外れ値があっても, 保持するメモリは値の近傍の格子点の個数に比例する. <br>
+ * 追加と除去を繰り返すと, 密度に丸め誤差が蓄積する. <br>
+ * これを防ぐため, パッチの回数が {@link #REFRESH_INTERVAL} に達したページは,
+ * 保持している重みから密度を計算し直す.
+ * </p>
+ * 
+ * <p>
+ * 除去の可否を判定するため, 格子点の間の区間 [<i>k</i>, <i>k</i> + 1) ごとに,
+ * その区間に属する値の個数を保持する. <br>
+ * 格子の原点は最初に追加した値であり, 原点からの距離が
+ * 空間分解能の {@link #MAX_INDEX} 倍以上の値は扱えない.
+ * </p>
+ * 
+ * <p>
+ * このクラスはスレッドセーフではない.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class PatchedDensity1D {
+
+    /**
+     * ページあたりの格子点の個数.
+     */
+    static final int PAGE_SIZE = 1 << 10;
+
+    /**
+     * ページの密度を計算し直す, パッチの回数.
+     */
+    static final int REFRESH_INTERVAL = 1 << 14;
+
+    /**
+     * 扱える格子点の番号の絶対値の上限.
+     */
+    static final double MAX_INDEX = 0x1p50;
+
+    private final double resolution;
+
+    /**
+     * 片側のフィルタ, 長さは {@link #PAGE_SIZE} 未満.
+     */
+    private final double[] filter;
+
+    private final Map<Long, Page> pages = new HashMap<>();
+
+    /**
+     * 格子の原点, 値が追加されるまでは NaN.
+     */
+    private double origin = Double.NaN;
+
+    private long size = 0L;
+
+    /**
+     * 空間分解能と片側のフィルタを与えて, 空の状態で構築する.
+     * 
+     * @param resolution 空間分解能, 正の有限値
+     * @param filter {@link GaussianFilterComputation#compute(double)} による片側のフィルタ
+     */
+    PatchedDensity1D(double resolution, double[] filter) {
+        super();
+        assert resolution > 0d && Double.isFinite(resolution);
+        assert filter.length < PAGE_SIZE;
+        this.resolution = resolution;
+        this.filter = filter;
+    }
+
+    /**
+     * 保持している値の個数を返す.
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * 空間分解能を返す.
+     */
+    double resolution() {
+        return resolution;
+    }
+
+    /**
+     * 値が格子で扱える範囲にあるかを判定する.
+     * 
+     * @param value 有限の値
+     * @return 扱えるならば true
+     */
+    boolean accepts(double value) {
+        double o = Double.isNaN(origin) ? value : origin;
+        return Math.abs((value - o) / resolution) < MAX_INDEX;
+    }
+
+    /**
+     * 値を1個追加する.
+     * 
+     * @param value {@link #accepts(double)} を満たす値
+     */
+    void add(double value) {
+        assert accepts(value);
+        if (Double.isNaN(origin)) {
+            origin = value;
+        }
+        patch(value, 1d);
+        size++;
+    }
+
+    /**
+     * 値を1個除去する. <br>
+     * 値が属する区間に値が存在しない場合は, 何もせずに false を返す.
+     * 
+     * @param value 有限の値
+     * @return 除去した場合は true
+     */
+    boolean remove(double value) {
+        if (size == 0L || !accepts(value)) {
+            return false;
+        }
+        long k = (long) Math.floor((value - origin) / resolution);
+        Page page = pages.get(pageOf(k));
+        if (page == null || !(page.counts[offsetOf(k)] >= 1d)) {
+            return false;
+        }
+
+        size--;
+        if (size == 0L) {
+            // 丸め誤差の残留を捨てる
+            pages.clear();
+            return true;
+        }
+        patch(value, -1d);
+        if (page.occupied == 0L) {
+            long p = pageOf(k);
+            for (long q = p - 1; q <= p + 1; q++) {
+                dropIfUnreachable(q);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 値を符号 sign で線形ビニングし, 近傍の密度を更新する.
+     */
+    private void patch(double value, double sign) {
+        final double t = (value - origin) / resolution;
+        final long k = (long) Math.floor(t);
+        final double frac = t - k;
+        final double wk = sign * (1d - frac);
+        final double wk1 = sign * frac;
+
+        Page cellPage = pageOrCreate(pageOf(k));
+        cellPage.counts[offsetOf(k)] += sign;
+        cellPage.occupied += (long) sign;
+        addToBinned(k, wk);
+        addToBinned(k + 1, wk1);
+
+        // 格子点 j の密度は, wk * f(|j - k|) + wk1 * f(|j - k - 1|) だけ変化する
+        final int len = filter.length;
+        final long from = k - (len - 1);
+        final long to = k + len;
+        Page page = null;
+        for (long j = from; j <= to; j++) {
+            if (page == null || offsetOf(j) == 0) {
+                if (page != null) {
+                    page.notePatched(this, pageOf(j - 1));
+                }
+                page = pageOrCreate(pageOf(j));
+            }
+            int d0 = (int) Math.abs(j - k);
+            int d1 = (int) Math.abs(j - k - 1);
+            double delta = (d0 < len ? wk * filter[d0] : 0d) + (d1 < len ? wk1 * filter[d1] : 0d);
+            page.density[offsetOf(j)] += delta;
+        }
+        page.notePatched(this, pageOf(to));
+    }
+
+    private void addToBinned(long j, double w) {
+        pageOrCreate(pageOf(j)).binned[offsetOf(j)] += w;
+    }
+
+    /**
+     * ページの密度を, 保持している重み (隣接するページを含む) から計算し直す.
+     */
+    private void refresh(long p) {
+        Page page = pages.get(p);
+        final int len = filter.length;
+        final long base = p * PAGE_SIZE;
+        double[] window = new double[PAGE_SIZE + 2 * (len - 1)];
+        for (int i = 0; i < window.length; i++) {
+            Page source = pages.get(pageOf(base - (len - 1) + i));
+            window[i] = source == null ? 0d : source.binned[offsetOf(base - (len - 1) + i)];
+        }
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            int c = i + len - 1;
+            double sum = window[c] * filter[0];
+            for (int d = 1; d < len; d++) {
+                sum += (window[c - d] + window[c + d]) * filter[d];
+            }
+            page.density[i] = sum;
+        }
+        page.patches = 0;
+    }
+
+    /**
+     * ページとその隣接するページに値が存在しない場合に, ページを破棄する. <br>
+     * フィルタの長さはページより短いため, そのページの密度は0である.
+     */
+    private void dropIfUnreachable(long p) {
+        for (long q = p - 1; q <= p + 1; q++) {
+            Page page = pages.get(q);
+            if (page != null && page.occupied != 0L) {
+                return;
+            }
+        }
+        pages.remove(p);
+    }
+
+    /**
+     * 範囲に含まれる格子点での, 正規化された密度を返す
+     * (全ての格子点での総和が1になる).
+     * 
+     * <p>
+     * 格子点の個数が maxSize を超える場合は, 連続する s 個の格子点の密度を合計したものを
+     * 間引いた格子点での密度とする (s は個数が maxSize 以下になる最小の整数). <br>
+     * 範囲に格子点が含まれない場合は, 範囲の下限での密度を隣接する格子点から線形補間する.
+     * </p>
+     * 
+     * @param range 範囲
+     * @param maxSize 格子点の個数の上限
+     * @return 結果
+     */
+    KdeGrid1dDto evaluateIn(Range range, int maxSize) {
+        assert size > 0L;
+
+        final double tMin = Math.ceil((range.min() - origin) / resolution);
+        final double tMax = Math.floor((range.max() - origin) / resolution);
+        if (!(tMin <= tMax)) {
+            double t = (range.min() - origin) / resolution;
+            double k = Math.floor(t);
+            double frac = t - k;
+            double v = (1d - frac) * densityAt(k) + frac * densityAt(k + 1);
+            return new KdeGrid1dDto(new double[] { range.min() }, new double[] { v / size });
+        }
+
+        final double count = tMax - tMin + 1d;
+        final double stride = Math.ceil(count / maxSize);
+        final int outSize = (int) Math.ceil(count / stride);
+        final double[] x = new double[outSize];
+        final double[] density = new double[outSize];
+        for (int i = 0; i < outSize; i++) {
+            x[i] = origin + (tMin + i * stride) * resolution;
+        }
+
+        if (stride == 1d) {
+            for (int i = 0; i < outSize; i++) {
+                density[i] = densityAt(tMin + i) / size;
+            }
+        } else {
+            // 保持しているページの格子点を, 最も近い間引いた格子点に合計する
+            for (Map.Entry<Long, Page> entry : pages.entrySet()) {
+                long base = entry.getKey() * PAGE_SIZE;
+                double[] pageDensity = entry.getValue().density;
+                for (int o = 0; o < PAGE_SIZE; o++) {
+                    double i = Math.rint((base + o - tMin) / stride);
+                    if (0d <= i && i < outSize) {
+                        density[(int) i] += pageDensity[o] / size;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < outSize; i++) {
+            // 丸め誤差による負の値を除く
+            density[i] = Math.max(density[i], 0d);
+        }
+        return new KdeGrid1dDto(x, density);
+    }
+
+    /**
+     * 番号 k (整数値) の格子点の, 正規化していない密度を返す.
+     */
+    private double densityAt(double k) {
+        if (!(Math.abs(k) < MAX_INDEX + 2 * PAGE_SIZE)) {
+            return 0d;
+        }
+        long j = (long) k;
+        Page page = pages.get(pageOf(j));
+        return page == null ? 0d : page.density[offsetOf(j)];
+    }
+
+    /**
+     * 線形ビニングした重みを, 格子点を値とする重み付きのソースとして返す. <br>
+     * 重みが正でない格子点は含まない.
+     * 
+     * @return 昇順の重み付きソース
+     */
+    BinningSource1D toBinningSource() {
+        assert size > 0L;
+
+        long[] keys = pages.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        double[] values = new double[keys.length * PAGE_SIZE];
+        double[] weights = new double[keys.length * PAGE_SIZE];
+        int count = 0;
+        for (long p : keys) {
+            double[] binned = pages.get(p).binned;
+            for (int o = 0; o < PAGE_SIZE; o++) {
+                if (binned[o] > 0d) {
+                    values[count] = origin + (p * PAGE_SIZE + o) * resolution;
+                    weights[count] = binned[o];
+                    count++;
+                }
+            }
+        }
+        return BinningSource1D.of(Arrays.copyOf(values, count), Arrays.copyOf(weights, count), true);
+    }
+
+    private Page pageOrCreate(long p) {
+        return pages.computeIfAbsent(p, key -> new Page());
+    }
+
+    private static long pageOf(long j) {
+        return Math.floorDiv(j, PAGE_SIZE);
+    }
+
+    private static int offsetOf(long j) {
+        return Math.floorMod(j, PAGE_SIZE);
+    }
+
+    /**
+     * 格子の1ページ分の状態.
+     */
+    private static final class Page {
+
+        /**
+         * 線形ビニングした重み.
+         */
+        final double[] binned = new double[PAGE_SIZE];
+
+        /**
+         * フィルタを畳み込んだ, 正規化していない密度.
+         */
+        final double[] density = new double[PAGE_SIZE];
+
+        /**
+         * 区間 [k, k + 1) に属する値の個数.
+         */
+        final double[] counts = new double[PAGE_SIZE];
+
+        /**
+         * このページに属する値の個数.
+         */
+        long occupied = 0L;
+
+        /**
+         * 最後に密度を計算し直してからの, パッチの回数.
+         */
+        int patches = 0;
+
+        Page() {
+            super();
+        }
+
+        /**
+         * パッチの回数を数え, 必要であれば密度を計算し直す.
+         */
+        void notePatched(PatchedDensity1D owner, long p) {
+            if (++patches >= REFRESH_INTERVAL) {
+                owner.refresh(p);
+            }
+        }
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 直近の一定個数の区間 (時間窓) に追加された値による,
+ * ガウシアンをカーネル関数とする1次元のカーネル密度推定.
+ * 
+ * <p>
+ * 「直近5分間の分布を1秒ごとに更新する」といった時系列の用途のためのクラスである. <br>
+ * 値は {@link #add(double)} により現在の区間に追加し,
+ * {@link #advance()} により次の区間に進む. <br>
+ * 窓は現在の区間と, その直前の (区間の個数 - 1) 個の区間からなり,
+ * 区間を進めると最も古い区間の値は窓から除かれる (失効する). <br>
+ * 結果は {@link #evaluate()} により, 任意の時点で得られる.
+ * </p>
+ * 
+ * <p>
+ * 値は, 生成時に与えた範囲にわたる空間分解能の格子に線形ビニングされ,
+ * 区間ごとの重み (ヒストグラム) と, 窓全体の重みの合計を保持する. <br>
+ * 値の追加は O(1), 区間を進める操作は O(格子点の個数) である
+ * (最も古い区間の重みを合計から引き, その区間を新しい区間として再利用する). <br>
+ * 合計に丸め誤差が蓄積しないよう, 区間を一巡するごとに合計を区間の重みから計算し直す.
+ * </p>
+ * 
+ * <p>
+ * バンド幅は生成時に固定する. <br>
+ * したがってフィルタも固定であり, フィルタ畳み込みの準備
+ * ({@link EffectiveCyclicConvolution} を用いる場合は, フィルタのスペクトルの計算)
+ * は生成時に1度だけ行われ, 以降の評価で再利用される. <br>
+ * 評価の結果は, 状態が変化するまでキャッシュされる.
+ * </p>
+ * 
+ * <p>
+ * 格子は, 生成時に与えた範囲の両側にフィルタの到達距離 (バンド幅の数倍) だけ広げて配置する. <br>
+ * したがって, 範囲の少し外の値も, 範囲内の密度への寄与は正しく計算される. <br>
+ * 広げた格子の外の値は格子に置かないが, 値の個数には数える
+ * ({@link GaussianKd1D} と同様に, 密度は全空間で正規化される). <br>
+ * このクラスはスレッドセーフではない.
+ * </p>
+ * 
+ * <p>
+ * 2次元の時間窓による推定は提供しない. <br>
+ * 区間ごとに2次元の格子全体の重みを保持する必要があり,
+ * メモリと区間を進める操作のコストが (格子点の個数) &times; (区間の個数) に比例して大きくなるためである. <br>
+ * 値の追加のみを行う2次元の推定には, {@link IncrementalGaussianKd2D} を用いる.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+public final class SlidingWindowGaussianKd1D {
+
+    /**
+     * 格子点の個数の上限.
+     */
+    public static final int MAX_LATTICE_SIZE = 1 << 20;
+
+    private final double bandWidth;
+    private final double resolution;
+
+    /**
+     * 結果の格子点 (生成時に与えた範囲の格子点) の x 座標.
+     */
+    private final double[] x;
+
+    /**
+     * 範囲の両側に広げた格子点の個数 (フィルタの到達距離). <br>
+     * 重みの配列の index {@code margin + i} が, 結果の格子点 {@code x[i]} に対応する.
+     */
+    private final int margin;
+
+    /**
+     * 準備済みのフィルタ畳み込み.
+     */
+    private final FilterZeroFillingConvolution.PartialApplied smoothing;
+
+    /**
+     * 区間ごとの重み (環状に使用する), 値が追加されていない区間は null の場合がある.
+     */
+    private final double[][] intervalWeights;
+    private final long[] intervalSizes;
+
+    /**
+     * 窓全体の重みの合計.
+     */
+    private final double[] windowWeights;
+    private long windowSize = 0L;
+
+    /**
+     * 現在の区間の, 環状配列での位置.
+     */
+    private int current = 0;
+
+    /**
+     * 合計を最後に計算し直してから, 区間を進めた回数.
+     */
+    private int advancesSinceRecompute = 0;
+
+    /**
+     * 状態が変化していない間の結果の密度, 状態が変化した場合は null.
+     */
+    private double[] cachedDensity;
+
+    private SlidingWindowGaussianKd1D(
+            GaussianKd1D.Factory factory, Range range, double bandWidth, int latticeSize, int intervalCount) {
+        super();
+        final double resolutionScale = factory.resolutionScale();
+        this.bandWidth = bandWidth;
+        this.resolution = bandWidth * resolutionScale;
+        this.x = new double[latticeSize];
+        for (int i = 0; i < latticeSize; i++) {
+            x[i] = range.min() + i * resolution;
+        }
+        final double[] filterOneSide = GaussianFilterComputation.compute(resolutionScale);
+        this.margin = filterOneSide.length - 1;
+        this.smoothing = factory.convolution().applyPartial(filterOneSide);
+        this.intervalWeights = new double[intervalCount][];
+        this.intervalSizes = new long[intervalCount];
+        this.windowWeights = new double[latticeSize + 2 * margin];
+    }
+
+    /**
+     * バンド幅を返す.
+     * 
+     * @return バンド幅
+     */
+    public double bandWidth() {
+        return bandWidth;
+    }
+
+    /**
+     * 窓に含まれる値の個数を返す.
+     * 
+     * @return 値の個数
+     */
+    public long size() {
+        return windowSize;
+    }
+
+    /**
+     * 現在の区間に値を1個追加する.
+     * 
+     * @param value 値
+     * @return this
+     * @throws IllegalArgumentException 値が有限でない場合
+     */
+    public SlidingWindowGaussianKd1D add(double value) {
+        if (!Double.isFinite(value)) {
+            throw new IllegalArgumentException("illegal: value is not finite: value = %s".formatted(value));
+        }
+        addValidated(value);
+        return this;
+    }
+
+    /**
+     * 現在の区間に値をまとめて追加する. <br>
+     * 全ての値を検証してから追加するため, 例外をスローした場合は何も追加されない.
+     * 
+     * @param values 値
+     * @return this
+     * @throws IllegalArgumentException 有限でない値を含む場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public SlidingWindowGaussianKd1D addAll(double[] values) {
+        for (double v : values) {
+            if (!Double.isFinite(v)) {
+                throw new IllegalArgumentException("illegal: value is not finite: value = %s".formatted(v));
+            }
+        }
+        for (double v : values) {
+            addValidated(v);
+        }
+        return this;
+    }
+
+    private void addValidated(double value) {
+        double[] weights = intervalWeights[current];
+        if (Objects.isNull(weights)) {
+            weights = new double[windowWeights.length];
+            intervalWeights[current] = weights;
+        }
+
+        // 広げた格子の外の値は格子に置かない (個数には数える)
+        final double t = (value - x[0]) / resolution + margin;
+        if (0d <= t && t <= weights.length - 1) {
+            final int i = Math.min((int) t, weights.length - 1);
+            final double frac = t - i;
+            weights[i] += 1d - frac;
+            windowWeights[i] += 1d - frac;
+            if (frac > 0d) {
+                weights[i + 1] += frac;
+                windowWeights[i + 1] += frac;
+            }
+        }
+        intervalSizes[current]++;
+        windowSize++;
+        cachedDensity = null;
+    }
+
+    /**
+     * 次の区間に進む. <br>
+     * 最も古い区間の値は窓から除かれる.
+     * 
+     * @return this
+     */
+    public SlidingWindowGaussianKd1D advance() {
+        current = (current + 1) % intervalWeights.length;
+        double[] expired = intervalWeights[current];
+        if (Objects.nonNull(expired) && intervalSizes[current] > 0L) {
+            for (int i = 0; i < expired.length; i++) {
+                windowWeights[i] -= expired[i];
+            }
+            Arrays.fill(expired, 0d);
+            windowSize -= intervalSizes[current];
+            intervalSizes[current] = 0L;
+            cachedDensity = null;
+        }
+
+        if (++advancesSinceRecompute >= intervalWeights.length) {
+            recomputeWindowWeights();
+        }
+        return this;
+    }
+
+    /**
+     * 窓全体の重みの合計を, 区間の重みから計算し直す.
+     */
+    private void recomputeWindowWeights() {
+        Arrays.fill(windowWeights, 0d);
+        for (double[] weights : intervalWeights) {
+            if (Objects.isNull(weights)) {
+                continue;
+            }
+            for (int i = 0; i < weights.length; i++) {
+                windowWeights[i] += weights[i];
+            }
+        }
+        advancesSinceRecompute = 0;
+    }
+
+    /**
+     * 窓に含まれる値による確率値を, 生成時に与えた範囲の格子点でカーネル密度推定する. <br>
+     * 格子点の間隔は, 空間分解能 (バンド幅と分解能スケールの積) である.
+     * 
+     * <p>
+     * 結果は {@link KdeGrid1dDto} の規約に従い,
+     * (範囲外を含む) 全空間での総和が1になるように正規化されている.
+     * </p>
+     * 
+     * @return 推定結果
+     * @throws IllegalStateException 窓に値が含まれない場合
+     */
+    public KdeGrid1dDto evaluate() {
+        if (windowSize == 0L) {
+            throw new IllegalStateException("no value is present in the window");
+        }
+        if (Objects.isNull(cachedDensity)) {
+            double[] signal = new double[windowWeights.length];
+            for (int i = 0; i < signal.length; i++) {
+                // 丸め誤差による負の値を除く
+                signal[i] = Math.max(windowWeights[i], 0d) / windowSize;
+            }
+            cachedDensity = Arrays.copyOfRange(smoothing.compute(signal), margin, margin + x.length);
+        }
+        return new KdeGrid1dDto(x.clone(), cachedDensity.clone());
+    }
+
+    /**
+     * 空の推定を生成する. <br>
+     * 計算の空間分解能と畳み込みの設定は, 与えたファクトリに従う.
+     * 
+     * @param factory ファクトリ
+     * @param range 格子を配置する範囲
+     * @param bandWidth バンド幅
+     * @param intervalCount 窓を構成する区間の個数
+     * @return 空の推定
+     * @throws IllegalArgumentException バンド幅が正の有限値でない場合,
+     *             区間の個数が1未満の場合,
+     *             格子点の個数が {@link #MAX_LATTICE_SIZE} を超える場合
+     * @throws NullPointerException 引数が null の場合
+     */
+    public static SlidingWindowGaussianKd1D of(
+            GaussianKd1D.Factory factory, Range range, double bandWidth, int intervalCount) {
+        Objects.requireNonNull(factory);
+        Objects.requireNonNull(range);
+        if (!(bandWidth >= Double.MIN_NORMAL && Double.isFinite(bandWidth))) {
+            throw new IllegalArgumentException("illegal: bandWidth = %s".formatted(bandWidth));
+        }
+        if (intervalCount < 1) {
+            throw new IllegalArgumentException("illegal: intervalCount = %s".formatted(intervalCount));
+        }
+        final double resolution = bandWidth * factory.resolutionScale();
+        final double latticeSize = Math.floor((0.5 * range.max() - 0.5 * range.min()) / (0.5 * resolution)) + 1d;
+        if (!(latticeSize <= MAX_LATTICE_SIZE)) {
+            throw new IllegalArgumentException(
+                    "illegal: lattice is too large: range = %s, bandWidth = %s".formatted(range, bandWidth));
+        }
+        return new SlidingWindowGaussianKd1D(factory, range, bandWidth, (int) latticeSize, intervalCount);
+    }
+}
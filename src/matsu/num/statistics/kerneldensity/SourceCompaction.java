@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+/**
+ * 1次元ソースを, 台にわたる細かい等幅の格子 (ヒストグラム) に集計し,
+ * 値の配列を保持せずに済むようにする.
+ * 
+ * <p>
+ * 格子のビンの幅 δ は, バンド幅 <i>h</i> の 1/{@link #BINS_PER_BANDWIDTH} である. <br>
+ * 集計後の評価は {@link BucketedSource1D} により行われ,
+ * 評価の空間分解能 (標準では <i>h</i>/4) はビンの幅より粗いため,
+ * 各ビンの度数はビンの中心に置かれる. <br>
+ * すなわち, 集計は各値をその値が属するビンの中心へ (δ/2 以内だけ) 動かすことに相当する.
+ * </p>
+ * 
+ * <p>
+ * ガウシアンカーネルの傾きの絶対値は
+ * <i>e</i><sup>-1/2</sup>/(&radic;(2&pi;)<i>h</i><sup>2</sup>) 以下であるから,
+ * 集計による密度の誤差は, 至るところで
+ * <i>e</i><sup>-1/2</sup>/(2 &middot; {@link #BINS_PER_BANDWIDTH}) &asymp; 0.0048
+ * にカーネルの最大値 1/(&radic;(2&pi;)<i>h</i>) を掛けたもの以下である. <br>
+ * 移動はビンの中で正負に偏らないため, 典型的な誤差はさらに小さく,
+ * (δ/<i>h</i>)<sup>2</sup> の程度である. <br>
+ * バンド幅はビンに集計する前のソースから計算されるため, 集計によって変わらない.
+ * </p>
+ * 
+ * <p>
+ * ビンの個数が多すぎる場合 ({@link #MAX_BIN_COUNT} を超える場合)
+ * や, ソースのサイズ以上となる場合 (メモリが削減されない場合) は集計しない. <br>
+ * 外れ値を含み, 台がバンド幅に比べて非常に広いソースがこれにあたる.
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class SourceCompaction {
+
+    /**
+     * バンド幅あたりのビンの個数.
+     */
+    static final int BINS_PER_BANDWIDTH = 1 << 6;
+
+    /**
+     * ビンの個数の上限.
+     */
+    static final int MAX_BIN_COUNT = 1 << 20;
+
+    private SourceCompaction() {
+        // インスタンス化不可
+        throw new AssertionError();
+    }
+
+    /**
+     * ソースを台にわたる格子に集計したヒストグラムを返す. <br>
+     * 集計しない場合は null を返す.
+     * 
+     * @param values 値, 有限値
+     * @param weights 重み (重みを持たない場合は null)
+     * @param support ソースの台
+     * @param bandWidth バンド幅
+     * @return 集計したヒストグラム, 集計しない場合は null
+     */
+    static BucketedSource1D compact(
+            double[] values, double[] weights, SupportWindow support, double bandWidth) {
+        final double min = support.supportMin;
+        final double max = support.supportMax;
+        final double width = Kde1DStreamingBuilder.binWidth(
+                Math.max(Math.abs(min), Math.abs(max)), bandWidth, BINS_PER_BANDWIDTH);
+
+        // 差のオーバーフローを避けるため, 半分の値で差をとる (2の累乗による除算は正確)
+        final double span = (0.5 * max - 0.5 * min) / (0.5 * width);
+        final double binCount = Math.floor(span) + 1d;
+        if (!(binCount <= MAX_BIN_COUNT && binCount < values.length)) {
+            return null;
+        }
+        final int size = (int) binCount;
+        if (!Double.isFinite(min + size * width)) {
+            return null;
+        }
+
+        Kde1DHistogramDto histogram = new Kde1DHistogramDto(min, width, size);
+        final double[] counts = histogram.counts;
+        for (int i = 0; i < values.length; i++) {
+            // 丸め誤差による範囲外は, 端のビンに含める
+            int index = (int) Math.min((0.5 * values[i] - 0.5 * min) / (0.5 * width), size - 1);
+            counts[index] += weights == null ? 1d : weights[i];
+        }
+        return new BucketedSource1D(histogram);
+    }
+}
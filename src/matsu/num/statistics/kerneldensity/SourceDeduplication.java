@@ -0,0 +1,157 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Arrays;
+
+/**
+ * ソースの重複した値を, (値, 重複度) の重み付きソースに集約する.
+ * 
+ * <p>
+ * 量子化されたデータ (整数値, ミリ秒単位の時間など) では,
+ * ソースのサイズに比べて異なる値の個数が非常に少ないことがある. <br>
+ * そのようなソースを並べ替えて重複を集約すると,
+ * 保持するメモリと評価ごとのビニングのコストが異なる値の個数に比例するようになる. <br>
+ * 集約するかどうかは, {@link CardinalityEstimation} による異なる値の個数の概算から決める
+ * ({@link #isWorthwhile(double[])} を参照).
+ * </p>
+ * 
+ * <p>
+ * 集約されたソースは昇順 (2次元の場合は (x, y) の辞書式順序) に並べられている. <br>
+ * 値の比較は {@code ==} で行うため, {@code -0d} と {@code 0d} は同一の値として集約される
+ * (ビニングの結果は変わらない).
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class SourceDeduplication {
+
+    /**
+     * 集約を検討するソースの最小サイズ.
+     */
+    static final int MIN_SOURCE_SIZE = 1 << 12;
+
+    /**
+     * 集約を行う場合の, ソースのサイズに対する異なる値の個数の割合の最大値.
+     */
+    static final double MAX_DISTINCT_FRACTION = 0.25;
+
+    private SourceDeduplication() {
+        // インスタンス化不可
+        throw new AssertionError();
+    }
+
+    /**
+     * 1次元ソースの重複を集約する価値があるかを, 異なる値の個数の概算から判定する.
+     * 
+     * @param source ソース
+     * @return 集約する価値があるならば true
+     */
+    static boolean isWorthwhile(double[] source) {
+        return source.length >= MIN_SOURCE_SIZE
+                && CardinalityEstimation.estimateDistinct(source) <= source.length * MAX_DISTINCT_FRACTION;
+    }
+
+    /**
+     * 2次元ソースの重複を集約する価値があるかを, 異なる点の個数の概算から判定する.
+     * 
+     * @param source ソース
+     * @return 集約する価値があるならば true
+     */
+    static boolean isWorthwhile(Kde2DSourceDto source) {
+        return source.size >= MIN_SOURCE_SIZE
+                && CardinalityEstimation.estimateDistinct(source) <= source.size * MAX_DISTINCT_FRACTION;
+    }
+
+    /**
+     * 1次元ソースを並べ替え, 重複を集約した重み付きソースを返す. <br>
+     * 重みを持つ場合, 重複した値の重みの和を集約後の重みとする.
+     * 
+     * <p>
+     * ソースが格子上の値 (整数, 固定小数点の小数) からなる場合は,
+     * 並べ替えの代わりに {@link LatticeHistogram} による計数で集約する. <br>
+     * 与えた配列は並べ替えのために書き換えられる可能性がある.
+     * </p>
+     * 
+     * @param values 値
+     * @param weights 重み (重みを持たない場合は null)
+     * @return 集約された, 昇順のソース
+     */
+    static BinningSource1D collapse(double[] values, double[] weights) {
+        // 格子上のソースであれば, 並べ替えずに計数で集約する
+        LatticeHistogram lattice = LatticeHistogram.of(values, weights);
+        if (lattice != null) {
+            return lattice.toBinningSource();
+        }
+
+        if (weights == null) {
+            SourceSorting.sort(values);
+        } else {
+            SourceSorting.sort(values, weights);
+        }
+
+        final int size = values.length;
+        double[] collapsedValues = new double[size];
+        double[] collapsedWeights = new double[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            double w = weights == null ? 1d : weights[i];
+            if (count > 0 && values[i] == collapsedValues[count - 1]) {
+                collapsedWeights[count - 1] += w;
+            } else {
+                collapsedValues[count] = values[i];
+                collapsedWeights[count] = w;
+                count++;
+            }
+        }
+        return BinningSource1D.of(
+                Arrays.copyOf(collapsedValues, count), Arrays.copyOf(collapsedWeights, count), true);
+    }
+
+    /**
+     * 2次元ソースを並べ替え, 重複を集約した重み付きソースを返す. <br>
+     * 重みを持つ場合, 重複した点の重みの和を集約後の重みとする.
+     * 
+     * <p>
+     * 与えたソースと重みは並べ替えのために書き換えられる.
+     * </p>
+     * 
+     * @param points 点
+     * @param weights 重み (重みを持たない場合は null)
+     * @return 集約された, (x, y) の辞書式順序で昇順のソース
+     */
+    static BinningSource2D collapse(Kde2DSourceDto points, double[] weights) {
+        SourceSorting.sortByXThenY(points, weights);
+
+        final int size = points.size;
+        final double[] x = points.x;
+        final double[] y = points.y;
+        double[] collapsedWeights = new double[size];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            double w = weights == null ? 1d : weights[i];
+            if (count > 0 && x[i] == x[count - 1] && y[i] == y[count - 1]) {
+                collapsedWeights[count - 1] += w;
+            } else {
+                // count <= i なので, 前方へ詰めて書き込んでよい
+                x[count] = x[i];
+                y[count] = y[i];
+                collapsedWeights[count] = w;
+                count++;
+            }
+        }
+
+        Kde2DSourceDto collapsedPoints = new Kde2DSourceDto(count);
+        System.arraycopy(x, 0, collapsedPoints.x, 0, count);
+        System.arraycopy(y, 0, collapsedPoints.y, 0, count);
+        return BinningSource2D.of(collapsedPoints, Arrays.copyOf(collapsedWeights, count), true);
+    }
+}
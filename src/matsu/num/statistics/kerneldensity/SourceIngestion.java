@@ -0,0 +1,535 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * ファクトリに与えられたソースの取り込みを, 1度の走査で行う. <br>
+ * パッケージ外には公開されない.
+ * 
+ * <p>
+ * 取り込みでは, ソースの防御的コピー, 正当性の検証,
+ * バンド幅の計算に用いるモーメント (重みの総和, 平均, 標準偏差, 有効サンプルサイズ)
+ * の集計を, 要素ごとにまとめて行う. <br>
+ * これにより, コピー, 検証, 多パスの標準偏差の計算を順に行う場合の
+ * 6回以上の走査が, 1回の走査 (サイズが大きい場合は並列) になる.
+ * </p>
+ * 
+ * <p>
+ * モーメントは {@link MomentAccumulator} により集計し,
+ * 並列に集計した部分の結果は, 部分の順序を保ったまま結合する. <br>
+ * したがって, 結果は決定的であり,
+ * 多パスの標準偏差の計算と, 相対誤差 1E-12 程度で一致する. <br>
+ * 巨大な値や無限大を含む場合の扱いは {@link MomentAccumulator} に従う
+ * (無限大は集計においてのみ有限の境界値に修正され, コピーされた値は修正されない).
+ * </p>
+ * 
+ * <p>
+ * バッファで保持されたソース ({@link BinningSource1D#of(java.nio.DoubleBuffer)} など) は,
+ * コピーせずに, 検証, モーメントと台の集計のみを1度の走査で行う
+ * ({@link #scan(BinningSource1D)}, {@link #scan(BinningSource2D)}).
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class SourceIngestion {
+
+    /**
+     * 並列に取り込みを行う, ソースの最小サイズ.
+     */
+    static final int MIN_SOURCE_SIZE_IN_PARALLEL = 1 << 16;
+
+    /**
+     * 並列に取り込む場合の, 部分のサイズ.
+     */
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    /**
+     * バッファで保持されたソースを走査する場合の, 部分の最大個数. <br>
+     * ソースが大きい場合は, 部分のサイズを {@link #CHUNK_SIZE} より大きくする.
+     */
+    private static final int MAX_SCAN_PART_COUNT = 1 << 16;
+
+    /**
+     * バッファで保持されたソースを, 一時配列に読み込む単位.
+     */
+    private static final int STAGE_SIZE = 1 << 12;
+
+    private SourceIngestion() {
+        // インスタンス化不可
+        throw new AssertionError();
+    }
+
+    /**
+     * 1次元のソースを取り込む.
+     * 
+     * <p>
+     * ソースが {@link KernelDensity1D.Factory#validateSource(double[])}
+     * の条件を満たさない場合は, {@code null} を返す.
+     * </p>
+     * 
+     * @param source ソース
+     * @return 取り込んだソース, 不正な場合は null
+     * @throws NullPointerException 引数がnullの場合
+     */
+    static Source1D of(double[] source) {
+        final int size = source.length;
+        if (size == 0) {
+            return null;
+        }
+        final double[] values = new double[size];
+        MomentAccumulator moments = aggregate(size, (from, to) -> copyAndAccumulate(source, values, from, to));
+        if (moments == null) {
+            return null;
+        }
+        return new Source1D(values, null, moments);
+    }
+
+    /**
+     * 重み付きの1次元のソースを取り込む.
+     * 
+     * <p>
+     * ソースが {@link KernelDensity1D.Factory#validateSource(double[], double[])}
+     * の条件を満たさない場合は, {@code null} を返す.
+     * </p>
+     * 
+     * @param values 値
+     * @param weights 重み
+     * @return 取り込んだソース, 不正な場合は null
+     * @throws NullPointerException 引数がnullの場合
+     */
+    static Source1D of(double[] values, double[] weights) {
+        final int size = values.length;
+        if (size == 0 || size != weights.length) {
+            return null;
+        }
+        final double[] valuesCopy = new double[size];
+        final double[] weightsCopy = new double[size];
+        MomentAccumulator moments = aggregate(size,
+                (from, to) -> copyAndAccumulate(values, weights, valuesCopy, weightsCopy, from, to));
+        if (moments == null || !hasValidTotalWeight(moments)) {
+            return null;
+        }
+        return new Source1D(valuesCopy, weightsCopy, moments);
+    }
+
+    /**
+     * 2次元のソースを取り込む.
+     * 
+     * <p>
+     * ソースが {@link KernelDensity2D.Factory#validateSource(Kde2DSourceDto)}
+     * の条件を満たさない場合は, {@code null} を返す.
+     * </p>
+     * 
+     * @param source ソース
+     * @return 取り込んだソース, 不正な場合は null
+     * @throws NullPointerException 引数がnullの場合
+     */
+    static Source2D of(Kde2DSourceDto source) {
+        final int size = source.size;
+        final Kde2DSourceDto points = new Kde2DSourceDto(size);
+        MomentAccumulator[] moments = aggregate2D(size, (from, to) -> new MomentAccumulator[] {
+                copyAndAccumulate(source.x, points.x, from, to),
+                copyAndAccumulate(source.y, points.y, from, to) });
+        if (moments == null) {
+            return null;
+        }
+        return new Source2D(points, null, moments[0], moments[1]);
+    }
+
+    /**
+     * 重み付きの2次元のソースを取り込む. <br>
+     * 座標と重みは分けて保持される.
+     * 
+     * <p>
+     * ソースが {@link KernelDensity2D.Factory#validateSource(Kde2DWeightedSourceDto)}
+     * の条件を満たさない場合は, {@code null} を返す.
+     * </p>
+     * 
+     * @param source ソース
+     * @return 取り込んだソース, 不正な場合は null
+     * @throws NullPointerException 引数がnullの場合
+     */
+    static Source2D of(Kde2DWeightedSourceDto source) {
+        final int size = source.size;
+        final Kde2DSourceDto points = new Kde2DSourceDto(size);
+        final double[] weights = new double[size];
+        MomentAccumulator[] moments = aggregate2D(size, (from, to) -> new MomentAccumulator[] {
+                copyAndAccumulate(source.x, source.weight, points.x, weights, from, to),
+                copyAndAccumulate(source.y, source.weight, points.y, null, from, to) });
+        if (moments == null || !hasValidTotalWeight(moments[0])) {
+            return null;
+        }
+        return new Source2D(points, weights, moments[0], moments[1]);
+    }
+
+    /**
+     * (バッファで保持された) 1次元のソースを, コピーせずに走査する.
+     * 
+     * <p>
+     * ソースが NaN を含む場合は {@code null} を返す.
+     * </p>
+     * 
+     * @param source 重みを持たないソース
+     * @return 走査結果, 不正な場合は null
+     */
+    static ScannedAxis scan(BinningSource1D source) {
+        assert source.weights == null;
+        AxisScan[] parts = scanParts(source.size, (from, to) -> {
+            AxisScan part = new AxisScan();
+            double[] stage = DoubleArrayWorkspace.borrow(STAGE_SIZE);
+            try {
+                for (long s = from; s < to; s += STAGE_SIZE) {
+                    int length = (int) Math.min(STAGE_SIZE, to - s);
+                    source.readValues(s, length, stage);
+                    if (!part.acceptAll(stage, length)) {
+                        return null;
+                    }
+                }
+            } finally {
+                DoubleArrayWorkspace.release(stage);
+            }
+            return part;
+        }, AxisScan[]::new);
+        return AxisScan.combine(parts);
+    }
+
+    /**
+     * (バッファで保持された) 2次元のソースを, コピーせずに走査する. <br>
+     * 結果は x, y の順の長さ2の配列である.
+     * 
+     * <p>
+     * ソースが NaN を含む場合は {@code null} を返す.
+     * </p>
+     * 
+     * @param source 重みを持たないソース
+     * @return 走査結果, 不正な場合は null
+     */
+    static ScannedAxis[] scan(BinningSource2D source) {
+        assert source.weights == null;
+        AxisScan[][] parts = scanParts(source.size, (from, to) -> {
+            AxisScan[] part = { new AxisScan(), new AxisScan() };
+            double[] stageX = DoubleArrayWorkspace.borrow(STAGE_SIZE);
+            double[] stageY = DoubleArrayWorkspace.borrow(STAGE_SIZE);
+            try {
+                for (long s = from; s < to; s += STAGE_SIZE) {
+                    int length = (int) Math.min(STAGE_SIZE, to - s);
+                    source.readPoints(s, length, stageX, stageY);
+                    if (!part[0].acceptAll(stageX, length) || !part[1].acceptAll(stageY, length)) {
+                        return null;
+                    }
+                }
+            } finally {
+                DoubleArrayWorkspace.release(stageX);
+                DoubleArrayWorkspace.release(stageY);
+            }
+            return part;
+        }, AxisScan[][]::new);
+
+        AxisScan[] partsX = new AxisScan[parts.length];
+        AxisScan[] partsY = new AxisScan[parts.length];
+        for (int c = 0; c < parts.length; c++) {
+            if (parts[c] == null) {
+                return null;
+            }
+            partsX[c] = parts[c][0];
+            partsY[c] = parts[c][1];
+        }
+        return new ScannedAxis[] { AxisScan.combine(partsX), AxisScan.combine(partsY) };
+    }
+
+    /**
+     * 重みの総和が正で有限であるかを判定する.
+     */
+    private static boolean hasValidTotalWeight(MomentAccumulator moments) {
+        double totalWeight = moments.totalWeight();
+        return totalWeight > 0d && Double.isFinite(totalWeight);
+    }
+
+    /**
+     * [0, size) を部分に分けて集計し, 部分の順序を保って結合する. <br>
+     * いずれかの部分が不正 (null) ならば null を返す.
+     */
+    private static MomentAccumulator aggregate(int size, ChunkAccumulator<MomentAccumulator> accumulator) {
+        MomentAccumulator[] parts = aggregateParts(size, accumulator, MomentAccumulator[]::new);
+        for (MomentAccumulator part : parts) {
+            if (part == null) {
+                return null;
+            }
+        }
+        return MomentAccumulator.combine(parts);
+    }
+
+    /**
+     * 2軸分の {@link #aggregate(int, ChunkAccumulator)}.
+     */
+    private static MomentAccumulator[] aggregate2D(int size, ChunkAccumulator<MomentAccumulator[]> accumulator) {
+        MomentAccumulator[][] parts = aggregateParts(size, accumulator, MomentAccumulator[][]::new);
+        MomentAccumulator[] partsX = new MomentAccumulator[parts.length];
+        MomentAccumulator[] partsY = new MomentAccumulator[parts.length];
+        for (int c = 0; c < parts.length; c++) {
+            if (parts[c][0] == null || parts[c][1] == null) {
+                return null;
+            }
+            partsX[c] = parts[c][0];
+            partsY[c] = parts[c][1];
+        }
+        return new MomentAccumulator[] { MomentAccumulator.combine(partsX), MomentAccumulator.combine(partsY) };
+    }
+
+    /**
+     * [0, size) を部分に分けて (サイズが大きい場合は並列に) 集計し, 部分ごとの結果を返す.
+     */
+    private static <T> T[] aggregateParts(
+            int size, ChunkAccumulator<T> accumulator, IntFunction<T[]> generator) {
+        if (size < MIN_SOURCE_SIZE_IN_PARALLEL) {
+            T[] out = generator.apply(1);
+            out[0] = accumulator.accumulate(0, size);
+            return out;
+        }
+        final int chunkCount = (size - 1) / CHUNK_SIZE + 1;
+        return IntStream.range(0, chunkCount)
+                .parallel()
+                .mapToObj(c -> accumulator.accumulate(c * CHUNK_SIZE, Math.min(size, (c + 1) * CHUNK_SIZE)))
+                .toArray(generator);
+    }
+
+    /**
+     * [0, size) を部分に分けて (サイズが大きい場合は並列に) 走査し, 部分ごとの結果を返す. <br>
+     * size は int の範囲を超えてもよい.
+     */
+    private static <T> T[] scanParts(long size, RangeScanner<T> scanner, IntFunction<T[]> generator) {
+        if (size < MIN_SOURCE_SIZE_IN_PARALLEL) {
+            T[] out = generator.apply(1);
+            out[0] = scanner.scan(0L, size);
+            return out;
+        }
+        final long partSize = Math.max(CHUNK_SIZE, (size - 1) / MAX_SCAN_PART_COUNT + 1);
+        final int partCount = (int) ((size - 1) / partSize + 1);
+        return IntStream.range(0, partCount)
+                .parallel()
+                .mapToObj(c -> scanner.scan(c * partSize, Math.min(size, (c + 1) * partSize)))
+                .toArray(generator);
+    }
+
+    /**
+     * src の [from, to) を dest にコピーしながら集計する. <br>
+     * NaN を含む場合は null を返す.
+     */
+    private static MomentAccumulator copyAndAccumulate(double[] src, double[] dest, int from, int to) {
+        MomentAccumulator moments = new MomentAccumulator();
+        for (int i = from; i < to; i++) {
+            double v = src[i];
+            if (Double.isNaN(v)) {
+                return null;
+            }
+            dest[i] = v;
+            moments.accept(v);
+        }
+        return moments;
+    }
+
+    /**
+     * 値と重みの [from, to) をコピーしながら集計する. <br>
+     * 重みのコピー先が null の場合は, 重みはコピーしない. <br>
+     * 値が NaN, 重みが負, 無限大, NaN の要素を含む場合は null を返す.
+     */
+    private static MomentAccumulator copyAndAccumulate(
+            double[] srcValues, double[] srcWeights, double[] destValues, double[] destWeights,
+            int from, int to) {
+        MomentAccumulator moments = new MomentAccumulator();
+        for (int i = from; i < to; i++) {
+            double v = srcValues[i];
+            double w = srcWeights[i];
+            if (Double.isNaN(v) || !(w >= 0d && w < Double.POSITIVE_INFINITY)) {
+                return null;
+            }
+            destValues[i] = v;
+            if (destWeights != null) {
+                destWeights[i] = w;
+            }
+            moments.accept(v, w);
+        }
+        return moments;
+    }
+
+    /**
+     * 区間 [from, to) を集計する関数.
+     */
+    @FunctionalInterface
+    private static interface ChunkAccumulator<T> {
+
+        T accumulate(int from, int to);
+    }
+
+    /**
+     * 区間 [from, to) を走査する関数 ({@code long} の位置).
+     */
+    @FunctionalInterface
+    private static interface RangeScanner<T> {
+
+        T scan(long from, long to);
+    }
+
+    /**
+     * 1軸分の, 走査の途中結果.
+     */
+    private static final class AxisScan {
+
+        final MomentAccumulator moments = new MomentAccumulator();
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+
+        AxisScan() {
+            super();
+        }
+
+        /**
+         * values の先頭 length 個を集計する. <br>
+         * NaN を含む場合は false を返す.
+         */
+        boolean acceptAll(double[] values, int length) {
+            for (int i = 0; i < length; i++) {
+                double v = values[i];
+                if (Double.isNaN(v)) {
+                    return false;
+                }
+                moments.accept(v);
+                if (Double.isFinite(v)) {
+                    min = Math.min(min, v);
+                    max = Math.max(max, v);
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 部分ごとの途中結果を結合する. <br>
+         * いずれかの部分が不正 (null) ならば null を返す.
+         */
+        static ScannedAxis combine(AxisScan[] parts) {
+            MomentAccumulator[] moments = new MomentAccumulator[parts.length];
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int c = 0; c < parts.length; c++) {
+                if (parts[c] == null) {
+                    return null;
+                }
+                moments[c] = parts[c].moments;
+                min = Math.min(min, parts[c].min);
+                max = Math.max(max, parts[c].max);
+            }
+            return new ScannedAxis(MomentAccumulator.combine(moments),
+                    min <= max
+                            ? new SupportWindow(min, max)
+                            : new SupportWindow(Double.NaN, Double.NaN));
+        }
+    }
+
+    /**
+     * 走査された, 1軸分のソースの統計量.
+     */
+    static final class ScannedAxis {
+
+        /**
+         * 標準偏差.
+         */
+        final double std;
+
+        /**
+         * サンプルサイズ.
+         */
+        final double sampleSize;
+
+        /**
+         * 台.
+         */
+        final SupportWindow support;
+
+        private ScannedAxis(MomentAccumulator moments, SupportWindow support) {
+            super();
+            this.std = moments.std();
+            this.sampleSize = moments.sampleSize();
+            this.support = support;
+        }
+    }
+
+    /**
+     * 取り込まれた1次元のソース.
+     */
+    static final class Source1D {
+
+        /**
+         * 値のコピー.
+         */
+        final double[] values;
+
+        /**
+         * 重みのコピー (重みを持たない場合は null).
+         */
+        final double[] weights;
+
+        /**
+         * (重み付き) 標準偏差.
+         */
+        final double std;
+
+        /**
+         * (有効) サンプルサイズ.
+         */
+        final double sampleSize;
+
+        private Source1D(double[] values, double[] weights, MomentAccumulator moments) {
+            super();
+            this.values = values;
+            this.weights = weights;
+            this.std = moments.std();
+            this.sampleSize = moments.sampleSize();
+        }
+    }
+
+    /**
+     * 取り込まれた2次元のソース.
+     */
+    static final class Source2D {
+
+        /**
+         * 点のコピー.
+         */
+        final Kde2DSourceDto points;
+
+        /**
+         * 重みのコピー (重みを持たない場合は null).
+         */
+        final double[] weights;
+
+        /**
+         * x, y の (重み付き) 標準偏差.
+         */
+        final double stdX, stdY;
+
+        /**
+         * (有効) サンプルサイズ.
+         */
+        final double sampleSize;
+
+        private Source2D(Kde2DSourceDto points, double[] weights, MomentAccumulator momentsX, MomentAccumulator momentsY) {
+            super();
+            this.points = points;
+            this.weights = weights;
+            this.stdX = momentsX.std();
+            this.stdY = momentsY.std();
+            this.sampleSize = momentsX.sampleSize();
+        }
+    }
+}
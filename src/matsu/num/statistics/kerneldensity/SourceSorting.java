@@ -0,0 +1,177 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Arrays;
+
+/**
+ * ソース (重み付きを含む) の並べ替えを扱う.
+ * 
+ * <p>
+ * 昇順に並べ替えたソースは, 評価範囲に寄与しうる点の区間を二分探索で求めることができ,
+ * 評価ごとのビニングのコストを O(log <i>N</i> + <i>k</i>) にできる
+ * ({@link Mesh1D}, {@link Mesh2D} を参照).
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class SourceSorting {
+
+    /**
+     * 基数ソートの1パスで扱うビット数.
+     */
+    private static final int RADIX_BITS = 8;
+
+    private SourceSorting() {
+        // インスタンス化不可
+        throw new AssertionError();
+    }
+
+    /**
+     * 1次元ソースを昇順に並べ替える.
+     * 
+     * @param source ソース (NaN を含まない)
+     */
+    static void sort(double[] source) {
+        Arrays.parallelSort(source);
+    }
+
+    /**
+     * 重み付きの1次元ソースを昇順に並べ替える (重みは対応する値とともに移動する). <br>
+     * 並べ替えは安定である.
+     * 
+     * @param source ソース (NaN を含まない)
+     * @param weights 重み, ソースと同じ長さ
+     */
+    static void sort(double[] source, double[] weights) {
+        radixSort(source, source.length, weights);
+    }
+
+    /**
+     * 2次元ソースを, x について昇順に並べ替える (y は対応する x とともに移動する). <br>
+     * 並べ替えは安定である.
+     * 
+     * @param source ソース (NaN を含まない)
+     */
+    static void sortByX(Kde2DSourceDto source) {
+        radixSort(source.x, source.size, source.y);
+    }
+
+    /**
+     * 重み付きの2次元ソースを, x について昇順に並べ替える
+     * (y と重みは対応する x とともに移動する). <br>
+     * 並べ替えは安定である.
+     * 
+     * @param source ソース (NaN を含まない)
+     * @param weights 重み, ソースと同じサイズ
+     */
+    static void sortByX(Kde2DSourceDto source, double[] weights) {
+        radixSort(source.x, source.size, source.y, weights);
+    }
+
+    /**
+     * 2次元ソースを, (x, y) の辞書式順序で昇順に並べ替える
+     * (重みは対応する点とともに移動する). <br>
+     * 並べ替えは安定である.
+     * 
+     * @param source ソース (NaN を含まない)
+     * @param weights 重み, ソースと同じサイズ (重みを持たない場合は null)
+     */
+    static void sortByXThenY(Kde2DSourceDto source, double[] weights) {
+        // y で並べ替えた後, x で安定に並べ替える
+        if (weights == null) {
+            radixSort(source.y, source.size, source.x);
+            radixSort(source.x, source.size, source.y);
+        } else {
+            radixSort(source.y, source.size, source.x, weights);
+            radixSort(source.x, source.size, source.y, weights);
+        }
+    }
+
+    /**
+     * keys を昇順に並べ替え, payloads の各配列を対応する key とともに移動する. <br>
+     * 並べ替えは安定である.
+     * 
+     * <p>
+     * key のビット列を順序を保つ整数に変換し, LSD 基数ソートする. <br>
+     * 作業領域として, サイズ size の {@code long} 配列2個と,
+     * payload ごとに {@code double} 配列1個を使用する.
+     * </p>
+     * 
+     * @param keys キー (NaN を含まない)
+     * @param size サイズ, 1以上
+     * @param payloads キーとともに移動する配列
+     */
+    private static void radixSort(double[] keys, int size, double[]... payloads) {
+        long[] bits = new long[size];
+        for (int i = 0; i < size; i++) {
+            bits[i] = toSortableBits(keys[i]);
+        }
+
+        final int payloadCount = payloads.length;
+        long[] bitsBuffer = new long[size];
+        double[][] current = payloads.clone();
+        double[][] buffer = new double[payloadCount][size];
+        final int bucketCount = 1 << RADIX_BITS;
+        final long mask = bucketCount - 1;
+        for (int shift = 0; shift < Long.SIZE; shift += RADIX_BITS) {
+            int[] position = new int[bucketCount + 1];
+            for (int i = 0; i < size; i++) {
+                position[(int) ((bits[i] >>> shift) & mask) + 1]++;
+            }
+            if (position[(int) ((bits[0] >>> shift) & mask) + 1] == size) {
+                // 全ての要素が同じバケットに属する場合, このパスは不要
+                continue;
+            }
+            for (int b = 0; b < bucketCount; b++) {
+                position[b + 1] += position[b];
+            }
+            for (int i = 0; i < size; i++) {
+                int p = position[(int) ((bits[i] >>> shift) & mask)]++;
+                bitsBuffer[p] = bits[i];
+                for (int q = 0; q < payloadCount; q++) {
+                    buffer[q][p] = current[q][i];
+                }
+            }
+
+            long[] swapBits = bits;
+            bits = bitsBuffer;
+            bitsBuffer = swapBits;
+            double[][] swap = current;
+            current = buffer;
+            buffer = swap;
+        }
+
+        for (int i = 0; i < size; i++) {
+            keys[i] = fromSortableBits(bits[i]);
+        }
+        for (int q = 0; q < payloadCount; q++) {
+            if (current[q] != payloads[q]) {
+                System.arraycopy(current[q], 0, payloads[q], 0, size);
+            }
+        }
+    }
+
+    /**
+     * double 値を, 符号なし整数としての大小が {@link Double#compare(double, double)} に一致するビット列に変換する.
+     */
+    private static long toSortableBits(double v) {
+        long bits = Double.doubleToRawLongBits(v);
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * {@link #toSortableBits(double)} の逆変換.
+     */
+    private static double fromSortableBits(long sortable) {
+        return Double.longBitsToDouble(sortable < 0 ? sortable ^ Long.MIN_VALUE : ~sortable);
+    }
+}
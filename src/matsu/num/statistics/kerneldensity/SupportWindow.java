@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.stream.DoubleStream;
+
+/**
+ * ソースの台 (データが存在する範囲) の近傍に限定して評価するための, 1軸分の計算を扱う.
+ * 
+ * <p>
+ * 評価範囲のうち, ソースの台からカーネルが届く範囲
+ * (台の両側に {@link #SUPPORT_REACH} * バンド幅だけ広げた範囲)
+ * との共通部分を実効範囲とする. <br>
+ * 実効範囲の外側の密度は0とみなしてよい
+ * (ガウシアンフィルタは標準偏差の4倍で打ち切られている).
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class SupportWindow {
+
+    /**
+     * 台を広げる幅の, バンド幅に対する倍率. <br>
+     * フィルタの打ち切り (標準偏差の4倍) と線形ビニングの広がりに余裕を持たせた値である.
+     */
+    static final double SUPPORT_REACH = 5d;
+
+    /**
+     * ソースの有限値の最小値. <br>
+     * 有限値が存在しない場合は NaN.
+     */
+    final double supportMin;
+
+    /**
+     * ソースの有限値の最大値. <br>
+     * 有限値が存在しない場合は NaN.
+     */
+    final double supportMax;
+
+    /**
+     * ソースを走査して, 台を計算する.
+     * 
+     * @param source ソース
+     */
+    SupportWindow(double[] source) {
+        super();
+
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double v : source) {
+            if (!Double.isFinite(v)) {
+                continue;
+            }
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        this.supportMin = min <= max ? min : Double.NaN;
+        this.supportMax = min <= max ? max : Double.NaN;
+    }
+
+    /**
+     * ソースの有限値の最小値と最大値を与えて, 台を構築する. <br>
+     * 有限値が存在しない場合は, いずれも NaN を与える.
+     * 
+     * @param supportMin 最小値
+     * @param supportMax 最大値
+     */
+    SupportWindow(double supportMin, double supportMax) {
+        super();
+
+        assert (Double.isNaN(supportMin) && Double.isNaN(supportMax)) || supportMin <= supportMax;
+        this.supportMin = supportMin;
+        this.supportMax = supportMax;
+    }
+
+    /**
+     * 評価範囲と, 台からバンド幅の {@link #SUPPORT_REACH} 倍だけ広げた範囲との共通部分を返す. <br>
+     * 共通部分が空の場合 (有限値のソースが存在しない場合を含む) は null を返す.
+     * 
+     * @param range 評価範囲
+     * @param bandWidth バンド幅
+     * @return 実効範囲, 空の場合は null
+     */
+    Range effectiveRange(Range range, double bandWidth) {
+        if (Double.isNaN(supportMin)) {
+            return null;
+        }
+        double reach = SUPPORT_REACH * bandWidth;
+        double min = Math.max(range.min(), supportMin - reach);
+        double max = Math.min(range.max(), supportMax + reach);
+        return min <= max ? Range.of(min, max) : null;
+    }
+
+    /**
+     * range を resolution 間隔で分割したメッシュ配列を構成する. <br>
+     * 値は, range.min() から resolution を累積加算したものである.
+     * 
+     * @param range 範囲
+     * @param resolution 空間分解能, 正の値
+     * @return メッシュ
+     */
+    static double[] mesh(Range range, double resolution) {
+        return DoubleStream
+                .iterate(range.min(), v -> v <= range.max(), v -> v + resolution)
+                .toArray();
+    }
+
+    /**
+     * 昇順のメッシュのうち, 値が [min, max] に含まれる部分の index 区間
+     * {@code [from, to)} を返す. <br>
+     * 空の場合は {@code from == to} となる.
+     * 
+     * @param mesh 昇順のメッシュ
+     * @param min 下限
+     * @param max 上限
+     * @return {@code {from, to}}
+     */
+    static int[] indexWindow(double[] mesh, double min, double max) {
+        int from = DoubleValueUtil.lowerBound(mesh, min);
+        int to = Math.max(from, DoubleValueUtil.upperBound(mesh, max));
+        return new int[] { from, to };
+    }
+}
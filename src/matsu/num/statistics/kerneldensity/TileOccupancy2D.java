@@ -0,0 +1,165 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.stream.IntStream;
+
+/**
+ * 行優先の行列をタイルに区切ったときの, 各タイルが非ゼロの要素を含むかどうかを表す. <br>
+ * イミュータブルである.
+ * 
+ * <p>
+ * タイルは {@link #TILE_SIZE} 四方であり, 行列の端のタイルは小さくなる. <br>
+ * タイル (tj, tk) は, 行 {@code [tj * TILE_SIZE, (tj + 1) * TILE_SIZE)},
+ * 列 {@code [tk * TILE_SIZE, (tk + 1) * TILE_SIZE)} を担当する.
+ * </p>
+ * 
+ * <p>
+ * 占有されていない (非ゼロの要素を含まない) とされたタイルの要素は必ず0であるが,
+ * 逆は必ずしも成り立たない ({@link #dilateColumns(int)} は過大に見積もる).
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class TileOccupancy2D {
+
+    /**
+     * タイルの一辺のセル数.
+     */
+    static final int TILE_SIZE = 32;
+
+    /**
+     * 並列実行に適する場合の, 行列の要素数の最低値.
+     */
+    private static final int MIN_SIZE_IN_PARALLEL = 1 << 16;
+
+    final int rows;
+    final int cols;
+    final int tileRows;
+    final int tileCols;
+
+    /**
+     * タイル (tj, tk) の占有状態は {@code occupied[tj * tileCols + tk]}.
+     */
+    private final boolean[] occupied;
+
+    private TileOccupancy2D(int rows, int cols, boolean[] occupied) {
+        super();
+        this.rows = rows;
+        this.cols = cols;
+        this.tileRows = tileCount(rows);
+        this.tileCols = tileCount(cols);
+        this.occupied = occupied;
+    }
+
+    /**
+     * 行列を走査して, タイルの占有状態を構築する.
+     * 
+     * @param matrix 行列, 長さは {@code rows * cols}
+     * @param rows 行数
+     * @param cols 列数
+     * @return タイルの占有状態
+     */
+    static TileOccupancy2D of(double[] matrix, int rows, int cols) {
+        assert matrix.length == rows * cols;
+
+        final int tileRows = tileCount(rows);
+        final int tileCols = tileCount(cols);
+        final boolean[] occupied = new boolean[tileRows * tileCols];
+
+        IntStream stream = IntStream.range(0, tileRows);
+        if ((long) rows * cols >= MIN_SIZE_IN_PARALLEL) {
+            stream = stream.parallel();
+        }
+        stream.forEach(tj -> {
+            int tileOffset = tj * tileCols;
+            for (int j = tj * TILE_SIZE, jEnd = Math.min(rows, (tj + 1) * TILE_SIZE); j < jEnd; j++) {
+                int offset = j * cols;
+                for (int k = 0; k < cols; k++) {
+                    if (matrix[offset + k] != 0d) {
+                        occupied[tileOffset + k / TILE_SIZE] = true;
+                    }
+                }
+            }
+        });
+
+        return new TileOccupancy2D(rows, cols, occupied);
+    }
+
+    /**
+     * タイル (tj, tk) が占有されているかを返す.
+     */
+    boolean isOccupied(int tj, int tk) {
+        return occupied[tj * tileCols + tk];
+    }
+
+    /**
+     * 占有されているタイルの割合を返す.
+     * 
+     * @return 占有されているタイルの割合
+     */
+    double occupiedFraction() {
+        int count = 0;
+        for (boolean b : occupied) {
+            if (b) {
+                count++;
+            }
+        }
+        return (double) count / occupied.length;
+    }
+
+    /**
+     * 列方向 (行の内部) に, 各行の非ゼロ要素が extent セルだけ広がった場合の占有状態を返す. <br>
+     * 広がりはタイル単位で見積もるため, 過大になりうる.
+     * 
+     * @param extent 広がりのセル数, 0以上
+     * @return 広げた占有状態
+     */
+    TileOccupancy2D dilateColumns(int extent) {
+        final int reach = tileCount(extent);
+        boolean[] dilated = new boolean[occupied.length];
+        for (int tj = 0; tj < tileRows; tj++) {
+            int tileOffset = tj * tileCols;
+            for (int tk = 0; tk < tileCols; tk++) {
+                if (!occupied[tileOffset + tk]) {
+                    continue;
+                }
+                for (int t = Math.max(0, tk - reach),
+                        tEnd = Math.min(tileCols, tk + reach + 1); t < tEnd; t++) {
+                    dilated[tileOffset + t] = true;
+                }
+            }
+        }
+        return new TileOccupancy2D(rows, cols, dilated);
+    }
+
+    /**
+     * 転置した行列に対する占有状態を返す.
+     * 
+     * @return 転置した占有状態
+     */
+    TileOccupancy2D transpose() {
+        boolean[] transposed = new boolean[occupied.length];
+        for (int tj = 0; tj < tileRows; tj++) {
+            for (int tk = 0; tk < tileCols; tk++) {
+                transposed[tk * tileRows + tj] = occupied[tj * tileCols + tk];
+            }
+        }
+        return new TileOccupancy2D(cols, rows, transposed);
+    }
+
+    /**
+     * 長さ length を担当するタイルの個数.
+     */
+    private static int tileCount(int length) {
+        return (length + TILE_SIZE - 1) / TILE_SIZE;
+    }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * 2次元の線形ビニングを, 点をタイルごとに並べ替えてから行う.
+ * 
+ * <p>
+ * 格子が大きい場合, 入力順のままに重み配列へ加算すると,
+ * 点ごとに離れた4行へのキャッシュミスが生じる. <br>
+ * このクラスでは, 格子を {@link #TILE_SIZE} 四方のタイルに区切り,
+ * 点をタイルの Morton 順 (Z 順) に安定な計数ソートで並べ替える. <br>
+ * その後, タイルごとに並列に, 局所的な重みブロックへビニングし,
+ * 最後にブロックを Morton 順に重み配列へ加算しながら正規化する.
+ * </p>
+ * 
+ * <p>
+ * 加算順序はスレッドのスケジューリングに依存しないため, 結果は決定的である. <br>
+ * ただし, 入力順のままビニングした場合とは加算順序が異なるため,
+ * 丸め誤差の範囲で結果が異なる.
+ * </p>
+ * 
+ * <p>
+ * 並べ替えのために, 点ごとに {@code double} 2個 (重み付きの場合は3個) の作業領域を使用する. <br>
+ * 作業領域は {@link DoubleArrayWorkspace} から借り受けるため,
+ * 同じソースを繰り返し評価する場合は再利用される
+ * (ただし, 点の個数が {@link DoubleArrayWorkspace#MAX_RETAINED_LENGTH} を超える場合は除く).
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class TiledBinning2D {
+
+    /**
+     * タイルの一辺のセル数 ({@link TileOccupancy2D#TILE_SIZE} と共通).
+     */
+    static final int TILE_SIZE = TileOccupancy2D.TILE_SIZE;
+
+    /**
+     * タイルの局所ブロックの一辺のサイズ (隣接セルへの寄与の分だけ大きい).
+     */
+    private static final int BLOCK_SIZE = TILE_SIZE + 1;
+
+    /**
+     * 点の分割における, 部分の最低サイズ.
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 14;
+
+    /**
+     * 点の分割における, 部分の最大個数.
+     */
+    private static final int MAX_CHUNK_COUNT = 64;
+
+    private TiledBinning2D() {
+        // インスタンス化不可
+        throw new AssertionError();
+    }
+
+    /**
+     * ソースの [from, to) の各要素をその重みで線形ビニングし,
+     * ソース全体の重みの総和で正規化した結果を weight に書き込む.
+     * 
+     * <p>
+     * weight は0埋めされた, 長さが {@code lenX * lenY} の配列でなければならない. <br>
+     * ソースは, 座標を配列 ({@link BinningSource2D#points}) で保持していなければならない.
+     * </p>
+     * 
+     * @param weight 書き込み先, 行優先 (要素 index は {@code j * lenY + k})
+     * @param lenX 行の個数 (X方向のサイズ)
+     * @param lenY 行の長さ (Y方向のサイズ)
+     * @param source ソース
+     * @param from ソースの開始位置 (inclusive)
+     * @param to ソースの終了位置 (exclusive)
+     * @param x0 weight[0][*] の x 座標
+     * @param y0 weight[*][0] の y 座標
+     * @param resolutionX Xの空間分解能
+     * @param resolutionY Yの空間分解能
+     */
+    static void bin(double[] weight, int lenX, int lenY, BinningSource2D source, int from, int to,
+            double x0, double y0, double resolutionX, double resolutionY) {
+
+        // 格子点 index j は -1 <= j < lenX の範囲で寄与するので, j + 1 でタイルを定める
+        final int tilesX = lenX / TILE_SIZE + 1;
+        final int tilesY = lenY / TILE_SIZE + 1;
+        final int tileCount = tilesX * tilesY;
+
+        // Morton 順位 -> タイル座標
+        final int[] tileXOfRank = new int[tileCount];
+        final int[] tileYOfRank = new int[tileCount];
+        // タイル座標 (行優先) -> Morton 順位
+        final int[] rankOfTile = new int[tileCount];
+        prepareMortonOrder(tilesX, tilesY, tileXOfRank, tileYOfRank, rankOfTile);
+
+        assert source.points != null;
+        final double[] sourceX = source.points.x;
+        final double[] sourceY = source.points.y;
+        final double[] sourceWeights = source.weights;
+        final double totalWeight = source.totalWeight;
+        final int sliceLength = to - from;
+        final int chunkCount = Math.max(1, Math.min(MAX_CHUNK_COUNT, sliceLength / MIN_CHUNK_SIZE));
+
+        // 1. 部分ごとに, 各タイル内の点の個数を数える
+        //    所属タイルの Morton 順位は, 手順3で同じ計算により求め直す (点ごとの配列を持たない)
+        final int[][] counts = IntStream.range(0, chunkCount)
+                .parallel()
+                .mapToObj(c -> {
+                    int[] count = new int[tileCount];
+                    for (int i = from + chunkFrom(sliceLength, chunkCount, c),
+                            end = from + chunkFrom(sliceLength, chunkCount, c + 1); i < end; i++) {
+                        int rank = rankOf(
+                                (sourceX[i] - x0) / resolutionX, (sourceY[i] - y0) / resolutionY,
+                                lenX, lenY, tilesY, rankOfTile);
+                        if (rank >= 0) {
+                            count[rank]++;
+                        }
+                    }
+                    return count;
+                })
+                .toArray(int[][]::new);
+
+        // 2. 累積和により, タイルの開始位置と, (部分, タイル) ごとの書き込み位置を得る
+        final int[] tileStart = new int[tileCount + 1];
+        final int[][] writePosition = new int[chunkCount][tileCount];
+        int position = 0;
+        for (int rank = 0; rank < tileCount; rank++) {
+            tileStart[rank] = position;
+            for (int c = 0; c < chunkCount; c++) {
+                writePosition[c][rank] = position;
+                position += counts[c][rank];
+            }
+        }
+        tileStart[tileCount] = position;
+
+        // 3. 安定な計数ソート: 格子点座標系に直した値 (と重み) をタイルの順に並べる
+        //    作業領域の長さは, 評価ごとに変わりうる寄与する点の個数ではなく区間の長さとし, 再利用されやすくする
+        //    ワークスペースはスレッドごとであるため, 呼び出しスレッドで借り受け, 返却する
+        final double[] sortedXR = DoubleArrayWorkspace.borrow(sliceLength);
+        final double[] sortedYR = DoubleArrayWorkspace.borrow(sliceLength);
+        final double[] sortedW = sourceWeights == null ? null : DoubleArrayWorkspace.borrow(sliceLength);
+        IntStream.range(0, chunkCount)
+                .parallel()
+                .forEach(c -> {
+                    int[] writePosition_c = writePosition[c];
+                    for (int i = from + chunkFrom(sliceLength, chunkCount, c),
+                            end = from + chunkFrom(sliceLength, chunkCount, c + 1); i < end; i++) {
+                        double srcXR = (sourceX[i] - x0) / resolutionX;
+                        double srcYR = (sourceY[i] - y0) / resolutionY;
+                        int rank = rankOf(srcXR, srcYR, lenX, lenY, tilesY, rankOfTile);
+                        if (rank < 0) {
+                            continue;
+                        }
+                        int p = writePosition_c[rank]++;
+                        sortedXR[p] = srcXR;
+                        sortedYR[p] = srcYR;
+                        if (sortedW != null) {
+                            sortedW[p] = sourceWeights[i];
+                        }
+                    }
+                });
+
+        // 4. タイルごとに並列に, 局所的な重みブロックへビニングする
+        //    ブロックの [0][0] は, 格子点 (tileX * TILE_SIZE - 1, tileY * TILE_SIZE - 1) に対応する
+        //    ワークスペースはスレッドごとであるため, ブロックは呼び出しスレッドで借り受け, 返却する
+        final double[][] blocks = new double[tileCount][];
+        for (int rank = 0; rank < tileCount; rank++) {
+            if (tileStart[rank] != tileStart[rank + 1]) {
+                blocks[rank] = DoubleArrayWorkspace.borrow(BLOCK_SIZE * BLOCK_SIZE);
+            }
+        }
+        IntStream.range(0, tileCount)
+                .parallel()
+                .forEach(rank -> {
+                    int start = tileStart[rank];
+                    int end = tileStart[rank + 1];
+                    if (start == end) {
+                        return;
+                    }
+                    double[] block = blocks[rank];
+                    int baseJ = tileXOfRank[rank] * TILE_SIZE - 1;
+                    int baseK = tileYOfRank[rank] * TILE_SIZE - 1;
+                    for (int p = start; p < end; p++) {
+                        double srcXR = sortedXR[p];
+                        double srcYR = sortedYR[p];
+                        int j = (int) Math.floor(srcXR);
+                        int k = (int) Math.floor(srcYR);
+                        int index = (j - baseJ) * BLOCK_SIZE + (k - baseK);
+                        double w = sortedW == null ? 1d : sortedW[p];
+                        double w_j = ((j + 1) - srcXR) * w;
+                        double w_jp1 = (srcXR - j) * w;
+
+                        block[index] += w_j * ((k + 1) - srcYR);
+                        block[index + 1] += w_j * (srcYR - k);
+                        block[index + BLOCK_SIZE] += w_jp1 * ((k + 1) - srcYR);
+                        block[index + BLOCK_SIZE + 1] += w_jp1 * (srcYR - k);
+                    }
+                });
+        DoubleArrayWorkspace.release(sortedXR);
+        DoubleArrayWorkspace.release(sortedYR);
+        DoubleArrayWorkspace.release(sortedW);
+
+        // 5. X方向の帯ごとに並列に, ブロックを Morton 順に加算し, 正規化する
+        //    帯 b は行 [b * TILE_SIZE - 1, (b + 1) * TILE_SIZE - 1) を担当する
+        IntStream.range(0, tilesX)
+                .parallel()
+                .forEach(b -> {
+                    int rowFrom = Math.max(0, b * TILE_SIZE - 1);
+                    int rowTo = Math.min(lenX, (b + 1) * TILE_SIZE - 1);
+                    for (int rank = 0; rank < tileCount; rank++) {
+                        double[] block = blocks[rank];
+                        int tileX = tileXOfRank[rank];
+                        if (block == null || (tileX != b && tileX != b - 1)) {
+                            continue;
+                        }
+                        int baseJ = tileX * TILE_SIZE - 1;
+                        int baseK = tileYOfRank[rank] * TILE_SIZE - 1;
+                        int lkFrom = Math.max(0, -baseK);
+                        int lkTo = Math.min(BLOCK_SIZE, lenY - baseK);
+                        for (int lj = Math.max(0, rowFrom - baseJ),
+                                ljEnd = Math.min(BLOCK_SIZE, rowTo - baseJ); lj < ljEnd; lj++) {
+                            int offset = lj * BLOCK_SIZE;
+                            int weightOffset = (baseJ + lj) * lenY + baseK;
+                            for (int lk = lkFrom; lk < lkTo; lk++) {
+                                weight[weightOffset + lk] += block[offset + lk];
+                            }
+                        }
+                    }
+
+                    // 全区間を網羅した場合が総和が1相当になるように正規化
+                    for (int i = rowFrom * lenY, end = rowTo * lenY; i < end; i++) {
+                        weight[i] /= totalWeight;
+                    }
+                });
+
+        for (double[] block : blocks) {
+            DoubleArrayWorkspace.release(block);
+        }
+    }
+
+    /**
+     * 格子点座標系の点 (srcXR, srcYR) が所属するタイルの Morton 順位を返す. <br>
+     * 範囲外で寄与しない点の場合は -1 を返す.
+     */
+    private static int rankOf(double srcXR, double srcYR, int lenX, int lenY, int tilesY, int[] rankOfTile) {
+        int j = (int) Math.floor(srcXR);
+        int k = (int) Math.floor(srcYR);
+        if (-1 <= j && j < lenX && -1 <= k && k < lenY) {
+            return rankOfTile[((j + 1) / TILE_SIZE) * tilesY + (k + 1) / TILE_SIZE];
+        }
+        return -1;
+    }
+
+    /**
+     * サイズ size を count 個に分割したときの, c 番目の部分の開始位置.
+     */
+    private static int chunkFrom(int size, int count, int c) {
+        return (int) ((long) size * c / count);
+    }
+
+    /**
+     * タイルの Morton 順を計算し, 配列に書き込む.
+     */
+    private static void prepareMortonOrder(
+            int tilesX, int tilesY, int[] tileXOfRank, int[] tileYOfRank, int[] rankOfTile) {
+        final int tileCount = tilesX * tilesY;
+
+        // 上位32ビットに Morton 符号, 下位32ビットに行優先 index を詰めてソートする
+        long[] keys = new long[tileCount];
+        for (int tx = 0; tx < tilesX; tx++) {
+            for (int ty = 0; ty < tilesY; ty++) {
+                int tile = tx * tilesY + ty;
+                keys[tile] = ((long) interleaveBits(tx, ty) << 32) | tile;
+            }
+        }
+        Arrays.sort(keys);
+
+        for (int rank = 0; rank < tileCount; rank++) {
+            int tile = (int) keys[rank];
+            tileXOfRank[rank] = tile / tilesY;
+            tileYOfRank[rank] = tile % tilesY;
+            rankOfTile[tile] = rank;
+        }
+    }
+
+    /**
+     * 16ビットの非負整数 a, b のビットを交互に並べた Morton 符号を返す.
+     */
+    static int interleaveBits(int a, int b) {
+        return spreadBits(a) << 1 | spreadBits(b);
+    }
+
+    /**
+     * 下位16ビットを, 1ビットおきに配置する.
+     */
+    private static int spreadBits(int v) {
+        v &= 0x0000FFFF;
+        v = (v | (v << 8)) & 0x00FF00FF;
+        v = (v | (v << 4)) & 0x0F0F0F0F;
+        v = (v | (v << 2)) & 0x33333333;
+        v = (v | (v << 1)) & 0x55555555;
+        return v;
+    }
+}
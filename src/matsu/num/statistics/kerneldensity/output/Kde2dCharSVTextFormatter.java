@@ -254,7 +254,7 @@ public final class Kde2dCharSVTextFormatter extends Kde2dFormatter<Iterable<Stri
 
                 return dto.x[cursorX] + Character.toString(separator) +
                         dto.y[cursorY] + Character.toString(separator) +
-                        dto.density[cursorX][cursorY];
+                        dto.flatDensity[cursorX * dto.strideX + cursorY * dto.strideY];
             }
 
             /**
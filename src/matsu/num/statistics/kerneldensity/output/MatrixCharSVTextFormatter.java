@@ -160,9 +160,10 @@ public final class MatrixCharSVTextFormatter extends Kde2dFormatter<Iterable<Str
                 // x<sep>density... を表す文字列の出力
                 StringBuilder sb = new StringBuilder()
                         .append(dto.x[cursor]);
-                for (double d : dto.density[cursor]) {
+                final int from = cursor * dto.strideX;
+                for (int k = 0; k < dto.sizeY; k++) {
                     sb.append(separator);
-                    sb.append(d);
+                    sb.append(dto.flatDensity[from + k * dto.strideY]);
                 }
                 return sb.toString();
             }
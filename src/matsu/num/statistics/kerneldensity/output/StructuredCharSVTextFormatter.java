@@ -232,7 +232,7 @@ public final class StructuredCharSVTextFormatter extends Kde2dFormatter<Iterable
 
                     return dto.x[cursorX] + Character.toString(separator) +
                             dto.y[cursorY] + Character.toString(separator) +
-                            dto.density[cursorX][cursorY];
+                            dto.flatDensity[cursorX * dto.strideX + cursorY * dto.strideY];
                 }
 
                 /**
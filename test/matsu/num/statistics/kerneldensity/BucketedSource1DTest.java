@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link BucketedSource1D} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class BucketedSource1DTest {
+
+    public static class 統計量のテスト {
+
+        @Test
+        public void test_Sheppardの補正を施した標準偏差() {
+            Kde1DHistogramDto histogram = new Kde1DHistogramDto(0d, 1d, 2);
+            histogram.counts[0] = 3d;
+            histogram.counts[1] = 3d;
+            BucketedSource1D bucketed = new BucketedSource1D(histogram);
+
+            // 中心 0.5, 1.5 の標準偏差 0.5 に対し, 分散から 1/12 を引く
+            assertThat(bucketed.std(), is(closeTo(Math.sqrt(0.25 - 1d / 12), 1E-15)));
+            assertThat(bucketed.totalCount, is(6d));
+        }
+
+        @Test
+        public void test_補正後の分散が負の場合は0() {
+            Kde1DHistogramDto histogram = new Kde1DHistogramDto(0d, 1d, 3);
+            histogram.counts[1] = 5d;
+            BucketedSource1D bucketed = new BucketedSource1D(histogram);
+
+            assertThat(bucketed.std(), is(0d));
+        }
+
+        @Test
+        public void test_台は度数が正のビンの範囲() {
+            Kde1DHistogramDto histogram = new Kde1DHistogramDto(-1d, 0.5d, 6);
+            histogram.counts[1] = 1d;
+            histogram.counts[3] = 1d;
+            BucketedSource1D bucketed = new BucketedSource1D(histogram);
+
+            assertThat(bucketed.support.supportMin, is(-0.5d));
+            assertThat(bucketed.support.supportMax, is(1d));
+        }
+    }
+
+    public static class 再配分のテスト {
+
+        @Test
+        public void test_ビンは分解能以下の幅に等分される() {
+            Kde1DHistogramDto histogram = new Kde1DHistogramDto(0d, 1d, 3);
+            histogram.counts[0] = 4d;
+            histogram.counts[2] = 2d;
+            BinningSource1D source = new BucketedSource1D(histogram).subdivide(0.3d);
+
+            assertThat(source.values, is(new double[] {
+                    0.125d, 0.375d, 0.625d, 0.875d,
+                    2.125d, 2.375d, 2.625d, 2.875d }));
+            assertThat(source.weights, is(new double[] {
+                    1d, 1d, 1d, 1d,
+                    0.5d, 0.5d, 0.5d, 0.5d }));
+            assertThat(source.totalWeight, is(6d));
+            assertThat(source.sorted, is(true));
+        }
+
+        @Test
+        public void test_分解能より狭いビンは等分しない() {
+            Kde1DHistogramDto histogram = new Kde1DHistogramDto(0d, 0.25d, 2);
+            histogram.counts[0] = 1d;
+            histogram.counts[1] = 3d;
+            BinningSource1D source = new BucketedSource1D(histogram).subdivide(1d);
+
+            assertThat(source.values, is(new double[] { 0.125d, 0.375d }));
+            assertThat(source.weights, is(new double[] { 1d, 3d }));
+        }
+
+        @Test
+        public void test_等分の個数には上限がある() {
+            assertThat(BucketedSource1D.subdivisionCount(100d, 1d, 16), is(16));
+            assertThat(BucketedSource1D.subdivisionCount(2.5d, 1d, 16), is(3));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link BucketedSource2D} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class BucketedSource2DTest {
+
+    public static class 統計量と再配分のテスト {
+
+        private Kde2DHistogramDto histogram() {
+            // x: [0, 2) を幅1, y: [0, 3) を幅1
+            Kde2DHistogramDto histogram = new Kde2DHistogramDto(0d, 1d, 2, 0d, 1d, 3);
+            histogram.counts[0 * 3 + 2] = 2d;
+            histogram.counts[1 * 3 + 0] = 2d;
+            return histogram;
+        }
+
+        @Test
+        public void test_周辺分布の標準偏差() {
+            BucketedSource2D bucketed = new BucketedSource2D(histogram());
+
+            // x の中心 0.5, 1.5 (等重み), y の中心 0.5, 2.5 (等重み)
+            assertThat(bucketed.stdX(), is(closeTo(Math.sqrt(0.25 - 1d / 12), 1E-15)));
+            assertThat(bucketed.stdY(), is(closeTo(Math.sqrt(1 - 1d / 12), 1E-15)));
+            assertThat(bucketed.totalCount, is(4d));
+            assertThat(bucketed.supportY.supportMin, is(0d));
+            assertThat(bucketed.supportY.supportMax, is(3d));
+        }
+
+        @Test
+        public void test_再配分は度数を保存しxについて昇順() {
+            BinningSource2D source = new BucketedSource2D(histogram()).subdivide(0.5d, 1d);
+
+            // x 方向に2等分, y 方向は等分しない
+            assertThat(source.points.size, is(4));
+            assertThat(source.points.x, is(new double[] { 0.25d, 0.75d, 1.25d, 1.75d }));
+            assertThat(source.points.y, is(new double[] { 2.5d, 2.5d, 0.5d, 0.5d }));
+            assertThat(source.weights, is(new double[] { 1d, 1d, 1d, 1d }));
+            assertThat(source.totalWeight, is(4d));
+            assertThat(source.sortedByX, is(true));
+        }
+    }
+}
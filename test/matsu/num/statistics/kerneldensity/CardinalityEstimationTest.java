@@ -0,0 +1,64 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link CardinalityEstimation} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class CardinalityEstimationTest {
+
+    public static final Class<?> TEST_CLASS = CardinalityEstimation.class;
+
+    public static class 異なる値の個数の概算のテスト {
+
+        @Test
+        public void test_個数が少ない場合は正確() {
+            double[] source = IntStream.range(0, 100_000)
+                    .mapToDouble(i -> i % 500)
+                    .toArray();
+            assertThat(CardinalityEstimation.estimateDistinct(source), is(500d));
+        }
+
+        @Test
+        public void test_負の0と0は同一とみなす() {
+            double[] source = { 0d, -0d, 1d };
+            assertThat(CardinalityEstimation.estimateDistinct(source), is(2d));
+        }
+
+        @Test
+        public void test_個数が多い場合は概算() {
+            int distinct = 200_000;
+            double[] source = IntStream.range(0, distinct * 3)
+                    .mapToDouble(i -> (i % distinct) * 0.001)
+                    .toArray();
+            assertThat(CardinalityEstimation.estimateDistinct(source),
+                    is(closeTo(distinct, distinct * 0.15)));
+        }
+
+        @Test
+        public void test_2次元の異なる点の個数() {
+            Kde2DSourceDto source = new Kde2DSourceDto(50_000);
+            for (int i = 0; i < source.size; i++) {
+                // x, y はそれぞれ10通り, 点は100通り
+                source.x[i] = ThreadLocalRandom.current().nextInt(10);
+                source.y[i] = ThreadLocalRandom.current().nextInt(10);
+            }
+            assertThat(CardinalityEstimation.estimateDistinct(source), is(100d));
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.nio.DoubleBuffer;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link ChunkedDoubles} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class ChunkedDoublesTest {
+
+    public static final Class<?> TEST_CLASS = ChunkedDoubles.class;
+
+    public static class 読み込みのテスト {
+
+        private final ChunkedDoubles values = ChunkedDoubles.readOnlyViewOf(new DoubleBuffer[] {
+                DoubleBuffer.wrap(new double[] { 0d, 1d, 2d }),
+                DoubleBuffer.allocate(0),
+                DoubleBuffer.wrap(new double[] { -1d, 3d, 4d }, 1, 2),
+                DoubleBuffer.wrap(new double[] { 5d, 6d, 7d, 8d })
+        });
+
+        @Test
+        public void test_サイズは空でないチャンクの値の総数() {
+            assertThat(values.size, is(9L));
+        }
+
+        @Test
+        public void test_チャンクの境界をまたいで読み込む() {
+            double[] dst = new double[7];
+            values.read(1L, 6, dst, 1);
+            assertThat(dst, is(new double[] { 0d, 1d, 2d, 3d, 4d, 5d, 6d }));
+        }
+
+        @Test
+        public void test_各位置の値を読み込む() {
+            double[] dst = new double[1];
+            for (int i = 0; i < values.size; i++) {
+                values.read(i, 1, dst, 0);
+                assertThat(dst[0], is((double) i));
+            }
+        }
+
+        @Test
+        public void test_昇順の値の列の二分探索() {
+            assertThat(values.lowerBound(-1d), is(0L));
+            assertThat(values.lowerBound(2.5d), is(3L));
+            assertThat(values.lowerBound(3d), is(3L));
+            assertThat(values.lowerBound(8d), is(8L));
+            assertThat(values.lowerBound(9d), is(9L));
+        }
+    }
+}
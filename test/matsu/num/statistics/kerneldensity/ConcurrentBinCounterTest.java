@@ -0,0 +1,133 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link ConcurrentBinCounter} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class ConcurrentBinCounterTest {
+
+    public static class 単一スレッドでの計数のテスト {
+
+        @Test
+        public void test_読み出しは累計を返す() {
+            ConcurrentBinCounter counter = new ConcurrentBinCounter(4, 2);
+            counter.increment(1);
+            counter.increment(1);
+            counter.increment(3);
+            assertThat(counter.snapshot(), is(new long[] { 0L, 2L, 0L, 1L }));
+
+            counter.increment(0);
+            assertThat(counter.snapshot(), is(new long[] { 1L, 2L, 0L, 1L }));
+            assertThat(counter.snapshot(), is(new long[] { 1L, 2L, 0L, 1L }));
+        }
+
+        @Test
+        public void test_読み出し結果の変更は影響しない() {
+            ConcurrentBinCounter counter = new ConcurrentBinCounter(2, 1);
+            counter.increment(0);
+            counter.snapshot()[0] = 100L;
+            assertThat(counter.snapshot(), is(new long[] { 1L, 0L }));
+        }
+
+        @Test
+        public void test_ストライプの個数の既定値は2の累乗() {
+            int count = ConcurrentBinCounter.defaultStripeCount(16);
+            assertThat(Integer.bitCount(count), is(1));
+            assertThat(count, is(lessThanOrEqualTo(ConcurrentBinCounter.MAX_STRIPE_COUNT)));
+        }
+
+        @Test
+        public void test_ビンが多い場合はストライプを減らしてメモリを抑える() {
+            for (int binCount : new int[] { 1, 1 << 10, 1 << 16, 1 << 20, (1 << 20) + 1, 1 << 22 }) {
+                int count = ConcurrentBinCounter.defaultStripeCount(binCount);
+                assertThat(count, is(greaterThanOrEqualTo(1)));
+                if (binCount <= ConcurrentBinCounter.MAX_TOTAL_CELLS) {
+                    assertThat((long) count * binCount,
+                            is(lessThanOrEqualTo((long) ConcurrentBinCounter.MAX_TOTAL_CELLS)));
+                }
+            }
+            assertThat(ConcurrentBinCounter.defaultStripeCount(1 << 22), is(1));
+        }
+    }
+
+    public static class 並行な計数のテスト {
+
+        private static final int THREAD_COUNT = 8;
+        private static final int INCREMENTS_PER_THREAD = 200_000;
+        private static final int BIN_COUNT = 16;
+
+        @Test
+        public void test_計数を止めずに読み出しても値は失われず重複しない() throws InterruptedException {
+            // ストライプを共有するスレッドも生じるよう, スレッドの個数より少なくする
+            ConcurrentBinCounter counter = new ConcurrentBinCounter(BIN_COUNT, 4);
+            CountDownLatch startSignal = new CountDownLatch(1);
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < THREAD_COUNT; t++) {
+                Thread writer = new Thread(() -> {
+                    awaitQuietly(startSignal);
+                    for (int i = 0; i < INCREMENTS_PER_THREAD; i++) {
+                        counter.increment(i % BIN_COUNT);
+                    }
+                });
+                writer.start();
+                writers.add(writer);
+            }
+
+            AtomicBoolean monotonic = new AtomicBoolean(true);
+            AtomicBoolean finished = new AtomicBoolean(false);
+            Thread reader = new Thread(() -> {
+                long[] previous = new long[BIN_COUNT];
+                while (!finished.get()) {
+                    long[] current = counter.snapshot();
+                    for (int i = 0; i < BIN_COUNT; i++) {
+                        if (current[i] < previous[i]) {
+                            monotonic.set(false);
+                        }
+                    }
+                    previous = current;
+                }
+            });
+            reader.start();
+
+            startSignal.countDown();
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            finished.set(true);
+            reader.join();
+
+            long[] expected = LongStream.range(0, BIN_COUNT)
+                    .map(i -> (long) THREAD_COUNT * INCREMENTS_PER_THREAD / BIN_COUNT)
+                    .toArray();
+            assertThat(counter.snapshot(), is(expected));
+            assertThat(monotonic.get(), is(true));
+        }
+
+        private static void awaitQuietly(CountDownLatch latch) {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
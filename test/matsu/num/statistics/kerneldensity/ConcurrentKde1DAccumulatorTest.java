@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import matsu.num.statistics.kerneldensity.GaussianKd1D.BandWidthRule;
+import matsu.num.statistics.kerneldensity.GaussianKd1D.ResolutionRule;
+import matsu.num.statistics.kerneldensity.conv.CyclicConvolutions;
+
+/**
+ * {@link ConcurrentKde1DAccumulator} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class ConcurrentKde1DAccumulatorTest {
+
+    private static final GaussianKd1D.Factory FACTORY = GaussianKd1D.Factory
+            .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+            .withConvolutionBy(CyclicConvolutions.fftBased());
+
+    public static class 集計のテスト {
+
+        @Test
+        public void test_値をビンに計数する() {
+            ConcurrentKde1DAccumulator accumulator = ConcurrentKde1DAccumulator.of(0d, 0.5d, 4);
+            accumulator.add(0.2d).add(0.5d).add(0.7d).add(1.9d);
+
+            Kde1DHistogramDto histogram = accumulator.toHistogram();
+            assertThat(histogram.start, is(0d));
+            assertThat(histogram.width, is(0.5d));
+            assertThat(histogram.counts, is(new double[] { 1d, 2d, 0d, 1d }));
+        }
+
+        @Test
+        public void test_範囲の外の値はヒストグラムに含めず別に数える() {
+            ConcurrentKde1DAccumulator accumulator = ConcurrentKde1DAccumulator.of(0d, 1d, 3);
+            accumulator.add(-5d).add(3d).add(Double.MAX_VALUE).add(-Double.MAX_VALUE).add(1.5d);
+
+            assertThat(accumulator.toHistogram().counts, is(new double[] { 0d, 1d, 0d }));
+            assertThat(accumulator.outOfRangeCount(), is(4L));
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void test_範囲内の値がない場合は例外() {
+            ConcurrentKde1DAccumulator.of(0d, 1d, 3).add(10d).toHistogram();
+        }
+
+        @Test
+        public void test_並行に追加した値は全て反映される() {
+            ConcurrentKde1DAccumulator accumulator = ConcurrentKde1DAccumulator.of(-8d, 1E-2d, 1600);
+            IntStream.range(0, 400_000).parallel()
+                    .forEach(i -> accumulator.add(ThreadLocalRandom.current().nextGaussian()));
+
+            assertThat(Arrays.stream(accumulator.toHistogram().counts).sum() + accumulator.outOfRangeCount(),
+                    is(400_000d));
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void test_空の場合は例外() {
+            ConcurrentKde1DAccumulator.of(0d, 1d, 3).toHistogram();
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_有限でない値は例外() {
+            ConcurrentKde1DAccumulator.of(0d, 1d, 3).add(Double.NaN);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_ビンの個数が上限を超える場合は例外() {
+            ConcurrentKde1DAccumulator.of(0d, 1d, ConcurrentKde1DAccumulator.MAX_BIN_COUNT + 1);
+        }
+
+        @Test
+        public void test_ビンの個数が最大でもストライプは2個まで確保できる() {
+            int byProcessors = ConcurrentBinCounter.defaultStripeCount(1);
+            assertThat(ConcurrentKde1DAccumulator.defaultStripeCount(ConcurrentKde1DAccumulator.MAX_BIN_COUNT),
+                    is(Math.min(2, byProcessors)));
+        }
+    }
+
+    public static class 推定のテスト {
+
+        @Test
+        public void test_ヒストグラムからの推定と一致する() {
+            ConcurrentKde1DAccumulator accumulator = ConcurrentKde1DAccumulator.of(-8d, 1E-2d, 1600, 4);
+            IntStream.range(0, 10_000).parallel()
+                    .forEach(i -> accumulator.add(ThreadLocalRandom.current().nextGaussian()));
+
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto expected = FACTORY.createOf(accumulator.toHistogram()).evaluateIn(range);
+            KdeGrid1dDto result = accumulator.snapshot(FACTORY).evaluateIn(range);
+            assertThat(result.x, is(expected.x));
+            assertThat(result.density, is(expected.density));
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link ConcurrentKde2DAccumulator} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class ConcurrentKde2DAccumulatorTest {
+
+    public static class 集計のテスト {
+
+        @Test
+        public void test_点を行優先のビンに計数する() {
+            ConcurrentKde2DAccumulator accumulator = ConcurrentKde2DAccumulator.of(0d, 1d, 2, 0d, 1d, 3);
+            accumulator.add(0.5d, 2.5d).add(1.5d, 0.5d).add(1.5d, 0.7d).add(9d, -9d).add(0.5d, 3d);
+
+            Kde2DHistogramDto histogram = accumulator.toHistogram();
+            assertThat(histogram.sizeX, is(2));
+            assertThat(histogram.sizeY, is(3));
+            assertThat(histogram.counts, is(new double[] { 0d, 0d, 1d, 2d, 0d, 0d }));
+            assertThat(accumulator.outOfRangeCount(), is(2L));
+        }
+
+        @Test
+        public void test_並行に追加した点は全て反映される() {
+            ConcurrentKde2DAccumulator accumulator =
+                    ConcurrentKde2DAccumulator.of(-4d, 0.1d, 80, -4d, 0.1d, 80);
+            IntStream.range(0, 200_000).parallel()
+                    .forEach(i -> accumulator.add(
+                            ThreadLocalRandom.current().nextGaussian(),
+                            ThreadLocalRandom.current().nextGaussian()));
+
+            assertThat(Arrays.stream(accumulator.toHistogram().counts).sum() + accumulator.outOfRangeCount(),
+                    is(200_000d));
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void test_空の場合は例外() {
+            ConcurrentKde2DAccumulator.of(0d, 1d, 2, 0d, 1d, 3).toHistogram();
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_ビンの総数が上限を超える場合は例外() {
+            ConcurrentKde2DAccumulator.of(0d, 1d, 1 << 10, 0d, 1d, (1 << 10) + 1);
+        }
+    }
+}
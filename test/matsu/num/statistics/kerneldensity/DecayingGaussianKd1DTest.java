@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import matsu.num.statistics.kerneldensity.GaussianKd1D.BandWidthRule;
+import matsu.num.statistics.kerneldensity.GaussianKd1D.ResolutionRule;
+import matsu.num.statistics.kerneldensity.conv.CyclicConvolutions;
+
+/**
+ * {@link DecayingGaussianKd1D} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class DecayingGaussianKd1DTest {
+
+    private static final GaussianKd1D.Factory FACTORY = GaussianKd1D.Factory
+            .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+            .withConvolutionBy(CyclicConvolutions.fftBased());
+
+    private static double[] gaussian(int size, double mean) {
+        return IntStream.range(0, size)
+                .mapToDouble(i -> mean + ThreadLocalRandom.current().nextGaussian())
+                .toArray();
+    }
+
+    private static void assertClose(KdeGrid1dDto result, KdeGrid1dDto expected, double tolerance) {
+        assertThat(result.size, is(expected.size));
+        for (int i = 0; i < expected.size; i++) {
+            assertThat(result.x[i], is(closeTo(expected.x[i], 1E-9)));
+            assertThat(result.density[i], is(closeTo(expected.density[i], tolerance)));
+        }
+    }
+
+    public static class 減衰のテスト {
+
+        @Test
+        public void test_減衰しない場合は逐次的な推定と一致する() {
+            double[] source = gaussian(20_000, 0d);
+            DecayingGaussianKd1D decaying = DecayingGaussianKd1D.of(FACTORY, 0d).addAll(source);
+            decaying.elapse(1E+10);
+            IncrementalGaussianKd1D incremental = IncrementalGaussianKd1D.of(FACTORY).addAll(source);
+
+            Range range = Range.of(-3d, 3d);
+            assertClose(decaying.evaluateIn(range), incremental.evaluateIn(range), 1E-12);
+            assertThat(decaying.totalWeight(), is(20_000d));
+        }
+
+        @Test
+        public void test_重みは経過時間により減衰する() {
+            double[] older = gaussian(50_000, -1d);
+            double[] newer = gaussian(50_000, 1d);
+            // 半減期を 1 とする
+            DecayingGaussianKd1D decaying = DecayingGaussianKd1D.of(FACTORY, Math.log(2d));
+            decaying.addAll(older).elapse(1d).addAll(newer);
+
+            double[] values = new double[100_000];
+            double[] weights = new double[100_000];
+            for (int i = 0; i < 50_000; i++) {
+                values[i] = older[i];
+                weights[i] = 0.5d;
+                values[50_000 + i] = newer[i];
+                weights[50_000 + i] = 1d;
+            }
+
+            assertThat(decaying.totalWeight(), is(closeTo(75_000d, 1E-6)));
+            assertThat(decaying.bandWidth(),
+                    is(closeTo(StatisticsForTesting.bandwidth(BandWidthRule.STANDARD, values, weights), 1E-9)));
+            Range range = Range.of(-4d, 4d);
+            assertClose(decaying.evaluateIn(range), FACTORY.createOf(values, weights).evaluateIn(range), 1E-4);
+        }
+
+        @Test
+        public void test_規格化を繰り返しても重みの総和は保たれる() {
+            double rate = 1d;
+            DecayingGaussianKd1D decaying = DecayingGaussianKd1D.of(FACTORY, rate);
+            // 1ステップあたり exp(-1) に減衰し, 規格化は数十ステップごとに行われる
+            for (int step = 0; step < 1000; step++) {
+                decaying.add(step % 7).elapse(1d);
+            }
+            decaying.add(0d);
+
+            double expected = 1d / (1d - Math.exp(-rate));
+            assertThat(decaying.totalWeight(), is(closeTo(expected, 1E-9)));
+        }
+
+        @Test
+        public void test_完全に減衰すると新しい値のみとなる() {
+            DecayingGaussianKd1D decaying = DecayingGaussianKd1D.of(FACTORY, 1d);
+            decaying.addAll(gaussian(1000, 100d)).elapse(1E+6).add(0d);
+
+            assertThat(decaying.totalWeight(), is(1d));
+            assertThat(decaying.bandWidth(), is(0d));
+        }
+
+        @Test
+        public void test_時刻を進めても推定は再利用される() {
+            DecayingGaussianKd1D decaying = DecayingGaussianKd1D.of(FACTORY, 1d).addAll(gaussian(100, 0d));
+            KernelDensity1D snapshot = decaying.snapshot();
+
+            decaying.elapse(3d);
+            assertThat(decaying.snapshot(), is(sameInstance(snapshot)));
+            decaying.add(0d);
+            assertThat(decaying.snapshot(), is(not(sameInstance(snapshot))));
+        }
+    }
+
+    public static class 例外のテスト {
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_減衰率は0以上でなければならない() {
+            DecayingGaussianKd1D.of(FACTORY, -1d);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_経過時間は0以上でなければならない() {
+            DecayingGaussianKd1D.of(FACTORY, 1d).elapse(-1d);
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void test_空の場合は評価できない() {
+            DecayingGaussianKd1D.of(FACTORY, 1d).evaluateIn(Range.of(0d, 1d));
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link DecimalTextParser} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class DecimalTextParserTest {
+
+    public static final Class<?> TEST_CLASS = DecimalTextParser.class;
+
+    public static class 数値の解釈のテスト {
+
+        @Test
+        public void test_様々な表記() throws IOException {
+            String text = "1 -2.5, +3e2;4.E-1\t.5\n-0 \"6\" 0.000123 1234567890123456789012 1e400 4.9e-324";
+            List<Double> values = parse(text);
+
+            assertThat(values, contains(
+                    1d, -2.5d, 300d, 0.4d, 0.5d, -0d, 6d, 0.000123d, 1234567890123456789012d,
+                    Double.POSITIVE_INFINITY, Double.MIN_VALUE));
+        }
+
+        @Test
+        public void test_ランダムな値はparseDoubleと一致する() throws IOException {
+            StringBuilder text = new StringBuilder();
+            double[] expected = new double[10000];
+            for (int i = 0; i < expected.length; i++) {
+                String s = switch (i % 3) {
+                    case 0 -> Double.toString(ThreadLocalRandom.current().nextGaussian() * 1E+5);
+                    case 1 -> String.format("%.6f", ThreadLocalRandom.current().nextDouble(-100d, 100d));
+                    default -> Long.toString(ThreadLocalRandom.current().nextLong(-1_000_000L, 1_000_000L));
+                };
+                expected[i] = Double.parseDouble(s);
+                text.append(s).append('\n');
+            }
+
+            List<Double> values = parse(text.toString());
+            assertThat(values.size(), is(expected.length));
+            for (int i = 0; i < expected.length; i++) {
+                assertThat(values.get(i), is(expected[i]));
+            }
+        }
+
+        @Test
+        public void test_バイト列と文字列で一致する() throws IOException {
+            String text = "1.25,2\r\n3e-3,-4\r\n";
+            List<Double> values = new ArrayList<>();
+            new DecimalTextParser(values::add).parse(
+                    Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))));
+
+            assertThat(values, is(parse(text)));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_数値でないトークンは不可() throws IOException {
+            parse("1, x, 2");
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_指数部のないeは不可() throws IOException {
+            parse("1e");
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_小数点のみは不可() throws IOException {
+            parse("1 . 2");
+        }
+
+        @Test
+        public void test_例外メッセージは行番号を含む() throws IOException {
+            try {
+                parse("1\n2\n3a\n");
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(), containsString("line = 3"));
+                return;
+            }
+            throw new AssertionError("exception is not thrown");
+        }
+
+        private static List<Double> parse(String text) throws IOException {
+            List<Double> values = new ArrayList<>();
+            new DecimalTextParser(values::add).parse(new StringReader(text));
+            return values;
+        }
+    }
+
+    public static class 行ごとの通知のテスト {
+
+        @Test
+        public void test_行ごとに数値が通知される() throws IOException {
+            List<List<Double>> rows = parseRows("1,2\r\n\n3 4 5\n6", 0L);
+
+            assertThat(rows, contains(List.of(1d, 2d), List.of(3d, 4d, 5d), List.of(6d)));
+        }
+
+        @Test
+        public void test_ヘッダ行は解釈せずに読み飛ばす() throws IOException {
+            List<List<Double>> rows = parseRows("x,y\n# \"comment\"\n1,2\n3,4\n", 2L);
+
+            assertThat(rows, contains(List.of(1d, 2d), List.of(3d, 4d)));
+        }
+
+        @Test
+        public void test_行番号はヘッダ行を含めて数える() throws IOException {
+            List<Long> lines = new ArrayList<>();
+            new DecimalTextParser(1L, (fields, count, line) -> lines.add(line))
+                    .parse(new StringReader("header\n1\n\n2\n"));
+
+            assertThat(lines, contains(2L, 4L));
+        }
+
+        @Test
+        public void test_バイト列と文字列で一致する() throws IOException {
+            String text = "a,b\r\n1.25,2\r\n3e-3,-4\r\n";
+            List<List<Double>> rows = new ArrayList<>();
+            new DecimalTextParser(1L, (fields, count, line) -> rows.add(toList(fields, count))).parse(
+                    Channels.newChannel(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))));
+
+            assertThat(rows, is(parseRows(text, 1L)));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_ヘッダ行の後の数値でないトークンは不可() throws IOException {
+            parseRows("x\n1\ny\n", 1L);
+        }
+
+        private static List<List<Double>> parseRows(String text, long skippedLines) throws IOException {
+            List<List<Double>> rows = new ArrayList<>();
+            new DecimalTextParser(skippedLines, (fields, count, line) -> rows.add(toList(fields, count)))
+                    .parse(new StringReader(text));
+            return rows;
+        }
+
+        private static List<Double> toList(double[] fields, int count) {
+            List<Double> row = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                row.add(fields[i]);
+            }
+            return row;
+        }
+    }
+}
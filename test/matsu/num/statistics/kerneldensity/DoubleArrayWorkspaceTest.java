@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link DoubleArrayWorkspace} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class DoubleArrayWorkspaceTest {
+
+    public static final Class<?> TEST_CLASS = DoubleArrayWorkspace.class;
+
+    public static class 借り受けと返却のテスト {
+
+        @Test
+        public void test_借り受けた配列は指定長で0埋め() {
+            double[] array = DoubleArrayWorkspace.borrow(5);
+            array[2] = 3d;
+            DoubleArrayWorkspace.release(array);
+
+            double[] reused = DoubleArrayWorkspace.borrow(5);
+            assertThat(reused, is(sameInstance(array)));
+            assertThat(reused, is(new double[5]));
+        }
+
+        @Test
+        public void test_返却前の配列は再度貸し出されない() {
+            double[] array1 = DoubleArrayWorkspace.borrow(7);
+            double[] array2 = DoubleArrayWorkspace.borrow(7);
+            assertThat(array2, is(not(sameInstance(array1))));
+
+            DoubleArrayWorkspace.release(array1);
+            DoubleArrayWorkspace.release(array2);
+        }
+
+        @Test
+        public void test_二重返却しても同一配列は1度しか貸し出されない() {
+            double[] array = DoubleArrayWorkspace.borrow(11);
+            DoubleArrayWorkspace.release(array);
+            DoubleArrayWorkspace.release(array);
+
+            double[] reused1 = DoubleArrayWorkspace.borrow(11);
+            double[] reused2 = DoubleArrayWorkspace.borrow(11);
+            assertThat(reused2, is(not(sameInstance(reused1))));
+        }
+
+        @Test
+        public void test_上限を超える長さの配列は保持されない() {
+            int length = DoubleArrayWorkspace.MAX_RETAINED_LENGTH + 1;
+            double[] array = DoubleArrayWorkspace.borrow(length);
+            DoubleArrayWorkspace.release(array);
+
+            assertThat(DoubleArrayWorkspace.borrow(length), is(not(sameInstance(array))));
+        }
+
+        @Test
+        public void test_別スレッドには貸し出されない() throws InterruptedException {
+            double[] array = DoubleArrayWorkspace.borrow(13);
+            DoubleArrayWorkspace.release(array);
+
+            double[][] borrowedInOtherThread = new double[1][];
+            Thread thread = new Thread(() -> borrowedInOtherThread[0] = DoubleArrayWorkspace.borrow(13));
+            thread.start();
+            thread.join();
+
+            assertThat(borrowedInOtherThread[0], is(not(sameInstance(array))));
+        }
+    }
+}
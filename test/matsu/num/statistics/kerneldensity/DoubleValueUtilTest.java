@@ -68,84 +68,4 @@ final class DoubleValueUtilTest {
             assertThat(isSorted(new double[] { 0d, 2d, 1d }), is(false));
         }
     }
-
-    public static class absMaxのテスト {
-
-        @Test
-        public void test_空は0() {
-            double[] v = {};
-            assertThat(absMax(v), is(0d));
-        }
-
-        @Test
-        public void test_サイズ1() {
-            double[] v = { -2d };
-            assertThat(absMax(v), is(2d));
-        }
-
-        @Test
-        public void test_サイズ2() {
-            double[] v = { -2d, -3d };
-            assertThat(absMax(v), is(3d));
-        }
-    }
-
-    public static class averageのテスト {
-
-        @Test
-        public void test_空はNaN() {
-            double[] v = {};
-            assertThat(average(v), is(Double.NaN));
-        }
-
-        @Test
-        public void test_サイズ1() {
-            double[] v = { -2d };
-            assertThat(average(v), is(-2d));
-        }
-
-        @Test
-        public void test_サイズ2() {
-            double[] v = { -2d, -3d };
-            assertThat(average(v), is(-2.5d));
-        }
-
-        @Test
-        public void test_巨大数() {
-            double[] v = { Double.MAX_VALUE, Double.MAX_VALUE * 0.5 };
-            assertThat(average(v), is(Double.MAX_VALUE * 0.75));
-        }
-    }
-
-    public static class rmsとstdのテスト {
-
-        /*
-         * rms メソッドのテストは陽に実行しない.
-         * 全て std のテストの成功で以って, 完了とする.
-         */
-
-        @Test
-        public void test_空はNaN() {
-            double[] v = {};
-            assertThat(std(v), is(Double.NaN));
-        }
-
-        @Test
-        public void test_サイズ1() {
-            double[] v = { -2d };
-            assertThat(std(v), is(0d));
-        }
-
-        @Test
-        public void test_サイズ2() {
-            double[] v = { -2d, -3d };
-            assertThat(std(v), is(0.5d));
-        }
-
-        @Test
-        public void test_巨大数() {
-            double[] v = { Double.MAX_VALUE, Double.MAX_VALUE * 0.5 };
-            assertThat(std(v), is(Double.MAX_VALUE * 0.25));
-        }
-    }
 }
@@ -10,10 +10,13 @@ import static org.hamcrest.MatcherAssert.*;
 import static org.hamcrest.Matchers.*;
 
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 import java.util.stream.IntStream;
 
 import org.junit.BeforeClass;
+import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.experimental.theories.DataPoints;
 import org.junit.experimental.theories.Theories;
@@ -91,7 +94,7 @@ final class EffectiveFilterZeroFillingConvolutionTest {
                 res[i] -= result[i];
             }
 
-            assertThat(DoubleValueUtil.absMax(res), is(lessThan(1E-13)));
+            assertThat(StatisticsForTesting.absMax(res), is(lessThan(1E-13)));
         }
     }
 
@@ -146,7 +149,7 @@ final class EffectiveFilterZeroFillingConvolutionTest {
                 res[i] -= result[i];
             }
 
-            assertThat(DoubleValueUtil.absMax(res), is(lessThan(1E-13)));
+            assertThat(StatisticsForTesting.absMax(res), is(lessThan(1E-13)));
         }
     }
 
@@ -201,7 +204,7 @@ final class EffectiveFilterZeroFillingConvolutionTest {
                 res[i] -= result[i];
             }
 
-            assertThat(DoubleValueUtil.absMax(res), is(lessThan(1E-13)));
+            assertThat(StatisticsForTesting.absMax(res), is(lessThan(1E-13)));
         }
     }
 
@@ -256,7 +259,63 @@ final class EffectiveFilterZeroFillingConvolutionTest {
                 res[i] -= result[i];
             }
 
-            assertThat(DoubleValueUtil.absMax(res), is(lessThan(1E-13)));
+            assertThat(StatisticsForTesting.absMax(res), is(lessThan(1E-13)));
+        }
+    }
+
+    public static class 全て0のブロックの省略のテスト {
+
+        private final double[] filter = {
+                1, 0.5, 0.25, 0.125, 0.0625
+        };
+
+        @Test
+        public void test_離れた2点の畳み込みではブロックが省略され結果は正しい() {
+            // 巡回畳み込みが実行されたブロックの個数を数える
+            EffectiveCyclicConvolution fft = CyclicConvolutions.fftBased();
+            AtomicInteger executed = new AtomicInteger();
+            EffectiveCyclicConvolution counting = new EffectiveCyclicConvolution() {
+
+                @Override
+                public int calcAcceptableSize(int lower) {
+                    return fft.calcAcceptableSize(lower);
+                }
+
+                @Override
+                public UnaryOperator<double[]> applyPartial(double[] f) {
+                    UnaryOperator<double[]> partial = fft.applyPartial(f);
+                    return g -> {
+                        executed.incrementAndGet();
+                        return partial.apply(g);
+                    };
+                }
+            };
+            EffectiveFilterZeroFillingConvolution.PartialApplied partial =
+                    EffectiveFilterZeroFillingConvolution.instanceOf(counting).applyPartial(filter);
+
+            double[] signal = new double[5000];
+            signal[100] = 1d;
+            signal[4000] = 0.5d;
+
+            double[] result = partial.compute(signal, false);
+
+            // ブロックは100個以上あり, 非ゼロ要素の近傍以外は省略される
+            assertThat(executed.get(), is(lessThanOrEqualTo(4)));
+            long skipped = partial.skippedBlockCount();
+            assertThat(skipped, is(greaterThanOrEqualTo(100L)));
+
+            // 省略したブロックの個数はインスタンスごとに累積される
+            partial.compute(signal, true);
+            assertThat(partial.skippedBlockCount(), is(2 * skipped));
+            assertThat(EffectiveFilterZeroFillingConvolution.instanceOf(counting)
+                    .applyPartial(filter).skippedBlockCount(), is(0L));
+
+            double[] expected = VALIDATOR.apply(filter).compute(signal);
+            double[] res = expected.clone();
+            for (int i = 0; i < res.length; i++) {
+                res[i] -= result[i];
+            }
+            assertThat(StatisticsForTesting.absMax(res), is(lessThan(1E-13)));
         }
     }
 }
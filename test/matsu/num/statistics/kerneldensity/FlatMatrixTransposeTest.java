@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link FlatMatrixTranspose} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class FlatMatrixTransposeTest {
+
+    public static final Class<?> TEST_CLASS = FlatMatrixTranspose.class;
+
+    public static class 転置のテスト {
+
+        @Test
+        public void test_小さい行列の転置() {
+            double[] src = {
+                    0, 1, 2,
+                    10, 11, 12
+            };
+            double[] expected = {
+                    0, 10,
+                    1, 11,
+                    2, 12
+            };
+
+            double[] dst = new double[6];
+            FlatMatrixTranspose.transpose(src, 2, 3, dst);
+            assertThat(dst, is(expected));
+        }
+
+        @Test
+        public void test_ブロック境界を含む行列の転置() {
+            // 逐次の場合と並列の場合の両方
+            check(FlatMatrixTranspose.BLOCK_SIZE + 3, FlatMatrixTranspose.BLOCK_SIZE * 2 - 1);
+            check(301, 257);
+        }
+
+        private static void check(int rows, int cols) {
+            double[] src = new double[rows * cols];
+            for (int i = 0; i < src.length; i++) {
+                src[i] = i;
+            }
+
+            double[] dst = new double[rows * cols];
+            FlatMatrixTranspose.transpose(src, rows, cols, dst);
+
+            for (int j = 0; j < rows; j++) {
+                for (int k = 0; k < cols; k++) {
+                    assertThat(dst[k * rows + j], is(src[j * cols + k]));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import matsu.num.statistics.kerneldensity.FilterZeroFillingConvolution.PartialApplied;
+
+/**
+ * {@link FlatRowConvolution} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class FlatRowConvolutionTest {
+
+    public static final Class<?> TEST_CLASS = FlatRowConvolution.class;
+
+    public static class 疎な畳み込みのテスト {
+
+        private static final int T = TileOccupancy2D.TILE_SIZE;
+
+        @Test
+        public void test_密な畳み込みと一致する() {
+            // 行ごとの並列化をしない場合, する場合の両方
+            compare(2 * T + 5, 7 * T + 3, 10);
+            compare(4 * T, 10 * T + 1, 40);
+        }
+
+        private static void compare(int rows, int cols, int filterSize) {
+            double[] filter = new double[filterSize];
+            for (int i = 0; i < filterSize; i++) {
+                filter[i] = Math.exp(-0.5 * i * i / (filterSize * filterSize / 16d));
+            }
+            PartialApplied conv = NaiveFilterZeroFillingConvolutionParallelizable.instance()
+                    .applyPartial(filter);
+
+            // 離れた2つのかたまりと, 行の端の点
+            double[] matrix = new double[rows * cols];
+            for (int c = 0; c < 50; c++) {
+                int j = ThreadLocalRandom.current().nextInt(0, T);
+                int k = ThreadLocalRandom.current().nextInt(T, 2 * T);
+                matrix[j * cols + k] += 1d;
+                j = ThreadLocalRandom.current().nextInt(T, 2 * T);
+                k = ThreadLocalRandom.current().nextInt(5 * T, 6 * T);
+                matrix[j * cols + k] += 1d;
+            }
+            matrix[(rows - 1) * cols + (cols - 1)] = 1d;
+
+            double[] dense = matrix.clone();
+            FlatRowConvolution.convolveRows(dense, rows, cols, conv);
+
+            double[] sparse = matrix.clone();
+            FlatRowConvolution.convolveRowsSparse(
+                    sparse, TileOccupancy2D.of(matrix, rows, cols), filterSize - 1, conv);
+
+            for (int i = 0; i < dense.length; i++) {
+                assertThat(sparse[i], is(closeTo(dense[i], 1E-12)));
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link Float64Files} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class Float64FilesTest {
+
+    public static final Class<?> TEST_CLASS = Float64Files.class;
+
+    public static class メモリマップのテスト {
+
+        private final double[] values = { 1.5d, -2d, 0d, Double.MAX_VALUE, Double.MIN_VALUE };
+
+        @Test
+        public void test_リトルエンディアンのファイル() throws IOException {
+            check(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        @Test
+        public void test_ビッグエンディアンのファイル() throws IOException {
+            check(ByteOrder.BIG_ENDIAN);
+        }
+
+        @Test
+        public void test_チャンクに分割したメモリマップ() throws IOException {
+            ByteBuffer bytes = ByteBuffer.allocate(values.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            bytes.asDoubleBuffer().put(values);
+
+            Path file = Files.createTempFile("float64", ".bin");
+            try {
+                Files.write(file, bytes.array());
+                DoubleBuffer[] chunks = Float64Files.mapChunks(file, ByteOrder.LITTLE_ENDIAN);
+
+                // 小さいファイルは1個のチャンクになる
+                assertThat(chunks.length, is(1));
+                assertThat(chunks[0].isReadOnly(), is(true));
+                assertThat(chunks[0].limit(), is(values.length));
+                for (int i = 0; i < values.length; i++) {
+                    assertThat(chunks[0].get(i), is(values[i]));
+                }
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        @Test
+        public void test_チャンクの最大サイズは16の倍数() {
+            assertThat(Float64Files.MAX_CHUNK_SIZE % 16, is(0L));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_サイズが8の倍数でないファイルは不可() throws IOException {
+            Path file = Files.createTempFile("float64", ".bin");
+            try {
+                Files.write(file, new byte[12]);
+                Float64Files.map(file, ByteOrder.LITTLE_ENDIAN);
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        private void check(ByteOrder order) throws IOException {
+            ByteBuffer bytes = ByteBuffer.allocate(values.length * Double.BYTES).order(order);
+            bytes.asDoubleBuffer().put(values);
+
+            Path file = Files.createTempFile("float64", ".bin");
+            try {
+                Files.write(file, bytes.array());
+                DoubleBuffer buffer = Float64Files.map(file, order);
+
+                assertThat(buffer.isReadOnly(), is(true));
+                assertThat(buffer.position(), is(0));
+                assertThat(buffer.limit(), is(values.length));
+                for (int i = 0; i < values.length; i++) {
+                    assertThat(buffer.get(i), is(values[i]));
+                }
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
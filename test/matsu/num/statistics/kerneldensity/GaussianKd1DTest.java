@@ -7,9 +7,17 @@
 
 package matsu.num.statistics.kerneldensity;
 
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.IntStream;
 
+import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.experimental.theories.DataPoints;
 import org.junit.experimental.theories.Theories;
@@ -52,4 +60,428 @@ final class GaussianKd1DTest {
                     .toArray();
         }
     }
+
+    public static class 台の近傍のみの評価のテスト {
+
+        @Test
+        public void test_広い範囲でも分解能は粗くならず台の外は0() {
+            // 標準正規乱数 (バンド幅はおよそ 0.25)
+            double[] source = IntStream.range(0, 10000)
+                    .mapToDouble(i -> ThreadLocalRandom.current().nextGaussian())
+                    .toArray();
+            GaussianKd1D kde = GaussianKd1D.Factory
+                    .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                    .withConvolutionBy(CyclicConvolutions.fftBased())
+                    .createOf(source);
+
+            KdeGrid1dDto narrow = kde.evaluateIn(Range.of(-10d, 10d));
+            KdeGrid1dDto wide = kde.evaluateIn(Range.of(-1E4, 1E4));
+
+            // 分解能は同一である
+            assertThat(wide.x[1] - wide.x[0], is(closeTo(narrow.x[1] - narrow.x[0], 1E-10)));
+
+            // 全区間での総和は1であり, 台から離れた点は0である
+            double sum = 0d;
+            for (int i = 0; i < wide.x.length; i++) {
+                sum += wide.density[i];
+                if (Math.abs(wide.x[i]) > 100d) {
+                    assertThat(wide.density[i], is(0d));
+                }
+            }
+            assertThat(sum, is(closeTo(1d, 1E-10)));
+        }
+
+        @Test
+        public void test_台と交わらない範囲では全て0() {
+            KdeGrid1dDto result = GaussianKd1D.Factory
+                    .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                    .createOf(new double[] { 0d, 1d, 2d })
+                    .evaluateIn(Range.of(100d, 110d));
+
+            assertThat(result.x.length, is(greaterThan(0)));
+            for (double v : result.density) {
+                assertThat(v, is(0d));
+            }
+        }
+    }
+
+    public static class ソースの並べ替えのテスト {
+
+        @Test
+        public void test_並べ替えの有無で結果は一致する() {
+            double[] source = IntStream.range(0, 300_000)
+                    .mapToDouble(i -> ThreadLocalRandom.current().nextGaussian())
+                    .sorted()
+                    .toArray();
+            // バンド幅 (ソースの順序に依存する) を揃えるため, 並べ替え済みのソースを与える
+            // 並べ替えの有無により, ビニングする区間の決め方のみが異なる
+            GaussianKd1D.Factory factory = GaussianKd1D.Factory
+                    .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                    .withConvolutionBy(CyclicConvolutions.fftBased());
+
+            GaussianKd1D unsorted = factory.createOf(source);
+            GaussianKd1D sorted = factory.withSourceSorting(true).createOf(source);
+
+            // 狭い範囲, 広い範囲の両方
+            for (Range range : new Range[] { Range.of(0.5d, 0.6d), Range.of(-5d, 5d) }) {
+                KdeGrid1dDto expected = unsorted.evaluateIn(range);
+                KdeGrid1dDto result = sorted.evaluateIn(range);
+
+                assertThat(result.x, is(expected.x));
+                for (int i = 0; i < expected.x.length; i++) {
+                    assertThat(result.density[i], is(closeTo(expected.density[i], 1E-12)));
+                }
+            }
+        }
+    }
+
+    public static class 重み付きソースのテスト {
+
+        private final GaussianKd1D.Factory factory = GaussianKd1D.Factory
+                .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                .withConvolutionBy(CyclicConvolutions.fftBased());
+
+        private final double[] source = IntStream.range(0, 10_000)
+                .mapToDouble(i -> ThreadLocalRandom.current().nextGaussian())
+                .toArray();
+
+        @Test
+        public void test_全ての重みが等しい場合は重みなしと一致する() {
+            double[] weights = new double[source.length];
+            Arrays.fill(weights, 2.5d);
+
+            assertClose(
+                    factory.createOf(source, weights).evaluateIn(Range.of(-3d, 3d)),
+                    factory.createOf(source).evaluateIn(Range.of(-3d, 3d)));
+        }
+
+        @Test
+        public void test_重み0の点は寄与しない() {
+            // 台の内側に, 重み0の点を追加する
+            double[] values = Arrays.copyOf(source, source.length + 2);
+            values[source.length] = 0.125d;
+            values[source.length + 1] = -0.25d;
+            double[] weights = new double[values.length];
+            Arrays.fill(weights, 0, source.length, 1d);
+
+            assertClose(
+                    factory.createOf(values, weights).evaluateIn(Range.of(-3d, 3d)),
+                    factory.createOf(source).evaluateIn(Range.of(-3d, 3d)));
+        }
+
+        @Test
+        public void test_並べ替えの有無で結果は一致する() {
+            double[] values = Arrays.stream(source).sorted().toArray();
+            double[] weights = IntStream.range(0, values.length)
+                    .mapToDouble(i -> ThreadLocalRandom.current().nextDouble(0d, 2d))
+                    .toArray();
+
+            assertClose(
+                    factory.withSourceSorting(true).createOf(values, weights).evaluateIn(Range.of(0d, 1d)),
+                    factory.createOf(values, weights).evaluateIn(Range.of(0d, 1d)));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_長さの異なる重みは不可() {
+            factory.createOf(new double[] { 1d, 2d }, new double[] { 1d });
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_負の重みは不可() {
+            factory.createOf(new double[] { 1d, 2d }, new double[] { 1d, -1d });
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_NaNの重みは不可() {
+            factory.createOf(new double[] { 1d, 2d }, new double[] { 1d, Double.NaN });
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_総和が0の重みは不可() {
+            factory.createOf(new double[] { 1d, 2d }, new double[] { 0d, 0d });
+        }
+
+        private static void assertClose(KdeGrid1dDto result, KdeGrid1dDto expected) {
+            // バンド幅の計算方法の違いにより, 格子も丸め誤差の範囲で異なりうる
+            assertThat(result.x.length, is(expected.x.length));
+            for (int i = 0; i < expected.x.length; i++) {
+                assertThat(result.x[i], is(closeTo(expected.x[i], 1E-12)));
+                assertThat(result.density[i], is(closeTo(expected.density[i], 1E-10)));
+            }
+        }
+    }
+
+    public static class 重複の集約のテスト {
+
+        @Test
+        public void test_集約の有無で結果は一致する() {
+            // 量子化されたソース
+            double[] source = IntStream.range(0, 200_000)
+                    .mapToDouble(i -> Math.rint(ThreadLocalRandom.current().nextGaussian() * 20d) / 20d)
+                    .toArray();
+            GaussianKd1D.Factory factory = GaussianKd1D.Factory
+                    .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                    .withConvolutionBy(CyclicConvolutions.fftBased());
+
+            GaussianKd1D plain = factory.createOf(source);
+            GaussianKd1D deduplicated = factory.withSourceDeduplication(true).createOf(source);
+
+            // バンド幅は集約前のソースから計算されるので, 格子は一致する
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto expected = plain.evaluateIn(range);
+            KdeGrid1dDto result = deduplicated.evaluateIn(range);
+            assertThat(result.x, is(expected.x));
+            for (int i = 0; i < expected.x.length; i++) {
+                assertThat(result.density[i], is(closeTo(expected.density[i], 1E-12)));
+            }
+        }
+    }
+
+    public static class 格子上のソースのテスト {
+
+        @Test
+        public void test_格子上の集約の有無で結果は一致する() {
+            // 小数点以下2桁の固定小数点のソース (10進数の読み込みに相当)
+            double[] source = IntStream.range(0, 200_000)
+                    .mapToDouble(i -> Math.rint(ThreadLocalRandom.current().nextGaussian() * 100d) / 100d)
+                    .toArray();
+            GaussianKd1D.Factory factory = GaussianKd1D.Factory
+                    .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                    .withConvolutionBy(CyclicConvolutions.fftBased());
+
+            GaussianKd1D plain = factory.createOf(source);
+            GaussianKd1D deduplicated = factory.withSourceDeduplication(true).createOf(source);
+
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto expected = plain.evaluateIn(range);
+            KdeGrid1dDto result = deduplicated.evaluateIn(range);
+            assertThat(result.x, is(expected.x));
+            for (int i = 0; i < expected.x.length; i++) {
+                assertThat(result.density[i], is(closeTo(expected.density[i], 1E-12)));
+            }
+        }
+    }
+
+    public static class 格子への集計のテスト {
+
+        private final GaussianKd1D.Factory factory = GaussianKd1D.Factory
+                .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                .withConvolutionBy(CyclicConvolutions.fftBased());
+
+        @Test
+        public void test_集計の有無で結果は概ね一致する() {
+            double[] source = IntStream.range(0, 200_000)
+                    .mapToDouble(i -> ThreadLocalRandom.current().nextGaussian())
+                    .toArray();
+
+            GaussianKd1D plain = factory.createOf(source);
+            GaussianKd1D compacted = factory.withSourceCompaction(true).createOf(source);
+
+            // バンド幅は集計前のソースから計算されるので, 格子は一致する
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto expected = plain.evaluateIn(range);
+            KdeGrid1dDto result = compacted.evaluateIn(range);
+            assertThat(result.x, is(expected.x));
+            for (int i = 0; i < expected.x.length; i++) {
+                assertThat(result.density[i], is(closeTo(expected.density[i], 1E-3)));
+            }
+        }
+
+        @Test
+        public void test_重み付きソースの集計の有無で結果は概ね一致する() {
+            double[] values = IntStream.range(0, 200_000)
+                    .mapToDouble(i -> ThreadLocalRandom.current().nextGaussian())
+                    .toArray();
+            double[] weights = IntStream.range(0, 200_000)
+                    .mapToDouble(i -> 1 + i % 4)
+                    .toArray();
+
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto expected = factory.createOf(values, weights).evaluateIn(range);
+            KdeGrid1dDto result = factory.withSourceCompaction(true).createOf(values, weights).evaluateIn(range);
+            assertThat(result.x, is(expected.x));
+            for (int i = 0; i < expected.x.length; i++) {
+                assertThat(result.density[i], is(closeTo(expected.density[i], 1E-3)));
+            }
+        }
+
+        @Test
+        public void test_小さなソースは集計されず結果は一致する() {
+            double[] source = { -1d, 0.5d, 2d };
+
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto expected = factory.createOf(source).evaluateIn(range);
+            KdeGrid1dDto result = factory.withSourceCompaction(true).createOf(source).evaluateIn(range);
+            assertThat(result.x, is(expected.x));
+            assertThat(result.density, is(expected.density));
+        }
+    }
+
+    public static class ヒストグラムによるソースのテスト {
+
+        private final GaussianKd1D.Factory factory = GaussianKd1D.Factory
+                .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                .withConvolutionBy(CyclicConvolutions.fftBased());
+
+        @Test
+        public void test_細かいヒストグラムは生データと概ね一致する() {
+            double[] source = IntStream.range(0, 200_000)
+                    .mapToDouble(i -> ThreadLocalRandom.current().nextGaussian())
+                    .filter(v -> Math.abs(v) < 8d)
+                    .toArray();
+            Kde1DHistogramDto histogram = new Kde1DHistogramDto(-8d, 0.01d, 1600);
+            for (double v : source) {
+                histogram.counts[(int) Math.floor((v + 8d) / 0.01d)]++;
+            }
+
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto expected = factory.createOf(source).evaluateIn(range);
+            KdeGrid1dDto result = factory.createOf(histogram).evaluateIn(range);
+
+            // バンド幅が僅かに異なるため, 格子も僅かに異なる
+            int size = Math.min(result.size, expected.size);
+            assertThat(result.size - expected.size, is(both(greaterThan(-2)).and(lessThan(2))));
+            for (int i = 0; i < size; i++) {
+                assertThat(result.x[i], is(closeTo(expected.x[i], 1E-3)));
+                assertThat(result.density[i], is(closeTo(expected.density[i], 1E-4)));
+            }
+        }
+
+        @Test
+        public void test_度数の総和が保存される() {
+            Kde1DHistogramDto histogram = new Kde1DHistogramDto(0d, 2d, 3);
+            histogram.counts[0] = 5d;
+            histogram.counts[2] = 1d;
+
+            KdeGrid1dDto result = factory.createOf(histogram).evaluateIn(Range.of(-20d, 30d));
+            assertThat(Arrays.stream(result.density).sum(), is(closeTo(1d, 1E-10)));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_負の度数は不可() {
+            Kde1DHistogramDto histogram = new Kde1DHistogramDto(0d, 1d, 2);
+            histogram.counts[0] = 1d;
+            histogram.counts[1] = -1d;
+            factory.createOf(histogram);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_度数が全て0は不可() {
+            factory.createOf(new Kde1DHistogramDto(0d, 1d, 2));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_ビンの幅は正() {
+            new Kde1DHistogramDto(0d, 0d, 2);
+        }
+    }
+
+    public static class バッファによるソースのテスト {
+
+        private final GaussianKd1D.Factory factory = GaussianKd1D.Factory
+                .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                .withConvolutionBy(CyclicConvolutions.fftBased());
+
+        @Test
+        public void test_ヒープのバッファは配列と一致する() {
+            double[] source = createSource(1000);
+            compare(source, DoubleBuffer.wrap(source));
+        }
+
+        @Test
+        public void test_ダイレクトバッファは配列と一致する() {
+            double[] source = createSource(1000);
+            DoubleBuffer buffer = ByteBuffer.allocateDirect(source.length * Double.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asDoubleBuffer()
+                    .put(source)
+                    .flip();
+            compare(source, buffer);
+        }
+
+        @Test
+        public void test_大きなソースは配列と一致する() {
+            double[] source = createSource(Mesh1D.MIN_SOURCE_SIZE_IN_PARALLEL + 3);
+            compare(source, DoubleBuffer.wrap(source));
+        }
+
+        @Test
+        public void test_位置からリミットまでが使われ位置は変更されない() {
+            double[] source = createSource(100);
+            double[] padded = new double[source.length + 10];
+            Arrays.fill(padded, 1E+10);
+            System.arraycopy(source, 0, padded, 3, source.length);
+            DoubleBuffer buffer = DoubleBuffer.wrap(padded, 3, source.length);
+
+            compare(source, buffer);
+            assertThat(buffer.position(), is(3));
+            assertThat(buffer.limit(), is(3 + source.length));
+        }
+
+        @Test
+        public void test_チャンクに分割したソースは配列と一致する() {
+            double[] source = createSource(Mesh1D.MIN_SOURCE_SIZE_IN_PARALLEL + 3);
+            DoubleBuffer[] chunks = {
+                    DoubleBuffer.wrap(source, 0, 1001),
+                    DoubleBuffer.allocate(0),
+                    DoubleBuffer.wrap(source, 1001, source.length - 1001)
+            };
+
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto expected = factory.createOf(source).evaluateIn(range);
+            KdeGrid1dDto result = factory.createOf(chunks).evaluateIn(range);
+            assertThat(result.size, is(expected.size));
+            for (int i = 0; i < expected.size; i++) {
+                assertThat(result.density[i], is(closeTo(expected.density[i], 1E-12)));
+            }
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_空のチャンクのみは不可() {
+            factory.createOf(new DoubleBuffer[] { DoubleBuffer.allocate(0) });
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_NaNを含むソースは不可() {
+            factory.createOf(DoubleBuffer.wrap(new double[] { 1d, Double.NaN }));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_空のソースは不可() {
+            factory.createOf(DoubleBuffer.allocate(0));
+        }
+
+        @Test
+        public void test_ソースの検証() {
+            assertThat(KernelDensity1D.Factory.validateSource(DoubleBuffer.wrap(new double[] { 1d })), is(true));
+            assertThat(KernelDensity1D.Factory.validateSource(DoubleBuffer.allocate(0)), is(false));
+            assertThat(KernelDensity1D.Factory.validateSource(
+                    DoubleBuffer.wrap(new double[] { Double.NaN, 1d }, 1, 1)), is(true));
+            assertThat(KernelDensity1D.Factory.validateSource(new DoubleBuffer[] {
+                    DoubleBuffer.allocate(0), DoubleBuffer.wrap(new double[] { 1d }) }), is(true));
+            assertThat(KernelDensity1D.Factory.validateSource(new DoubleBuffer[] {
+                    DoubleBuffer.allocate(0) }), is(false));
+            assertThat(KernelDensity1D.Factory.validateSource(new DoubleBuffer[] {
+                    DoubleBuffer.wrap(new double[] { 1d }), DoubleBuffer.wrap(new double[] { Double.NaN }) }),
+                    is(false));
+        }
+
+        private void compare(double[] source, DoubleBuffer buffer) {
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto expected = factory.createOf(source).evaluateIn(range);
+            KdeGrid1dDto result = factory.createOf(buffer).evaluateIn(range);
+
+            assertThat(result.size, is(expected.size));
+            for (int i = 0; i < expected.size; i++) {
+                assertThat(result.x[i], is(closeTo(expected.x[i], 1E-12)));
+                assertThat(result.density[i], is(closeTo(expected.density[i], 1E-12)));
+            }
+        }
+
+        private static double[] createSource(int size) {
+            return IntStream.range(0, size)
+                    .mapToDouble(i -> ThreadLocalRandom.current().nextGaussian())
+                    .toArray();
+        }
+    }
 }
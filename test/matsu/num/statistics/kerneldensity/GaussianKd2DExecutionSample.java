@@ -77,9 +77,10 @@ final class GaussianKd2DExecutionSample {
         }
         System.out.println();
 
+        double[][] density = result.density();
         for (int j = 0; j < result.x.length; j++) {
             System.out.print(result.x[j]);
-            for (double d : result.density[j]) {
+            for (double d : density[j]) {
                 System.out.print("\t");
                 System.out.print(d);
             }
@@ -76,7 +76,7 @@ final class GaussianKd2DExecutionSampleForGnuplot {
             for (int k = 0; k < result.y.length; k++) {
                 System.out.println(
                         "%s\t%s\t%s"
-                                .formatted(result.x[j], result.y[k], result.density[j][k]));
+                                .formatted(result.x[j], result.y[k], result.flatDensity[j * result.strideX + k * result.strideY]));
             }
             System.out.println();
         }
@@ -7,9 +7,17 @@
 
 package matsu.num.statistics.kerneldensity;
 
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.IntStream;
 
+import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.experimental.theories.DataPoints;
 import org.junit.experimental.theories.Theories;
@@ -54,4 +62,281 @@ final class GaussianKd2DTest {
                     .toArray();
         }
     }
+
+    public static class ソースの並べ替えのテスト {
+
+        @Test
+        public void test_並べ替えの有無で結果は一致する() {
+            int size = 100_000;
+            Kde2DSourceDto source = new Kde2DSourceDto(size);
+            for (int i = 0; i < size; i++) {
+                source.x[i] = ThreadLocalRandom.current().nextGaussian();
+                source.y[i] = ThreadLocalRandom.current().nextGaussian();
+            }
+            // バンド幅 (ソースの順序に依存する) を揃えるため, 並べ替え済みのソースを与える
+            // 並べ替えの有無により, ビニングする区間の決め方のみが異なる
+            SourceSorting.sortByX(source);
+            GaussianKd2D.Factory factory = GaussianKd2D.Factory
+                    .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                    .withConvolutionBy(CyclicConvolutions.fftBased());
+
+            GaussianKd2D unsorted = factory.createOf(source);
+            GaussianKd2D sorted = factory.withSourceSorting(true).createOf(source);
+
+            Range rangeX = Range.of(0.5d, 1d);
+            Range rangeY = Range.of(-1d, 1d);
+            KdeGrid2dDto expected = unsorted.evaluateIn(rangeX, rangeY);
+            KdeGrid2dDto result = sorted.evaluateIn(rangeX, rangeY);
+
+            assertThat(result.x, is(expected.x));
+            assertThat(result.y, is(expected.y));
+            for (int i = 0; i < expected.flatDensity.length; i++) {
+                assertThat(result.flatDensity[i], is(closeTo(expected.flatDensity[i], 1E-12)));
+            }
+        }
+    }
+
+    public static class ワークスペースの再利用のテスト {
+
+        @Test
+        public void test_2回目の評価ではメッシュ全体の配列が再利用される() {
+            // データの範囲に比べて小さいバンド幅と細かい分解能により,
+            // 実効範囲のメッシュを上限 (各軸500程度) にし, フィルタの拡張も大きくする
+            Kde2DHistogramDto histogram = new Kde2DHistogramDto(0d, 1d, 10, 0d, 1d, 10);
+            Arrays.fill(histogram.counts, 1d);
+            KernelDensity2D kde = GaussianKd2D.Factory
+                    .of(BandWidthRule.STANDARD, ResolutionRule.HIGH)
+                    .withConvolutionBy(CyclicConvolutions.fftBased())
+                    .createOf(new BucketedSource2D(histogram), 0.15d, 0.15d);
+            Range range = Range.of(-1d, 11d);
+
+            kde.evaluateIn(range, range);
+            long before = DoubleArrayWorkspace.reusedTotalLength();
+            kde.evaluateIn(range, range);
+            long reused = DoubleArrayWorkspace.reusedTotalLength() - before;
+
+            // 重み配列と転置用の配列 (それぞれ 2^18 を超える長さ) が再利用される
+            assertThat(reused, is(greaterThan(2L * (1 << 18))));
+        }
+    }
+
+    public static class 重み付きソースのテスト {
+
+        private final GaussianKd2D.Factory factory = GaussianKd2D.Factory
+                .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                .withConvolutionBy(CyclicConvolutions.fftBased());
+
+        @Test
+        public void test_全ての重みが等しい場合は重みなしと一致する() {
+            int size = 10_000;
+            Kde2DSourceDto source = new Kde2DSourceDto(size);
+            Kde2DWeightedSourceDto weightedSource = new Kde2DWeightedSourceDto(size);
+            for (int i = 0; i < size; i++) {
+                source.x[i] = weightedSource.x[i] = ThreadLocalRandom.current().nextGaussian();
+                source.y[i] = weightedSource.y[i] = ThreadLocalRandom.current().nextGaussian();
+                weightedSource.weight[i] = 0.5d;
+            }
+
+            Range rangeX = Range.of(-2d, 2d);
+            Range rangeY = Range.of(-1d, 1d);
+            KdeGrid2dDto expected = factory.createOf(source).evaluateIn(rangeX, rangeY);
+            KdeGrid2dDto result = factory.createOf(weightedSource).evaluateIn(rangeX, rangeY);
+
+            // バンド幅の計算方法の違いにより, 格子も丸め誤差の範囲で異なりうる
+            assertThat(result.x.length, is(expected.x.length));
+            assertThat(result.y.length, is(expected.y.length));
+            for (int i = 0; i < expected.flatDensity.length; i++) {
+                assertThat(result.flatDensity[i], is(closeTo(expected.flatDensity[i], 1E-10)));
+            }
+        }
+
+        @Test
+        public void test_重みの初期値は1() {
+            Kde2DWeightedSourceDto source = new Kde2DWeightedSourceDto(3);
+            assertThat(source.weight, is(new double[] { 1d, 1d, 1d }));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_負の重みは不可() {
+            Kde2DWeightedSourceDto source = new Kde2DWeightedSourceDto(2);
+            source.weight[1] = -1d;
+            factory.createOf(source);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_総和が0の重みは不可() {
+            Kde2DWeightedSourceDto source = new Kde2DWeightedSourceDto(2);
+            source.weight[0] = 0d;
+            source.weight[1] = 0d;
+            factory.createOf(source);
+        }
+    }
+
+    public static class 重複の集約のテスト {
+
+        @Test
+        public void test_集約の有無で結果は一致する() {
+            // 量子化されたソース
+            int size = 100_000;
+            Kde2DSourceDto source = new Kde2DSourceDto(size);
+            for (int i = 0; i < size; i++) {
+                source.x[i] = Math.rint(ThreadLocalRandom.current().nextGaussian() * 5d) / 5d;
+                source.y[i] = Math.rint(ThreadLocalRandom.current().nextGaussian() * 5d) / 5d;
+            }
+            GaussianKd2D.Factory factory = GaussianKd2D.Factory
+                    .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                    .withConvolutionBy(CyclicConvolutions.fftBased());
+
+            GaussianKd2D plain = factory.createOf(source);
+            GaussianKd2D deduplicated = factory.withSourceDeduplication(true).createOf(source);
+
+            // バンド幅は集約前のソースから計算されるので, 格子は一致する
+            Range rangeX = Range.of(-2d, 2d);
+            Range rangeY = Range.of(-1d, 1d);
+            KdeGrid2dDto expected = plain.evaluateIn(rangeX, rangeY);
+            KdeGrid2dDto result = deduplicated.evaluateIn(rangeX, rangeY);
+            assertThat(result.x, is(expected.x));
+            assertThat(result.y, is(expected.y));
+            for (int i = 0; i < expected.flatDensity.length; i++) {
+                assertThat(result.flatDensity[i], is(closeTo(expected.flatDensity[i], 1E-12)));
+            }
+        }
+    }
+
+    public static class ヒストグラムによるソースのテスト {
+
+        private final GaussianKd2D.Factory factory = GaussianKd2D.Factory
+                .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                .withConvolutionBy(CyclicConvolutions.fftBased());
+
+        @Test
+        public void test_度数の総和が保存される() {
+            Kde2DHistogramDto histogram = new Kde2DHistogramDto(0d, 1d, 4, -1d, 0.5d, 6);
+            histogram.counts[0 * 6 + 1] = 3d;
+            histogram.counts[3 * 6 + 5] = 1d;
+            histogram.counts[2 * 6 + 2] = 2d;
+
+            KdeGrid2dDto result = factory.createOf(histogram).evaluateIn(Range.of(-10d, 14d), Range.of(-10d, 12d));
+            assertThat(Arrays.stream(result.flatDensity).sum(), is(closeTo(1d, 1E-10)));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_度数が全て0は不可() {
+            factory.createOf(new Kde2DHistogramDto(0d, 1d, 2, 0d, 1d, 2));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_ビンの総数はintの範囲() {
+            new Kde2DHistogramDto(0d, 1d, 1 << 16, 0d, 1d, 1 << 16);
+        }
+    }
+
+    public static class バッファによるソースのテスト {
+
+        private final GaussianKd2D.Factory factory = GaussianKd2D.Factory
+                .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                .withConvolutionBy(CyclicConvolutions.fftBased());
+
+        @Test
+        public void test_交互に並べたバッファは配列と一致する() {
+            Kde2DSourceDto source = createSource(1000);
+            DoubleBuffer buffer = ByteBuffer.allocateDirect(2 * source.size * Double.BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN)
+                    .asDoubleBuffer();
+            for (int i = 0; i < source.size; i++) {
+                buffer.put(source.x[i]).put(source.y[i]);
+            }
+            buffer.flip();
+
+            compare(source, factory.createOf(buffer));
+            assertThat(buffer.position(), is(0));
+        }
+
+        @Test
+        public void test_列ごとのバッファは配列と一致する() {
+            Kde2DSourceDto source = createSource(1000);
+            compare(source, factory.createOf(DoubleBuffer.wrap(source.x), DoubleBuffer.wrap(source.y)));
+        }
+
+        @Test
+        public void test_大きなソースは配列と一致する() {
+            Kde2DSourceDto source = createSource(Mesh2D.MIN_SOURCE_SIZE_IN_PARALLEL + 3);
+            compare(source, factory.createOf(DoubleBuffer.wrap(source.x), DoubleBuffer.wrap(source.y)));
+        }
+
+        @Test
+        public void test_チャンクに分割したソースは配列と一致する() {
+            Kde2DSourceDto source = createSource(Mesh2D.MIN_SOURCE_SIZE_IN_PARALLEL + 3);
+            double[] interleaved = new double[2 * source.size];
+            for (int i = 0; i < source.size; i++) {
+                interleaved[2 * i] = source.x[i];
+                interleaved[2 * i + 1] = source.y[i];
+            }
+
+            // 点の x と y が異なるチャンクにまたがる分割
+            compare(source, factory.createOf(new DoubleBuffer[] {
+                    DoubleBuffer.wrap(interleaved, 0, 1001),
+                    DoubleBuffer.wrap(interleaved, 1001, interleaved.length - 1001) }));
+            // x と y で分割位置が異なる
+            compare(source, factory.createOf(
+                    new DoubleBuffer[] {
+                            DoubleBuffer.wrap(source.x, 0, 10),
+                            DoubleBuffer.wrap(source.x, 10, source.size - 10) },
+                    new DoubleBuffer[] {
+                            DoubleBuffer.wrap(source.y, 0, 777),
+                            DoubleBuffer.wrap(source.y, 777, source.size - 777) }));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_チャンクの値の総数は偶数() {
+            factory.createOf(new DoubleBuffer[] {
+                    DoubleBuffer.wrap(new double[] { 1d, 2d }), DoubleBuffer.wrap(new double[] { 3d }) });
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_交互に並べたバッファの値の個数は偶数() {
+            factory.createOf(DoubleBuffer.wrap(new double[] { 1d, 2d, 3d }));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_列ごとのバッファの値の個数は等しい() {
+            factory.createOf(DoubleBuffer.wrap(new double[] { 1d, 2d }), DoubleBuffer.wrap(new double[] { 1d }));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_NaNを含むソースは不可() {
+            factory.createOf(DoubleBuffer.wrap(new double[] { 1d, 2d, 3d, Double.NaN }));
+        }
+
+        @Test
+        public void test_ソースの検証() {
+            assertThat(KernelDensity2D.Factory.validateSource(DoubleBuffer.wrap(new double[] { 1d, 2d })), is(true));
+            assertThat(KernelDensity2D.Factory.validateSource(DoubleBuffer.wrap(new double[] { 1d })), is(false));
+            assertThat(KernelDensity2D.Factory.validateSource(
+                    DoubleBuffer.wrap(new double[] { 1d }), DoubleBuffer.allocate(1)), is(true));
+            assertThat(KernelDensity2D.Factory.validateSource(
+                    DoubleBuffer.wrap(new double[] { 1d }), DoubleBuffer.allocate(2)), is(false));
+        }
+
+        private void compare(Kde2DSourceDto source, KernelDensity2D result) {
+            Range rangeX = Range.of(-2d, 2d);
+            Range rangeY = Range.of(-1d, 1d);
+            KdeGrid2dDto expectedGrid = factory.createOf(source).evaluateIn(rangeX, rangeY);
+            KdeGrid2dDto resultGrid = result.evaluateIn(rangeX, rangeY);
+
+            assertThat(resultGrid.flatDensity.length, is(expectedGrid.flatDensity.length));
+            for (int i = 0; i < expectedGrid.flatDensity.length; i++) {
+                assertThat(resultGrid.flatDensity[i], is(closeTo(expectedGrid.flatDensity[i], 1E-12)));
+            }
+        }
+
+        private static Kde2DSourceDto createSource(int size) {
+            Kde2DSourceDto source = new Kde2DSourceDto(size);
+            for (int i = 0; i < size; i++) {
+                source.x[i] = ThreadLocalRandom.current().nextGaussian();
+                source.y[i] = ThreadLocalRandom.current().nextGaussian();
+            }
+            return source;
+        }
+    }
 }
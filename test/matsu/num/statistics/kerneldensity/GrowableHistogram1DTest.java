@@ -0,0 +1,85 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link GrowableHistogram1D} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class GrowableHistogram1DTest {
+
+    public static final Class<?> TEST_CLASS = GrowableHistogram1D.class;
+
+    public static class 除去のテスト {
+
+        @Test
+        public void test_先行標本から除去できる() {
+            GrowableHistogram1D histogram = new GrowableHistogram1D(8, 4, 16, 64);
+            histogram.add(1d);
+            histogram.add(2d);
+
+            assertThat(histogram.remove(1d), is(true));
+            assertThat(histogram.remove(1d), is(false));
+            assertThat(histogram.size(), is(1L));
+
+            Kde1DHistogramDto result = histogram.toHistogram();
+            assertThat(result.size, is(1));
+            assertThat(result.counts[0], is(1d));
+            assertThat(result.start, is(lessThanOrEqualTo(2d)));
+        }
+
+        @Test
+        public void test_ビンから除去できる() {
+            GrowableHistogram1D histogram = new GrowableHistogram1D(8, 4, 16, 64);
+            for (int i = 0; i < 100; i++) {
+                histogram.add(i % 10);
+            }
+
+            assertThat(histogram.remove(3d), is(true));
+            assertThat(histogram.remove(1E+10), is(false));
+            assertThat(histogram.size(), is(99L));
+
+            double total = 0d;
+            for (double c : histogram.toHistogram().counts) {
+                total += c;
+            }
+            assertThat(total, is(99d));
+        }
+    }
+
+    public static class 重み付きの計数のテスト {
+
+        @Test
+        public void test_重みと定数倍が度数に反映される() {
+            GrowableHistogram1D histogram = new GrowableHistogram1D(4, 4, 16, 64);
+            histogram.add(0d, 2d);
+            histogram.add(1d, 0.5d);
+            histogram.scale(0.5d);
+            // 先行標本の集計後
+            for (int i = 0; i < 4; i++) {
+                histogram.add(i, 1d);
+            }
+            histogram.scale(2d);
+
+            double total = 0d;
+            for (double c : histogram.toHistogram().counts) {
+                total += c;
+            }
+            assertThat(total, is(2.5d + 8d));
+
+            histogram.clear();
+            assertThat(histogram.size(), is(0L));
+        }
+    }
+}
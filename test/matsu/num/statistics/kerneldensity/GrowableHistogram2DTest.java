@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link GrowableHistogram2D} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class GrowableHistogram2DTest {
+
+    public static final Class<?> TEST_CLASS = GrowableHistogram2D.class;
+
+    public static class 除去のテスト {
+
+        @Test
+        public void test_先行標本から除去できる() {
+            GrowableHistogram2D histogram = new GrowableHistogram2D(8, 4, 16, 64);
+            histogram.add(1d, 5d);
+            histogram.add(2d, 6d);
+
+            assertThat(histogram.remove(1d, 6d), is(false));
+            assertThat(histogram.remove(1d, 5d), is(true));
+            assertThat(histogram.remove(1d, 5d), is(false));
+            assertThat(histogram.size(), is(1L));
+
+            Kde2DHistogramDto result = histogram.toHistogram();
+            assertThat(result.sizeX, is(1));
+            assertThat(result.sizeY, is(1));
+            assertThat(result.counts[0], is(1d));
+        }
+
+        @Test
+        public void test_ビンから除去できる() {
+            GrowableHistogram2D histogram = new GrowableHistogram2D(8, 4, 16, 64);
+            for (int i = 0; i < 100; i++) {
+                histogram.add(i % 10, i % 7);
+            }
+
+            assertThat(histogram.remove(3d, 3d), is(true));
+            assertThat(histogram.remove(1E+10, 0d), is(false));
+            assertThat(histogram.remove(0d, -1E+10), is(false));
+            assertThat(histogram.size(), is(99L));
+            assertThat(Arrays.stream(histogram.toHistogram().counts).sum(), is(99d));
+        }
+    }
+
+    public static class 範囲の拡張のテスト {
+
+        @Test
+        public void test_範囲外の点で軸ごとに範囲が広がる() {
+            GrowableHistogram2D histogram = new GrowableHistogram2D(4, 4, 16, 64);
+            for (int i = 0; i < 4; i++) {
+                histogram.add(i, i);
+            }
+            histogram.add(100d, 1d);
+            histogram.add(1d, -100d);
+
+            Kde2DHistogramDto result = histogram.toHistogram();
+            assertThat(Arrays.stream(result.counts).sum(), is(6d));
+            assertThat(result.startX + result.sizeX * result.widthX, is(greaterThan(100d)));
+            assertThat(result.startY, is(lessThanOrEqualTo(-100d)));
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import matsu.num.statistics.kerneldensity.GaussianKd1D.BandWidthRule;
+import matsu.num.statistics.kerneldensity.GaussianKd1D.ResolutionRule;
+import matsu.num.statistics.kerneldensity.conv.CyclicConvolutions;
+
+/**
+ * {@link IncrementalGaussianKd1D} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class IncrementalGaussianKd1DTest {
+
+    private static final GaussianKd1D.Factory FACTORY = GaussianKd1D.Factory
+            .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+            .withConvolutionBy(CyclicConvolutions.fftBased());
+
+    private static double[] gaussian(int size) {
+        return IntStream.range(0, size)
+                .mapToDouble(i -> ThreadLocalRandom.current().nextGaussian())
+                .toArray();
+    }
+
+    /**
+     * expected の結果を線形補間して, result と比較する.
+     */
+    private static void assertCloseByInterpolation(KdeGrid1dDto result, KdeGrid1dDto expected, double tolerance) {
+        for (int i = 0; i < result.size; i++) {
+            double x = result.x[i];
+            int j = DoubleValueUtil.upperBound(expected.x, x) - 1;
+            if (j < 0 || j + 1 >= expected.size) {
+                continue;
+            }
+            double t = (x - expected.x[j]) / (expected.x[j + 1] - expected.x[j]);
+            double interpolated = (1 - t) * expected.density[j] + t * expected.density[j + 1];
+            assertThat(result.density[i], is(closeTo(interpolated, tolerance)));
+        }
+    }
+
+    public static class モーメントによるバンド幅のテスト {
+
+        @Test
+        public void test_生データと概ね一致する() {
+            double[] source = gaussian(100_000);
+            IncrementalGaussianKd1D incremental = IncrementalGaussianKd1D.of(FACTORY).addAll(source);
+
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto expected = FACTORY.createOf(source).evaluateIn(range);
+            KdeGrid1dDto result = incremental.evaluateIn(range);
+
+            // バンド幅は丸め誤差の範囲で一致するので, 格子も一致する
+            assertThat(result.size, is(expected.size));
+            for (int i = 0; i < expected.size; i++) {
+                assertThat(result.x[i], is(closeTo(expected.x[i], 1E-12)));
+                assertThat(result.density[i], is(closeTo(expected.density[i], 1E-4)));
+            }
+            assertThat(incremental.size(), is(100_000L));
+        }
+
+        @Test
+        public void test_除去した結果は残りのみを追加した結果と一致する() {
+            double[] source = gaussian(20_000);
+            IncrementalGaussianKd1D incremental = IncrementalGaussianKd1D.of(FACTORY).addAll(source);
+            IncrementalGaussianKd1D expected = IncrementalGaussianKd1D.of(FACTORY)
+                    .addAll(Arrays.copyOf(source, 15_000));
+            // ビンの配置は先行標本で決まるので, 先行標本を共有する限り一致する
+            incremental.removeAll(Arrays.copyOfRange(source, 15_000, 20_000));
+
+            assertThat(incremental.bandWidth(), is(closeTo(expected.bandWidth(), 1E-12)));
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto result = incremental.evaluateIn(range);
+            KdeGrid1dDto expectedResult = expected.evaluateIn(range);
+            assertThat(result.size, is(expectedResult.size));
+            for (int i = 0; i < result.size; i++) {
+                assertThat(result.density[i], is(closeTo(expectedResult.density[i], 1E-12)));
+            }
+        }
+
+        @Test
+        public void test_状態が変化しなければ同じ結果を返す() {
+            IncrementalGaussianKd1D incremental = IncrementalGaussianKd1D.of(FACTORY).addAll(gaussian(1000));
+
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto first = incremental.evaluateIn(range);
+            KernelDensity1D snapshot = incremental.snapshot();
+            first.density[0] = Double.NaN;
+            KdeGrid1dDto second = incremental.evaluateIn(range);
+
+            assertThat(second.density, is(snapshot.evaluateIn(range).density));
+            assertThat(incremental.snapshot(), is(sameInstance(snapshot)));
+
+            incremental.add(0d);
+            assertThat(incremental.snapshot(), is(not(sameInstance(snapshot))));
+        }
+    }
+
+    public static class バンド幅を固定した推定のテスト {
+
+        @Test
+        public void test_生データと概ね一致する() {
+            double[] source = gaussian(100_000);
+            double bandWidth = StatisticsForTesting.bandwidth(BandWidthRule.STANDARD, source);
+            IncrementalGaussianKd1D incremental =
+                    IncrementalGaussianKd1D.withFrozenBandwidth(FACTORY, bandWidth);
+            for (double v : source) {
+                incremental.add(v);
+            }
+
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto expected = FACTORY.createOf(source).evaluateIn(range);
+            KdeGrid1dDto result = incremental.evaluateIn(range);
+
+            assertThat(result.x[1] - result.x[0], is(closeTo(bandWidth * 0.25d, 1E-12)));
+            assertCloseByInterpolation(result, expected, 2E-4);
+            assertCloseByInterpolation(incremental.snapshot().evaluateIn(range), expected, 2E-4);
+            assertThat(incremental.bandWidth(), is(bandWidth));
+        }
+
+        @Test
+        public void test_除去した結果は残りのみを追加した結果と一致する() {
+            double[] source = gaussian(5000);
+            IncrementalGaussianKd1D incremental =
+                    IncrementalGaussianKd1D.withFrozenBandwidth(FACTORY, 0.2d).addAll(source);
+            IncrementalGaussianKd1D expected =
+                    IncrementalGaussianKd1D.withFrozenBandwidth(FACTORY, 0.2d).addAll(Arrays.copyOf(source, 100));
+            incremental.removeAll(Arrays.copyOfRange(source, 100, 5000));
+
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto result = incremental.evaluateIn(range);
+            KdeGrid1dDto expectedResult = expected.evaluateIn(range);
+            assertThat(result.x, is(expectedResult.x));
+            for (int i = 0; i < result.size; i++) {
+                assertThat(result.density[i], is(closeTo(expectedResult.density[i], 1E-12)));
+            }
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_バンド幅は正でなければならない() {
+            IncrementalGaussianKd1D.withFrozenBandwidth(FACTORY, 0d);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_格子で扱えない値は追加できない() {
+            IncrementalGaussianKd1D.withFrozenBandwidth(FACTORY, 1E-10).add(0d).add(1E+10);
+        }
+    }
+
+    public static class 追加と除去の例外のテスト {
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_有限でない値は追加できない() {
+            IncrementalGaussianKd1D.of(FACTORY).add(Double.NaN);
+        }
+
+        @Test
+        public void test_まとめた追加は失敗すると何も追加しない() {
+            IncrementalGaussianKd1D incremental = IncrementalGaussianKd1D.of(FACTORY);
+            try {
+                incremental.addAll(new double[] { 1d, Double.POSITIVE_INFINITY });
+            } catch (IllegalArgumentException expected) {
+                // 何もしない
+            }
+            assertThat(incremental.size(), is(0L));
+        }
+
+        @Test
+        public void test_まとめた除去は失敗すると状態を戻す() {
+            IncrementalGaussianKd1D incremental =
+                    IncrementalGaussianKd1D.of(FACTORY).addAll(new double[] { 1d, 2d, 3d });
+            try {
+                incremental.removeAll(new double[] { 1d, 2d, 5d });
+            } catch (IllegalArgumentException expected) {
+                // 何もしない
+            }
+            assertThat(incremental.size(), is(3L));
+            incremental.removeAll(new double[] { 1d, 2d, 3d });
+            assertThat(incremental.size(), is(0L));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_存在しない値は除去できない() {
+            IncrementalGaussianKd1D.of(FACTORY).add(1d).remove(2d);
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void test_空の場合は評価できない() {
+            IncrementalGaussianKd1D.of(FACTORY).add(1d).remove(1d).evaluateIn(Range.of(0d, 1d));
+        }
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import matsu.num.statistics.kerneldensity.GaussianKd2D.BandWidthRule;
+import matsu.num.statistics.kerneldensity.GaussianKd2D.ResolutionRule;
+import matsu.num.statistics.kerneldensity.conv.CyclicConvolutions;
+
+/**
+ * {@link IncrementalGaussianKd2D} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class IncrementalGaussianKd2DTest {
+
+    private static final GaussianKd2D.Factory FACTORY = GaussianKd2D.Factory
+            .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+            .withConvolutionBy(CyclicConvolutions.fftBased());
+
+    private static final Range RANGE_X = Range.of(-3d, 3d);
+    private static final Range RANGE_Y = Range.of(-0.5d, 2.5d);
+
+    private static Kde2DSourceDto gaussian(int size) {
+        Kde2DSourceDto source = new Kde2DSourceDto(size);
+        for (int i = 0; i < size; i++) {
+            source.x[i] = ThreadLocalRandom.current().nextGaussian();
+            source.y[i] = 0.5 * ThreadLocalRandom.current().nextGaussian() + 1d;
+        }
+        return source;
+    }
+
+    private static Kde2DSourceDto slice(Kde2DSourceDto source, int from, int to) {
+        Kde2DSourceDto out = new Kde2DSourceDto(to - from);
+        System.arraycopy(source.x, from, out.x, 0, out.size);
+        System.arraycopy(source.y, from, out.y, 0, out.size);
+        return out;
+    }
+
+    private static void assertClose(KdeGrid2dDto result, KdeGrid2dDto expected, double tolerance) {
+        assertThat(result.sizeX, is(expected.sizeX));
+        assertThat(result.sizeY, is(expected.sizeY));
+        for (int i = 0; i < expected.flatDensity.length; i++) {
+            assertThat(result.flatDensity[i], is(closeTo(expected.flatDensity[i], tolerance)));
+        }
+    }
+
+    public static class モーメントによるバンド幅のテスト {
+
+        @Test
+        public void test_生データと概ね一致する() {
+            Kde2DSourceDto source = gaussian(50_000);
+            IncrementalGaussianKd2D incremental = IncrementalGaussianKd2D.of(FACTORY).addAll(source);
+
+            KdeGrid2dDto expected = FACTORY.createOf(source).evaluateIn(RANGE_X, RANGE_Y);
+            KdeGrid2dDto result = incremental.evaluateIn(RANGE_X, RANGE_Y);
+
+            double peak = Arrays.stream(expected.flatDensity).max().getAsDouble();
+            assertClose(result, expected, 1E-2 * peak);
+            assertThat(incremental.size(), is(50_000L));
+        }
+
+        @Test
+        public void test_除去した結果は残りのみを追加した結果と一致する() {
+            Kde2DSourceDto source = gaussian(20_000);
+            IncrementalGaussianKd2D incremental = IncrementalGaussianKd2D.of(FACTORY).addAll(source);
+            IncrementalGaussianKd2D expected = IncrementalGaussianKd2D.of(FACTORY)
+                    .addAll(slice(source, 0, 15_000));
+            // ビンの配置は先行標本で決まるので, 先行標本を共有する限り一致する
+            incremental.removeAll(slice(source, 15_000, 20_000));
+
+            assertThat(incremental.bandWidthX(), is(closeTo(expected.bandWidthX(), 1E-12)));
+            assertThat(incremental.bandWidthY(), is(closeTo(expected.bandWidthY(), 1E-12)));
+            assertClose(incremental.evaluateIn(RANGE_X, RANGE_Y), expected.evaluateIn(RANGE_X, RANGE_Y), 1E-12);
+        }
+
+        @Test
+        public void test_状態が変化しなければ同じ結果を返す() {
+            IncrementalGaussianKd2D incremental = IncrementalGaussianKd2D.of(FACTORY).addAll(gaussian(1000));
+
+            KdeGrid2dDto first = incremental.evaluateIn(RANGE_X, RANGE_Y);
+            KernelDensity2D snapshot = incremental.snapshot();
+            first.flatDensity[0] = Double.NaN;
+            KdeGrid2dDto second = incremental.evaluateIn(RANGE_X, RANGE_Y);
+
+            assertThat(second.flatDensity, is(snapshot.evaluateIn(RANGE_X, RANGE_Y).flatDensity));
+            assertThat(incremental.snapshot(), is(sameInstance(snapshot)));
+
+            incremental.add(0d, 1d);
+            assertThat(incremental.snapshot(), is(not(sameInstance(snapshot))));
+        }
+    }
+
+    public static class バンド幅を固定した推定のテスト {
+
+        @Test
+        public void test_モーメントによるバンド幅と同じ値に固定すれば一致する() {
+            Kde2DSourceDto source = gaussian(10_000);
+            IncrementalGaussianKd2D byMoments = IncrementalGaussianKd2D.of(FACTORY).addAll(source);
+            IncrementalGaussianKd2D frozen = IncrementalGaussianKd2D
+                    .withFrozenBandwidth(FACTORY, byMoments.bandWidthX(), byMoments.bandWidthY())
+                    .addAll(source);
+
+            assertThat(frozen.bandWidthX(), is(byMoments.bandWidthX()));
+            assertThat(frozen.bandWidthY(), is(byMoments.bandWidthY()));
+            assertThat(frozen.evaluateIn(RANGE_X, RANGE_Y).flatDensity,
+                    is(byMoments.evaluateIn(RANGE_X, RANGE_Y).flatDensity));
+        }
+
+        @Test
+        public void test_点を除去してもバンド幅は変化しない() {
+            Kde2DSourceDto source = gaussian(5000);
+            IncrementalGaussianKd2D frozen =
+                    IncrementalGaussianKd2D.withFrozenBandwidth(FACTORY, 0.2d, 0.1d).addAll(source);
+            frozen.removeAll(slice(source, 100, 5000));
+
+            assertThat(frozen.size(), is(100L));
+            assertThat(frozen.bandWidthX(), is(0.2d));
+            assertThat(frozen.bandWidthY(), is(0.1d));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_バンド幅が正でない場合は例外() {
+            IncrementalGaussianKd2D.withFrozenBandwidth(FACTORY, 0.2d, 0d);
+        }
+    }
+
+    public static class 例外のテスト {
+
+        @Test(expected = IllegalStateException.class)
+        public void test_空の場合は例外() {
+            IncrementalGaussianKd2D.of(FACTORY).evaluateIn(RANGE_X, RANGE_Y);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_有限でない値は追加できない() {
+            IncrementalGaussianKd2D.of(FACTORY).add(0d, Double.NaN);
+        }
+
+        @Test
+        public void test_まとめた追加は失敗すると何も追加しない() {
+            Kde2DSourceDto source = gaussian(10);
+            source.y[5] = Double.POSITIVE_INFINITY;
+            IncrementalGaussianKd2D incremental = IncrementalGaussianKd2D.of(FACTORY);
+            try {
+                incremental.addAll(source);
+            } catch (IllegalArgumentException expected) {
+                // 何もしない
+            }
+            assertThat(incremental.size(), is(0L));
+        }
+
+        @Test
+        public void test_まとめた除去は失敗すると状態を戻す() {
+            Kde2DSourceDto source = gaussian(10);
+            IncrementalGaussianKd2D incremental = IncrementalGaussianKd2D.of(FACTORY).addAll(source);
+            Kde2DSourceDto removed = slice(source, 0, 3);
+            removed.x[2] = 1E+10;
+            try {
+                incremental.removeAll(removed);
+            } catch (IllegalArgumentException expected) {
+                // 何もしない
+            }
+            assertThat(incremental.size(), is(10L));
+            incremental.removeAll(source);
+            assertThat(incremental.size(), is(0L));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_存在しない点は除去できない() {
+            IncrementalGaussianKd2D.of(FACTORY).add(1d, 1d).remove(2d, 1d);
+        }
+    }
+}
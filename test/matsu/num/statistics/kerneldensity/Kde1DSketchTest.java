@@ -0,0 +1,210 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import matsu.num.statistics.kerneldensity.GaussianKd1D.BandWidthRule;
+import matsu.num.statistics.kerneldensity.GaussianKd1D.ResolutionRule;
+import matsu.num.statistics.kerneldensity.conv.CyclicConvolutions;
+
+/**
+ * {@link Kde1DSketch} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class Kde1DSketchTest {
+
+    private static final GaussianKd1D.Factory FACTORY = GaussianKd1D.Factory
+            .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+            .withConvolutionBy(CyclicConvolutions.fftBased());
+
+    private static double[] gaussian(int size) {
+        return IntStream.range(0, size)
+                .mapToDouble(i -> ThreadLocalRandom.current().nextGaussian())
+                .toArray();
+    }
+
+    private static Kde1DSketch sketchOf(double origin, double step, double[] values) {
+        Kde1DSketch sketch = Kde1DSketch.of(origin, step);
+        for (double v : values) {
+            sketch.add(v);
+        }
+        return sketch;
+    }
+
+    public static class 集計のテスト {
+
+        @Test
+        public void test_値を格子のビンに計数する() {
+            Kde1DSketch sketch = Kde1DSketch.of(1d, 0.5d);
+            sketch.add(1.2d).add(1.7d).add(1.9d).add(-0.1d, 2d);
+
+            Kde1DHistogramDto histogram = sketch.toHistogram();
+            assertThat(histogram.start, is(-0.5d));
+            assertThat(histogram.width, is(0.5d));
+            assertThat(histogram.counts, is(new double[] { 2d, 0d, 0d, 1d, 2d }));
+            assertThat(sketch.totalWeight(), is(5d));
+        }
+
+        @Test
+        public void test_範囲が上限を超える場合は原点を保って粗視化する() {
+            Kde1DSketch sketch = Kde1DSketch.of(0d, 1d);
+            sketch.add(0.5d).add(Kde1DSketch.MAX_BIN_COUNT + 0.5d);
+
+            assertThat(sketch.width(), is(2d));
+            Kde1DHistogramDto histogram = sketch.toHistogram();
+            assertThat(histogram.start, is(0d));
+            assertThat(histogram.size, is(Kde1DSketch.MAX_BIN_COUNT / 2 + 1));
+            assertThat(Arrays.stream(histogram.counts).sum(), is(2d));
+        }
+
+        @Test
+        public void test_巨大な値も計数できる() {
+            Kde1DSketch sketch = Kde1DSketch.of(0d, 1d);
+            sketch.add(-1E300).add(0d).add(1E300);
+
+            assertThat(Arrays.stream(sketch.toHistogram().counts).sum(), is(3d));
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void test_空の場合は例外() {
+            Kde1DSketch.of(0d, 1d).toHistogram();
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_重みが正でない場合は例外() {
+            Kde1DSketch.of(0d, 1d).add(0d, 0d);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_格子が不正な場合は例外() {
+            Kde1DSketch.of(0d, 0d);
+        }
+    }
+
+    public static class 結合のテスト {
+
+        @Test
+        public void test_分割して結合した結果は一括の集計と一致する() {
+            double[] values = gaussian(30_000);
+            Kde1DSketch whole = sketchOf(0d, 1E-3d, values);
+            Kde1DSketch merged = Kde1DSketch.merge(
+                    sketchOf(0d, 1E-3d, Arrays.copyOfRange(values, 0, 10_000)),
+                    sketchOf(0d, 1E-3d, Arrays.copyOfRange(values, 10_000, 30_000)));
+
+            Kde1DHistogramDto expected = whole.toHistogram();
+            Kde1DHistogramDto result = merged.toHistogram();
+            assertThat(result.start, is(expected.start));
+            assertThat(result.counts, is(expected.counts));
+            assertThat(merged.totalWeight(), is(30_000d));
+        }
+
+        @Test
+        public void test_粗視化の度合いが異なるスケッチの結合は結合的() {
+            double step = 1E-5d;
+            Kde1DSketch a = sketchOf(0d, step, new double[] { 0d, 1d });
+            Kde1DSketch b = sketchOf(0d, step, new double[] { 5d, 20d, 20.5d });
+            Kde1DSketch c = sketchOf(0d, step, new double[] { -3d, 0.25d });
+            assertThat(a.width(), is(lessThan(b.width())));
+
+            Kde1DHistogramDto left = Kde1DSketch.merge(Kde1DSketch.merge(a, b), c).toHistogram();
+            Kde1DHistogramDto right = Kde1DSketch.merge(a, Kde1DSketch.merge(b, c)).toHistogram();
+            Kde1DHistogramDto swapped = Kde1DSketch.merge(Kde1DSketch.merge(c, a), b).toHistogram();
+
+            assertThat(right.start, is(left.start));
+            assertThat(right.width, is(left.width));
+            assertThat(right.counts, is(left.counts));
+            assertThat(swapped.counts, is(left.counts));
+            assertThat(Arrays.stream(left.counts).sum(), is(7d));
+        }
+
+        @Test
+        public void test_空のスケッチは結合の単位元() {
+            Kde1DSketch a = sketchOf(0d, 0.1d, new double[] { 1d, 2d });
+            Kde1DSketch merged = Kde1DSketch.merge(Kde1DSketch.of(0d, 0.1d), a);
+            assertThat(merged.toHistogram().counts, is(a.toHistogram().counts));
+            assertThat(Kde1DSketch.merge(Kde1DSketch.of(0d, 0.1d), Kde1DSketch.of(0d, 0.1d)).isEmpty(), is(true));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_格子が異なる場合は例外() {
+            Kde1DSketch.merge(Kde1DSketch.of(0d, 0.1d), Kde1DSketch.of(0.05d, 0.1d));
+        }
+    }
+
+    public static class 推定のテスト {
+
+        @Test
+        public void test_生データからの推定と概ね一致する() {
+            double[] values = gaussian(50_000);
+            Kde1DSketch merged = Kde1DSketch.merge(
+                    sketchOf(0d, 1E-3d, Arrays.copyOfRange(values, 0, 25_000)),
+                    sketchOf(0d, 1E-3d, Arrays.copyOfRange(values, 25_000, 50_000)));
+
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto expected = FACTORY.createOf(values).evaluateIn(range);
+            KdeGrid1dDto result = merged.build(FACTORY).evaluateIn(range);
+            assertThat(result.size, is(expected.size));
+            for (int i = 0; i < result.size; i++) {
+                assertThat(result.density[i], is(closeTo(expected.density[i], 1E-4)));
+            }
+        }
+    }
+
+    public static class 直列化のテスト {
+
+        @Test
+        public void test_バイト列から復元できる() {
+            Kde1DSketch sketch = sketchOf(0.5d, 1E-2d, gaussian(1000));
+            Kde1DSketch restored = Kde1DSketch.fromBytes(sketch.toBytes());
+
+            assertThat(restored.origin(), is(0.5d));
+            assertThat(restored.step(), is(1E-2d));
+            assertThat(restored.totalWeight(), is(sketch.totalWeight()));
+            assertThat(restored.toHistogram().start, is(sketch.toHistogram().start));
+            assertThat(restored.toHistogram().counts, is(sketch.toHistogram().counts));
+
+            Range range = Range.of(-3d, 3d);
+            assertThat(restored.build(FACTORY).evaluateIn(range).density,
+                    is(sketch.build(FACTORY).evaluateIn(range).density));
+        }
+
+        @Test
+        public void test_空のスケッチも復元できる() {
+            Kde1DSketch restored = Kde1DSketch.fromBytes(Kde1DSketch.of(0d, 1d).toBytes());
+            assertThat(restored.isEmpty(), is(true));
+        }
+
+        @Test
+        public void test_バイト列は度数が正の範囲のみを含む() {
+            Kde1DSketch sketch = Kde1DSketch.of(0d, 1d).add(0.5d).add(2.5d);
+            assertThat(sketch.toBytes().length, is(Kde1DSketch.of(0d, 1d).toBytes().length + 3 * Double.BYTES));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_切り詰められたバイト列は例外() {
+            byte[] bytes = Kde1DSketch.of(0d, 1d).add(0.5d).toBytes();
+            Kde1DSketch.fromBytes(Arrays.copyOf(bytes, bytes.length - 1));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_先頭が異なるバイト列は例外() {
+            byte[] bytes = Kde1DSketch.of(0d, 1d).add(0.5d).toBytes();
+            bytes[0] = 0;
+            Kde1DSketch.fromBytes(bytes);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import matsu.num.statistics.kerneldensity.GaussianKd1D.BandWidthRule;
+import matsu.num.statistics.kerneldensity.GaussianKd1D.ResolutionRule;
+import matsu.num.statistics.kerneldensity.conv.CyclicConvolutions;
+
+/**
+ * {@link Kde1DStreamingBuilder} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class Kde1DStreamingBuilderTest {
+
+    public static class 集計のテスト {
+
+        private final GaussianKd1D.Factory factory = GaussianKd1D.Factory
+                .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                .withConvolutionBy(CyclicConvolutions.fftBased());
+
+        @Test
+        public void test_生データと概ね一致する() {
+            double[] source = IntStream.range(0, 100_000)
+                    .mapToDouble(i -> ThreadLocalRandom.current().nextGaussian())
+                    .toArray();
+            Kde1DStreamingBuilder builder = new Kde1DStreamingBuilder();
+            for (double v : source) {
+                builder.accept(v);
+            }
+
+            Range range = Range.of(-3d, 3d);
+            KdeGrid1dDto expected = factory.createOf(source).evaluateIn(range);
+            KdeGrid1dDto result = builder.build(factory).evaluateIn(range);
+
+            assertThat(result.size, is(expected.size));
+            for (int i = 0; i < expected.size; i++) {
+                assertThat(result.x[i], is(closeTo(expected.x[i], 1E-4)));
+                assertThat(result.density[i], is(closeTo(expected.density[i], 1E-4)));
+            }
+        }
+
+        @Test
+        public void test_外れ値により粗視化しても度数の総和と台は保たれる() {
+            Kde1DStreamingBuilder builder = new Kde1DStreamingBuilder();
+            for (int i = 0; i < Kde1DStreamingBuilder.PILOT_SIZE; i++) {
+                builder.accept(ThreadLocalRandom.current().nextDouble());
+            }
+            builder.accept(1E+9);
+            builder.accept(-1E+12);
+
+            Kde1DHistogramDto histogram = builder.toHistogram();
+            assertThat(histogram.size, is(lessThanOrEqualTo(Kde1DStreamingBuilder.MAX_BIN_COUNT)));
+            assertThat(Arrays.stream(histogram.counts).sum(), is(Kde1DStreamingBuilder.PILOT_SIZE + 2d));
+            assertThat(histogram.start, is(lessThanOrEqualTo(-1E+12)));
+            assertThat(histogram.start + histogram.size * histogram.width, is(greaterThan(1E+9)));
+        }
+
+        @Test
+        public void test_極端な値でも集計できる() {
+            Kde1DStreamingBuilder builder = new Kde1DStreamingBuilder();
+            builder.accept(0d);
+            builder.accept(1E+300);
+            builder.accept(-1E+300);
+
+            Kde1DHistogramDto histogram = builder.toHistogram();
+            assertThat(Arrays.stream(histogram.counts).sum(), is(3d));
+        }
+
+        @Test
+        public void test_値が1種類のみ() {
+            Kde1DStreamingBuilder builder = new Kde1DStreamingBuilder();
+            for (int i = 0; i < 10; i++) {
+                builder.accept(5d);
+            }
+
+            Kde1DHistogramDto histogram = builder.toHistogram();
+            assertThat(histogram.size, is(1));
+            assertThat(histogram.counts[0], is(10d));
+            assertThat(histogram.start, is(lessThanOrEqualTo(5d)));
+            assertThat(histogram.start + histogram.width, is(greaterThan(5d)));
+        }
+
+        @Test
+        public void test_テキストから読み込む() throws IOException {
+            Kde1DStreamingBuilder builder = new Kde1DStreamingBuilder()
+                    .read(new StringReader("1\n2\n2.5\n"));
+
+            assertThat(builder.size(), is(3L));
+            assertThat(Arrays.stream(builder.toHistogram().counts).sum(), is(3d));
+        }
+
+        @Test
+        public void test_ヘッダ行を読み飛ばし指定した列を読み込む() throws IOException {
+            Kde1DStreamingBuilder builder = new Kde1DStreamingBuilder()
+                    .read(new StringReader("id,value\n1,10\n2,-3.5\n\n3,7\n"), 1, 1);
+            Kde1DStreamingBuilder expected = new Kde1DStreamingBuilder()
+                    .accept(10d).accept(-3.5d).accept(7d);
+
+            assertThat(builder.size(), is(3L));
+            assertThat(builder.toHistogram().start, is(expected.toHistogram().start));
+            assertThat(builder.toHistogram().counts, is(expected.toHistogram().counts));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_指定した列を持たない行は不可() throws IOException {
+            new Kde1DStreamingBuilder().read(new StringReader("1,10\n2\n"), 0, 1);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_列は負であってはならない() throws IOException {
+            new Kde1DStreamingBuilder().read(new StringReader("1\n"), 0, -1);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_有限でない値は不可() {
+            new Kde1DStreamingBuilder().accept(Double.NaN);
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void test_空のビルダーは不可() {
+            new Kde1DStreamingBuilder().toHistogram();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import matsu.num.statistics.kerneldensity.GaussianKd2D.BandWidthRule;
+import matsu.num.statistics.kerneldensity.GaussianKd2D.ResolutionRule;
+import matsu.num.statistics.kerneldensity.conv.CyclicConvolutions;
+
+/**
+ * {@link Kde2DSketch} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class Kde2DSketchTest {
+
+    private static final GaussianKd2D.Factory FACTORY = GaussianKd2D.Factory
+            .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+            .withConvolutionBy(CyclicConvolutions.fftBased());
+
+    private static Kde2DSourceDto gaussian(int size) {
+        Kde2DSourceDto source = new Kde2DSourceDto(size);
+        for (int i = 0; i < size; i++) {
+            source.x[i] = ThreadLocalRandom.current().nextGaussian();
+            source.y[i] = 0.5 * ThreadLocalRandom.current().nextGaussian() + 1d;
+        }
+        return source;
+    }
+
+    private static Kde2DSketch sketchOf(double step, Kde2DSourceDto source, int from, int to) {
+        Kde2DSketch sketch = Kde2DSketch.of(0d, step, 0d, step);
+        IntStream.range(from, to).forEach(i -> sketch.add(source.x[i], source.y[i]));
+        return sketch;
+    }
+
+    private static void assertSameHistogram(Kde2DHistogramDto result, Kde2DHistogramDto expected) {
+        assertThat(result.startX, is(expected.startX));
+        assertThat(result.widthX, is(expected.widthX));
+        assertThat(result.sizeX, is(expected.sizeX));
+        assertThat(result.startY, is(expected.startY));
+        assertThat(result.widthY, is(expected.widthY));
+        assertThat(result.sizeY, is(expected.sizeY));
+        assertThat(result.counts, is(expected.counts));
+    }
+
+    public static class 集計のテスト {
+
+        @Test
+        public void test_点を格子のビンに計数する() {
+            Kde2DSketch sketch = Kde2DSketch.of(1d, 0.5d, 0d, 1d);
+            sketch.add(1.2d, 0.5d).add(1.7d, 2.5d).add(-0.1d, 0.2d, 2d);
+
+            Kde2DHistogramDto histogram = sketch.toHistogram();
+            assertThat(histogram.startX, is(-0.5d));
+            assertThat(histogram.widthX, is(0.5d));
+            assertThat(histogram.sizeX, is(5));
+            assertThat(histogram.startY, is(0d));
+            assertThat(histogram.widthY, is(1d));
+            assertThat(histogram.sizeY, is(3));
+            assertThat(histogram.counts, is(new double[] {
+                    2d, 0d, 0d,
+                    0d, 0d, 0d,
+                    0d, 0d, 0d,
+                    1d, 0d, 0d,
+                    0d, 0d, 1d }));
+            assertThat(sketch.totalWeight(), is(4d));
+        }
+
+        @Test
+        public void test_範囲が上限を超える軸のみを粗視化する() {
+            Kde2DSketch sketch = Kde2DSketch.of(0d, 1d, 0d, 1d);
+            sketch.add(0.5d, 0.5d).add(Kde2DSketch.MAX_BIN_COUNT_PER_AXIS + 0.5d, 3.5d);
+
+            assertThat(sketch.widthX(), is(2d));
+            assertThat(sketch.widthY(), is(1d));
+            Kde2DHistogramDto histogram = sketch.toHistogram();
+            assertThat(histogram.startX, is(0d));
+            assertThat(histogram.sizeX, is(Kde2DSketch.MAX_BIN_COUNT_PER_AXIS / 2 + 1));
+            assertThat(histogram.startY, is(0d));
+            assertThat(histogram.sizeY, is(4));
+            assertThat(Arrays.stream(histogram.counts).sum(), is(2d));
+        }
+
+        @Test
+        public void test_巨大な値も計数できる() {
+            Kde2DSketch sketch = Kde2DSketch.of(0d, 1d, 0d, 1d);
+            sketch.add(-1E300, 0d).add(0d, 1E300).add(1E300, -1E300);
+
+            assertThat(Arrays.stream(sketch.toHistogram().counts).sum(), is(3d));
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void test_空の場合は例外() {
+            Kde2DSketch.of(0d, 1d, 0d, 1d).toHistogram();
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void test_空の場合の推定は例外() {
+            Kde2DSketch.of(0d, 1d, 0d, 1d).build(FACTORY);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_重みが正でない場合は例外() {
+            Kde2DSketch.of(0d, 1d, 0d, 1d).add(0d, 0d, 0d);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_格子が不正な場合は例外() {
+            Kde2DSketch.of(0d, 1d, 0d, 0d);
+        }
+    }
+
+    public static class 結合のテスト {
+
+        @Test
+        public void test_分割して結合した結果は一括の集計と一致する() {
+            Kde2DSourceDto source = gaussian(30_000);
+            Kde2DSketch whole = sketchOf(1E-2d, source, 0, 30_000);
+            Kde2DSketch merged = Kde2DSketch.merge(
+                    sketchOf(1E-2d, source, 0, 10_000),
+                    sketchOf(1E-2d, source, 10_000, 30_000));
+
+            assertSameHistogram(merged.toHistogram(), whole.toHistogram());
+            assertThat(merged.totalWeight(), is(30_000d));
+        }
+
+        @Test
+        public void test_粗視化の度合いが異なるスケッチの結合は結合的() {
+            double step = 1E-3d;
+            Kde2DSketch a = Kde2DSketch.of(0d, step, 0d, step).add(0d, 0d).add(0.5d, 0.5d);
+            Kde2DSketch b = Kde2DSketch.of(0d, step, 0d, step).add(5d, 0d).add(10d, 0.25d);
+            Kde2DSketch c = Kde2DSketch.of(0d, step, 0d, step).add(-1d, 3d).add(0.25d, 0d);
+            assertThat(a.widthX(), is(lessThan(b.widthX())));
+            assertThat(b.widthY(), is(lessThan(c.widthY())));
+
+            Kde2DHistogramDto left = Kde2DSketch.merge(Kde2DSketch.merge(a, b), c).toHistogram();
+            Kde2DHistogramDto right = Kde2DSketch.merge(a, Kde2DSketch.merge(b, c)).toHistogram();
+            Kde2DHistogramDto swapped = Kde2DSketch.merge(Kde2DSketch.merge(c, a), b).toHistogram();
+
+            assertSameHistogram(right, left);
+            assertSameHistogram(swapped, left);
+            assertThat(Arrays.stream(left.counts).sum(), is(6d));
+        }
+
+        @Test
+        public void test_空のスケッチは結合の単位元() {
+            Kde2DSketch a = Kde2DSketch.of(0d, 0.1d, 0d, 0.1d).add(1d, 2d).add(2d, 1d);
+            Kde2DSketch merged = Kde2DSketch.merge(Kde2DSketch.of(0d, 0.1d, 0d, 0.1d), a);
+            assertSameHistogram(merged.toHistogram(), a.toHistogram());
+            assertThat(Kde2DSketch.merge(
+                    Kde2DSketch.of(0d, 0.1d, 0d, 0.1d), Kde2DSketch.of(0d, 0.1d, 0d, 0.1d)).isEmpty(),
+                    is(true));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_格子が異なる場合は例外() {
+            Kde2DSketch.merge(Kde2DSketch.of(0d, 0.1d, 0d, 0.1d), Kde2DSketch.of(0d, 0.1d, 0.05d, 0.1d));
+        }
+    }
+
+    public static class 推定のテスト {
+
+        @Test
+        public void test_生データからの推定と概ね一致する() {
+            Kde2DSourceDto source = gaussian(50_000);
+            Kde2DSketch merged = Kde2DSketch.merge(
+                    sketchOf(1E-2d, source, 0, 25_000),
+                    sketchOf(1E-2d, source, 25_000, 50_000));
+
+            Range rangeX = Range.of(-3d, 3d);
+            Range rangeY = Range.of(-0.5d, 2.5d);
+            KdeGrid2dDto expected = FACTORY.createOf(source).evaluateIn(rangeX, rangeY);
+            KdeGrid2dDto result = merged.build(FACTORY).evaluateIn(rangeX, rangeY);
+            assertThat(result.sizeX, is(expected.sizeX));
+            assertThat(result.sizeY, is(expected.sizeY));
+            double peak = Arrays.stream(expected.flatDensity).max().getAsDouble();
+            for (int i = 0; i < result.flatDensity.length; i++) {
+                assertThat(result.flatDensity[i], is(closeTo(expected.flatDensity[i], 1E-2 * peak)));
+            }
+        }
+    }
+
+    public static class 直列化のテスト {
+
+        @Test
+        public void test_バイト列から復元できる() {
+            Kde2DSketch sketch = sketchOf(1E-2d, gaussian(1000), 0, 1000);
+            Kde2DSketch restored = Kde2DSketch.fromBytes(sketch.toBytes());
+
+            assertThat(restored.stepX(), is(1E-2d));
+            assertThat(restored.stepY(), is(1E-2d));
+            assertThat(restored.totalWeight(), is(sketch.totalWeight()));
+            assertSameHistogram(restored.toHistogram(), sketch.toHistogram());
+
+            Range rangeX = Range.of(-3d, 3d);
+            Range rangeY = Range.of(-0.5d, 2.5d);
+            assertThat(restored.build(FACTORY).evaluateIn(rangeX, rangeY).flatDensity,
+                    is(sketch.build(FACTORY).evaluateIn(rangeX, rangeY).flatDensity));
+        }
+
+        @Test
+        public void test_復元したスケッチに点を追加できる() {
+            Kde2DSketch restored = Kde2DSketch.fromBytes(
+                    Kde2DSketch.of(0d, 1d, 0d, 1d).add(0.5d, 0.5d).toBytes());
+            restored.add(-3.5d, 5.5d);
+
+            Kde2DHistogramDto expected = Kde2DSketch.of(0d, 1d, 0d, 1d)
+                    .add(0.5d, 0.5d).add(-3.5d, 5.5d).toHistogram();
+            assertSameHistogram(restored.toHistogram(), expected);
+        }
+
+        @Test
+        public void test_空のスケッチも復元できる() {
+            Kde2DSketch restored = Kde2DSketch.fromBytes(Kde2DSketch.of(0d, 1d, 0d, 1d).toBytes());
+            assertThat(restored.isEmpty(), is(true));
+        }
+
+        @Test
+        public void test_バイト列は度数が正の矩形のみを含む() {
+            Kde2DSketch sketch = Kde2DSketch.of(0d, 1d, 0d, 1d).add(0.5d, 0.5d).add(2.5d, 1.5d);
+            assertThat(sketch.toBytes().length,
+                    is(Kde2DSketch.of(0d, 1d, 0d, 1d).toBytes().length + 3 * 2 * Double.BYTES));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_切り詰められたバイト列は例外() {
+            byte[] bytes = Kde2DSketch.of(0d, 1d, 0d, 1d).add(0.5d, 0.5d).toBytes();
+            Kde2DSketch.fromBytes(Arrays.copyOf(bytes, bytes.length - 1));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_先頭が異なるバイト列は例外() {
+            byte[] bytes = Kde2DSketch.of(0d, 1d, 0d, 1d).add(0.5d, 0.5d).toBytes();
+            bytes[0] = 0;
+            Kde2DSketch.fromBytes(bytes);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_縁の度数が0のバイト列は例外() {
+            byte[] bytes = Kde2DSketch.of(0d, 1d, 0d, 1d).add(0.5d, 0.5d).add(1.5d, 1.5d).toBytes();
+            // 最後の度数 (右上のビン) を0にする
+            Arrays.fill(bytes, bytes.length - Double.BYTES, bytes.length, (byte) 0);
+            Kde2DSketch.fromBytes(bytes);
+        }
+    }
+}
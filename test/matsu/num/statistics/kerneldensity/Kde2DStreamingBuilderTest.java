@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import matsu.num.statistics.kerneldensity.GaussianKd2D.BandWidthRule;
+import matsu.num.statistics.kerneldensity.GaussianKd2D.ResolutionRule;
+import matsu.num.statistics.kerneldensity.conv.CyclicConvolutions;
+
+/**
+ * {@link Kde2DStreamingBuilder} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class Kde2DStreamingBuilderTest {
+
+    public static class 集計のテスト {
+
+        private final GaussianKd2D.Factory factory = GaussianKd2D.Factory
+                .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+                .withConvolutionBy(CyclicConvolutions.fftBased());
+
+        @Test
+        public void test_生データと概ね一致する() {
+            Kde2DSourceDto source = new Kde2DSourceDto(100_000);
+            Kde2DStreamingBuilder builder = new Kde2DStreamingBuilder();
+            for (int i = 0; i < source.size; i++) {
+                source.x[i] = ThreadLocalRandom.current().nextGaussian();
+                source.y[i] = 2d * ThreadLocalRandom.current().nextGaussian();
+                builder.accept(source.x[i], source.y[i]);
+            }
+
+            Range rangeX = Range.of(-2d, 2d);
+            Range rangeY = Range.of(-3d, 3d);
+            KdeGrid2dDto expected = factory.createOf(source).evaluateIn(rangeX, rangeY);
+            KdeGrid2dDto result = builder.build(factory).evaluateIn(rangeX, rangeY);
+
+            assertThat(result.flatDensity.length, is(expected.flatDensity.length));
+            for (int i = 0; i < expected.flatDensity.length; i++) {
+                assertThat(result.flatDensity[i], is(closeTo(expected.flatDensity[i], 1E-3)));
+            }
+        }
+
+        @Test
+        public void test_外れ値により粗視化しても度数の総和は保たれる() {
+            Kde2DStreamingBuilder builder = new Kde2DStreamingBuilder();
+            for (int i = 0; i < Kde2DStreamingBuilder.PILOT_SIZE; i++) {
+                builder.accept(ThreadLocalRandom.current().nextDouble(), ThreadLocalRandom.current().nextDouble());
+            }
+            builder.accept(1E+9, 0d);
+            builder.accept(0d, -1E+12);
+
+            Kde2DHistogramDto histogram = builder.toHistogram();
+            assertThat(histogram.sizeX, is(lessThanOrEqualTo(Kde2DStreamingBuilder.MAX_BIN_COUNT_PER_AXIS)));
+            assertThat(histogram.sizeY, is(lessThanOrEqualTo(Kde2DStreamingBuilder.MAX_BIN_COUNT_PER_AXIS)));
+            assertThat(Arrays.stream(histogram.counts).sum(), is(Kde2DStreamingBuilder.PILOT_SIZE + 2d));
+        }
+
+        @Test
+        public void test_テキストから読み込む() throws IOException {
+            Kde2DStreamingBuilder builder = new Kde2DStreamingBuilder()
+                    .read(new StringReader("1,2\n3,4\n"));
+
+            assertThat(builder.size(), is(2L));
+            assertThat(Arrays.stream(builder.toHistogram().counts).sum(), is(2d));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_数値の個数が奇数のテキストは不可() throws IOException {
+            new Kde2DStreamingBuilder().read(new StringReader("1,2\n3\n"));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_数値の個数が2でない行は不可() throws IOException {
+            new Kde2DStreamingBuilder().read(new StringReader("1,2,3\n4\n"));
+        }
+
+        @Test
+        public void test_ヘッダ行を読み飛ばして読み込む() throws IOException {
+            Kde2DStreamingBuilder builder = new Kde2DStreamingBuilder()
+                    .read(new StringReader("x,y\n1,2\n\n3,4\n"), 1);
+
+            assertThat(builder.size(), is(2L));
+            assertThat(Arrays.stream(builder.toHistogram().counts).sum(), is(2d));
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import matsu.num.statistics.kerneldensity.conv.CyclicConvolutions;
+
+/**
+ * {@link KdeSnapshotFiles} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class KdeSnapshotFilesTest {
+
+    public static final Class<?> TEST_CLASS = KdeSnapshotFiles.class;
+
+    private static double[] gaussian(int size) {
+        return IntStream.range(0, size)
+                .mapToDouble(i -> ThreadLocalRandom.current().nextGaussian())
+                .toArray();
+    }
+
+    private static void assertSameGrid(KdeGrid1dDto result, KdeGrid1dDto expected) {
+        assertThat(result.x, is(expected.x));
+        for (int i = 0; i < expected.size; i++) {
+            assertThat(result.density[i], is(closeTo(expected.density[i], 1E-12)));
+        }
+    }
+
+    private static void assertSameGrid(KdeGrid2dDto result, KdeGrid2dDto expected) {
+        assertThat(result.x, is(expected.x));
+        assertThat(result.y, is(expected.y));
+        for (int i = 0; i < expected.flatDensity.length; i++) {
+            assertThat(result.flatDensity[i], is(closeTo(expected.flatDensity[i], 1E-12)));
+        }
+    }
+
+    public static class 一次元の保存と復元のテスト {
+
+        private final GaussianKd1D.Factory factory = GaussianKd1D.Factory
+                .of(GaussianKd1D.BandWidthRule.STANDARD, GaussianKd1D.ResolutionRule.STANDARD)
+                .withConvolutionBy(CyclicConvolutions.fftBased());
+
+        private final Range range = Range.of(-3d, 3d);
+
+        private Path file;
+
+        @Before
+        public void before_ファイルを用意する() throws IOException {
+            file = Files.createTempFile("kde-snapshot", ".bin");
+        }
+
+        @After
+        public void after_ファイルを削除する() throws IOException {
+            Files.deleteIfExists(file);
+        }
+
+        @Test
+        public void test_点によるソース() throws IOException {
+            double[] source = gaussian(10_000);
+            GaussianKd1D estimator = factory.createOf(source);
+            KdeSnapshotFiles.save(estimator, file);
+
+            assertThat(Files.size(file), is(KdeSnapshotFiles.HEADER_BYTES + 10_000L * Double.BYTES));
+            assertSameGrid(KdeSnapshotFiles.load(file, factory).evaluateIn(range), estimator.evaluateIn(range));
+        }
+
+        @Test
+        public void test_重み付きの点によるソース() throws IOException {
+            double[] values = gaussian(1000);
+            double[] weights = IntStream.range(0, 1000).mapToDouble(i -> 1 + i % 3).toArray();
+            GaussianKd1D estimator = factory.withSourceSorting(true).createOf(values, weights);
+            KdeSnapshotFiles.save(estimator, file);
+
+            assertSameGrid(KdeSnapshotFiles.load(file, factory).evaluateIn(range), estimator.evaluateIn(range));
+        }
+
+        @Test
+        public void test_昇順のソースは昇順のまま復元される() throws IOException {
+            GaussianKd1D estimator = factory.withSourceSorting(true).createOf(gaussian(10_000));
+            KdeSnapshotFiles.save(estimator, file);
+            GaussianKd1D loaded = KdeSnapshotFiles.load(file, factory);
+
+            assertThat(loaded.source().sorted, is(true));
+            Range narrow = Range.of(0.5d, 1d);
+            assertSameGrid(loaded.evaluateIn(narrow), estimator.evaluateIn(narrow));
+        }
+
+        @Test
+        public void test_ヒストグラムによるソース() throws IOException {
+            Kde1DHistogramDto histogram = new Kde1DHistogramDto(-1d, 0.25d, 8);
+            for (int i = 0; i < histogram.size; i++) {
+                histogram.counts[i] = i % 3;
+            }
+            GaussianKd1D estimator = factory.createOf(histogram);
+            KdeSnapshotFiles.save(estimator, file);
+
+            assertSameGrid(KdeSnapshotFiles.load(file, factory).evaluateIn(range), estimator.evaluateIn(range));
+        }
+
+        @Test
+        public void test_上書きして保存できる() throws IOException {
+            KdeSnapshotFiles.save(factory.createOf(gaussian(5000)), file);
+            GaussianKd1D estimator = factory.createOf(new double[] { 0d, 1d });
+            KdeSnapshotFiles.save(estimator, file);
+
+            assertSameGrid(KdeSnapshotFiles.load(file, factory).evaluateIn(range), estimator.evaluateIn(range));
+        }
+
+        @Test
+        public void test_復元した推定を同じファイルに保存できる() throws IOException {
+            GaussianKd1D original = factory.createOf(gaussian(200_000));
+            KdeSnapshotFiles.save(original, file);
+            GaussianKd1D loaded = KdeSnapshotFiles.load(file, factory);
+            KdeGrid1dDto expected = loaded.evaluateIn(range);
+
+            // 復元した推定はファイルをメモリマップしたまま, 同じファイルへ保存し直す
+            KdeSnapshotFiles.save(loaded, file);
+            assertSameGrid(loaded.evaluateIn(range), expected);
+
+            // 別の内容で置き換えても, メモリマップしている推定は影響を受けない
+            KdeSnapshotFiles.save(factory.createOf(new double[] { 0d, 1d }), file);
+            assertSameGrid(loaded.evaluateIn(range), expected);
+            assertThat(Files.size(file), is(KdeSnapshotFiles.HEADER_BYTES + 2L * Double.BYTES));
+            try (Stream<Path> entries = Files.list(file.getParent())) {
+                assertThat(entries.anyMatch(p -> p.getFileName().toString()
+                        .startsWith(file.getFileName() + ".")), is(false));
+            }
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_次元が異なるファイルは不可() throws IOException {
+            KdeSnapshotFiles.save(factory.createOf(gaussian(100)), file);
+            KdeSnapshotFiles.load(file, GaussianKd2D.Factory
+                    .of(GaussianKd2D.BandWidthRule.STANDARD, GaussianKd2D.ResolutionRule.STANDARD));
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_切り詰められたファイルは不可() throws IOException {
+            KdeSnapshotFiles.save(factory.createOf(gaussian(100)), file);
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - Double.BYTES));
+            KdeSnapshotFiles.load(file, factory);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_スナップショットでないファイルは不可() throws IOException {
+            Files.write(file, new byte[KdeSnapshotFiles.HEADER_BYTES + Double.BYTES]);
+            KdeSnapshotFiles.load(file, factory);
+        }
+    }
+
+    public static class 二次元の保存と復元のテスト {
+
+        private final GaussianKd2D.Factory factory = GaussianKd2D.Factory
+                .of(GaussianKd2D.BandWidthRule.STANDARD, GaussianKd2D.ResolutionRule.STANDARD)
+                .withConvolutionBy(CyclicConvolutions.fftBased());
+
+        private final Range rangeX = Range.of(-2d, 2d);
+        private final Range rangeY = Range.of(-1d, 1d);
+
+        private Path file;
+
+        @Before
+        public void before_ファイルを用意する() throws IOException {
+            file = Files.createTempFile("kde-snapshot", ".bin");
+        }
+
+        @After
+        public void after_ファイルを削除する() throws IOException {
+            Files.deleteIfExists(file);
+        }
+
+        @Test
+        public void test_点によるソース() throws IOException {
+            Kde2DSourceDto source = new Kde2DSourceDto(5000);
+            for (int i = 0; i < source.size; i++) {
+                source.x[i] = ThreadLocalRandom.current().nextGaussian();
+                source.y[i] = ThreadLocalRandom.current().nextGaussian();
+            }
+            GaussianKd2D estimator = factory.createOf(source);
+            KdeSnapshotFiles.save(estimator, file);
+
+            assertThat(Files.size(file), is(KdeSnapshotFiles.HEADER_BYTES + 2 * 5000L * Double.BYTES));
+            assertSameGrid(KdeSnapshotFiles.load(file, factory).evaluateIn(rangeX, rangeY),
+                    estimator.evaluateIn(rangeX, rangeY));
+        }
+
+        @Test
+        public void test_重み付きの点によるソース() throws IOException {
+            Kde2DWeightedSourceDto source = new Kde2DWeightedSourceDto(2000);
+            for (int i = 0; i < source.size; i++) {
+                source.x[i] = ThreadLocalRandom.current().nextGaussian();
+                source.y[i] = ThreadLocalRandom.current().nextGaussian();
+                source.weight[i] = 0.5d + i % 2;
+            }
+            GaussianKd2D estimator = factory.createOf(source);
+            KdeSnapshotFiles.save(estimator, file);
+
+            assertSameGrid(KdeSnapshotFiles.load(file, factory).evaluateIn(rangeX, rangeY),
+                    estimator.evaluateIn(rangeX, rangeY));
+        }
+
+        @Test
+        public void test_xについて昇順のソースは昇順のまま復元される() throws IOException {
+            Kde2DSourceDto source = new Kde2DSourceDto(5000);
+            for (int i = 0; i < source.size; i++) {
+                source.x[i] = ThreadLocalRandom.current().nextGaussian();
+                source.y[i] = ThreadLocalRandom.current().nextGaussian();
+            }
+            GaussianKd2D estimator = factory.withSourceSorting(true).createOf(source);
+            KdeSnapshotFiles.save(estimator, file);
+            GaussianKd2D loaded = KdeSnapshotFiles.load(file, factory);
+
+            assertThat(loaded.source().sortedByX, is(true));
+            Range narrowX = Range.of(0.5d, 1d);
+            assertSameGrid(loaded.evaluateIn(narrowX, rangeY), estimator.evaluateIn(narrowX, rangeY));
+        }
+
+        @Test
+        public void test_ヒストグラムによるソース() throws IOException {
+            Kde2DHistogramDto histogram = new Kde2DHistogramDto(-1d, 0.5d, 4, -1d, 0.25d, 8);
+            for (int i = 0; i < histogram.counts.length; i++) {
+                histogram.counts[i] = i % 5;
+            }
+            GaussianKd2D estimator = factory.createOf(histogram);
+            KdeSnapshotFiles.save(estimator, file);
+
+            assertSameGrid(KdeSnapshotFiles.load(file, factory).evaluateIn(rangeX, rangeY),
+                    estimator.evaluateIn(rangeX, rangeY));
+        }
+    }
+}
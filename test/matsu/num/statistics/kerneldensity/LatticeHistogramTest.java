@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link LatticeHistogram} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class LatticeHistogramTest {
+
+    public static final Class<?> TEST_CLASS = LatticeHistogram.class;
+
+    public static class 格子の判定のテスト {
+
+        @Test
+        public void test_整数値() {
+            double[] values = { 3d, -1d, 3d, 0d, 2d, 3d };
+            LatticeHistogram lattice = LatticeHistogram.of(values, null);
+
+            assertThat(lattice.scale, is(1d));
+            assertThat(lattice.origin, is(-1L));
+            assertThat(lattice.counts, is(new double[] { 1d, 1d, 0d, 1d, 3d }));
+            assertThat(lattice.occupiedCellCount, is(4));
+        }
+
+        @Test
+        public void test_固定小数点の小数() {
+            double[] values = { 0.3d, 0.1d, 0.3d, 0.2d, 0.1d, 0.6d };
+            LatticeHistogram lattice = LatticeHistogram.of(values, null);
+
+            assertThat(lattice.scale, is(10d));
+            assertThat(lattice.origin, is(1L));
+            assertThat(lattice.counts, is(new double[] { 2d, 1d, 2d, 0d, 0d, 1d }));
+        }
+
+        @Test
+        public void test_重み付き() {
+            double[] values = { 1d, 2d, 1d };
+            double[] weights = { 0.5d, 2d, 0.25d };
+            LatticeHistogram lattice = LatticeHistogram.of(values, weights);
+
+            assertThat(lattice.counts, is(new double[] { 0.75d, 2d }));
+        }
+
+        @Test
+        public void test_格子上にない値を含む場合はnull() {
+            double[] values = { 1d, 2d, Math.PI };
+            assertThat(LatticeHistogram.of(values, null), is(nullValue()));
+        }
+
+        @Test
+        public void test_無限大を含む場合はnull() {
+            double[] values = { 1d, 2d, Double.POSITIVE_INFINITY };
+            assertThat(LatticeHistogram.of(values, null), is(nullValue()));
+        }
+
+        @Test
+        public void test_格子の幅がソースのサイズを超える場合はnull() {
+            double[] values = { 1d, 2d, 1000d };
+            assertThat(LatticeHistogram.of(values, null), is(nullValue()));
+        }
+    }
+
+    public static class ソースへの変換のテスト {
+
+        @Test
+        public void test_格子点の値は元の値と一致する() {
+            double[] values = { 0.3d, 0.1d, 0.3d, 0.7d, 0.1d, 0.6d, 0.7d };
+            BinningSource1D source = LatticeHistogram.of(values, null).toBinningSource();
+
+            assertThat(source.values, is(new double[] { 0.1d, 0.3d, 0.6d, 0.7d }));
+            assertThat(source.weights, is(new double[] { 2d, 2d, 1d, 2d }));
+            assertThat(source.totalWeight, is(7d));
+            assertThat(source.sorted, is(true));
+        }
+    }
+}
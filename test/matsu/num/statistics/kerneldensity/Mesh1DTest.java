@@ -9,6 +9,9 @@ package matsu.num.statistics.kerneldensity;
 import static org.hamcrest.MatcherAssert.*;
 import static org.hamcrest.Matchers.*;
 
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
@@ -80,6 +83,76 @@ final class Mesh1DTest {
         }
     }
 
+    public static class 重み付きビニングのテスト {
+
+        private final Range range = Range.of(-1d, 2d);
+        private final double resolution = 0.5;
+        private final int extSize = 2;
+
+        @Test
+        public void test_weightのテスト() {
+            double[] source = { -2.25d, 1.125d };
+            double[] weights = { 3d, 1d };
+            Mesh1D mesh1d = new Mesh1D(
+                    SupportWindow.mesh(range, resolution), resolution, extSize,
+                    BinningSource1D.of(source, weights, false));
+
+            // 重みの総和4で正規化される
+            double[] expected = new double[11];
+            expected[0] = 0.375d;
+            expected[6] = 0.1875d;
+            expected[7] = 0.0625d;
+            assertThat(mesh1d.weight, is(expected));
+        }
+
+        @Test
+        public void test_整数の重みは重複させたソースと一致する() {
+            double[] source = { -2.25d, 1.125d };
+            double[] weights = { 3d, 1d };
+            double[] duplicated = { -2.25d, -2.25d, 1.125d, -2.25d };
+
+            Mesh1D weighted = new Mesh1D(
+                    SupportWindow.mesh(range, resolution), resolution, extSize,
+                    BinningSource1D.of(source, weights, false));
+            Mesh1D expected = new Mesh1D(range, resolution, extSize, duplicated);
+            assertThat(weighted.weight, is(expected.weight));
+        }
+    }
+
+    public static class 並列ビニングのテスト {
+
+        private final Range range = Range.of(-1d, 2d);
+        private final double resolution = 0.5;
+        private final int extSize = 2;
+
+        @Test
+        public void test_weightのテスト() {
+            // データ数2のソースを重複させて構築
+            double[] source = new double[Mesh1D.MIN_SOURCE_SIZE_IN_PARALLEL];
+            for (int i = 0; i < source.length; i++) {
+                source[i] = i % 2 == 0 ? -2.25d : 1.125d;
+            }
+            Mesh1D mesh1d = new Mesh1D(range, resolution, extSize, source);
+
+            double[] expected = new double[11];
+            expected[0] = 0.25d;
+            expected[6] = 0.375d;
+            expected[7] = 0.125d;
+            assertThat(mesh1d.weight, is(expected));
+        }
+
+        @Test
+        public void test_結果は決定的() {
+            double[] source = IntStream.range(0, Mesh1D.MIN_SOURCE_SIZE_IN_PARALLEL * 3)
+                    .mapToDouble(i -> ThreadLocalRandom.current().nextDouble(-3d, 4d))
+                    .toArray();
+
+            Mesh1D mesh1d_1 = new Mesh1D(range, resolution, extSize, source);
+            Mesh1D mesh1d_2 = new Mesh1D(range, resolution, extSize, source);
+            assertThat(mesh1d_1.weight, is(mesh1d_2.weight));
+        }
+    }
+
     public static class reduceSizeのテスト {
 
         private final Range range = Range.of(-1d, 2d);
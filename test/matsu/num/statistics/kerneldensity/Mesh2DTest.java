@@ -10,6 +10,8 @@ package matsu.num.statistics.kerneldensity;
 import static org.hamcrest.MatcherAssert.*;
 import static org.hamcrest.Matchers.*;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
@@ -129,18 +131,71 @@ final class Mesh2DTest {
              * [6][6]: 0.5 * 0.25 * 0.5
              * [6][7]: 0.5 * 0.25 * 0.5
              */
-            double[][] expectedWeight = new double[9][13];
+            double[] expectedWeight = new double[9 * 13];
             // [-0.25][-0.5]
-            expectedWeight[0][0] = 0.5 * 0.75 * 0.5;
+            expectedWeight[0 * 13 + 0] = 0.5 * 0.75 * 0.5;
 
             // [5.25][6.5]
-            expectedWeight[5][6] = 0.5 * 0.75 * 0.5;
-            expectedWeight[5][7] = 0.5 * 0.75 * 0.5;
-            expectedWeight[6][6] = 0.5 * 0.25 * 0.5;
-            expectedWeight[6][7] = 0.5 * 0.25 * 0.5;
+            expectedWeight[5 * 13 + 6] = 0.5 * 0.75 * 0.5;
+            expectedWeight[5 * 13 + 7] = 0.5 * 0.75 * 0.5;
+            expectedWeight[6 * 13 + 6] = 0.5 * 0.25 * 0.5;
+            expectedWeight[6 * 13 + 7] = 0.5 * 0.25 * 0.5;
+
+            assertThat(mesh2d.weight, is(expectedWeight));
+        }
+    }
+
+    public static class 並列ビニングのテスト {
+
+        private final Range rangeX = Range.of(-1d, 2d);
+        private final Range rangeY = Range.of(-1d, 1d);
+        private final double resolutionX = 0.5;
+        private final double resolutionY = 0.25;
+        private final int extSizeX = 1;
+        private final int extSizeY = 2;
+
+        @Test
+        public void test_weightのテスト() {
+
+            // データ数2のソースを重複させて構築
+            Kde2DSourceDto source = new Kde2DSourceDto(Mesh2D.MIN_SOURCE_SIZE_IN_PARALLEL);
+            for (int i = 0; i < source.size; i++) {
+                source.x[i] = i % 2 == 0 ? -1.625d : 1.125d;
+                source.y[i] = i % 2 == 0 ? -1.625d : 0.125d;
+            }
+
+            Mesh2D mesh2d = new Mesh2D(
+                    rangeX, rangeY, resolutionX, resolutionY, extSizeX, extSizeY, source);
+
+            // 期待値は逐次の場合と同一
+            double[] expectedWeight = new double[9 * 13];
+            expectedWeight[0 * 13 + 0] = 0.5 * 0.75 * 0.5;
+            expectedWeight[5 * 13 + 6] = 0.5 * 0.75 * 0.5;
+            expectedWeight[5 * 13 + 7] = 0.5 * 0.75 * 0.5;
+            expectedWeight[6 * 13 + 6] = 0.5 * 0.25 * 0.5;
+            expectedWeight[6 * 13 + 7] = 0.5 * 0.25 * 0.5;
 
             assertThat(mesh2d.weight, is(expectedWeight));
         }
+
+        @Test
+        public void test_部分の配列は呼び出しスレッドで再利用される() {
+            Kde2DSourceDto source = new Kde2DSourceDto(Mesh2D.MIN_SOURCE_SIZE_IN_PARALLEL);
+            for (int i = 0; i < source.size; i++) {
+                source.x[i] = ThreadLocalRandom.current().nextDouble(-1d, 2d);
+                source.y[i] = ThreadLocalRandom.current().nextDouble(-1d, 1d);
+            }
+
+            DoubleArrayWorkspace.release(new Mesh2D(
+                    rangeX, rangeY, resolutionX, resolutionY, extSizeX, extSizeY, source).weight);
+            long before = DoubleArrayWorkspace.reusedTotalLength();
+            Mesh2D mesh2d = new Mesh2D(
+                    rangeX, rangeY, resolutionX, resolutionY, extSizeX, extSizeY, source);
+            long reused = DoubleArrayWorkspace.reusedTotalLength() - before;
+
+            // 重み配列と, 4個の部分の配列が全て呼び出しスレッドのワークスペースから貸し出される
+            assertThat(reused, is(5L * mesh2d.weight.length));
+        }
     }
 
     public static class reduceSizeのテスト {
@@ -169,14 +224,14 @@ final class Mesh2DTest {
 
         @Test(expected = IllegalArgumentException.class)
         public void test_reduceSizeのテスト_xのサイズ違いは受け入れ不可() {
-            double[][] reducedSrc = new double[mesh2d.extendX.length - 1][mesh2d.extendY.length];
+            double[] reducedSrc = new double[(mesh2d.extendX.length - 1) * mesh2d.extendY.length];
 
             mesh2d.reduceSize(reducedSrc);
         }
 
         @Test(expected = IllegalArgumentException.class)
         public void test_reduceSizeのテスト_yのサイズ違いは受け入れ不可() {
-            double[][] reducedSrc = new double[mesh2d.extendX.length][mesh2d.extendY.length - 1];
+            double[] reducedSrc = new double[mesh2d.extendX.length * (mesh2d.extendY.length - 1)];
 
             mesh2d.reduceSize(reducedSrc);
         }
@@ -186,18 +241,19 @@ final class Mesh2DTest {
 
             /*
              * xy:(3, 5) -> extXY:(5, 9)
+             * 行優先で格納する
              */
-            double[][] reducedSrc = {
-                    { 0, 1, 2, 3, 4, 5, 6, 7, 8 },
-                    { 10, 11, 12, 13, 14, 15, 16, 17, 18 },
-                    { 20, 21, 22, 23, 24, 25, 26, 27, 28 },
-                    { 30, 31, 32, 33, 34, 35, 36, 37, 38 },
-                    { 40, 41, 42, 43, 44, 45, 46, 47, 48 },
+            double[] reducedSrc = {
+                    0, 1, 2, 3, 4, 5, 6, 7, 8,
+                    10, 11, 12, 13, 14, 15, 16, 17, 18,
+                    20, 21, 22, 23, 24, 25, 26, 27, 28,
+                    30, 31, 32, 33, 34, 35, 36, 37, 38,
+                    40, 41, 42, 43, 44, 45, 46, 47, 48,
             };
-            double[][] expected = {
-                    { 12, 13, 14, 15, 16 },
-                    { 22, 23, 24, 25, 26 },
-                    { 32, 33, 34, 35, 36 }
+            double[] expected = {
+                    12, 13, 14, 15, 16,
+                    22, 23, 24, 25, 26,
+                    32, 33, 34, 35, 36
             };
 
             assertThat(
@@ -0,0 +1,213 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link MomentAccumulator} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class MomentAccumulatorTest {
+
+    public static final Class<?> TEST_CLASS = MomentAccumulator.class;
+
+    private static double[] gaussian(int size, double mean, double std) {
+        double[] out = new double[size];
+        for (int i = 0; i < size; i++) {
+            out[i] = mean + std * ThreadLocalRandom.current().nextGaussian();
+        }
+        return out;
+    }
+
+    private static void assertRelativelyClose(double actual, double expected) {
+        assertThat(actual, is(closeTo(expected, Math.abs(expected) * 1E-12)));
+    }
+
+    public static class 集計のテスト {
+
+        @Test
+        public void test_多パスの計算と一致する() {
+            for (int size : new int[] { 2, 1000, 5 * MomentAccumulator.MIN_SIZE_IN_PARALLEL + 11 }) {
+                double[] values = gaussian(size, 1E8, 3d);
+                MomentAccumulator moments = MomentAccumulator.of(values);
+
+                assertRelativelyClose(moments.std(), StatisticsForTesting.std(values));
+                assertRelativelyClose(moments.mean(), StatisticsForTesting.average(values));
+                assertThat(moments.sampleSize(), is((double) size));
+                assertThat(moments.totalWeight(), is((double) size));
+            }
+        }
+
+        @Test
+        public void test_重み付きで多パスの計算と一致する() {
+            for (int size : new int[] { 2, 1000, 5 * MomentAccumulator.MIN_SIZE_IN_PARALLEL + 11 }) {
+                double[] values = gaussian(size, -2d, 1E-5);
+                double[] weights = new double[size];
+                for (int i = 0; i < size; i++) {
+                    weights[i] = ThreadLocalRandom.current().nextDouble(0d, 1E200);
+                }
+                MomentAccumulator moments = MomentAccumulator.of(values, weights);
+
+                assertRelativelyClose(moments.std(), StatisticsForTesting.weightedStd(values, weights));
+                assertRelativelyClose(moments.sampleSize(), StatisticsForTesting.effectiveSampleSize(weights));
+            }
+        }
+
+        @Test
+        public void test_重みが0の値は寄与しない() {
+            MomentAccumulator moments = new MomentAccumulator();
+            moments.accept(100d, 0d);
+            moments.accept(1d, 2d);
+            moments.accept(3d, 2d);
+
+            assertThat(moments.mean(), is(2d));
+            assertThat(moments.std(), is(1d));
+            assertThat(moments.sampleSize(), is(2d));
+            assertThat(moments.totalWeight(), is(4d));
+        }
+    }
+
+    public static class 巨大な値のテスト {
+
+        @Test
+        public void test_途中で巨大な値が現れても1パスで多パスの計算と一致する() {
+            double[] values = gaussian(1000, 0d, 1d);
+            values[700] = 3E300;
+            values[900] = -Double.MAX_VALUE;
+
+            MomentAccumulator moments = MomentAccumulator.of(values);
+            assertRelativelyClose(moments.std(), StatisticsForTesting.std(values));
+            assertRelativelyClose(moments.mean(), StatisticsForTesting.average(values));
+        }
+
+        @Test
+        public void test_巨大な値が近接していても精度を保つ() {
+            double[] values = gaussian(1000, 1E300, 1E290);
+            assertRelativelyClose(MomentAccumulator.of(values).std(), StatisticsForTesting.std(values));
+        }
+
+        @Test
+        public void test_無限大は境界値として扱う() {
+            MomentAccumulator moments = new MomentAccumulator();
+            moments.accept(Double.POSITIVE_INFINITY);
+            moments.accept(Double.NEGATIVE_INFINITY);
+
+            assertThat(moments.mean(), is(0d));
+            assertThat(moments.std(), is(Double.MAX_VALUE));
+        }
+    }
+
+    public static class 結合のテスト {
+
+        @Test
+        public void test_分割して結合した結果は全体の集計と一致する() {
+            double[] values = gaussian(3000, 5d, 2d);
+            values[2500] = 1E250;
+            double[] weights = new double[values.length];
+            Arrays.fill(weights, 0.5d);
+            weights[100] = 3d;
+
+            MomentAccumulator whole = MomentAccumulator.of(values, weights);
+
+            // 規格化の有無, 重みの基準が異なる部分を結合する
+            MomentAccumulator[] parts = new MomentAccumulator[4];
+            int[] bounds = { 0, 50, 1500, 2600, values.length };
+            for (int c = 0; c < parts.length; c++) {
+                parts[c] = MomentAccumulator.of(
+                        Arrays.copyOfRange(values, bounds[c], bounds[c + 1]),
+                        Arrays.copyOfRange(weights, bounds[c], bounds[c + 1]));
+            }
+            MomentAccumulator combined = MomentAccumulator.combine(parts);
+
+            assertRelativelyClose(combined.std(), whole.std());
+            assertRelativelyClose(combined.mean(), whole.mean());
+            assertRelativelyClose(combined.sampleSize(), whole.sampleSize());
+            assertRelativelyClose(combined.totalWeight(), whole.totalWeight());
+        }
+
+        @Test
+        public void test_空の集計器との結合() {
+            MomentAccumulator moments = new MomentAccumulator();
+            MomentAccumulator other = new MomentAccumulator();
+            other.accept(1d);
+            other.accept(2d);
+
+            moments.merge(new MomentAccumulator());
+            moments.merge(other);
+            moments.merge(new MomentAccumulator());
+
+            assertThat(moments.mean(), is(1.5d));
+            assertThat(moments.std(), is(0.5d));
+            assertThat(Double.isNaN(new MomentAccumulator().std()), is(true));
+        }
+    }
+
+    public static class 除去のテスト {
+
+        @Test
+        public void test_除去した結果は残りの集計と一致する() {
+            double[] values = gaussian(3000, 5d, 2d);
+            double[] weights = new double[values.length];
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] = 1 + i % 3;
+            }
+
+            MomentAccumulator moments = MomentAccumulator.of(values, weights);
+            for (int i = 1000; i < values.length; i++) {
+                moments.remove(values[i], weights[i]);
+            }
+            MomentAccumulator expected = MomentAccumulator.of(
+                    Arrays.copyOf(values, 1000), Arrays.copyOf(weights, 1000));
+
+            assertRelativelyClose(moments.std(), expected.std());
+            assertRelativelyClose(moments.mean(), expected.mean());
+            assertRelativelyClose(moments.sampleSize(), expected.sampleSize());
+            assertRelativelyClose(moments.totalWeight(), expected.totalWeight());
+        }
+
+        @Test
+        public void test_重みの定数倍はモーメントを変えない() {
+            double[] values = gaussian(1000, 5d, 2d);
+            MomentAccumulator moments = MomentAccumulator.of(values);
+            moments.scaleWeights(1E-100);
+
+            MomentAccumulator expected = MomentAccumulator.of(values);
+            assertRelativelyClose(moments.std(), expected.std());
+            assertRelativelyClose(moments.mean(), expected.mean());
+            assertRelativelyClose(moments.sampleSize(), expected.sampleSize());
+            assertRelativelyClose(moments.totalWeight(), 1E-97);
+
+            moments.scaleWeights(1E-300);
+            assertThat(moments.totalWeight(), is(0d));
+        }
+
+        @Test
+        public void test_全て除去すると空になる() {
+            MomentAccumulator moments = new MomentAccumulator();
+            moments.accept(1d);
+            moments.accept(3d);
+            moments.remove(1d, 1d);
+            moments.remove(3d, 1d);
+
+            assertThat(moments.totalWeight(), is(0d));
+            assertThat(Double.isNaN(moments.mean()), is(true));
+
+            moments.accept(2d);
+            assertThat(moments.mean(), is(2d));
+            assertThat(moments.std(), is(0d));
+        }
+    }
+}
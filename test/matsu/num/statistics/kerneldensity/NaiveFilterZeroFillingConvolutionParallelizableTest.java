@@ -94,7 +94,7 @@ final class NaiveFilterZeroFillingConvolutionParallelizableTest {
                 res[i] -= result[i];
             }
 
-            assertThat(DoubleValueUtil.absMax(res), is(lessThan(1E-13)));
+            assertThat(StatisticsForTesting.absMax(res), is(lessThan(1E-13)));
         }
     }
 
@@ -156,7 +156,7 @@ final class NaiveFilterZeroFillingConvolutionParallelizableTest {
                 res[i] -= result[i];
             }
 
-            assertThat(DoubleValueUtil.absMax(res), is(lessThan(1E-13)));
+            assertThat(StatisticsForTesting.absMax(res), is(lessThan(1E-13)));
         }
     }
 
@@ -218,7 +218,7 @@ final class NaiveFilterZeroFillingConvolutionParallelizableTest {
                 res[i] -= result[i];
             }
 
-            assertThat(DoubleValueUtil.absMax(res), is(lessThan(1E-13)));
+            assertThat(StatisticsForTesting.absMax(res), is(lessThan(1E-13)));
         }
     }
 
@@ -280,7 +280,7 @@ final class NaiveFilterZeroFillingConvolutionParallelizableTest {
                 res[i] -= result[i];
             }
 
-            assertThat(DoubleValueUtil.absMax(res), is(lessThan(1E-13)));
+            assertThat(StatisticsForTesting.absMax(res), is(lessThan(1E-13)));
         }
     }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link PatchedDensity1D} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class PatchedDensity1DTest {
+
+    public static final Class<?> TEST_CLASS = PatchedDensity1D.class;
+
+    private static PatchedDensity1D create() {
+        return new PatchedDensity1D(0.25d, GaussianFilterComputation.compute(0.25d));
+    }
+
+    public static class 更新のテスト {
+
+        @Test
+        public void test_密度の総和は1である() {
+            PatchedDensity1D density = create();
+            for (int i = 0; i < 1000; i++) {
+                density.add(ThreadLocalRandom.current().nextGaussian() * 10d);
+            }
+
+            KdeGrid1dDto result = density.evaluateIn(Range.of(-100d, 100d), 1_000_000);
+            double total = 0d;
+            for (double d : result.density) {
+                total += d;
+            }
+            assertThat(total, is(closeTo(1d, 1E-12)));
+            assertThat(result.x[1] - result.x[0], is(closeTo(0.25d, 1E-12)));
+        }
+
+        @Test
+        public void test_除去した結果は残りのみを追加した結果と一致する() {
+            double[] values = new double[3000];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = ThreadLocalRandom.current().nextGaussian() * 10d;
+            }
+            PatchedDensity1D density = create();
+            PatchedDensity1D expected = create();
+            density.add(0d);
+            expected.add(0d);
+            for (int i = 0; i < values.length; i++) {
+                density.add(values[i]);
+                if (i < 1000) {
+                    expected.add(values[i]);
+                }
+            }
+            for (int i = 1000; i < values.length; i++) {
+                assertThat(density.remove(values[i]), is(true));
+            }
+
+            Range range = Range.of(-50d, 50d);
+            KdeGrid1dDto result = density.evaluateIn(range, 1_000_000);
+            KdeGrid1dDto expectedResult = expected.evaluateIn(range, 1_000_000);
+            assertThat(result.x, is(expectedResult.x));
+            for (int i = 0; i < result.size; i++) {
+                assertThat(result.density[i], is(closeTo(expectedResult.density[i], 1E-12)));
+            }
+        }
+
+        @Test
+        public void test_密度の再計算の前後で結果は一致する() {
+            PatchedDensity1D density = create();
+            // 1ページに多数のパッチを与える
+            for (int i = 0; i < PatchedDensity1D.REFRESH_INTERVAL; i++) {
+                density.add(ThreadLocalRandom.current().nextDouble() * 10d);
+            }
+            double total = 0d;
+            for (double d : density.evaluateIn(Range.of(-100d, 100d), 1_000_000).density) {
+                total += d;
+            }
+            assertThat(total, is(closeTo(1d, 1E-12)));
+        }
+
+        @Test
+        public void test_存在しない値は除去できない() {
+            PatchedDensity1D density = create();
+            assertThat(density.remove(1d), is(false));
+            density.add(1d);
+            assertThat(density.remove(100d), is(false));
+            assertThat(density.remove(1d), is(true));
+            assertThat(density.size(), is(0L));
+        }
+    }
+
+    public static class 出力のテスト {
+
+        @Test
+        public void test_間引いた出力は総和を保存する() {
+            PatchedDensity1D density = create();
+            for (int i = 0; i < 1000; i++) {
+                density.add(ThreadLocalRandom.current().nextGaussian() * 10d);
+            }
+
+            KdeGrid1dDto result = density.evaluateIn(Range.of(-100d, 100d), 100);
+            assertThat(result.size, is(lessThanOrEqualTo(100)));
+            double total = 0d;
+            for (double d : result.density) {
+                total += d;
+            }
+            assertThat(total, is(closeTo(1d, 1E-12)));
+        }
+
+        @Test
+        public void test_格子点を含まない範囲は補間する() {
+            PatchedDensity1D density = create();
+            density.add(0d);
+
+            KdeGrid1dDto result = density.evaluateIn(Range.of(0.1d, 0.2d), 100);
+            assertThat(result.size, is(1));
+            assertThat(result.x[0], is(0.1d));
+            assertThat(result.density[0], is(greaterThan(0d)));
+        }
+    }
+}
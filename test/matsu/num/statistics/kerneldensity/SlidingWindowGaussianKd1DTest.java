@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+import matsu.num.statistics.kerneldensity.GaussianKd1D.BandWidthRule;
+import matsu.num.statistics.kerneldensity.GaussianKd1D.ResolutionRule;
+import matsu.num.statistics.kerneldensity.conv.CyclicConvolutions;
+
+/**
+ * {@link SlidingWindowGaussianKd1D} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class SlidingWindowGaussianKd1DTest {
+
+    private static final GaussianKd1D.Factory FACTORY = GaussianKd1D.Factory
+            .of(BandWidthRule.STANDARD, ResolutionRule.STANDARD)
+            .withConvolutionBy(CyclicConvolutions.fftBased());
+
+    private static final Range RANGE = Range.of(-8d, 8d);
+
+    private static double[] gaussian(int size) {
+        return IntStream.range(0, size)
+                .mapToDouble(i -> ThreadLocalRandom.current().nextGaussian())
+                .toArray();
+    }
+
+    public static class 推定のテスト {
+
+        @Test
+        public void test_生データと概ね一致する() {
+            double[] source = gaussian(100_000);
+            double bandWidth = StatisticsForTesting.bandwidth(BandWidthRule.STANDARD, source);
+            SlidingWindowGaussianKd1D window = SlidingWindowGaussianKd1D.of(FACTORY, RANGE, bandWidth, 5);
+            window.addAll(source);
+
+            KdeGrid1dDto expected = FACTORY.createOf(source).evaluateIn(RANGE);
+            KdeGrid1dDto result = window.evaluate();
+
+            assertThat(result.x[0], is(-8d));
+            assertThat(result.x[1] - result.x[0], is(closeTo(bandWidth * 0.25d, 1E-12)));
+            for (int i = 0; i < result.size; i++) {
+                int j = DoubleValueUtil.upperBound(expected.x, result.x[i]) - 1;
+                if (j < 0 || j + 1 >= expected.size) {
+                    continue;
+                }
+                double t = (result.x[i] - expected.x[j]) / (expected.x[j + 1] - expected.x[j]);
+                double interpolated = (1 - t) * expected.density[j] + t * expected.density[j + 1];
+                assertThat(result.density[i], is(closeTo(interpolated, 2E-4)));
+            }
+        }
+
+        @Test
+        public void test_結果は状態が変化するまで再利用される() {
+            SlidingWindowGaussianKd1D window = SlidingWindowGaussianKd1D.of(FACTORY, RANGE, 0.3d, 3);
+            window.addAll(gaussian(100));
+
+            KdeGrid1dDto first = window.evaluate();
+            double expected = first.density[first.size / 2];
+            first.density[first.size / 2] = Double.NaN;
+            assertThat(window.evaluate().density[first.size / 2], is(expected));
+        }
+    }
+
+    public static class 失効のテスト {
+
+        @Test
+        public void test_最も古い区間の値は失効する() {
+            double[][] batches = { gaussian(1000), gaussian(1000), gaussian(1000) };
+            SlidingWindowGaussianKd1D window = SlidingWindowGaussianKd1D.of(FACTORY, RANGE, 0.3d, 2);
+            for (double[] batch : batches) {
+                window.addAll(batch).advance();
+            }
+            // 最後の advance で新しい区間が始まり, 窓には3番目の区間のみが残る
+            SlidingWindowGaussianKd1D expected = SlidingWindowGaussianKd1D.of(FACTORY, RANGE, 0.3d, 2)
+                    .addAll(batches[2]);
+
+            assertThat(window.size(), is(1000L));
+            KdeGrid1dDto result = window.evaluate();
+            KdeGrid1dDto expectedResult = expected.evaluate();
+            for (int i = 0; i < result.size; i++) {
+                assertThat(result.density[i], is(closeTo(expectedResult.density[i], 1E-12)));
+            }
+        }
+
+        @Test(expected = IllegalStateException.class)
+        public void test_全て失効すると評価できない() {
+            SlidingWindowGaussianKd1D window = SlidingWindowGaussianKd1D.of(FACTORY, RANGE, 0.3d, 3);
+            window.addAll(gaussian(10));
+            for (int i = 0; i < 10; i++) {
+                window.advance();
+            }
+            assertThat(window.size(), is(0L));
+            window.evaluate();
+        }
+
+    }
+
+    public static class 範囲外の値のテスト {
+
+        @Test
+        public void test_遠く範囲外の値は格子に置かれないが個数に数える() {
+            double[] source = gaussian(1000);
+            SlidingWindowGaussianKd1D window = SlidingWindowGaussianKd1D.of(FACTORY, RANGE, 0.3d, 1);
+            window.addAll(source);
+            KdeGrid1dDto inRangeOnly = window.evaluate();
+            for (int k = 0; k < 1000; k++) {
+                window.add(100d);
+            }
+
+            assertThat(window.size(), is(2000L));
+            KdeGrid1dDto result = window.evaluate();
+            for (int i = 0; i < result.size; i++) {
+                assertThat(result.density[i], is(closeTo(inRangeOnly.density[i] / 2, 1E-12)));
+            }
+        }
+
+        @Test
+        public void test_範囲の少し外の値の寄与は正しく計算される() {
+            double[] source = { 8.3d, 8.6d, -8.2d };
+            SlidingWindowGaussianKd1D window = SlidingWindowGaussianKd1D.of(FACTORY, RANGE, 0.3d, 1);
+            window.addAll(source);
+
+            KdeGrid1dDto result = window.evaluate();
+            double resolution = result.x[1] - result.x[0];
+            for (int i = 0; i < result.size; i++) {
+                // 格子点ごとの確率値 (密度と格子間隔の積) と比較する
+                double expected = 0d;
+                for (double v : source) {
+                    double z = (result.x[i] - v) / 0.3d;
+                    expected += Math.exp(-z * z / 2) / (0.3d * Math.sqrt(2 * Math.PI) * source.length);
+                }
+                assertThat(result.density[i], is(closeTo(expected * resolution, 5E-4)));
+            }
+        }
+    }
+
+    public static class 生成のテスト {
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_格子が大きすぎる場合は生成できない() {
+            SlidingWindowGaussianKd1D.of(FACTORY, Range.of(0d, 1E+10), 1d, 10);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_区間の個数は1以上でなければならない() {
+            SlidingWindowGaussianKd1D.of(FACTORY, RANGE, 1d, 0);
+        }
+
+        @Test(expected = IllegalArgumentException.class)
+        public void test_バンド幅は正でなければならない() {
+            SlidingWindowGaussianKd1D.of(FACTORY, RANGE, -1d, 10);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link SourceCompaction} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class SourceCompactionTest {
+
+    public static final Class<?> TEST_CLASS = SourceCompaction.class;
+
+    public static class 集計のテスト {
+
+        @Test
+        public void test_度数の総和と台が保存される() {
+            double[] values = IntStream.range(0, 10_000)
+                    .mapToDouble(i -> Math.sin(i))
+                    .toArray();
+            SupportWindow support = new SupportWindow(values);
+            BucketedSource1D result = SourceCompaction.compact(values, null, support, 0.1d);
+
+            assertThat(result, is(notNullValue()));
+            assertThat(result.totalCount, is(10_000d));
+            assertThat(result.support.supportMin, is(lessThanOrEqualTo(support.supportMin)));
+            assertThat(result.support.supportMax, is(greaterThanOrEqualTo(support.supportMax)));
+            double width = 0.1d / SourceCompaction.BINS_PER_BANDWIDTH;
+            assertThat(result.support.supportMin, is(closeTo(support.supportMin, width)));
+            assertThat(result.support.supportMax, is(closeTo(support.supportMax, width)));
+        }
+
+        @Test
+        public void test_重みの総和が保存される() {
+            double[] values = IntStream.range(0, 10_000)
+                    .mapToDouble(i -> Math.sin(i))
+                    .toArray();
+            double[] weights = IntStream.range(0, 10_000)
+                    .mapToDouble(i -> i % 3)
+                    .toArray();
+            BucketedSource1D result = SourceCompaction.compact(
+                    values, weights, new SupportWindow(values), 0.1d);
+
+            assertThat(result.totalCount, is(closeTo(9_999d, 1E-9)));
+        }
+
+        @Test
+        public void test_全て同じ値でも集計できる() {
+            double[] values = new double[100];
+            Arrays.fill(values, 3d);
+            BucketedSource1D result = SourceCompaction.compact(
+                    values, null, new SupportWindow(values), 0d);
+
+            assertThat(result.totalCount, is(100d));
+        }
+    }
+
+    public static class 集計しない場合のテスト {
+
+        @Test
+        public void test_ビンの個数がソースのサイズ以上の場合は集計しない() {
+            double[] values = { 0d, 1d, 2d };
+            assertThat(SourceCompaction.compact(values, null, new SupportWindow(values), 0.1d),
+                    is(nullValue()));
+        }
+
+        @Test
+        public void test_台がバンド幅に比べて広すぎる場合は集計しない() {
+            double[] values = IntStream.range(0, 10_000)
+                    .mapToDouble(i -> i == 0 ? 1E+10 : Math.sin(i))
+                    .toArray();
+            assertThat(SourceCompaction.compact(values, null, new SupportWindow(values), 0.1d),
+                    is(nullValue()));
+        }
+    }
+}
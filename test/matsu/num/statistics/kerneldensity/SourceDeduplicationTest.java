@@ -0,0 +1,107 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link SourceDeduplication} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class SourceDeduplicationTest {
+
+    public static final Class<?> TEST_CLASS = SourceDeduplication.class;
+
+    public static class 集約の判定のテスト {
+
+        @Test
+        public void test_異なる値が少ない場合は集約する() {
+            double[] source = IntStream.range(0, SourceDeduplication.MIN_SOURCE_SIZE * 4)
+                    .mapToDouble(i -> i % 100)
+                    .toArray();
+            assertThat(SourceDeduplication.isWorthwhile(source), is(true));
+        }
+
+        @Test
+        public void test_異なる値が多い場合は集約しない() {
+            double[] source = IntStream.range(0, SourceDeduplication.MIN_SOURCE_SIZE * 4)
+                    .mapToDouble(i -> i)
+                    .toArray();
+            assertThat(SourceDeduplication.isWorthwhile(source), is(false));
+        }
+
+        @Test
+        public void test_小さなソースは集約しない() {
+            double[] source = new double[SourceDeduplication.MIN_SOURCE_SIZE - 1];
+            assertThat(SourceDeduplication.isWorthwhile(source), is(false));
+        }
+    }
+
+    public static class 集約のテスト {
+
+        @Test
+        public void test_1次元_重みなし() {
+            // 格子上にない値を含む (並べ替えによる集約)
+            double[] values = { Math.PI, 1d, Math.PI, -0d, 0d, Math.PI };
+            BinningSource1D result = SourceDeduplication.collapse(values, null);
+
+            assertThat(result.values, is(new double[] { -0d, 1d, Math.PI }));
+            assertThat(result.weights, is(new double[] { 2d, 1d, 3d }));
+            assertThat(result.totalWeight, is(6d));
+            assertThat(result.sorted, is(true));
+        }
+
+        @Test
+        public void test_1次元_格子上の値() {
+            // 格子上の値 (計数による集約)
+            double[] values = { 0.3d, 0.1d, 0.3d, 0.25d, 0.3d };
+            BinningSource1D result = SourceDeduplication.collapse(values, null);
+
+            assertThat(result.values, is(new double[] { 0.1d, 0.25d, 0.3d }));
+            assertThat(result.weights, is(new double[] { 1d, 1d, 3d }));
+            assertThat(result.totalWeight, is(5d));
+            assertThat(result.sorted, is(true));
+        }
+
+        @Test
+        public void test_1次元_重み付き() {
+            double[] values = { Math.PI, 1d, Math.PI };
+            double[] weights = { 0.5d, 2d, 0.25d };
+            BinningSource1D result = SourceDeduplication.collapse(values, weights);
+
+            assertThat(result.values, is(new double[] { 1d, Math.PI }));
+            assertThat(result.weights, is(new double[] { 2d, 0.75d }));
+            assertThat(result.totalWeight, is(2.75d));
+        }
+
+        @Test
+        public void test_2次元() {
+            Kde2DSourceDto points = new Kde2DSourceDto(5);
+            double[][] xy = { { 1d, 2d }, { 0d, 5d }, { 1d, 1d }, { 1d, 2d }, { 0d, 5d } };
+            for (int i = 0; i < xy.length; i++) {
+                points.x[i] = xy[i][0];
+                points.y[i] = xy[i][1];
+            }
+            double[] weights = { 1d, 2d, 3d, 4d, 5d };
+            BinningSource2D result = SourceDeduplication.collapse(points, weights);
+
+            assertThat(result.points.size, is(3));
+            assertThat(result.points.x, is(new double[] { 0d, 1d, 1d }));
+            assertThat(result.points.y, is(new double[] { 5d, 1d, 2d }));
+            assertThat(result.weights, is(new double[] { 7d, 3d, 5d }));
+            assertThat(result.totalWeight, is(15d));
+            assertThat(result.sortedByX, is(true));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link SourceIngestion} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class SourceIngestionTest {
+
+    public static final Class<?> TEST_CLASS = SourceIngestion.class;
+
+    private static double[] gaussian(int size, double mean, double std) {
+        double[] out = new double[size];
+        for (int i = 0; i < size; i++) {
+            out[i] = mean + std * ThreadLocalRandom.current().nextGaussian();
+        }
+        return out;
+    }
+
+    private static double[] uniformWeights(int size) {
+        double[] out = new double[size];
+        for (int i = 0; i < size; i++) {
+            out[i] = ThreadLocalRandom.current().nextDouble(0d, 2d);
+        }
+        return out;
+    }
+
+    public static class 一次元ソースのテスト {
+
+        @Test
+        public void test_標準偏差は多パスの計算と一致する() {
+            // 逐次, 並列の両方
+            for (int size : new int[] { 1, 100, 3 * SourceIngestion.MIN_SOURCE_SIZE_IN_PARALLEL + 7 }) {
+                double[] source = gaussian(size, 1E8, 3d);
+                SourceIngestion.Source1D ingested = SourceIngestion.of(source);
+
+                assertThat(ingested.values, is(source));
+                assertThat(ingested.values, is(not(sameInstance(source))));
+                assertThat(ingested.weights, is(nullValue()));
+                assertThat(ingested.sampleSize, is((double) size));
+                double expected = StatisticsForTesting.std(source);
+                assertThat(ingested.std, is(closeTo(expected, expected * 1E-12 + 1E-300)));
+            }
+        }
+
+        @Test
+        public void test_巨大な値でもオーバーフローしない() {
+            double[] source = gaussian(1000, 0d, 1E300);
+            double expected = StatisticsForTesting.std(source);
+            assertThat(SourceIngestion.of(source).std, is(closeTo(expected, expected * 1E-12)));
+        }
+
+        @Test
+        public void test_無限大は境界値として集計される() {
+            double[] source = { Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY };
+            SourceIngestion.Source1D ingested = SourceIngestion.of(source);
+
+            assertThat(ingested.values, is(source));
+            assertThat(ingested.std, is(closeTo(Double.MAX_VALUE, Double.MAX_VALUE * 1E-15)));
+        }
+
+        @Test
+        public void test_NaNを含む場合や空の場合はnull() {
+            double[] source = gaussian(2 * SourceIngestion.MIN_SOURCE_SIZE_IN_PARALLEL, 0d, 1d);
+            source[source.length - 1] = Double.NaN;
+            assertThat(SourceIngestion.of(source), is(nullValue()));
+            assertThat(SourceIngestion.of(new double[0]), is(nullValue()));
+        }
+    }
+
+    public static class 重み付き一次元ソースのテスト {
+
+        @Test
+        public void test_統計量は多パスの計算と一致する() {
+            for (int size : new int[] { 1, 100, 3 * SourceIngestion.MIN_SOURCE_SIZE_IN_PARALLEL + 7 }) {
+                double[] values = gaussian(size, -5E7, 2d);
+                double[] weights = uniformWeights(size);
+                weights[0] = 1d;
+                SourceIngestion.Source1D ingested = SourceIngestion.of(values, weights);
+
+                assertThat(ingested.values, is(values));
+                assertThat(ingested.weights, is(weights));
+                double expectedStd = StatisticsForTesting.weightedStd(values, weights);
+                double expectedSize = StatisticsForTesting.effectiveSampleSize(weights);
+                assertThat(ingested.std, is(closeTo(expectedStd, expectedStd * 1E-12 + 1E-300)));
+                assertThat(ingested.sampleSize, is(closeTo(expectedSize, expectedSize * 1E-12)));
+            }
+        }
+
+        @Test
+        public void test_巨大な重みでもオーバーフローしない() {
+            double[] values = gaussian(100, 0d, 1d);
+            double[] weights = uniformWeights(100);
+            for (int i = 0; i < weights.length; i++) {
+                weights[i] *= 1E300;
+            }
+            SourceIngestion.Source1D ingested = SourceIngestion.of(values, weights);
+
+            double expectedSize = StatisticsForTesting.effectiveSampleSize(weights);
+            assertThat(ingested.sampleSize, is(closeTo(expectedSize, expectedSize * 1E-12)));
+        }
+
+        @Test
+        public void test_不正な重みはnull() {
+            double[] values = { 1d, 2d };
+            assertThat(SourceIngestion.of(values, new double[] { 1d, -1d }), is(nullValue()));
+            assertThat(SourceIngestion.of(values, new double[] { 1d, Double.POSITIVE_INFINITY }), is(nullValue()));
+            assertThat(SourceIngestion.of(values, new double[] { 0d, 0d }), is(nullValue()));
+            assertThat(SourceIngestion.of(values, new double[] { 1d }), is(nullValue()));
+            assertThat(SourceIngestion.of(values, new double[] { Double.MAX_VALUE, Double.MAX_VALUE }),
+                    is(nullValue()));
+        }
+    }
+
+    public static class 二次元ソースのテスト {
+
+        @Test
+        public void test_各軸の標準偏差は多パスの計算と一致する() {
+            int size = 2 * SourceIngestion.MIN_SOURCE_SIZE_IN_PARALLEL + 3;
+            Kde2DWeightedSourceDto source = new Kde2DWeightedSourceDto(size);
+            double[] x = gaussian(size, 10d, 1d);
+            double[] y = gaussian(size, -3d, 1E-3);
+            double[] weights = uniformWeights(size);
+            System.arraycopy(x, 0, source.x, 0, size);
+            System.arraycopy(y, 0, source.y, 0, size);
+            System.arraycopy(weights, 0, source.weight, 0, size);
+
+            SourceIngestion.Source2D ingested = SourceIngestion.of(source);
+            assertThat(ingested.points.x, is(x));
+            assertThat(ingested.points.y, is(y));
+            assertThat(ingested.weights, is(weights));
+            double expectedX = StatisticsForTesting.weightedStd(x, weights);
+            double expectedY = StatisticsForTesting.weightedStd(y, weights);
+            double expectedSize = StatisticsForTesting.effectiveSampleSize(weights);
+            assertThat(ingested.stdX, is(closeTo(expectedX, expectedX * 1E-12)));
+            assertThat(ingested.stdY, is(closeTo(expectedY, expectedY * 1E-12)));
+            assertThat(ingested.sampleSize, is(closeTo(expectedSize, expectedSize * 1E-12)));
+
+            Kde2DSourceDto unweighted = new Kde2DSourceDto(size);
+            System.arraycopy(x, 0, unweighted.x, 0, size);
+            System.arraycopy(y, 0, unweighted.y, 0, size);
+            SourceIngestion.Source2D ingestedUnweighted = SourceIngestion.of(unweighted);
+            assertThat(ingestedUnweighted.weights, is(nullValue()));
+            assertThat(ingestedUnweighted.sampleSize, is((double) size));
+            assertThat(ingestedUnweighted.stdY, is(closeTo(StatisticsForTesting.std(y), 1E-15)));
+        }
+
+        @Test
+        public void test_いずれかの軸がNaNを含む場合はnull() {
+            Kde2DSourceDto source = new Kde2DSourceDto(3);
+            source.y[1] = Double.NaN;
+            assertThat(SourceIngestion.of(source), is(nullValue()));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link SourceSorting} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class SourceSortingTest {
+
+    public static final Class<?> TEST_CLASS = SourceSorting.class;
+
+    public static class 二次元ソースの並べ替えのテスト {
+
+        @Test
+        public void test_特殊な値を含むxで昇順になりyが追随する() {
+            double[] xs = {
+                    3d, -0d, Double.POSITIVE_INFINITY, -2.5d, 0d,
+                    Double.NEGATIVE_INFINITY, -Double.MIN_VALUE, 1E300, -2.5d
+            };
+            Kde2DSourceDto source = new Kde2DSourceDto(xs.length);
+            for (int i = 0; i < xs.length; i++) {
+                source.x[i] = xs[i];
+                source.y[i] = i;
+            }
+
+            SourceSorting.sortByX(source);
+
+            assertThat(source.x, is(new double[] {
+                    Double.NEGATIVE_INFINITY, -2.5d, -2.5d, -Double.MIN_VALUE, -0d,
+                    0d, 3d, 1E300, Double.POSITIVE_INFINITY }));
+            // 安定であり, y は対応する x とともに移動する
+            assertThat(source.y, is(new double[] { 5, 3, 8, 6, 1, 4, 0, 7, 2 }));
+        }
+
+        @Test
+        public void test_ランダムなソースの並べ替え() {
+            int size = 10_000;
+            Kde2DSourceDto source = new Kde2DSourceDto(size);
+            for (int i = 0; i < size; i++) {
+                source.x[i] = ThreadLocalRandom.current().nextGaussian();
+                source.y[i] = source.x[i] * 2;
+            }
+
+            SourceSorting.sortByX(source);
+
+            assertThat(DoubleValueUtil.isSorted(source.x), is(true));
+            for (int i = 0; i < size; i++) {
+                assertThat(source.y[i], is(source.x[i] * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.19
+ */
+package matsu.num.statistics.kerneldensity;
+
+/**
+ * テスト用に提供される, 多パスの素朴な計算による統計量の参照実装. <br>
+ * {@link MomentAccumulator} による1度の走査の計算の検証と,
+ * テストの期待値の計算に用いる.
+ * 
+ * @author Matsuura Y.
+ */
+final class StatisticsForTesting {
+
+    private StatisticsForTesting() {
+        // インスタンス化不可
+        throw new AssertionError();
+    }
+
+    /**
+     * データ点を与えて, 1次元のバンド幅の規則によるバンド幅を計算する.
+     * 
+     * @param rule バンド幅の規則
+     * @param source ソース, サイズは1以上の有限値配列
+     * @return バンド幅
+     */
+    static double bandwidth(GaussianKd1D.BandWidthRule rule, double[] source) {
+        return rule.computeBandwidth(std(source), source.length);
+    }
+
+    /**
+     * 重み付きのデータ点を与えて, 1次元のバンド幅の規則によるバンド幅を計算する. <br>
+     * 標準偏差は重み付き標準偏差, サンプルサイズは有効サンプルサイズとする.
+     * 
+     * @param rule バンド幅の規則
+     * @param source ソース, サイズは1以上の有限値配列
+     * @param weights 重み
+     * @return バンド幅
+     */
+    static double bandwidth(GaussianKd1D.BandWidthRule rule, double[] source, double[] weights) {
+        return rule.computeBandwidth(weightedStd(source, weights), effectiveSampleSize(weights));
+    }
+
+    /**
+     * 与えた配列の絶対値最大を計算する. <br>
+     * 空の場合は0が返る.
+     * 
+     * @param v 配列
+     * @return 絶対値最大
+     */
+    static double absMax(double[] v) {
+        double absMax = 0d;
+        for (double e : v) {
+            absMax = Math.max(absMax, Math.abs(e));
+        }
+        return absMax;
+    }
+
+    /**
+     * 与えた配列の平均値を計算する. <br>
+     * 無限大を含む場合は結果は不定である. <br>
+     * 空の場合は NaN が返る.
+     * 
+     * <p>
+     * このメソッドは, 次と等価である. <br>
+     * {@code return average(v, absMax(v));}
+     * </p>
+     * 
+     * @param v 配列
+     * @return vの要素の平均
+     */
+    static double average(double[] v) {
+        return average(v, absMax(v));
+    }
+
+    /**
+     * 安定化用のabsMaxを陽に与えて, 配列の平均値を計算する. <br>
+     * 無限大を含む場合は結果は不定である. <br>
+     * 空の場合は NaN が返る.
+     * 
+     * @param v 配列
+     * @param absMax absMax(v)
+     * @return vの要素の平均
+     */
+    static double average(double[] v, double absMax) {
+        if (v.length == 0) {
+            return Double.NaN;
+        }
+
+        final double largeLimit = 6.668014432879854274e+240; // 2^800
+        if (absMax >= largeLimit) {
+            return averageHuge(v);
+        }
+
+        double currentAverage = 0d;
+        // 2回平均化を試みる:精度向上の期待
+        for (int c = 0; c < 2; c++) {
+            double sum = 0d;
+            for (double e : v) {
+                sum += e - currentAverage;
+            }
+            currentAverage += sum / v.length;
+        }
+
+        return currentAverage;
+    }
+
+    /**
+     * vの要素が大きすぎる場合の, vの平均の計算.
+     * 
+     * <p>
+     * 引数には空でない配列が渡されなければならない.
+     * </p>
+     * 
+     * <p>
+     * 実装の詳細: <br>
+     * (この説明は古いかもしれない) <br>
+     * 要素を2^800 (正確に, およそ 1E+240) で割って平均を計算し,
+     * 最後に戻す.
+     * </p>
+     */
+    private static double averageHuge(double[] v) {
+
+        final double largeCoeff = 6.668014432879854274e+240; // 2^800
+        final double invLargeCoeff = 1d / largeCoeff; // 2^(-800)
+
+        double currentAverage = 0d;
+        // 2回平均化を試みる:精度向上の期待
+        for (int c = 0; c < 2; c++) {
+            final double modifiedCurrentAverage = currentAverage * invLargeCoeff;
+            double sum = 0d;
+            for (double e : v) {
+                sum += e * invLargeCoeff - modifiedCurrentAverage;
+            }
+            currentAverage += (sum / v.length) * largeCoeff;
+        }
+
+        return currentAverage;
+    }
+
+    /**
+     * 与えた配列の center に対する二乗平均平方根 (RMS) を計算する. <br>
+     * 有限の値しか含まない場合であっても, 無限大が返る場合がある
+     * (巨大要素と center が逆符号の場合). <br>
+     * 無限大を含む場合は結果は不定である. <br>
+     * 空の場合は NaN が返る.
+     * 
+     * <p>
+     * center に average を与えた場合は, (n で割るタイプの) 標準偏差が返る.
+     * </p>
+     * 
+     * <p>
+     * このメソッドは, 次と等価である. <br>
+     * {@code return rms(v, center, absMax(v));}
+     * </p>
+     * 
+     * @param v 配列
+     * @param center 中心
+     * @param absMax absMax(v)
+     * @return vの要素の center に対する RMS
+     */
+    static double rms(double[] v, double center) {
+        return rms(v, center, absMax(v));
+    }
+
+    /**
+     * 安定化用のabsMaxを陽に与えて, 配列の center に対する二乗平均平方根 (RMS) を計算する. <br>
+     * 有限の値しか含まない場合であっても, 無限大が返る場合がある
+     * (巨大要素と center が逆符号の場合). <br>
+     * 無限大を含む場合は結果は不定である. <br>
+     * 空の場合は NaN が返る.
+     * 
+     * <p>
+     * center に average を与えた場合は, (n で割るタイプの) 標準偏差が返る.
+     * </p>
+     * 
+     * @param v 配列
+     * @param center 中心
+     * @param absMax absMax(v)
+     * @return vの要素の center に対する RMS
+     */
+    static double rms(double[] v, double center, double absMax) {
+        if (v.length == 0) {
+            return Double.NaN;
+        }
+
+        final double largeLimit = 2.58224987808690859e+120; // 2^400
+        if (absMax >= largeLimit || Math.abs(center) >= largeLimit) {
+            return rmsHuge(v, center);
+        }
+
+        double sum = 0d;
+        for (double e : v) {
+            double diff = e - center;
+            sum += diff * diff;
+        }
+        return Math.sqrt(sum / v.length);
+    }
+
+    /**
+     * vの要素が大きすぎる場合の, vのRMSの計算.
+     * 
+     * <p>
+     * 引数には空でない配列が渡されなければならない.
+     * </p>
+     * 
+     * <p>
+     * 実装の詳細: <br>
+     * (この説明は古いかもしれない) <br>
+     * 要素を2^800 (正確に, およそ 1E+240) で割ってRMSを計算し,
+     * 最後に戻す.
+     * </p>
+     */
+    private static double rmsHuge(double[] v, double center) {
+
+        final double largeCoeff = 6.668014432879854274e+240; // 2^800
+        final double invLargeCoeff = 1d / largeCoeff; // 2^(-800)
+
+        double modifiedCenter = center * invLargeCoeff;
+        double sum = 0d;
+        for (double e : v) {
+            double mdiff = e * invLargeCoeff - modifiedCenter;
+            sum += mdiff * mdiff;
+        }
+        return Math.sqrt((sum / v.length)) * largeCoeff;
+    }
+
+    /**
+     * 与えた配列の (n で割るタイプの) 標準偏差を計算する. <br>
+     * 無限大を含む場合は結果は不定である. <br>
+     * 空の場合は NaN が返る.
+     * 
+     * <p>
+     * このメソッドは, 次と等価である. <br>
+     * {@code double absMax = absMax(v);} <br>
+     * {@code return rms(v, average(v, absMax), absMax);}
+     * </p>
+     * 
+     * <p>
+     * このメソッドは配列を4回走査する. <br>
+     * 本体のコードでは, 1度の走査で (並列に) 計算する {@link MomentAccumulator} を用いる.
+     * </p>
+     * 
+     * @param v 配列
+     * @return vの要素の (n で割るタイプの) 標準偏差
+     */
+    static double std(double[] v) {
+        double absMax = absMax(v);
+        return rms(v, average(v, absMax), absMax);
+    }
+
+    /**
+     * 重み付きの配列の (重みの総和で割るタイプの) 標準偏差を計算する. <br>
+     * 無限大を含む場合は結果は不定である.
+     * 
+     * <p>
+     * 配列 v, w は同じ長さで空でなく,
+     * 重み w は0以上の有限値で, 少なくとも1個が正でなければならない. <br>
+     * 重みは内部で最大値により規格化されるため, 重みの総和がオーバーフローすることはない.
+     * </p>
+     * 
+     * @param v 配列
+     * @param w 重み
+     * @return vの要素の重み付き標準偏差
+     */
+    static double weightedStd(double[] v, double[] w) {
+        assert v.length == w.length && v.length > 0;
+
+        final double invMaxWeight = 1d / absMax(w);
+        final double absMax = absMax(v);
+        final double largeLimit = 2.58224987808690859e+120; // 2^400
+        final double scale = absMax >= largeLimit
+                ? 6.668014432879854274e+240 // 2^800
+                : 1d;
+        final double invScale = 1d / scale;
+
+        double totalWeight = 0d;
+        for (double e : w) {
+            totalWeight += e * invMaxWeight;
+        }
+
+        // 2回平均化を試みる:精度向上の期待
+        double currentAverage = 0d;
+        for (int c = 0; c < 2; c++) {
+            double sum = 0d;
+            for (int i = 0; i < v.length; i++) {
+                sum += (w[i] * invMaxWeight) * (v[i] * invScale - currentAverage);
+            }
+            currentAverage += sum / totalWeight;
+        }
+
+        double sum = 0d;
+        for (int i = 0; i < v.length; i++) {
+            double diff = v[i] * invScale - currentAverage;
+            sum += (w[i] * invMaxWeight) * diff * diff;
+        }
+        return Math.sqrt(sum / totalWeight) * scale;
+    }
+
+    /**
+     * 重みの有効サンプルサイズ (&Sigma;<i>w</i>)<sup>2</sup>/&Sigma;<i>w</i><sup>2</sup> を計算する.
+     * 
+     * <p>
+     * 重み w は空でなく, 0以上の有限値で, 少なくとも1個が正でなければならない. <br>
+     * 全ての重みが等しい場合, 配列の長さに一致する.
+     * </p>
+     * 
+     * @param w 重み
+     * @return 有効サンプルサイズ
+     */
+    static double effectiveSampleSize(double[] w) {
+        final double invMaxWeight = 1d / absMax(w);
+
+        double sum = 0d;
+        double sumSquare = 0d;
+        for (double e : w) {
+            double normalized = e * invMaxWeight;
+            sum += normalized;
+            sumSquare += normalized * normalized;
+        }
+        return sum * sum / sumSquare;
+    }
+}
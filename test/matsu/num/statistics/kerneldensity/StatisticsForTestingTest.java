@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static matsu.num.statistics.kerneldensity.StatisticsForTesting.*;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link StatisticsForTesting} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class StatisticsForTestingTest {
+
+    public static final Class<?> TEST_CLASS = StatisticsForTesting.class;
+
+    public static class absMaxのテスト {
+
+        @Test
+        public void test_空は0() {
+            double[] v = {};
+            assertThat(absMax(v), is(0d));
+        }
+
+        @Test
+        public void test_サイズ1() {
+            double[] v = { -2d };
+            assertThat(absMax(v), is(2d));
+        }
+
+        @Test
+        public void test_サイズ2() {
+            double[] v = { -2d, -3d };
+            assertThat(absMax(v), is(3d));
+        }
+    }
+
+    public static class averageのテスト {
+
+        @Test
+        public void test_空はNaN() {
+            double[] v = {};
+            assertThat(average(v), is(Double.NaN));
+        }
+
+        @Test
+        public void test_サイズ1() {
+            double[] v = { -2d };
+            assertThat(average(v), is(-2d));
+        }
+
+        @Test
+        public void test_サイズ2() {
+            double[] v = { -2d, -3d };
+            assertThat(average(v), is(-2.5d));
+        }
+
+        @Test
+        public void test_巨大数() {
+            double[] v = { Double.MAX_VALUE, Double.MAX_VALUE * 0.5 };
+            assertThat(average(v), is(Double.MAX_VALUE * 0.75));
+        }
+    }
+
+    public static class rmsとstdのテスト {
+
+        /*
+         * rms メソッドのテストは陽に実行しない.
+         * 全て std のテストの成功で以って, 完了とする.
+         */
+
+        @Test
+        public void test_空はNaN() {
+            double[] v = {};
+            assertThat(std(v), is(Double.NaN));
+        }
+
+        @Test
+        public void test_サイズ1() {
+            double[] v = { -2d };
+            assertThat(std(v), is(0d));
+        }
+
+        @Test
+        public void test_サイズ2() {
+            double[] v = { -2d, -3d };
+            assertThat(std(v), is(0.5d));
+        }
+
+        @Test
+        public void test_巨大数() {
+            double[] v = { Double.MAX_VALUE, Double.MAX_VALUE * 0.5 };
+            assertThat(std(v), is(Double.MAX_VALUE * 0.25));
+        }
+    }
+
+    public static class weightedStdとeffectiveSampleSizeのテスト {
+
+        @Test
+        public void test_重み付き標準偏差は重複させた場合と一致する() {
+            double[] v = { -2d, -3d, 1d };
+            double[] w = { 2d, 1d, 0d };
+            assertThat(weightedStd(v, w), is(closeTo(std(new double[] { -2d, -2d, -3d }), 1E-15)));
+        }
+
+        @Test
+        public void test_重み付き標準偏差は重みの定数倍によらない() {
+            double[] v = { -2d, -3d, 1d };
+            double[] w1 = { 2d, 1d, 0.5d };
+            double[] w2 = { 2E300, 1E300, 0.5E300 };
+            assertThat(weightedStd(v, w2), is(closeTo(weightedStd(v, w1), 1E-15)));
+        }
+
+        @Test
+        public void test_重み付き標準偏差_巨大数() {
+            double[] v = { Double.MAX_VALUE, Double.MAX_VALUE * 0.5 };
+            double[] w = { 1d, 1d };
+            assertThat(weightedStd(v, w), is(Double.MAX_VALUE * 0.25));
+        }
+
+        @Test
+        public void test_有効サンプルサイズ() {
+            assertThat(effectiveSampleSize(new double[] { 3d, 3d, 3d, 3d }), is(4d));
+            assertThat(effectiveSampleSize(new double[] { 1d, 0d, 0d }), is(1d));
+            // (1 + 3)^2 / (1 + 9)
+            assertThat(effectiveSampleSize(new double[] { 1E300, 3E300 }), is(closeTo(1.6d, 1E-15)));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link TileOccupancy2D} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class TileOccupancy2DTest {
+
+    public static final Class<?> TEST_CLASS = TileOccupancy2D.class;
+
+    public static class 占有状態のテスト {
+
+        private static final int T = TileOccupancy2D.TILE_SIZE;
+
+        @Test
+        public void test_非ゼロ要素を含むタイルのみが占有される() {
+            int rows = 3 * T + 1;
+            int cols = 5 * T;
+            double[] matrix = new double[rows * cols];
+            matrix[(T + 2) * cols + (3 * T)] = 1d;
+            matrix[(3 * T) * cols + 0] = 1d;
+
+            TileOccupancy2D occupancy = TileOccupancy2D.of(matrix, rows, cols);
+
+            assertThat(occupancy.tileRows, is(4));
+            assertThat(occupancy.tileCols, is(5));
+            for (int tj = 0; tj < 4; tj++) {
+                for (int tk = 0; tk < 5; tk++) {
+                    boolean expected = (tj == 1 && tk == 3) || (tj == 3 && tk == 0);
+                    assertThat(occupancy.isOccupied(tj, tk), is(expected));
+                }
+            }
+            assertThat(occupancy.occupiedFraction(), is(2d / 20));
+        }
+
+        @Test
+        public void test_列方向の拡張と転置() {
+            int rows = 2 * T;
+            int cols = 6 * T;
+            double[] matrix = new double[rows * cols];
+            matrix[1 * cols + (2 * T)] = 1d;
+
+            // 広がり T + 1 はタイル2個分に相当する
+            TileOccupancy2D dilated = TileOccupancy2D.of(matrix, rows, cols).dilateColumns(T + 1);
+            for (int tk = 0; tk < 6; tk++) {
+                assertThat(dilated.isOccupied(0, tk), is(tk <= 4));
+                assertThat(dilated.isOccupied(1, tk), is(false));
+            }
+
+            TileOccupancy2D transposed = dilated.transpose();
+            assertThat(transposed.rows, is(cols));
+            assertThat(transposed.cols, is(rows));
+            for (int tk = 0; tk < 6; tk++) {
+                assertThat(transposed.isOccupied(tk, 0), is(tk <= 4));
+                assertThat(transposed.isOccupied(tk, 1), is(false));
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+package matsu.num.statistics.kerneldensity;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.Test;
+import org.junit.experimental.runners.Enclosed;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link TiledBinning2D} のテスト.
+ */
+@RunWith(Enclosed.class)
+final class TiledBinning2DTest {
+
+    public static final Class<?> TEST_CLASS = TiledBinning2D.class;
+
+    public static class 逐次ビニングとの比較 {
+
+        @Test
+        public void test_タイル境界を含む格子で逐次ビニングと一致する() {
+            // 格子サイズがタイルの倍数でない場合, 倍数の場合の両方
+            compare(Range.of(-3d, 4d), Range.of(-2d, 5d), 0.1, 0.05, 3, 5);
+            compare(Range.of(0d, 6.3d), Range.of(0d, 3.1d), 0.1, 0.1, 0, 0);
+        }
+
+        @Test
+        public void test_重み付きソースで逐次ビニングと一致する() {
+            Range rangeX = Range.of(-3d, 4d);
+            Range rangeY = Range.of(-2d, 5d);
+            double resolutionX = 0.1;
+            double resolutionY = 0.05;
+
+            int size = 5000;
+            Kde2DSourceDto points = new Kde2DSourceDto(size);
+            double[] weights = new double[size];
+            for (int i = 0; i < size; i++) {
+                points.x[i] = ThreadLocalRandom.current().nextDouble(rangeX.min() - 1d, rangeX.max() + 1d);
+                points.y[i] = ThreadLocalRandom.current().nextDouble(rangeY.min() - 1d, rangeY.max() + 1d);
+                weights[i] = ThreadLocalRandom.current().nextDouble(0d, 3d);
+            }
+            BinningSource2D source = BinningSource2D.of(points, weights, false);
+
+            Mesh2D mesh2d = new Mesh2D(
+                    SupportWindow.mesh(rangeX, resolutionX), SupportWindow.mesh(rangeY, resolutionY),
+                    resolutionX, resolutionY, 3, 5, source);
+            double[] expected = mesh2d.weight;
+
+            int lenX = mesh2d.extendX.length;
+            int lenY = mesh2d.extendY.length;
+            double[] weight = new double[lenX * lenY];
+            TiledBinning2D.bin(
+                    weight, lenX, lenY, source, 0, size,
+                    mesh2d.extendX[0], mesh2d.extendY[0], resolutionX, resolutionY);
+
+            for (int i = 0; i < expected.length; i++) {
+                assertThat(weight[i], is(closeTo(expected[i], 1E-14)));
+            }
+        }
+
+        @Test
+        public void test_並べ替えの作業領域は2回目の評価で再利用される() {
+            int size = 5000;
+            Kde2DSourceDto points = new Kde2DSourceDto(size);
+            for (int i = 0; i < size; i++) {
+                points.x[i] = ThreadLocalRandom.current().nextDouble(-1d, 1d);
+                points.y[i] = ThreadLocalRandom.current().nextDouble(-1d, 1d);
+            }
+            BinningSource2D source = BinningSource2D.of(points, false);
+            // タイル1個の格子 (ブロックの再利用が作業領域の大きさに比べて無視できる)
+            int lenX = 31;
+            int lenY = 31;
+            double resolution = 2d / lenX;
+
+            TiledBinning2D.bin(
+                    new double[lenX * lenY], lenX, lenY, source, 0, size, -1d, -1d, resolution, resolution);
+            long before = DoubleArrayWorkspace.reusedTotalLength();
+            TiledBinning2D.bin(
+                    new double[lenX * lenY], lenX, lenY, source, 0, size, -1d, -1d, resolution, resolution);
+
+            assertThat(DoubleArrayWorkspace.reusedTotalLength() - before, is(greaterThanOrEqualTo(2L * size)));
+        }
+
+        @Test
+        public void test_Morton符号() {
+            assertThat(TiledBinning2D.interleaveBits(0, 0), is(0));
+            assertThat(TiledBinning2D.interleaveBits(0, 1), is(1));
+            assertThat(TiledBinning2D.interleaveBits(1, 0), is(2));
+            assertThat(TiledBinning2D.interleaveBits(1, 1), is(3));
+            assertThat(TiledBinning2D.interleaveBits(2, 0), is(8));
+            assertThat(TiledBinning2D.interleaveBits(3, 5), is(0b011011));
+        }
+
+        private static void compare(Range rangeX, Range rangeY, double resolutionX, double resolutionY,
+                int extSizeX, int extSizeY) {
+
+            // 範囲外の点も含むソース
+            int size = 5000;
+            Kde2DSourceDto source = new Kde2DSourceDto(size);
+            for (int i = 0; i < size; i++) {
+                source.x[i] = ThreadLocalRandom.current().nextDouble(rangeX.min() - 1d, rangeX.max() + 1d);
+                source.y[i] = ThreadLocalRandom.current().nextDouble(rangeY.min() - 1d, rangeY.max() + 1d);
+            }
+
+            // ソースが小さいので, Mesh2D は逐次ビニングを行う
+            Mesh2D mesh2d = new Mesh2D(
+                    rangeX, rangeY, resolutionX, resolutionY, extSizeX, extSizeY, source);
+            double[] expected = mesh2d.weight;
+
+            int lenX = mesh2d.extendX.length;
+            int lenY = mesh2d.extendY.length;
+            double[] weight = new double[lenX * lenY];
+            TiledBinning2D.bin(
+                    weight, lenX, lenY, BinningSource2D.of(source, false), 0, source.size,
+                    mesh2d.extendX[0], mesh2d.extendY[0], resolutionX, resolutionY);
+
+            for (int i = 0; i < expected.length; i++) {
+                assertThat(weight[i], is(closeTo(expected[i], 1E-14)));
+            }
+        }
+    }
+}
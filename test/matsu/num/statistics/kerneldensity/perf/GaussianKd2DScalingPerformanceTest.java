@@ -0,0 +1,97 @@
+/*
+ * Copyright © 2025 Matsuura Y.
+ * 
+ * This software is released under the MIT License.
+ * http://opensource.org/licenses/mit-license.php
+ */
+
+/*
+ * 2026.10.18
+ */
+package matsu.num.statistics.kerneldensity.perf;
+
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import matsu.num.statistics.kerneldensity.GaussianKd2D;
+import matsu.num.statistics.kerneldensity.GaussianKd2D.BandWidthRule;
+import matsu.num.statistics.kerneldensity.GaussianKd2D.ResolutionRule;
+import matsu.num.statistics.kerneldensity.Kde2DSourceDto;
+import matsu.num.statistics.kerneldensity.KdeGrid2dDto;
+import matsu.num.statistics.kerneldensity.KernelDensity2D;
+import matsu.num.statistics.kerneldensity.Range;
+import matsu.num.statistics.kerneldensity.conv.CyclicConvolutions;
+
+/**
+ * {@link GaussianKd2D} の評価における, 並列度に対するスケーリングのテスト.
+ * 
+ * <p>
+ * 並列ストリームは実行中の {@link ForkJoinPool} で処理されるため,
+ * 並列度を指定したプールの中で評価を実行して時間を計測する. <br>
+ * 引数で並列度の列を与える (省略した場合は 1, 2, 4, 8, ... , 利用可能なプロセッサ数).
+ * </p>
+ * 
+ * @author Matsuura Y.
+ */
+final class GaussianKd2DScalingPerformanceTest {
+
+    public static void main(String[] args) throws InterruptedException, ExecutionException {
+
+        int[] parallelisms = args.length > 0
+                ? Arrays.stream(args).mapToInt(Integer::parseInt).toArray()
+                : defaultParallelisms();
+
+        KernelDensity2D kde = GaussianKd2D.Factory
+                .of(BandWidthRule.STANDARD, ResolutionRule.HIGH)
+                .withConvolutionBy(CyclicConvolutions.fftBased())
+                .createOf(source(100_000));
+
+        // ウォームアップ
+        exe(kde, Runtime.getRuntime().availableProcessors(), 20);
+
+        for (int parallelism : parallelisms) {
+            exe(kde, parallelism, 20);
+        }
+    }
+
+    private static void exe(KernelDensity2D kde, int parallelism, int iteration)
+            throws InterruptedException, ExecutionException {
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            double dummy = pool.submit(() -> {
+                double d = 0d;
+                long startTime = System.nanoTime();
+                for (int c = 0; c < iteration; c++) {
+                    KdeGrid2dDto result = kde.evaluateIn(Range.of(-4d, 4d), Range.of(-4d, 4d));
+                    d += result.flatDensity[0];
+                }
+                long endTime = System.nanoTime();
+                System.out.println("parallelism " + parallelism + ": "
+                        + ((double) (endTime - startTime) / iteration * 1E-6) + " ms");
+                return d;
+            }).get();
+            System.out.println("dummy: " + dummy);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int[] defaultParallelisms() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        IntStream powersOf2 = IntStream.iterate(1, p -> p < processors, p -> p * 2);
+        return IntStream.concat(powersOf2, IntStream.of(processors)).toArray();
+    }
+
+    private static Kde2DSourceDto source(int size) {
+        Kde2DSourceDto source = new Kde2DSourceDto(size);
+        for (int i = 0; i < size; i++) {
+            source.x[i] = ThreadLocalRandom.current().nextGaussian();
+            source.y[i] = ThreadLocalRandom.current().nextGaussian();
+        }
+        return source;
+    }
+}